@@ -0,0 +1,75 @@
+package application.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import application.domain.Maze;
+import application.domain.MazeImpl;
+import application.domain.Path;
+import application.service.AStarHeuristic;
+import application.service.AStarPathFinder;
+import application.service.AnytimePathFinder;
+import application.service.AnytimeResult;
+
+/**
+ * Average time of an anytime search from corner to corner under an expansion
+ * budget, against plain A*. A budget of 0 runs until the path is the
+ * cheapest.
+ *
+ * @author vbala
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AnytimeBenchmark {
+
+	@Param({ "2000" })
+	public int size;
+
+	@Param({ "5000", "50000", "0" })
+	public long expansionBudget;
+
+	@Param({ "30" })
+	public int landMinePercent;
+
+	@Param({ "7" })
+	public long seed;
+
+	private AStarPathFinder finder;
+	private AnytimePathFinder anytimeFinder;
+
+	@Setup
+	public void setUp() {
+		Maze maze = new MazeImpl(size, size, size * size / 100 * landMinePercent, seed);
+		finder = new AStarPathFinder(maze, Integer.MAX_VALUE, true);
+		finder.setMarkVisitedNodes(false);
+		anytimeFinder = new AnytimePathFinder(maze, Integer.MAX_VALUE, true);
+		anytimeFinder.setMarkVisitedNodes(false);
+		anytimeFinder.setExpansionBudget(expansionBudget);
+	}
+
+	@Benchmark
+	public AnytimeResult anytime() {
+		return anytimeFinder.search(0, 0, size, size, AStarHeuristic.CHEBYSHEV);
+	}
+
+	@Benchmark
+	public Path aStar() {
+		return finder.findPath(0, 0, size, size, AStarHeuristic.CHEBYSHEV);
+	}
+}
@@ -0,0 +1,94 @@
+package application.bench;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import application.domain.Maze;
+import application.domain.MazeImpl;
+import application.domain.Path;
+import application.service.AStarHeuristic;
+import application.service.AStarPathFinder;
+import application.service.FlowField;
+
+/**
+ * Average time to route a crowd of agents from random free tiles to the end
+ * tile, with one flow field for all of them against one A* search each.
+ *
+ * @author vbala
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FlowFieldBenchmark {
+
+	@Param({ "500", "1000" })
+	public int size;
+
+	@Param({ "16", "256" })
+	public int agents;
+
+	@Param({ "20" })
+	public int landMinePercent;
+
+	@Param({ "42" })
+	public long seed;
+
+	private Maze maze;
+	private AStarPathFinder finder;
+	private int[] startRows;
+	private int[] startCols;
+
+	@Setup
+	public void setUp() {
+		maze = new MazeImpl(size, size, size * size / 100 * landMinePercent, seed);
+		finder = new AStarPathFinder(maze, Integer.MAX_VALUE, true);
+		finder.setMarkVisitedNodes(false);
+
+		startRows = new int[agents];
+		startCols = new int[agents];
+		SplittableRandom random = new SplittableRandom(seed);
+		for (int agent = 0; agent < agents; agent++) {
+			do {
+				startRows[agent] = random.nextInt(size);
+				startCols[agent] = random.nextInt(size);
+			} while (!maze.isPassable(startRows[agent], startCols[agent]));
+		}
+	}
+
+	@Benchmark
+	public long flowField() {
+		FlowField field = new FlowField(maze, size - 1, size - 1);
+		long steps = 0;
+		for (int agent = 0; agent < agents; agent++) {
+			Path path = field.getPath(startRows[agent], startCols[agent]);
+			steps += path == null ? 0 : path.getLength();
+		}
+		return steps;
+	}
+
+	@Benchmark
+	public long searchEach() {
+		long steps = 0;
+		for (int agent = 0; agent < agents; agent++) {
+			Path path = finder.findPath(startRows[agent], startCols[agent], size, size, AStarHeuristic.CHEBYSHEV);
+			steps += path == null ? 0 : path.getLength();
+		}
+		return steps;
+	}
+}
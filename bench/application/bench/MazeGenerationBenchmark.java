@@ -0,0 +1,59 @@
+package application.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import application.domain.GenerationAlgorithm;
+import application.domain.Maze;
+import application.domain.MazeGenerator;
+
+/**
+ * Throughput of building a square maze with a fixed seed, per generator. The
+ * landmine density only applies to the random generator.
+ * 
+ * @author vbala
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MazeGenerationBenchmark {
+
+	@Param({ "100", "500", "1000", "2000" })
+	public int size;
+
+	@Param({ "Random", "Recursive backtracker", "Prim's", "Caves" })
+	public String generator;
+
+	@Param({ "20" })
+	public int landMinePercent;
+
+	@Param({ "42" })
+	public long seed;
+
+	private MazeGenerator mazeGenerator;
+
+	@Setup
+	public void setUp() {
+		mazeGenerator = GenerationAlgorithm.forName(generator).createGenerator(size * size / 100 * landMinePercent);
+	}
+
+	@Benchmark
+	public Maze generate() {
+		return mazeGenerator.createMaze(size, size, seed);
+	}
+}
@@ -0,0 +1,83 @@
+package application.bench;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import application.domain.Maze;
+import application.domain.MazeImpl;
+import application.service.MultiAgentPlan;
+import application.service.MultiAgentPlanner;
+
+/**
+ * Average time to plan collision-free routes for a crowd of agents between
+ * random free tiles with cooperative A*.
+ *
+ * @author vbala
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+public class MultiAgentBenchmark {
+
+	@Param({ "500" })
+	public int size;
+
+	@Param({ "100", "1000" })
+	public int agents;
+
+	@Param({ "20" })
+	public int landMinePercent;
+
+	@Param({ "42" })
+	public long seed;
+
+	private MultiAgentPlanner planner;
+	private int[] starts;
+	private int[] goals;
+
+	@Setup
+	public void setUp() {
+		Maze maze = new MazeImpl(size, size, size * size / 100 * landMinePercent, seed);
+		planner = new MultiAgentPlanner(maze, 4 * size);
+		starts = pickTiles(maze, new SplittableRandom(seed));
+		goals = pickTiles(maze, new SplittableRandom(seed + 1));
+	}
+
+	@Benchmark
+	public MultiAgentPlan plan() {
+		return planner.plan(starts, goals);
+	}
+
+	/**
+	 * Pick a distinct free tile per agent
+	 */
+	private int[] pickTiles(Maze maze, SplittableRandom random) {
+		boolean[] used = new boolean[size * size];
+		int[] tiles = new int[agents];
+		for (int agent = 0; agent < agents; agent++) {
+			int tile;
+			do {
+				tile = random.nextInt(size * size);
+			} while (used[tile] || !maze.isPassable(tile / size, tile % size));
+			used[tile] = true;
+			tiles[agent] = tile;
+		}
+		return tiles;
+	}
+}
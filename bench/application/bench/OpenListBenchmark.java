@@ -0,0 +1,80 @@
+package application.bench;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import application.domain.IndexedBinaryHeap;
+import application.domain.Maze;
+import application.domain.MazeImpl;
+import application.domain.OpenList;
+import application.domain.Path;
+import application.domain.RadixHeap;
+import application.service.AStarHeuristic;
+import application.service.AStarPathFinder;
+
+/**
+ * Throughput of A* from corner to corner with each open list, on mazes where
+ * every move costs 1 and on mazes whose tiles cost up to maxTerrainCost.
+ *
+ * @author vbala
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OpenListBenchmark {
+
+	@Param({ "500", "1000", "2000" })
+	public int size;
+
+	@Param({ "binary", "radix" })
+	public String openList;
+
+	@Param({ "1", "9" })
+	public int maxTerrainCost;
+
+	@Param({ "20" })
+	public int landMinePercent;
+
+	@Param({ "42" })
+	public long seed;
+
+	private AStarPathFinder finder;
+
+	@Setup
+	public void setUp() {
+		Maze maze = new MazeImpl(size, size, size * size / 100 * landMinePercent, seed);
+		if (maxTerrainCost > 1) {
+			SplittableRandom random = new SplittableRandom(seed);
+			for (int row = 0; row < size; row++) {
+				for (int col = 0; col < size; col++) {
+					maze.setTerrainCost(row, col, 1 + random.nextInt(maxTerrainCost));
+				}
+			}
+		}
+
+		OpenList open = openList.equals("radix") ? new RadixHeap(size * size) : new IndexedBinaryHeap(size * size);
+		finder = new AStarPathFinder(maze, Integer.MAX_VALUE, true, open);
+		finder.setMarkVisitedNodes(false);
+	}
+
+	@Benchmark
+	public Path findPath() {
+		return finder.findPath(0, 0, size, size, AStarHeuristic.CHEBYSHEV);
+	}
+}
@@ -0,0 +1,74 @@
+package application.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import application.domain.Maze;
+import application.domain.MazeImpl;
+import application.domain.Path;
+import application.service.Heuristic;
+import application.service.PathFinder;
+import application.service.PathFinderRegistry;
+import application.service.SearchAlgorithm;
+import application.service.SearchContext;
+
+/**
+ * Throughput of solving a fixed maze from corner to corner, per algorithm and
+ * heuristic. The path finder and its search state are reused, as they are in
+ * the UI and the batch service.
+ * 
+ * @author vbala
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PathFinderBenchmark {
+
+	@Param({ "100", "500", "1000", "2000" })
+	public int size;
+
+	@Param({ "Chebyshev", "Euclidean", "Manhattan" })
+	public String heuristic;
+
+	@Param({ "A*", "Jump Point Search", "Bidirectional A*", "Bitboard BFS" })
+	public String algorithm;
+
+	@Param({ "20" })
+	public int landMinePercent;
+
+	@Param({ "42" })
+	public long seed;
+
+	private Maze maze;
+	private PathFinder finder;
+	private Heuristic resolvedHeuristic;
+
+	@Setup
+	public void setUp() {
+		maze = new MazeImpl(size, size, size * size / 100 * landMinePercent, seed);
+		finder = SearchAlgorithm.createPathFinder(algorithm, maze, Integer.MAX_VALUE,
+				new SearchContext(size * size));
+		finder.setMarkVisitedNodes(false);
+		resolvedHeuristic = PathFinderRegistry.getDefault().getHeuristic(heuristic);
+	}
+
+	@Benchmark
+	public Path findPath() {
+		return finder.findPath(0, 0, size, size, resolvedHeuristic);
+	}
+}
@@ -0,0 +1,77 @@
+package application.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import application.domain.Maze;
+import application.domain.MazeImpl;
+import application.domain.Path;
+import application.service.AStarHeuristic;
+import application.service.AStarPathFinder;
+
+/**
+ * Throughput of turning the parents left by a finished search into a
+ * {@link Path}, separated from the search itself
+ * 
+ * @author vbala
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PathReconstructionBenchmark {
+
+	@Param({ "100", "500", "1000", "2000" })
+	public int size;
+
+	@Param({ "20" })
+	public int landMinePercent;
+
+	@Param({ "42" })
+	public long seed;
+
+	private ReconstructingPathFinder finder;
+
+	@Setup
+	public void setUp() {
+		Maze maze = new MazeImpl(size, size, size * size / 100 * landMinePercent, seed);
+		finder = new ReconstructingPathFinder(maze);
+		if (finder.findPath(0, 0, size, size, AStarHeuristic.algorithms[0]) == null) {
+			throw new IllegalStateException("Seed " + seed + " gives an unsolvable " + size + "x" + size + " maze");
+		}
+	}
+
+	@Benchmark
+	public Path buildPath() {
+		return finder.rebuild(size);
+	}
+
+	/**
+	 * Exposes path building on the state of the last search
+	 */
+	private static class ReconstructingPathFinder extends AStarPathFinder {
+
+		private ReconstructingPathFinder(Maze maze) {
+			super(maze, Integer.MAX_VALUE, true);
+			setMarkVisitedNodes(false);
+		}
+
+		private Path rebuild(int size) {
+			return buildPath(getContext().getId(0, 0), getContext().getId(size - 1, size - 1));
+		}
+	}
+}
@@ -0,0 +1,408 @@
+package application.cli;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+import application.domain.GenerationAlgorithm;
+import application.domain.Maze;
+import application.domain.MazeFile;
+import application.domain.MazeGenerator;
+import application.domain.MazeImpl;
+import application.domain.SearchStatistics;
+import application.domain.SolveJob;
+import application.domain.SolveResult;
+import application.service.AStarHeuristic;
+import application.service.BatchSolveService;
+import application.service.PathFinderRegistry;
+import application.service.SearchAlgorithm;
+import application.service.SearchStatisticsRegistry;
+
+/**
+ * Headless command-line entry point. Generates mazes for a range of seeds, or
+ * loads them from text files, solves each one and streams one record per run
+ * as CSV or NDJSON to standard output.
+ * 
+ * Only the engine packages are used, so no JavaFX classes are ever loaded.
+ * 
+ * @author vbala
+ *
+ */
+public class MazeBatchRunner {
+
+	private static final String USAGE = String.join(System.lineSeparator(),
+			"Usage: MazeBatchRunner [options]",
+			"  --width N          maze width (default 100)",
+			"  --height N         maze height (default 100)",
+			"  --generator NAME   one of " + String.join(", ", GenerationAlgorithm.algorithms) + " (default Random)",
+			"  --mines N          landmines per Random maze (default 20% of the tiles)",
+			"  --terrain N        give every tile of a generated maze a random cost",
+			"                     from 1 to N to move onto (default 1)",
+			"  --seeds N          number of seeded mazes to generate (default 1)",
+			"  --first-seed N     seed of the first maze (default 0)",
+			"  --load FILE        solve a maze file instead, may be repeated. Either a",
+			"                     binary maze file or text with one line per row, '#'",
+			"                     or 'X' for a landmine, anything else free",
+			"  --algorithm NAME   one of " + String.join(", ", PathFinderRegistry.getDefault().getAlgorithmNames())
+					+ " (default A*)",
+			"  --heuristic NAME   one of " + String.join(", ", PathFinderRegistry.getDefault().getHeuristicNames())
+					+ " (default Chebyshev)",
+			"  --format FORMAT    csv or ndjson (default csv)",
+			"  --threads N        mazes solved at once (default one per processor)",
+			"  --summary          print latency percentiles to standard error at the end");
+
+	/** CSV column names, also the NDJSON field names */
+	private static final String[] COLUMNS = { "maze", "width", "height", "landMines", "algorithm", "heuristic",
+			"found", "pathLength", "pathCost", "nodesExpanded", "nodesGenerated", "peakOpenSize", "reopenings",
+			"generateNanos", "searchNanos", "reconstructionNanos", "bytesAllocated" };
+
+	private int width = 100;
+	private int height = 100;
+	private String generator = GenerationAlgorithm.RANDOM.getName();
+	private int landMines = -1;
+	private int maxTerrainCost = 1;
+	private int seeds = 1;
+	private long firstSeed = 0;
+	private List<String> files = new ArrayList<String>();
+	private String algorithm = SearchAlgorithm.A_STAR.getName();
+	private String heuristic = AStarHeuristic.CHEBYSHEV.getName();
+	private boolean ndjson = false;
+	private int threads = Runtime.getRuntime().availableProcessors();
+	private boolean summary = false;
+
+	public static void main(String[] args) {
+		int status = execute(args, System.out, System.err);
+		if (status != 0) {
+			System.exit(status);
+		}
+	}
+
+	/**
+	 * Run the command line, reporting bad options and unreadable files as a
+	 * message rather than a stack trace
+	 * 
+	 * @param args The command-line arguments
+	 * @param out  Where to write the records
+	 * @param err  Where to write errors and the summary
+	 * @return The exit status: 0 on success, 1 if a maze could not be read, 2
+	 *         for bad options
+	 */
+	static int execute(String[] args, PrintStream out, PrintStream err) {
+		MazeBatchRunner runner = new MazeBatchRunner();
+		try {
+			if (!runner.parseArguments(args)) {
+				out.println(USAGE);
+				return 0;
+			}
+			runner.run(out, err);
+		} catch (IllegalArgumentException e) {
+			err.println(e.getMessage());
+			err.println(USAGE);
+			return 2;
+		} catch (IOException e) {
+			err.println(e.getMessage());
+			return 1;
+		}
+		return 0;
+	}
+
+	/**
+	 * Read the command-line options
+	 * 
+	 * @param args The command-line arguments
+	 * @return False if only the usage was asked for
+	 */
+	private boolean parseArguments(String[] args) {
+		for (int i = 0; i < args.length; i++) {
+			String option = args[i];
+			if (option.equals("--help") || option.equals("-h")) {
+				return false;
+			}
+			if (option.equals("--summary")) {
+				summary = true;
+				continue;
+			}
+			if (i + 1 >= args.length) {
+				throw new IllegalArgumentException("Missing value for " + option);
+			}
+
+			String value = args[++i];
+			switch (option) {
+			case "--width":
+				width = parsePositive(option, value);
+				break;
+			case "--height":
+				height = parsePositive(option, value);
+				break;
+			case "--terrain":
+				maxTerrainCost = parsePositive(option, value);
+				if (maxTerrainCost > Maze.MAX_TERRAIN_COST) {
+					throw new IllegalArgumentException("--terrain must be at most " + Maze.MAX_TERRAIN_COST);
+				}
+				break;
+			case "--generator":
+				generator = parseChoice(option, value, GenerationAlgorithm.algorithms);
+				break;
+			case "--mines":
+				landMines = Integer.parseInt(value);
+				break;
+			case "--seeds":
+				seeds = parsePositive(option, value);
+				break;
+			case "--first-seed":
+				firstSeed = Long.parseLong(value);
+				break;
+			case "--load":
+				files.add(value);
+				break;
+			case "--algorithm":
+				algorithm = parseChoice(option, value, PathFinderRegistry.getDefault().getAlgorithmNames());
+				break;
+			case "--heuristic":
+				heuristic = parseChoice(option, value, PathFinderRegistry.getDefault().getHeuristicNames());
+				break;
+			case "--format":
+				ndjson = parseChoice(option, value.toLowerCase(Locale.ROOT), new String[] { "csv", "ndjson" })
+						.equals("ndjson");
+				break;
+			case "--threads":
+				threads = parsePositive(option, value);
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown option " + option);
+			}
+		}
+
+		if (landMines < 0) {
+			landMines = (int) ((long) width * height / 5);
+		}
+		return true;
+	}
+
+	/**
+	 * Solve every maze and write one record per run, in input order. Mazes are
+	 * created and solved a window at a time so memory stays bounded however
+	 * many seeds are run.
+	 * 
+	 * @param out Where to write the records
+	 * @param err Where to write the summary
+	 */
+	private void run(PrintStream out, PrintStream err) throws IOException {
+		if (!ndjson) {
+			out.println(String.join(",", COLUMNS));
+		}
+
+		MazeGenerator mazeGenerator = GenerationAlgorithm.forName(generator).createGenerator(landMines);
+		BatchSolveService service = new BatchSolveService(threads);
+		SearchStatisticsRegistry registry = new SearchStatisticsRegistry();
+		service.setStatisticsRegistry(registry);
+		try {
+			int runs = files.isEmpty() ? seeds : files.size();
+			int window = threads * 4;
+			for (int first = 0; first < runs; first += window) {
+				List<SolveJob> jobs = new ArrayList<SolveJob>();
+				List<String> names = new ArrayList<String>();
+				List<Long> generateTimes = new ArrayList<Long>();
+
+				for (int run = first; run < Math.min(runs, first + window); run++) {
+					long start = System.nanoTime();
+					Maze maze;
+					if (files.isEmpty()) {
+						long seed = firstSeed + run;
+						maze = mazeGenerator.createMaze(width, height, seed);
+						addTerrain(maze, seed);
+						names.add(Long.toString(seed));
+					} else {
+						maze = loadMaze(files.get(run));
+						names.add(files.get(run));
+					}
+					generateTimes.add(System.nanoTime() - start);
+					jobs.add(new SolveJob(maze, algorithm, heuristic));
+				}
+
+				int[] index = { 0 };
+				service.solveAll(jobs).forEachOrdered(result -> {
+					write(out, names.get(index[0]), generateTimes.get(index[0]), result);
+					index[0]++;
+				});
+				out.flush();
+			}
+		} finally {
+			service.shutdown();
+		}
+
+		if (summary) {
+			for (String line : registry.report()) {
+				err.println(line);
+			}
+		}
+	}
+
+	/**
+	 * Give every tile a cost from 1 to {@link #maxTerrainCost}, derived from the
+	 * seed of the maze
+	 */
+	private void addTerrain(Maze maze, long seed) {
+		if (maxTerrainCost == 1) {
+			return;
+		}
+		SplittableRandom random = new SplittableRandom(seed);
+		for (int row = 0; row < maze.getWidth(); row++) {
+			for (int col = 0; col < maze.getHeight(); col++) {
+				maze.setTerrainCost(row, col, 1 + random.nextInt(maxTerrainCost));
+			}
+		}
+	}
+
+	/**
+	 * Write the record for a single run
+	 */
+	private void write(PrintStream out, String name, long generateNanos, SolveResult result) {
+		SolveJob job = result.getJob();
+		Maze maze = job.getMaze();
+		SearchStatistics statistics = result.getStatistics();
+		Object[] values = { name, maze.getWidth(), maze.getHeight(), countLandMines(maze), algorithm, heuristic,
+				result.isSolved(), result.isSolved() ? result.getPath().getLength() : 0,
+				result.isSolved() ? result.getPath().getCost(maze, job.getStartX(), job.getStartY()) : 0,
+				statistics.getNodesExpanded(), statistics.getNodesGenerated(), statistics.getPeakOpenSize(),
+				statistics.getReopenings(), generateNanos, statistics.getSearchTime(),
+				statistics.getReconstructionTime(), statistics.getBytesAllocated() };
+
+		StringBuilder builder = new StringBuilder();
+		if (ndjson) {
+			builder.append('{');
+			for (int i = 0; i < values.length; i++) {
+				if (i > 0) {
+					builder.append(',');
+				}
+				builder.append('"').append(COLUMNS[i]).append("\":");
+				if (values[i] instanceof String) {
+					builder.append('"').append(escapeJson((String) values[i])).append('"');
+				} else {
+					builder.append(values[i]);
+				}
+			}
+			builder.append('}');
+		} else {
+			for (int i = 0; i < values.length; i++) {
+				if (i > 0) {
+					builder.append(',');
+				}
+				builder.append(escapeCsv(String.valueOf(values[i])));
+			}
+		}
+		out.println(builder);
+	}
+
+	/**
+	 * Read a maze: a binary {@link MazeFile}, which is memory-mapped, or text
+	 * with one line per row, '#' or 'X' for a landmine
+	 * 
+	 * @param file The file to read
+	 * @return The maze
+	 */
+	static Maze loadMaze(String file) throws IOException {
+		if (isMazeFile(file)) {
+			return MazeFile.open(Paths.get(file));
+		}
+
+		List<String> rows = new ArrayList<String>();
+		try (BufferedReader reader = Files.newBufferedReader(Paths.get(file), StandardCharsets.UTF_8)) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (!line.isEmpty()) {
+					rows.add(line);
+				}
+			}
+		}
+		if (rows.isEmpty()) {
+			throw new IOException(file + " contains no maze");
+		}
+
+		int mazeWidth = rows.size();
+		int mazeHeight = rows.get(0).length();
+		BitSet landMines = new BitSet(mazeWidth * mazeHeight);
+		for (int row = 0; row < mazeWidth; row++) {
+			String line = rows.get(row);
+			if (line.length() != mazeHeight) {
+				throw new IOException(file + ": row " + (row + 1) + " has " + line.length() + " tiles, expected "
+						+ mazeHeight);
+			}
+			for (int col = 0; col < mazeHeight; col++) {
+				char tile = line.charAt(col);
+				if (tile == '#' || tile == 'X') {
+					landMines.set(row * mazeHeight + col);
+				}
+			}
+		}
+
+		return new MazeImpl(mazeWidth, mazeHeight, landMines);
+	}
+
+	/**
+	 * Check if a file starts with the {@link MazeFile} magic
+	 */
+	private static boolean isMazeFile(String file) throws IOException {
+		try (InputStream in = Files.newInputStream(Paths.get(file))) {
+			byte[] magic = new byte[4];
+			return in.read(magic) == 4 && new String(magic, StandardCharsets.US_ASCII).equals("MAZE");
+		}
+	}
+
+	/**
+	 * Count the landmines of a maze
+	 */
+	private static int countLandMines(Maze maze) {
+		int count = 0;
+		for (int row = 0; row < maze.getWidth(); row++) {
+			for (int col = 0; col < maze.getHeight(); col++) {
+				if (maze.isLandMine(row, col)) {
+					count++;
+				}
+			}
+		}
+		return count;
+	}
+
+	private static int parsePositive(String option, String value) {
+		int number = Integer.parseInt(value);
+		if (number <= 0) {
+			throw new IllegalArgumentException(option + " must be positive");
+		}
+		return number;
+	}
+
+	private static String parseChoice(String option, String value, String[] choices) {
+		return parseChoice(option, value, Arrays.asList(choices));
+	}
+
+	private static String parseChoice(String option, String value, List<String> choices) {
+		for (String choice : choices) {
+			if (choice.equals(value)) {
+				return choice;
+			}
+		}
+		throw new IllegalArgumentException(option + " must be one of " + String.join(", ", choices));
+	}
+
+	private static String escapeCsv(String value) {
+		if (value.indexOf(',') < 0 && value.indexOf('"') < 0) {
+			return value;
+		}
+		return '"' + value.replace("\"", "\"\"") + '"';
+	}
+
+	private static String escapeJson(String value) {
+		return value.replace("\\", "\\\\").replace("\"", "\\\"");
+	}
+}
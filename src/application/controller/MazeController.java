@@ -2,23 +2,30 @@ package application.controller;
 
 import java.io.IOException;
 import java.net.ProtocolException;
-import java.util.Set;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import application.domain.Maze;
 import application.domain.MazeImpl;
-import application.domain.Node;
-import application.domain.Path;
-import application.service.AStarHeuristic;
-import application.service.AStarPathFinder;
+import application.domain.SearchStatistics;
+import application.domain.SolveJob;
+import application.domain.SolveResult;
+import application.service.PathCache;
+import application.service.PathFinder;
+import application.service.PathFinderRegistry;
+import application.service.SearchAlgorithm;
+import application.service.SearchContext;
+import application.service.SearchMonitor;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.concurrent.Task;
 import javafx.fxml.FXML;
+import javafx.scene.canvas.Canvas;
 import javafx.scene.control.Button;
 import javafx.scene.control.ComboBox;
 import javafx.scene.control.TextField;
 import javafx.scene.layout.Pane;
-import javafx.scene.paint.Color;
-import javafx.scene.shape.Rectangle;
 
 /**
  * Controller object handles user events, triggers the internal system, and
@@ -33,6 +40,49 @@ public class MazeController {
 	 */
 	private Maze maze;
 
+	/**
+	 * The path finder for {@link #maze} and the algorithm it runs, kept so its
+	 * search state is reused between solves
+	 */
+	private PathFinder pathFinder;
+	private String pathFinderAlgorithm;
+
+	/**
+	 * True once a path has been shown for {@link #maze}, toggling a landmine then
+	 * solves again
+	 */
+	private boolean pathShown;
+
+	/**
+	 * Search state shared by every path finder created for {@link #maze}
+	 */
+	private SearchContext searchContext;
+
+	/**
+	 * Paths already solved, so solving the same maze again is instant
+	 */
+	private final PathCache pathCache = new PathCache(64, 16L * 1024 * 1024);
+
+	/**
+	 * Draws the maze and the solution onto {@link #mazePane}
+	 */
+	private MazeRenderer mazeRenderer;
+
+	/**
+	 * Runs maze generation and solving off the FX application thread, one task
+	 * at a time
+	 */
+	private final ExecutorService worker = Executors.newSingleThreadExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "maze-worker");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	/**
+	 * The generation or solve currently running, null if idle
+	 */
+	private Task<?> runningTask;
+
 	/**
 	 * GUI components
 	 */
@@ -42,6 +92,9 @@ public class MazeController {
 	@FXML
 	private Button solveMazeButton;
 
+	@FXML
+	private Button cancelButton;
+
 	@FXML
 	private TextField widthTextField;
 
@@ -60,6 +113,9 @@ public class MazeController {
 	@FXML
 	private ComboBox<String> algorithmComboBox;
 
+	@FXML
+	private ComboBox<String> solverComboBox;
+
 	/**
 	 * Initializes the controller class. This method is automatically called after
 	 * the fxml file has been loaded.
@@ -69,10 +125,18 @@ public class MazeController {
 	 */
 	@FXML
 	private void initialize() throws ProtocolException, IOException {
-		String[] algorithmNames = AStarHeuristic.algorithms;
-		ObservableList<String> algorithms = FXCollections.observableArrayList(algorithmNames);
+		PathFinderRegistry registry = PathFinderRegistry.getDefault();
+		ObservableList<String> algorithms = FXCollections.observableArrayList(registry.getHeuristicNames());
 		algorithmComboBox.setItems(algorithms);
 
+		Canvas canvas = new Canvas();
+		mazePane.getChildren().add(canvas);
+		mazeRenderer = new MazeRenderer(canvas);
+
+		ObservableList<String> solvers = FXCollections.observableArrayList(registry.getAlgorithmNames());
+		solverComboBox.setItems(solvers);
+		solverComboBox.getSelectionModel().selectFirst();
+
 		// Event - Create the maze and update GUI
 		createMazeButton.setOnAction((event) -> {
 			initializeMaze(Integer.parseInt(widthTextField.getText()), Integer.parseInt(heightTextField.getText()),
@@ -81,12 +145,27 @@ public class MazeController {
 
 		// Event - Solve the maze and update GUI
 		solveMazeButton.setOnAction((event) -> {
-			executePathFinder(algorithmComboBox.getSelectionModel().getSelectedItem());
+			executePathFinder(solverComboBox.getSelectionModel().getSelectedItem(),
+					algorithmComboBox.getSelectionModel().getSelectedItem());
+		});
+
+		// Event - Toggle the landmine under the mouse and update the path
+		mazePane.setOnMouseClicked((event) -> {
+			toggleLandMine(mazeRenderer.getRowAt(event.getX()), mazeRenderer.getColAt(event.getY()));
+		});
+
+		// Event - Stop the running generation or search
+		cancelButton.setDisable(true);
+		cancelButton.setOnAction((event) -> {
+			if (runningTask != null) {
+				runningTask.cancel();
+			}
 		});
 	}
 
 	/**
-	 * Accept user input and build maze
+	 * Accept user input and build maze. The maze is generated in the background
+	 * and shown once it is ready.
 	 * 
 	 * @param width
 	 * @param height
@@ -94,137 +173,181 @@ public class MazeController {
 	 */
 	public void initializeMaze(int width, int height, int landMineCount) {
 
-		// Clear the existing maze
-		mazePane.getChildren().clear();
-
 		// Initialize maze
-		maze = new MazeImpl(width, height, landMineCount);
+		Task<Maze> task = new Task<Maze>() {
+			@Override
+			protected Maze call() {
+				updateMessage("Creating a " + width + "x" + height + " maze...");
+				return new MazeImpl(width, height, landMineCount);
+			}
+		};
+
+		task.setOnSucceeded((event) -> {
+			taskFinished();
+			if (pathFinder != null) {
+				pathFinder.dispose();
+			}
+			if (maze != null) {
+				pathCache.invalidate(maze);
+			}
+			maze = task.getValue();
+			searchContext = SearchContext.forMaze(maze);
+			pathFinder = null;
+			pathShown = false;
+
+			// Update GUI
+			mazeRenderer.setMaze(maze, mazePane.getPrefWidth(), mazePane.getPrefHeight());
+			mazeOutputLabel.setText("Created a " + width + "x" + height + " maze.");
+		});
+		task.setOnCancelled((event) -> {
+			taskFinished();
+			mazeOutputLabel.setText("Maze creation cancelled.");
+		});
+		task.setOnFailed((event) -> {
+			taskFinished();
+			mazeOutputLabel.setText("Maze creation failed: " + task.getException().getMessage());
+		});
 
-		// Update GUI
-		Pane pane = buildMaze(maze);
-		mazePane.getChildren().add(pane);
+		runTask(task);
 	}
 
 	/**
-	 * Creates a path finding agent and solve for shortest path solution
+	 * Creates a path finding agent and solve for shortest path solution. The
+	 * search runs in the background, reporting its progress, and the path is
+	 * drawn once it is found.
 	 * 
 	 * Called when user selects "SOLVE MAZE" button in GUI
+	 * 
+	 * @param solverToUse    The name of an algorithm in {@link PathFinderRegistry}
+	 * @param algorithmToUse The name of a heuristic in {@link PathFinderRegistry}
 	 */
-	public void executePathFinder(String algorithmToUse) {
-		// Path path;
-		Path newPath;
-
-		AStarPathFinder finder = new AStarPathFinder(maze, 10000, true);
-		newPath = finder.solveMaze(0, 0, maze.getWidth(), maze.getHeight(), algorithmToUse);
-		if (newPath == null) {
-			mazeOutputLabel.setText("Path not found. Try reducing the landmine count!");
-		} else {
-			Pane pane = buildPath(maze, newPath);
-			mazePane.getChildren().add(pane);
-
-			// Print total number of nodes traversed
-			mazeOutputLabel.setText("Total time taken (# of nodes): " + newPath.getNodeSet().size()
-					+ ".  Runtime of A* algorithm: " + newPath.getRunTime() + " ms.");
+	public void executePathFinder(String solverToUse, String algorithmToUse) {
+		if (maze == null) {
+			mazeOutputLabel.setText("Create a maze first!");
+			return;
+		}
+
+		if (pathFinder == null || !solverToUse.equals(pathFinderAlgorithm)) {
+			if (pathFinder != null) {
+				pathFinder.dispose();
+			}
+			pathFinder = SearchAlgorithm.createPathFinder(solverToUse, maze, 10000, searchContext);
+			pathFinder.setPathCache(pathCache);
+			pathFinderAlgorithm = solverToUse;
 		}
+
+		SolveTask task = new SolveTask(pathFinder, new SolveJob(maze, solverToUse, algorithmToUse));
+		task.setOnSucceeded((event) -> {
+			taskFinished();
+			SolveResult result = task.getValue();
+			SearchStatistics statistics = result.getStatistics();
+			mazeRenderer.showPath(result.getPath());
+			pathShown = true;
+			String timing = String.format(Locale.ROOT, "%s took %.2f ms (search %.2f ms), %d nodes expanded.",
+					solverToUse, statistics.getTotalTime() / 1e6, statistics.getSearchTime() / 1e6,
+					statistics.getNodesExpanded());
+			if (!result.isSolved()) {
+				mazeOutputLabel.setText("Path not found. Try reducing the landmine count! " + timing);
+			} else {
+				mazeOutputLabel.setText("Path length: " + result.getPath().getLength() + " tiles. " + timing);
+			}
+		});
+		task.setOnCancelled((event) -> {
+			taskFinished();
+			mazeOutputLabel.setText("Search cancelled.");
+		});
+		task.setOnFailed((event) -> {
+			taskFinished();
+			mazeOutputLabel.setText("Search failed: " + task.getException().getMessage());
+		});
+
+		runTask(task);
 	}
 
 	/**
-	 * Draw the {@link Path} on the {@Maze} displayed in the GUI.
+	 * Place or clear the landmine on a tile. If a path is shown it is solved
+	 * again, which only repairs the previous search when D* Lite is selected.
 	 * 
-	 * Also display the total time taken, etc. This is final draw method.
+	 * Called when user clicks a tile of the maze
 	 * 
-	 * @param path
+	 * @param row The row of the tile, -1 if outside the maze
+	 * @param col The column of the tile, -1 if outside the maze
 	 */
-	private Pane buildPath(Maze maze, Path path) {
-
-		Set<Node> nodeSet = path.getNodeSet();
-		double width = maze.getWidth();
-		double height = maze.getHeight();
+	public void toggleLandMine(int row, int col) {
+		if (maze == null || runningTask != null || row < 0 || col < 0) {
+			return;
+		}
+		if ((row == 0 && col == 0) || (row == maze.getWidth() - 1 && col == maze.getHeight() - 1)) {
+			mazeOutputLabel.setText("The start and end tiles can't hold landmines.");
+			return;
+		}
 
-		Pane pane = new Pane();
-		buildTiles(maze, pane, width, height, nodeSet, true);
+		maze.setLandMine(row, col, !maze.isLandMine(row, col));
+		mazeRenderer.paintTile(row, col);
 
-		return pane;
+		if (pathShown) {
+			executePathFinder(solverComboBox.getSelectionModel().getSelectedItem(),
+					algorithmComboBox.getSelectionModel().getSelectedItem());
+		}
 	}
 
 	/**
-	 * Draw the {@Maze} displayed in the GUI.
-	 * 
-	 * Also display the total time taken, etc. This is final draw method.
+	 * Start a background task. The task's messages are shown in the output
+	 * field and the buttons are disabled, except cancel, until it finishes.
 	 * 
-	 * @param path
+	 * @param task The task to run
 	 */
-	private Pane buildMaze(Maze maze) {
-		double width = maze.getWidth();
-		double height = maze.getHeight();
-		Set<Node> nodeSet = maze.getNodeSet();
-
-		Pane pane = new Pane();
-		buildTiles(maze, pane, width, height, nodeSet, false);
+	private void runTask(Task<?> task) {
+		runningTask = task;
+		createMazeButton.setDisable(true);
+		solveMazeButton.setDisable(true);
+		cancelButton.setDisable(false);
+		mazeOutputLabel.textProperty().bind(task.messageProperty());
+
+		worker.execute(task);
+	}
 
-		return pane;
+	/**
+	 * Restore the controls once the running task has finished, on the FX
+	 * application thread
+	 */
+	private void taskFinished() {
+		runningTask = null;
+		mazeOutputLabel.textProperty().unbind();
+		createMazeButton.setDisable(false);
+		solveMazeButton.setDisable(false);
+		cancelButton.setDisable(true);
 	}
 
 	/**
-	 * Draw {@link Rectangle}s on the {@Pane} to be displayed on the GUI.
-	 * 
-	 * @param pane
-	 * @param width
-	 * @param height
-	 * @return
-	 */
-	private void buildTiles(Maze maze, Pane pane, double width, double height, Set<Node> pathNodeSet,
-			boolean solution) {
-		Rectangle[][] tiles = new Rectangle[(int) width][(int) height];
-
-		double rectangleW = 30;
-		double rectangleH = 30;
-
-		for (int i = 0; i < width; i++) {
-			// Draw rows
-			for (int j = 0; j < height; j++) {
-				// Draw columns
-				tiles[i][j] = new Rectangle();
-				tiles[i][j].setX(i * rectangleW);
-				tiles[i][j].setY(j * rectangleH);
-				tiles[i][j].setWidth(rectangleW);
-				tiles[i][j].setHeight(rectangleH);
-
-				if (i == 0 && j == 0) {
-					tiles[i][j].setFill(Color.GREEN);
-				} else if (i == (width - 1) && j == (height - 1)) {
-					tiles[i][j].setFill(Color.RED);
-				} else {
-					tiles[i][j].setFill(Color.CORAL);
-				}
-
-				tiles[i][j].setStroke(Color.NAVY);
-				pane.getChildren().add(tiles[i][j]);
-			}
+	 * Solves the maze in the background. Doubles as the {@link SearchMonitor} of
+	 * the search, publishing its progress as the task message and stopping it
+	 * when the task is cancelled.
+	 */
+	private static class SolveTask extends Task<SolveResult> implements SearchMonitor {
+
+		private final PathFinder finder;
+		private final SolveJob job;
+
+		private SolveTask(PathFinder finder, SolveJob job) {
+			this.finder = finder;
+			this.job = job;
 		}
 
-		for (Node node : maze.getNodeSet()) {
-			// Draw landmines
-			if (node.isLandMine()) {
-				tiles[node.getRow()][node.getCol()].setFill(Color.BLACK);
+		@Override
+		protected SolveResult call() {
+			updateMessage("Searching...");
+			finder.setSearchMonitor(this);
+			try {
+				return finder.solve(job);
+			} finally {
+				finder.setSearchMonitor(null);
 			}
 		}
 
-		if (solution) {
-			System.out.println("-------Path--------");
-
-			// Flag for drawing the solution on the grid
-			for (Node node : pathNodeSet) {
-				System.out.println("Node: " + node.getRow() + ", " + node.getCol());
-
-				if ((maze.getStartNode().getRow() == node.getRow() && maze.getStartNode().getCol() == node.getCol())
-						|| (maze.getEndNode().getRow() == node.getRow()
-								&& maze.getEndNode().getCol() == node.getCol())) {
-					continue;
-				}
-
-				tiles[node.getRow()][node.getCol()].setFill(Color.YELLOW);
-			}
+		@Override
+		public void searchProgress(long nodesExpanded, int openSize) {
+			updateMessage("Searching... " + nodesExpanded + " nodes expanded, " + openSize + " in the open list.");
 		}
 	}
 
@@ -0,0 +1,224 @@
+package application.controller;
+
+import java.util.BitSet;
+
+import application.domain.Maze;
+import application.domain.Node;
+import application.domain.Path;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.PixelWriter;
+import javafx.scene.paint.Color;
+
+/**
+ * Draws a {@link Maze} and its solution onto a {@link Canvas}.
+ * 
+ * The canvas is sized to fit the available area, so its pixel count is bounded
+ * however many tiles the maze has. A full repaint writes one pixel buffer to
+ * the canvas in a single call; afterwards only tiles whose colour changes,
+ * e.g. the old and new path, are repainted.
+ * 
+ * Every pixel is coloured by one rule, however it is repainted: a pixel holding
+ * the centre of a path tile shows the path, so paths of tiles smaller than a
+ * pixel stay visible, else it shows the tile under its own centre.
+ * 
+ * @author vbala
+ *
+ */
+public class MazeRenderer {
+
+	/** Largest tile size in pixels, small mazes are not blown up further */
+	private static final double MAX_TILE_SIZE = 30;
+
+	/** Tiles at least this big get a grid line */
+	private static final double MIN_GRID_TILE_SIZE = 4;
+
+	private static final int START_COLOR = toArgb(Color.GREEN);
+	private static final int END_COLOR = toArgb(Color.RED);
+	private static final int LAND_MINE_COLOR = toArgb(Color.BLACK);
+	private static final int TILE_COLOR = toArgb(Color.CORAL);
+	private static final int PATH_COLOR = toArgb(Color.YELLOW);
+	private static final int GRID_COLOR = toArgb(Color.NAVY);
+
+	private final Canvas canvas;
+	private Maze maze;
+
+	/** Size of a tile in pixels, below 1 several tiles share a pixel */
+	private double tileSize;
+
+	/** Canvas contents, row-major by pixel y */
+	private int[] pixels;
+	private int canvasWidth;
+	private int canvasHeight;
+
+	/** Tiles of the path currently drawn, by maze index */
+	private BitSet pathTiles = new BitSet();
+
+	/** Number of path tiles whose centre lies in each pixel */
+	private int[] pathCounts;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param canvas The canvas to draw on
+	 */
+	public MazeRenderer(Canvas canvas) {
+		this.canvas = canvas;
+	}
+
+	/**
+	 * Show a new maze, scaled to fit the given area, and repaint everything
+	 * 
+	 * @param maze      The maze to draw
+	 * @param maxWidth  The available width in pixels
+	 * @param maxHeight The available height in pixels
+	 */
+	public void setMaze(Maze maze, double maxWidth, double maxHeight) {
+		this.maze = maze;
+		this.pathTiles = new BitSet();
+
+		// Maze rows run along x and columns along y
+		tileSize = Math.min(MAX_TILE_SIZE, Math.min(maxWidth / maze.getWidth(), maxHeight / maze.getHeight()));
+		canvasWidth = Math.max(1, (int) Math.ceil(maze.getWidth() * tileSize));
+		canvasHeight = Math.max(1, (int) Math.ceil(maze.getHeight() * tileSize));
+		pixels = new int[canvasWidth * canvasHeight];
+		pathCounts = new int[canvasWidth * canvasHeight];
+		canvas.setWidth(canvasWidth);
+		canvas.setHeight(canvasHeight);
+
+		repaint();
+	}
+
+	/**
+	 * Repaint the whole maze and the current path
+	 */
+	public void repaint() {
+		if (maze == null) {
+			return;
+		}
+		paintPixels(0, 0, canvasWidth, canvasHeight);
+	}
+
+	/**
+	 * Show a new path, or none. Only tiles that leave or join the path are
+	 * repainted.
+	 * 
+	 * @param path The path to show, null to clear it
+	 */
+	public void showPath(Path path) {
+		BitSet newTiles = new BitSet();
+		if (path != null) {
+			for (Node node : path.getNodeSet()) {
+				newTiles.set(maze.indexOf(node.getRow(), node.getCol()));
+			}
+		}
+
+		BitSet changed = (BitSet) pathTiles.clone();
+		changed.xor(newTiles);
+		pathTiles = newTiles;
+
+		for (int index = changed.nextSetBit(0); index >= 0; index = changed.nextSetBit(index + 1)) {
+			int row = index / maze.getHeight();
+			int col = index % maze.getHeight();
+			pathCounts[getCentrePixel(row, col)] += newTiles.get(index) ? 1 : -1;
+			paintTile(row, col);
+		}
+	}
+
+	/**
+	 * Repaint the pixels of a single tile, e.g. after its landmine was toggled
+	 * 
+	 * @param row The row of the tile
+	 * @param col The column of the tile
+	 */
+	public void paintTile(int row, int col) {
+		int x0 = (int) Math.floor(row * tileSize);
+		int y0 = (int) Math.floor(col * tileSize);
+		// Every pixel the tile overlaps, which includes those of its centre and
+		// of any tile shown in its place
+		int x1 = Math.min(canvasWidth, Math.max(x0 + 1, (int) Math.ceil((row + 1) * tileSize)));
+		int y1 = Math.min(canvasHeight, Math.max(y0 + 1, (int) Math.ceil((col + 1) * tileSize)));
+		paintPixels(x0, y0, x1, y1);
+	}
+
+	/**
+	 * Get the maze row under an x coordinate of the canvas
+	 * 
+	 * @param x The x coordinate in pixels
+	 * @return The row, or -1 if outside the maze
+	 */
+	public int getRowAt(double x) {
+		int row = (int) Math.floor(x / tileSize);
+		return maze != null && row >= 0 && row < maze.getWidth() ? row : -1;
+	}
+
+	/**
+	 * Get the maze column under a y coordinate of the canvas
+	 * 
+	 * @param y The y coordinate in pixels
+	 * @return The column, or -1 if outside the maze
+	 */
+	public int getColAt(double y) {
+		int col = (int) Math.floor(y / tileSize);
+		return maze != null && col >= 0 && col < maze.getHeight() ? col : -1;
+	}
+
+	/**
+	 * Recompute the pixels of a rectangle of the canvas and write them out in a
+	 * single call
+	 */
+	private void paintPixels(int x0, int y0, int x1, int y1) {
+		boolean grid = tileSize >= MIN_GRID_TILE_SIZE;
+
+		for (int y = y0; y < y1; y++) {
+			int col = Math.min(maze.getHeight() - 1, (int) ((y + 0.5) / tileSize));
+			boolean gridRow = grid && (y == (int) Math.floor(col * tileSize) || y == canvasHeight - 1);
+			for (int x = x0; x < x1; x++) {
+				int row = Math.min(maze.getWidth() - 1, (int) ((x + 0.5) / tileSize));
+				boolean gridCol = grid && (x == (int) Math.floor(row * tileSize) || x == canvasWidth - 1);
+				int color = gridRow || gridCol ? GRID_COLOR : getTileColor(row, col);
+				if (pathCounts[y * canvasWidth + x] > 0 && (color == TILE_COLOR || color == LAND_MINE_COLOR)) {
+					color = PATH_COLOR;
+				}
+				pixels[y * canvasWidth + x] = color;
+			}
+		}
+
+		PixelWriter writer = canvas.getGraphicsContext2D().getPixelWriter();
+		writer.setPixels(x0, y0, x1 - x0, y1 - y0, PixelFormat.getIntArgbInstance(), pixels,
+				y0 * canvasWidth + x0, canvasWidth);
+	}
+
+	/**
+	 * Get the index of the pixel holding the centre of a tile
+	 */
+	private int getCentrePixel(int row, int col) {
+		int x = Math.min(canvasWidth - 1, (int) ((row + 0.5) * tileSize));
+		int y = Math.min(canvasHeight - 1, (int) ((col + 0.5) * tileSize));
+		return y * canvasWidth + x;
+	}
+
+	/**
+	 * Get the colour of a tile
+	 */
+	private int getTileColor(int row, int col) {
+		if (row == 0 && col == 0) {
+			return START_COLOR;
+		} else if (row == maze.getWidth() - 1 && col == maze.getHeight() - 1) {
+			return END_COLOR;
+		} else if (pathTiles.get(maze.indexOf(row, col))) {
+			return PATH_COLOR;
+		} else if (maze.isLandMine(row, col)) {
+			return LAND_MINE_COLOR;
+		}
+		return TILE_COLOR;
+	}
+
+	/**
+	 * Convert a colour to a packed ARGB pixel
+	 */
+	private static int toArgb(Color color) {
+		return ((int) Math.round(color.getOpacity() * 255) << 24) | ((int) Math.round(color.getRed() * 255) << 16)
+				| ((int) Math.round(color.getGreen() * 255) << 8) | (int) Math.round(color.getBlue() * 255);
+	}
+}
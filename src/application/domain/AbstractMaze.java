@@ -0,0 +1,344 @@
+package application.domain;
+
+import java.util.AbstractSet;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Base of the {@link Maze} implementations. Keeps everything but the storage of
+ * the landmine bits: bounds checks, terrain costs, listeners, the modification
+ * count, the fingerprint, visited marks and the {@link Node} view of the tiles.
+ *
+ * Tiles are addressed row-major, the tile at (row, col) has index row * height
+ * + col. Landmines are read and written by row and column, so implementations
+ * may hold more tiles than an int index can address.
+ *
+ * @author vbala
+ *
+ */
+public abstract class AbstractMaze implements Maze {
+
+	protected final int width;
+	protected final int height;
+	private long modificationCount;
+	private long fingerprint;
+	private boolean fingerprintValid;
+	private BitSet visited;
+
+	/** Terrain cost minus one of each tile, null while every tile costs 1 */
+	private byte[] terrain;
+
+	/** Number of tiles costing more than 1 */
+	private int weightedTiles;
+	private final List<MazeListener> listeners = new CopyOnWriteArrayList<MazeListener>();
+
+	/**
+	 * Constructor.
+	 *
+	 * @param width
+	 * @param height
+	 */
+	protected AbstractMaze(int width, int height) {
+		this.width = width;
+		this.height = height;
+	}
+
+	/**
+	 * Check if a tile holds a landmine. The tile is always in bounds.
+	 */
+	protected abstract boolean getLandMineBit(int row, int col);
+
+	/**
+	 * Place or clear the landmine of a tile. The tile is always in bounds and
+	 * always changes.
+	 */
+	protected abstract void setLandMineBit(int row, int col, boolean landMine);
+
+	/**
+	 * Get the index of the first landmine at or after an index, or -1 if there
+	 * is none. Implementations should override this with a word-at-a-time scan.
+	 */
+	protected int nextLandMine(int fromIndex) {
+		for (int index = fromIndex; index < width * height; index++) {
+			if (getLandMineBit(index / height, index % height)) {
+				return index;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Compute the fingerprint of the current landmines, see
+	 * {@link #getFingerprint()}. Scans every landmine, implementations too large
+	 * to scan must override this.
+	 */
+	protected long computeFingerprint() {
+		long hash = mix(((long) width << 32) | height);
+		for (int index = nextLandMine(0); index >= 0; index = nextLandMine(index + 1)) {
+			hash ^= mix(index);
+		}
+		if (terrain != null) {
+			for (int index = 0; index < terrain.length; index++) {
+				hash ^= terrainHash(index, (terrain[index] & 0xFF) + 1);
+			}
+		}
+		return hash;
+	}
+
+	/**
+	 * Hash the terrain cost of a tile for the fingerprint. Tiles costing 1 hash
+	 * to 0, so mazes without terrain costs keep their landmine fingerprint.
+	 */
+	private static long terrainHash(long index, int cost) {
+		return cost == 1 ? 0 : mix(((long) cost << 40) | index);
+	}
+
+	/**
+	 * Forget the fingerprint, e.g. after landmines were placed without
+	 * {@link #setLandMine}
+	 */
+	protected void invalidateFingerprint() {
+		fingerprintValid = false;
+	}
+
+	/**
+	 * Get the {@link Node} at the specified row and column.
+	 *
+	 * @param row
+	 * @param col
+	 * @return
+	 */
+	@Override
+	public Node getNodeAtRowCol(int row, int col) {
+
+		if (isInBounds(row, col)) {
+			return new Node(row, col, getLandMineBit(row, col));
+		}
+
+		return new Node();
+	}
+
+	/**
+	 * Get the start {@link Node}.
+	 */
+	@Override
+	public Node getStartNode() {
+		return getNodeAtRowCol(0, 0);
+	}
+
+	/**
+	 * Get the end {@link Node}.
+	 */
+	@Override
+	public Node getEndNode() {
+		return getNodeAtRowCol(width - 1, height - 1);
+	}
+
+	@Override
+	public int indexOf(int row, int col) {
+		return row * height + col;
+	}
+
+	@Override
+	public boolean isLandMine(int row, int col) {
+		return getLandMineBit(row, col);
+	}
+
+	@Override
+	public boolean isPassable(int row, int col) {
+		return isInBounds(row, col) && !getLandMineBit(row, col);
+	}
+
+	@Override
+	public void setLandMine(int row, int col, boolean landMine) {
+		if (!isInBounds(row, col)) {
+			throw new IndexOutOfBoundsException("Tile (" + row + ", " + col + ") is outside the maze");
+		}
+
+		if (getLandMineBit(row, col) == landMine) {
+			return;
+		}
+
+		setLandMineBit(row, col, landMine);
+		modificationCount++;
+		fingerprint ^= mix((long) row * height + col);
+		for (MazeListener listener : listeners) {
+			listener.landMineChanged(this, row, col, landMine);
+		}
+	}
+
+	@Override
+	public int getTerrainCost(int row, int col) {
+		byte[] terrain = this.terrain;
+		return terrain == null ? 1 : (terrain[indexOf(row, col)] & 0xFF) + 1;
+	}
+
+	/**
+	 * Set the terrain cost of a tile. The costs are only allocated, a byte per
+	 * tile, once a tile costs more than 1.
+	 */
+	@Override
+	public void setTerrainCost(int row, int col, int cost) {
+		if (!isInBounds(row, col)) {
+			throw new IndexOutOfBoundsException("Tile (" + row + ", " + col + ") is outside the maze");
+		}
+		if (cost < 1 || cost > MAX_TERRAIN_COST) {
+			throw new IllegalArgumentException("Terrain cost must be from 1 to " + MAX_TERRAIN_COST);
+		}
+
+		int oldCost = getTerrainCost(row, col);
+		if (oldCost == cost) {
+			return;
+		}
+
+		int index = indexOf(row, col);
+		if (terrain == null) {
+			terrain = new byte[width * height];
+		}
+		terrain[index] = (byte) (cost - 1);
+		weightedTiles += (cost > 1 ? 1 : 0) - (oldCost > 1 ? 1 : 0);
+		modificationCount++;
+		fingerprint ^= terrainHash(index, oldCost) ^ terrainHash(index, cost);
+		for (MazeListener listener : listeners) {
+			listener.terrainCostChanged(this, row, col, cost);
+		}
+	}
+
+	@Override
+	public boolean hasTerrainCosts() {
+		return weightedTiles > 0;
+	}
+
+	/**
+	 * The fingerprint XORs a mixed hash of every landmine index and of every
+	 * terrain cost above 1, so changing a tile updates it in O(1). It is computed
+	 * on first use.
+	 */
+	@Override
+	public long getFingerprint() {
+		if (!fingerprintValid) {
+			fingerprint = computeFingerprint();
+			fingerprintValid = true;
+		}
+		return fingerprint;
+	}
+
+	/**
+	 * Spread the bits of a value, the SplitMix64 finalizer
+	 */
+	protected static long mix(long value) {
+		long z = value + 0x9E3779B97F4A7C15L;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+	@Override
+	public long getModificationCount() {
+		return modificationCount;
+	}
+
+	@Override
+	public void addMazeListener(MazeListener listener) {
+		listeners.add(listener);
+	}
+
+	@Override
+	public void removeMazeListener(MazeListener listener) {
+		listeners.remove(listener);
+	}
+
+	/**
+	 * Record a visited tile. The marks are only allocated once a tile is marked.
+	 */
+	@Override
+	public void markVisitedNode(int x, int y) {
+		if (visited == null) {
+			visited = new BitSet(width * height);
+		}
+		visited.set(indexOf(x, y));
+	}
+
+	/**
+	 * Check if a row and column lie inside the maze
+	 */
+	protected boolean isInBounds(int row, int col) {
+		return row >= 0 && col >= 0 && row < width && col < height;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see application.domain.Maze#getWidthInTiles()
+	 */
+	@Override
+	public int getWidth() {
+		return this.width;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see application.domain.Maze#getHeightInTiles()
+	 */
+	@Override
+	public int getHeight() {
+		return this.height;
+	}
+
+	/**
+	 * Get a read-only view of every tile as a {@link Node}. Nodes are created
+	 * while iterating, nothing is stored.
+	 */
+	@Override
+	public Set<Node> getNodeSet() {
+		return new NodeSetView();
+	}
+
+	/**
+	 * Row-major view of the tiles as {@link Node}s
+	 */
+	private class NodeSetView extends AbstractSet<Node> {
+
+		@Override
+		public Iterator<Node> iterator() {
+			return new Iterator<Node>() {
+				private long index = 0;
+
+				@Override
+				public boolean hasNext() {
+					return index < (long) width * height;
+				}
+
+				@Override
+				public Node next() {
+					if (!hasNext()) {
+						throw new NoSuchElementException();
+					}
+					Node node = getNodeAtRowCol((int) (index / height), (int) (index % height));
+					index++;
+					return node;
+				}
+			};
+		}
+
+		@Override
+		public int size() {
+			return (int) Math.min((long) width * height, Integer.MAX_VALUE);
+		}
+
+		@Override
+		public boolean contains(Object o) {
+			if (!(o instanceof Node)) {
+				return false;
+			}
+			Node node = (Node) o;
+			return isInBounds(node.getRow(), node.getCol());
+		}
+	}
+
+}
@@ -0,0 +1,52 @@
+package application.domain;
+
+import java.util.BitSet;
+import java.util.SplittableRandom;
+
+/**
+ * Carves a perfect maze with the recursive backtracker: a random depth-first
+ * walk which backs up when it runs out of unvisited cells. The stack is an
+ * array, so even multi-million tile mazes cannot overflow the call stack.
+ * Corridors are long and winding with few dead ends.
+ *
+ * @author vbala
+ *
+ */
+public class BacktrackerMazeGenerator extends PerfectMazeGenerator {
+
+	@Override
+	public String getName() {
+		return GenerationAlgorithm.RECURSIVE_BACKTRACKER.getName();
+	}
+
+	@Override
+	protected void carve(Cells cells, SplittableRandom random) {
+		BitSet visited = new BitSet(cells.getCount());
+		int[] stack = new int[cells.getCount()];
+		int[] neighbours = new int[4];
+		int[] unvisited = new int[4];
+
+		int size = 0;
+		stack[size++] = 0;
+		visited.set(0);
+		while (size > 0) {
+			int cell = stack[size - 1];
+			int count = 0;
+			int neighbourCount = cells.getNeighbours(cell, neighbours);
+			for (int i = 0; i < neighbourCount; i++) {
+				if (!visited.get(neighbours[i])) {
+					unvisited[count++] = neighbours[i];
+				}
+			}
+			if (count == 0) {
+				size--;
+				continue;
+			}
+
+			int next = unvisited[random.nextInt(count)];
+			cells.join(cell, next);
+			visited.set(next);
+			stack[size++] = next;
+		}
+	}
+}
@@ -0,0 +1,131 @@
+package application.domain;
+
+import java.util.BitSet;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Grows caves with a cellular automaton. Tiles start as landmines with a fixed
+ * chance, then each step makes a tile a landmine if at least five of the nine
+ * tiles of its 3x3 block are, counting tiles outside the maze as landmines.
+ * Scattered landmines die out and the rest clump into cave walls. Caves need
+ * not be connected to each other.
+ *
+ * The grid is filled and stepped in bands of {@link #ROWS_PER_BAND} rows, in
+ * parallel. Each band has its own random stream derived from the seed, so the
+ * result does not depend on the number of threads.
+ *
+ * @author vbala
+ *
+ */
+public class CaveMazeGenerator implements MazeGenerator {
+
+	/** Usual chance of a tile starting as a landmine */
+	public static final double DEFAULT_FILL = 0.45;
+
+	/** Usual number of steps */
+	public static final int DEFAULT_STEPS = 4;
+
+	/** Number of rows of a band */
+	public static final int ROWS_PER_BAND = 64;
+
+	/** Landmines in a 3x3 block which make its middle tile a landmine */
+	private static final int BIRTH_LIMIT = 5;
+
+	private final double fill;
+	private final int steps;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param fill  The chance of a tile starting as a landmine, 0 to 1
+	 * @param steps The number of automaton steps
+	 */
+	public CaveMazeGenerator(double fill, int steps) {
+		if (fill < 0 || fill > 1) {
+			throw new IllegalArgumentException("Fill must be between 0 and 1");
+		}
+		if (steps < 0) {
+			throw new IllegalArgumentException("Steps must not be negative");
+		}
+		this.fill = fill;
+		this.steps = steps;
+	}
+
+	@Override
+	public String getName() {
+		return GenerationAlgorithm.CAVES.getName();
+	}
+
+	@Override
+	public BitSet generate(int width, int height, long seed) {
+		int bands = (width + ROWS_PER_BAND - 1) / ROWS_PER_BAND;
+		byte[] current = new byte[width * height];
+		byte[] next = new byte[width * height];
+
+		byte[] initial = current;
+		IntStream.range(0, bands).parallel().forEach(band -> {
+			SplittableRandom random = new SplittableRandom(AbstractMaze.mix(seed ^ AbstractMaze.mix(band)));
+			int end = Math.min(width, (band + 1) * ROWS_PER_BAND) * height;
+			for (int tile = band * ROWS_PER_BAND * height; tile < end; tile++) {
+				initial[tile] = (byte) (random.nextDouble() < fill ? 1 : 0);
+			}
+		});
+
+		for (int step = 0; step < steps; step++) {
+			byte[] from = current;
+			byte[] to = next;
+			IntStream.range(0, bands).parallel().forEach(band -> {
+				int end = Math.min(width, (band + 1) * ROWS_PER_BAND);
+				int[] columns = new int[height + 2];
+				for (int row = band * ROWS_PER_BAND; row < end; row++) {
+					step(from, to, width, height, row, columns);
+				}
+			});
+			next = current;
+			current = to;
+		}
+
+		current[0] = 0;
+		current[width * height - 1] = 0;
+		return toBits(current);
+	}
+
+	/**
+	 * Compute a row of the next step. The landmines of each column of the 3x3
+	 * blocks are summed once, then every block adds three of those sums. Tiles
+	 * outside the maze count as landmines.
+	 *
+	 * @param columns Scratch space of height + 2 entries
+	 */
+	private static void step(byte[] from, byte[] to, int width, int height, int row, int[] columns) {
+		int tile = row * height;
+		columns[0] = 3;
+		columns[height + 1] = 3;
+		for (int col = 0; col < height; col++) {
+			int above = row > 0 ? from[tile - height + col] : 1;
+			int below = row < width - 1 ? from[tile + height + col] : 1;
+			columns[col + 1] = above + from[tile + col] + below;
+		}
+		for (int col = 0; col < height; col++) {
+			int count = columns[col] + columns[col + 1] + columns[col + 2];
+			to[tile + col] = (byte) (count >= BIRTH_LIMIT ? 1 : 0);
+		}
+	}
+
+	/**
+	 * Pack one byte per tile into bits, 64 tiles per word in parallel
+	 */
+	private static BitSet toBits(byte[] tiles) {
+		long[] words = new long[(tiles.length + 63) / 64];
+		IntStream.range(0, words.length).parallel().forEach(word -> {
+			long bits = 0;
+			int end = Math.min(tiles.length, (word + 1) * 64);
+			for (int tile = word * 64; tile < end; tile++) {
+				bits |= (long) tiles[tile] << tile;
+			}
+			words[word] = bits;
+		});
+		return BitSet.valueOf(words);
+	}
+}
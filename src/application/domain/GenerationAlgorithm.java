@@ -0,0 +1,90 @@
+package application.domain;
+
+/**
+ * The built-in maze generators, by name
+ *
+ * @author vbala
+ *
+ */
+public enum GenerationAlgorithm {
+
+	RANDOM("Random") {
+		@Override
+		public MazeGenerator createGenerator(int landMineCount) {
+			return new RandomMazeGenerator(landMineCount);
+		}
+	},
+
+	RECURSIVE_BACKTRACKER("Recursive backtracker") {
+		@Override
+		public MazeGenerator createGenerator(int landMineCount) {
+			return new BacktrackerMazeGenerator();
+		}
+	},
+
+	PRIM("Prim's") {
+		@Override
+		public MazeGenerator createGenerator(int landMineCount) {
+			return new PrimMazeGenerator();
+		}
+	},
+
+	CAVES("Caves") {
+		@Override
+		public MazeGenerator createGenerator(int landMineCount) {
+			return new CaveMazeGenerator(CaveMazeGenerator.DEFAULT_FILL, CaveMazeGenerator.DEFAULT_STEPS);
+		}
+	};
+
+	/** The names of the generators, in order */
+	public static final String[] algorithms = names();
+
+	private final String name;
+
+	private GenerationAlgorithm(String name) {
+		this.name = name;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	@Override
+	public String toString() {
+		return name;
+	}
+
+	/**
+	 * Create a generator
+	 *
+	 * @param landMineCount The number of landmines, only used by
+	 *                      {@link #RANDOM}; the others carve or grow their own
+	 * @return The generator
+	 */
+	public abstract MazeGenerator createGenerator(int landMineCount);
+
+	/**
+	 * Get the generator with a name
+	 *
+	 * @param name One of {@link #algorithms}
+	 * @return The generator
+	 * @throws IllegalArgumentException If no generator has the name
+	 */
+	public static GenerationAlgorithm forName(String name) {
+		for (GenerationAlgorithm algorithm : values()) {
+			if (algorithm.name.equals(name)) {
+				return algorithm;
+			}
+		}
+		throw new IllegalArgumentException("Unknown generator " + name);
+	}
+
+	private static String[] names() {
+		GenerationAlgorithm[] algorithms = values();
+		String[] names = new String[algorithms.length];
+		for (int i = 0; i < algorithms.length; i++) {
+			names[i] = algorithms[i].name;
+		}
+		return names;
+	}
+}
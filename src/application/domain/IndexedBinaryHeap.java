@@ -0,0 +1,256 @@
+package application.domain;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * An indexed binary min-heap over the ids [0, capacity).
+ * 
+ * The heap slot of every id is tracked so membership is O(1) and add, poll,
+ * remove and decrease-key are O(log n).
+ * 
+ * @author vbala
+ *
+ */
+public class IndexedBinaryHeap implements OpenList {
+
+	/** Ids in heap order */
+	private int[] heap;
+
+	/** Heap slot of each id, -1 if the id is not in the heap */
+	private int[] positions;
+
+	/** Key of each id */
+	private float[] keys;
+
+	/** Number of ids in the heap */
+	private int size;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param capacity The number of distinct ids the heap can hold
+	 */
+	public IndexedBinaryHeap(int capacity) {
+		this.heap = new int[capacity];
+		this.positions = new int[capacity];
+		this.keys = new float[capacity];
+		Arrays.fill(positions, -1);
+	}
+
+	/**
+	 * Grow the heap so it can hold the ids [0, capacity).
+	 */
+	@Override
+	public void ensureCapacity(int capacity) {
+		int oldCapacity = positions.length;
+		if (capacity <= oldCapacity) {
+			return;
+		}
+
+		heap = Arrays.copyOf(heap, capacity);
+		keys = Arrays.copyOf(keys, capacity);
+		positions = Arrays.copyOf(positions, capacity);
+		Arrays.fill(positions, oldCapacity, capacity, -1);
+	}
+
+	/**
+	 * Get the number of distinct ids the heap can hold
+	 * 
+	 * @return The capacity of the heap
+	 */
+	public int capacity() {
+		return positions.length;
+	}
+
+	/**
+	 * Add an id to the heap. If the id is already present its key is replaced.
+	 */
+	@Override
+	public void add(int id, float key) {
+		if (positions[id] >= 0) {
+			update(id, key);
+			return;
+		}
+
+		keys[id] = key;
+		heap[size] = id;
+		positions[id] = size;
+		siftUp(size++);
+	}
+
+	@Override
+	public int first() {
+		if (size == 0) {
+			throw new NoSuchElementException("Heap is empty");
+		}
+		return heap[0];
+	}
+
+	@Override
+	public int poll() {
+		int id = first();
+		removeAt(0);
+		return id;
+	}
+
+	@Override
+	public void decreaseKey(int id, float key) {
+		int position = positions[id];
+		if (position < 0) {
+			throw new NoSuchElementException("Id " + id + " is not in the heap");
+		}
+		if (key > keys[id]) {
+			throw new IllegalArgumentException("New key " + key + " is greater than current key " + keys[id]);
+		}
+
+		keys[id] = key;
+		siftUp(position);
+	}
+
+	/**
+	 * Change the key of an id which is already in the heap, in either direction.
+	 * 
+	 * @param id  The id to update
+	 * @param key The new key
+	 */
+	public void update(int id, float key) {
+		int position = positions[id];
+		if (position < 0) {
+			throw new NoSuchElementException("Id " + id + " is not in the heap");
+		}
+
+		float oldKey = keys[id];
+		keys[id] = key;
+		if (key < oldKey) {
+			siftUp(position);
+		} else {
+			siftDown(position);
+		}
+	}
+
+	@Override
+	public void remove(int id) {
+		int position = positions[id];
+		if (position >= 0) {
+			removeAt(position);
+		}
+	}
+
+	@Override
+	public boolean contains(int id) {
+		return positions[id] >= 0;
+	}
+
+	/**
+	 * Get the current key of an id in the heap
+	 * 
+	 * @param id The id to look up
+	 * @return The key of the id
+	 */
+	public float getKey(int id) {
+		return keys[id];
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Check if the heap is empty
+	 * 
+	 * @return True if there are no ids in the heap
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Empty the heap. Only the slots still in use are reset, so this is
+	 * proportional to the current size rather than the capacity.
+	 */
+	@Override
+	public void clear() {
+		for (int i = 0; i < size; i++) {
+			positions[heap[i]] = -1;
+		}
+		size = 0;
+	}
+
+	/**
+	 * Remove the id stored at the given heap slot
+	 * 
+	 * @param position The heap slot to clear
+	 */
+	private void removeAt(int position) {
+		int id = heap[position];
+		positions[id] = -1;
+		size--;
+
+		if (position == size) {
+			return;
+		}
+
+		// Move the last id into the hole and restore the heap property
+		int last = heap[size];
+		heap[position] = last;
+		positions[last] = position;
+		if (position > 0 && keys[last] < keys[heap[(position - 1) >>> 1]]) {
+			siftUp(position);
+		} else {
+			siftDown(position);
+		}
+	}
+
+	/**
+	 * Move the id at the given slot towards the root until its parent is smaller
+	 */
+	private void siftUp(int position) {
+		int id = heap[position];
+		float key = keys[id];
+
+		while (position > 0) {
+			int parentPosition = (position - 1) >>> 1;
+			int parent = heap[parentPosition];
+			if (keys[parent] <= key) {
+				break;
+			}
+			heap[position] = parent;
+			positions[parent] = position;
+			position = parentPosition;
+		}
+
+		heap[position] = id;
+		positions[id] = position;
+	}
+
+	/**
+	 * Move the id at the given slot towards the leaves until both children are
+	 * larger
+	 */
+	private void siftDown(int position) {
+		int id = heap[position];
+		float key = keys[id];
+		int half = size >>> 1;
+
+		while (position < half) {
+			int childPosition = 2 * position + 1;
+			int child = heap[childPosition];
+			int rightPosition = childPosition + 1;
+			if (rightPosition < size && keys[heap[rightPosition]] < keys[child]) {
+				childPosition = rightPosition;
+				child = heap[childPosition];
+			}
+			if (key <= keys[child]) {
+				break;
+			}
+			heap[position] = child;
+			positions[child] = position;
+			position = childPosition;
+		}
+
+		heap[position] = id;
+		positions[id] = position;
+	}
+}
@@ -0,0 +1,147 @@
+package application.domain;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of non-negative values, e.g. latencies in nanoseconds, with
+ * log-linear buckets: every power of two is split into 32 equal buckets, so
+ * any recorded value is known to within about 3% using a fixed 15 KB of
+ * counters however many values are recorded.
+ *
+ * Recording is lock-free, several threads may record at once.
+ *
+ * @author vbala
+ *
+ */
+public class LatencyHistogram {
+
+	/** log2 of the number of buckets per power of two */
+	private static final int SUB_BUCKET_BITS = 5;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+	/** Enough buckets for every positive long */
+	private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+	private final LongAdder count = new LongAdder();
+	private final LongAdder sum = new LongAdder();
+	private final LongAccumulator min = new LongAccumulator(Math::min, Long.MAX_VALUE);
+	private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+	/**
+	 * Record a value, negative values count as zero
+	 *
+	 * @param value The value to record
+	 */
+	public void record(long value) {
+		value = Math.max(0, value);
+		counts.incrementAndGet(bucketOf(value));
+		count.increment();
+		sum.add(value);
+		min.accumulate(value);
+		max.accumulate(value);
+	}
+
+	/**
+	 * Get the bucket holding a value. Values below {@link #SUB_BUCKETS} have a
+	 * bucket each, above that the top {@link #SUB_BUCKET_BITS} bits after the
+	 * leading one pick the bucket within the power of two.
+	 */
+	private static int bucketOf(long value) {
+		if (value < SUB_BUCKETS) {
+			return (int) value;
+		}
+		int exponent = 63 - Long.numberOfLeadingZeros(value);
+		int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+		return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+	}
+
+	/**
+	 * Get the largest value that falls in a bucket
+	 */
+	private static long highestValueOf(int bucket) {
+		if (bucket < SUB_BUCKETS) {
+			return bucket;
+		}
+		int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+		long subBucket = bucket % SUB_BUCKETS;
+		long lowest = (SUB_BUCKETS + subBucket) << (exponent - SUB_BUCKET_BITS);
+		return lowest + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+	}
+
+	/**
+	 * Get the value below which a percentage of the recorded values fall. The
+	 * answer is the upper edge of the bucket holding that value, but never more
+	 * than the largest value recorded.
+	 *
+	 * @param percentile The percentage, 0 to 100
+	 * @return The value, 0 if nothing was recorded
+	 */
+	public long getValueAtPercentile(double percentile) {
+		long total = count.sum();
+		if (total == 0) {
+			return 0;
+		}
+
+		long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+		long seen = 0;
+		for (int bucket = 0; bucket < BUCKETS; bucket++) {
+			seen += counts.get(bucket);
+			if (seen >= rank) {
+				return Math.min(highestValueOf(bucket), getMax());
+			}
+		}
+		return getMax();
+	}
+
+	/**
+	 * @return the number of values recorded
+	 */
+	public long getCount() {
+		return count.sum();
+	}
+
+	/**
+	 * @return the mean of the values recorded, 0 if there are none
+	 */
+	public double getMean() {
+		long total = count.sum();
+		return total == 0 ? 0 : (double) sum.sum() / total;
+	}
+
+	/**
+	 * @return the smallest value recorded, 0 if there are none
+	 */
+	public long getMin() {
+		return count.sum() == 0 ? 0 : min.get();
+	}
+
+	/**
+	 * @return the largest value recorded, 0 if there are none
+	 */
+	public long getMax() {
+		return max.get();
+	}
+
+	/**
+	 * Forget every value. Values recorded while clearing may be lost.
+	 */
+	public void clear() {
+		for (int bucket = 0; bucket < BUCKETS; bucket++) {
+			counts.set(bucket, 0);
+		}
+		count.reset();
+		sum.reset();
+		min.reset();
+		max.reset();
+	}
+
+	@Override
+	public String toString() {
+		return "LatencyHistogram [count=" + getCount() + ", mean=" + (long) getMean() + ", p50="
+				+ getValueAtPercentile(50) + ", p90=" + getValueAtPercentile(90) + ", p99="
+				+ getValueAtPercentile(99) + ", max=" + getMax() + "]";
+	}
+}
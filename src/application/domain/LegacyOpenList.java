@@ -0,0 +1,92 @@
+package application.domain;
+
+/**
+ * {@link OpenList} backed by the original {@link SortedList}. Every add sorts
+ * the whole list and every lookup is a linear scan, so this is only kept for
+ * comparison against {@link IndexedBinaryHeap}.
+ * 
+ * @author vbala
+ *
+ */
+public class LegacyOpenList implements OpenList {
+
+	/** The sorted list of entries */
+	private SortedList list = new SortedList();
+
+	@Override
+	public void add(int id, float key) {
+		list.add(new Entry(id, key));
+	}
+
+	@Override
+	public int first() {
+		return ((Entry) list.first()).id;
+	}
+
+	@Override
+	public int poll() {
+		Entry entry = (Entry) list.first();
+		list.remove(entry);
+		return entry.id;
+	}
+
+	@Override
+	public void decreaseKey(int id, float key) {
+		remove(id);
+		add(id, key);
+	}
+
+	@Override
+	public void remove(int id) {
+		list.remove(new Entry(id, 0));
+	}
+
+	@Override
+	public boolean contains(int id) {
+		return list.contains(new Entry(id, 0));
+	}
+
+	@Override
+	public int size() {
+		return list.size();
+	}
+
+	@Override
+	public void clear() {
+		list.clear();
+	}
+
+	@Override
+	public void ensureCapacity(int capacity) {
+		// The list grows as needed
+	}
+
+	/**
+	 * An id and its key. Entries are equal if their ids are equal and are sorted
+	 * by key.
+	 */
+	private static class Entry implements Comparable<Entry> {
+		private final int id;
+		private final float key;
+
+		private Entry(int id, float key) {
+			this.id = id;
+			this.key = key;
+		}
+
+		@Override
+		public int compareTo(Entry other) {
+			return Float.compare(key, other.key);
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			return (o instanceof Entry) && ((Entry) o).id == id;
+		}
+
+		@Override
+		public int hashCode() {
+			return id;
+		}
+	}
+}
@@ -0,0 +1,168 @@
+package application.domain;
+
+import java.util.Arrays;
+
+/**
+ * A hash map from long keys to int values, with open addressing and linear
+ * probing over one primitive array, so nothing is boxed or allocated per
+ * entry. A slot is two longs, the key and then the generation and value, so a
+ * lookup usually touches a single cache line.
+ *
+ * Only slots written in the current generation are in use. Clearing the map
+ * starts a new generation, which is O(1), so a map can be reused for many
+ * small searches after one large one without wiping its array each time.
+ *
+ * @author vbala
+ *
+ */
+public class LongIntHashMap {
+
+	/** Smallest number of slots, the table is kept at most half full */
+	private static final int MIN_CAPACITY = 16;
+
+	/** Keys at even indexes, generation and value at the odd ones */
+	private long[] slots;
+
+	private int generation = 1;
+	private int mask;
+	private int size;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param expectedSize The number of keys to make room for
+	 */
+	public LongIntHashMap(int expectedSize) {
+		int capacity = MIN_CAPACITY;
+		while (capacity < expectedSize * 2L && capacity < 1 << 29) {
+			capacity <<= 1;
+		}
+		allocate(capacity);
+	}
+
+	/**
+	 * Get the value of a key
+	 *
+	 * @param key          The key
+	 * @param defaultValue The value to return if the key is not in the map
+	 * @return The value
+	 */
+	public int get(long key, int defaultValue) {
+		int slot = find(key);
+		return slot < 0 ? defaultValue : (int) slots[slot + 1];
+	}
+
+	/**
+	 * Check if a key is in the map
+	 */
+	public boolean containsKey(long key) {
+		return find(key) >= 0;
+	}
+
+	/**
+	 * Set the value of a key, adding it if needed
+	 *
+	 * @param key   The key
+	 * @param value The value
+	 */
+	public void put(long key, int value) {
+		int slot = slotOf(key);
+		while (generationAt(slot) == generation) {
+			if (slots[slot] == key) {
+				slots[slot + 1] = entry(value);
+				return;
+			}
+			slot = (slot + 2) & mask;
+		}
+
+		slots[slot] = key;
+		slots[slot + 1] = entry(value);
+		if (++size * 4 > slots.length) {
+			grow();
+		}
+	}
+
+	/**
+	 * Get the number of keys in the map
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Check if the map is empty
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Remove every key. The array is kept and only wiped when the generation
+	 * counter wraps around.
+	 */
+	public void clear() {
+		size = 0;
+		if (++generation == Integer.MAX_VALUE) {
+			Arrays.fill(slots, 0);
+			generation = 1;
+		}
+	}
+
+	/**
+	 * Find the slot of a key
+	 *
+	 * @return The index of the key in {@link #slots}, or -1 if the key is not
+	 *         in the map
+	 */
+	private int find(long key) {
+		int slot = slotOf(key);
+		while (generationAt(slot) == generation) {
+			if (slots[slot] == key) {
+				return slot;
+			}
+			slot = (slot + 2) & mask;
+		}
+		return -1;
+	}
+
+	private int slotOf(long key) {
+		return (int) AbstractMaze.mix(key) << 1 & mask;
+	}
+
+	private int generationAt(int slot) {
+		return (int) (slots[slot + 1] >>> 32);
+	}
+
+	private long entry(int value) {
+		return (long) generation << 32 | (value & 0xFFFFFFFFL);
+	}
+
+	/**
+	 * Double the capacity and reinsert the keys of the current generation
+	 */
+	private void grow() {
+		long[] oldSlots = slots;
+		int oldGeneration = generation;
+		allocate(slots.length);
+
+		for (int i = 0; i < oldSlots.length; i += 2) {
+			if ((int) (oldSlots[i + 1] >>> 32) == oldGeneration) {
+				int slot = slotOf(oldSlots[i]);
+				while (generationAt(slot) == generation) {
+					slot = (slot + 2) & mask;
+				}
+				slots[slot] = oldSlots[i];
+				slots[slot + 1] = entry((int) oldSlots[i + 1]);
+			}
+		}
+	}
+
+	/**
+	 * Make an empty table of a number of slots, two longs each
+	 */
+	private void allocate(int capacity) {
+		slots = new long[capacity * 2];
+		generation = 1;
+		mask = capacity * 2 - 1;
+	}
+}
@@ -0,0 +1,114 @@
+package application.domain;
+
+import java.nio.MappedByteBuffer;
+
+/**
+ * A {@link Maze} read straight from a memory-mapped {@link MazeFile}. The
+ * landmine bitmap is never copied, so opening even a 10k x 10k maze only maps
+ * the file and the operating system pages tiles in as they are searched.
+ *
+ * Changed landmines are kept in private copies of the touched pages and never
+ * reach the file. Mazes opened from read-only files cannot be changed.
+ *
+ * @author vbala
+ *
+ */
+public class MappedMaze extends AbstractMaze {
+
+	private final MappedByteBuffer buffer;
+	private final long seed;
+	private long landMineCount;
+
+	/**
+	 * Constructor, use {@link MazeFile#open} to open a file.
+	 *
+	 * @param buffer The whole file, mapped little-endian
+	 * @param width
+	 * @param height
+	 */
+	MappedMaze(MappedByteBuffer buffer, int width, int height) {
+		super(width, height);
+		this.buffer = buffer;
+		this.seed = buffer.getLong(MazeFile.SEED_OFFSET);
+		this.landMineCount = buffer.getLong(MazeFile.LANDMINE_COUNT_OFFSET);
+	}
+
+	/**
+	 * The landmines are read from the file, there is nothing to generate
+	 */
+	@Override
+	public void initialize() {
+	}
+
+	/**
+	 * Get the offset in the file of the bitmap long holding a tile
+	 */
+	private static int wordOffset(int index) {
+		return MazeFile.HEADER_BYTES + ((index >>> 6) << 3);
+	}
+
+	@Override
+	protected boolean getLandMineBit(int row, int col) {
+		int index = indexOf(row, col);
+		return (buffer.getLong(wordOffset(index)) & (1L << index)) != 0;
+	}
+
+	@Override
+	protected void setLandMineBit(int row, int col, boolean landMine) {
+		if (buffer.isReadOnly()) {
+			throw new UnsupportedOperationException("Maze file is read-only");
+		}
+
+		int index = indexOf(row, col);
+		int offset = wordOffset(index);
+		long word = buffer.getLong(offset);
+		buffer.putLong(offset, landMine ? word | (1L << index) : word & ~(1L << index));
+		landMineCount += landMine ? 1 : -1;
+	}
+
+	@Override
+	protected int nextLandMine(int fromIndex) {
+		int tiles = width * height;
+		if (fromIndex >= tiles) {
+			return -1;
+		}
+
+		int offset = wordOffset(fromIndex);
+		long word = buffer.getLong(offset) & (-1L << fromIndex);
+		int end = wordOffset(tiles - 1);
+		while (word == 0) {
+			if (offset == end) {
+				return -1;
+			}
+			offset += 8;
+			word = buffer.getLong(offset);
+		}
+
+		int index = ((offset - MazeFile.HEADER_BYTES) << 3) + Long.numberOfTrailingZeros(word);
+		return index < tiles ? index : -1;
+	}
+
+	/**
+	 * Get the seed the maze was generated from
+	 *
+	 * @return The seed, 0 if unknown
+	 */
+	public long getSeed() {
+		return seed;
+	}
+
+	/**
+	 * Get the number of landmines
+	 *
+	 * @return The landmine count
+	 */
+	public long getLandMineCount() {
+		return landMineCount;
+	}
+
+	@Override
+	public String toString() {
+		return "MappedMaze [width=" + width + ", height=" + height + ", seed=" + seed + ", landMineCount="
+				+ landMineCount + "]";
+	}
+}
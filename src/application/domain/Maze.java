@@ -24,5 +24,65 @@ public interface Maze {
 
 	public Node getNodeAtRowCol(int row, int col);
 
+	/**
+	 * Get the row-major index of a tile, row * height + col
+	 */
+	public int indexOf(int row, int col);
+
+	/**
+	 * Check if the tile at the specified row and column holds a landmine
+	 */
+	public boolean isLandMine(int row, int col);
+
+	/**
+	 * Check if the tile at the specified row and column lies inside the maze and
+	 * can be moved onto
+	 */
+	public boolean isPassable(int row, int col);
+
+	/**
+	 * Place or clear the landmine at the specified row and column. Listeners are
+	 * notified if the tile changed.
+	 */
+	public void setLandMine(int row, int col, boolean landMine);
+
+	/** The highest cost of moving onto a tile */
+	public static final int MAX_TERRAIN_COST = 255;
+
+	/**
+	 * Get the cost of moving onto the tile at the specified row and column, 1
+	 * unless it was changed with {@link #setTerrainCost}
+	 */
+	public int getTerrainCost(int row, int col);
+
+	/**
+	 * Set the cost of moving onto the tile at the specified row and column, from
+	 * 1 to {@link #MAX_TERRAIN_COST}, e.g. 1 for road and 5 for mud. Listeners
+	 * are notified if the tile changed.
+	 */
+	public void setTerrainCost(int row, int col, int cost);
+
+	/**
+	 * Check if any tile costs more than 1 to move onto
+	 */
+	public boolean hasTerrainCosts();
+
+	/**
+	 * Get the number of tiles changed by {@link #setLandMine} or
+	 * {@link #setTerrainCost} since the maze was created
+	 */
+	public long getModificationCount();
+
+	/**
+	 * Get a hash of the size, landmine layout and terrain costs. Mazes with the
+	 * same layout have the same fingerprint, and it is kept up to date as tiles
+	 * change.
+	 */
+	public long getFingerprint();
+
+	public void addMazeListener(MazeListener listener);
+
+	public void removeMazeListener(MazeListener listener);
+
 	public void markVisitedNode(int xp, int yp);
 }
@@ -0,0 +1,211 @@
+package application.domain;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Binary maze file format.
+ *
+ * A file is a 64 byte header followed by the landmine bitmap. All numbers are
+ * little-endian.
+ *
+ * <pre>
+ * offset  size  field
+ *      0     4  magic, "MAZE"
+ *      4     4  version, 1
+ *      8     4  width (rows)
+ *     12     4  height (columns)
+ *     16     8  seed the maze was generated from, 0 if unknown
+ *     24     8  landmine count
+ *     32     8  CRC-32 of the bitmap
+ *     40    24  reserved, zero
+ *     64        bitmap, ceil(width * height / 64) longs
+ * </pre>
+ *
+ * Bit i % 64 of bitmap long i / 64 is set if tile i, row-major as in
+ * {@link Maze#indexOf}, holds a landmine. This is the layout of
+ * {@link java.util.BitSet#toLongArray()}.
+ *
+ * @author vbala
+ *
+ */
+public class MazeFile {
+
+	/** "MAZE" read as a little-endian int */
+	static final int MAGIC = 0x455A414D;
+
+	static final int VERSION = 1;
+
+	/** Size of the header, the bitmap starts on a 64 byte boundary */
+	static final int HEADER_BYTES = 64;
+
+	static final int WIDTH_OFFSET = 8;
+	static final int HEIGHT_OFFSET = 12;
+	static final int SEED_OFFSET = 16;
+	static final int LANDMINE_COUNT_OFFSET = 24;
+	static final int CHECKSUM_OFFSET = 32;
+
+	/** Bitmap bytes written per chunk */
+	private static final int CHUNK_BYTES = 1 << 16;
+
+	private MazeFile() {
+	}
+
+	/**
+	 * Write a maze with an unknown seed
+	 *
+	 * @see #write(Maze, long, java.nio.file.Path)
+	 */
+	public static void write(Maze maze, java.nio.file.Path file) throws IOException {
+		write(maze, 0, file);
+	}
+
+	/**
+	 * Write a maze. The bitmap is streamed a chunk at a time from
+	 * {@link Maze#isLandMine}, so any maze can be written without a copy of its
+	 * tiles.
+	 *
+	 * @param maze The maze to write
+	 * @param seed The seed the maze was generated from, 0 if unknown
+	 * @param file The file to create or replace
+	 */
+	public static void write(Maze maze, long seed, java.nio.file.Path file) throws IOException {
+		int width = maze.getWidth();
+		int height = maze.getHeight();
+		long tiles = (long) width * height;
+
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			ByteBuffer chunk = ByteBuffer.allocate(CHUNK_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+			CRC32 checksum = new CRC32();
+			long landMineCount = 0;
+
+			// The header is written last, once the checksum is known
+			channel.position(HEADER_BYTES);
+			long word = 0;
+			for (int row = 0; row < width; row++) {
+				for (int col = 0; col < height; col++) {
+					long index = (long) row * height + col;
+					if (maze.isLandMine(row, col)) {
+						word |= 1L << index;
+						landMineCount++;
+					}
+					if ((index & 63) == 63) {
+						writeWord(channel, chunk, checksum, word);
+						word = 0;
+					}
+				}
+			}
+			if ((tiles & 63) != 0) {
+				writeWord(channel, chunk, checksum, word);
+			}
+			flush(channel, chunk, checksum);
+
+			ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+			header.putInt(MAGIC).putInt(VERSION).putInt(width).putInt(height).putLong(seed).putLong(landMineCount)
+					.putLong(checksum.getValue());
+			header.clear();
+			while (header.hasRemaining()) {
+				channel.write(header, header.position());
+			}
+		}
+	}
+
+	/**
+	 * Open a maze file after checking its checksum
+	 *
+	 * @see #open(java.nio.file.Path, boolean)
+	 */
+	public static MappedMaze open(java.nio.file.Path file) throws IOException {
+		return open(file, true);
+	}
+
+	/**
+	 * Memory-map a maze file. Nothing is copied, tiles are read straight from
+	 * the mapping as they are needed. The mapping is private, so landmines may
+	 * be changed but the changes are never written back to the file. A file
+	 * which is not writable is mapped read-only and its landmines cannot be
+	 * changed.
+	 *
+	 * @param file           The file to open
+	 * @param verifyChecksum True to read the whole bitmap once and compare its
+	 *                       checksum with the header
+	 * @return The maze
+	 * @throws IOException If the file is not a valid maze file
+	 */
+	public static MappedMaze open(java.nio.file.Path file, boolean verifyChecksum) throws IOException {
+		// A private mapping needs a writable channel, although nothing is written
+		boolean writable = Files.isWritable(file);
+		try (FileChannel channel = writable
+				? FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)
+				: FileChannel.open(file, StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (size < HEADER_BYTES) {
+				throw new IOException(file + " is not a maze file");
+			}
+
+			MappedByteBuffer buffer = channel
+					.map(writable ? FileChannel.MapMode.PRIVATE : FileChannel.MapMode.READ_ONLY, 0, size);
+			buffer.order(ByteOrder.LITTLE_ENDIAN);
+			if (buffer.getInt(0) != MAGIC) {
+				throw new IOException(file + " is not a maze file");
+			}
+			if (buffer.getInt(4) != VERSION) {
+				throw new IOException(file + " has unsupported version " + buffer.getInt(4));
+			}
+
+			int width = buffer.getInt(WIDTH_OFFSET);
+			int height = buffer.getInt(HEIGHT_OFFSET);
+			if (width <= 0 || height <= 0 || (long) width * height > Integer.MAX_VALUE) {
+				throw new IOException(file + " has invalid size " + width + "x" + height);
+			}
+			long bitmapBytes = bitmapBytes(width, height);
+			if (size != HEADER_BYTES + bitmapBytes) {
+				throw new IOException(file + " is " + size + " bytes, expected " + (HEADER_BYTES + bitmapBytes));
+			}
+
+			if (verifyChecksum) {
+				CRC32 checksum = new CRC32();
+				ByteBuffer bitmap = buffer.duplicate();
+				bitmap.position(HEADER_BYTES);
+				checksum.update(bitmap);
+				if (checksum.getValue() != buffer.getLong(CHECKSUM_OFFSET)) {
+					throw new IOException(file + " is corrupt, checksum mismatch");
+				}
+			}
+
+			// The mapping stays valid once the channel is closed
+			return new MappedMaze(buffer, width, height);
+		}
+	}
+
+	/**
+	 * Get the size of the bitmap of a maze
+	 */
+	static long bitmapBytes(int width, int height) {
+		return (((long) width * height + 63) >>> 6) << 3;
+	}
+
+	private static void writeWord(FileChannel channel, ByteBuffer chunk, CRC32 checksum, long word)
+			throws IOException {
+		if (!chunk.hasRemaining()) {
+			flush(channel, chunk, checksum);
+		}
+		chunk.putLong(word);
+	}
+
+	private static void flush(FileChannel channel, ByteBuffer chunk, CRC32 checksum) throws IOException {
+		chunk.flip();
+		checksum.update(chunk.array(), 0, chunk.limit());
+		while (chunk.hasRemaining()) {
+			channel.write(chunk);
+		}
+		chunk.clear();
+	}
+}
@@ -0,0 +1,44 @@
+package application.domain;
+
+import java.util.BitSet;
+
+/**
+ * Places the landmines of a new maze. Generators are deterministic: the same
+ * size and seed always give the same landmines, whatever the number of
+ * threads.
+ *
+ * The start tile (0, 0) and the end tile (width - 1, height - 1) never hold a
+ * landmine.
+ *
+ * @author vbala
+ *
+ */
+public interface MazeGenerator {
+
+	/**
+	 * Get the name shown to users
+	 */
+	public String getName();
+
+	/**
+	 * Generate the landmines of a maze
+	 *
+	 * @param width  The number of rows
+	 * @param height The number of columns
+	 * @param seed   The seed
+	 * @return Row-major landmine bits, index row * height + col
+	 */
+	public BitSet generate(int width, int height, long seed);
+
+	/**
+	 * Generate a maze
+	 *
+	 * @param width  The number of rows
+	 * @param height The number of columns
+	 * @param seed   The seed
+	 * @return The maze
+	 */
+	public default Maze createMaze(int width, int height, long seed) {
+		return new MazeImpl(width, height, generate(width, height, seed), false);
+	}
+}
@@ -3,149 +3,86 @@
  */
 package application.domain;
 
-import java.util.LinkedHashSet;
+import java.util.BitSet;
 import java.util.Random;
-import java.util.Set;
 
 /**
  * Maze Object
  * 
- * Represents a 2D grid of NxM tiles
+ * Represents a 2D grid of NxM tiles. Tiles are stored row-major in a flat bit
+ * set, the tile at (row, col) has index row * height + col, so every lookup is
+ * O(1). {@link Node}s are only created on demand.
  * 
  * @author vbala
  *
  */
-public class MazeImpl implements Maze {
+public class MazeImpl extends AbstractMaze {
 
-	private int width;
-	private int height;
 	private int landMineCount;
-	private Set<Node> nodeSet;
-	private boolean[][] visited;
+	private BitSet landMines;
 
 	/**
-	 * Constructor.
+	 * Constructor for a maze with landmines at random tiles.
 	 * 
 	 * @param totalWidth
 	 * @param totalHeight
 	 * @param landMineCount
 	 */
 	public MazeImpl(int width, int height, int landMineCount) {
-		this.width = width;
-		this.height = height;
-		this.landMineCount = landMineCount;
-		this.nodeSet = new LinkedHashSet<Node>();
-		this.visited = new boolean[width][height];
-
-		this.initialize();
+		this(width, height, landMineCount, new Random().nextLong());
 	}
 
 	/**
-	 * Initialize the Maze object according to the specified width and height.
-	 * Create a grid of {@link Node}s and store in a HashSet. Then randomly select
-	 * node indices based on the dimensions provided and add landmines.
+	 * Constructor for a reproducible maze. The same seed always places the same
+	 * landmines, see {@link RandomMazeGenerator}.
 	 * 
+	 * @param width
+	 * @param height
+	 * @param landMineCount
+	 * @param seed
 	 */
-	@Override
-	public void initialize() {
-
-		// Create NODE objects based on the total length/width
-		for (int i = 0; i < width; i++) {
-			for (int j = 0; j < height; j++) {
-				nodeSet.add(new Node(i, j));
-			}
-		}
-
-		// Add up to #landMineCount mines to the maze
-		for (int i = 0; i < landMineCount; i++) {
-
-			// Calculate a random node index to place landmine
-			Random rand = new Random();
-
-			// Obtain a number between [1 - nodeSet.size()].
-			int nodeIndex = rand.nextInt(nodeSet.size() - 2) + 1;
-			// Place the mine at the "random" location
-			Node node = (Node) nodeSet.toArray()[nodeIndex];
-			node.setLandMine(true);
-		}
-
+	public MazeImpl(int width, int height, int landMineCount, long seed) {
+		this(width, height, new RandomMazeGenerator(landMineCount).generate(width, height, seed), false);
 	}
 
 	/**
-	 * Get the {@link Node} at the specified row and column.
+	 * Constructor for a maze with known landmines, e.g. one read from a file.
 	 * 
-	 * @param row
-	 * @param col
-	 * @return
+	 * @param width
+	 * @param height
+	 * @param landMines Row-major landmine bits, index row * height + col
 	 */
-	public Node getNodeAtRowCol(int row, int col) {
-
-		for (Node node : nodeSet) {
-			if (node.getRow() == row && node.getCol() == col) {
-				return node;
-			}
-		}
-
-		return new Node();
+	public MazeImpl(int width, int height, BitSet landMines) {
+		this(width, height, landMines, true);
 	}
 
-	/**
-	 * Get the start {@link Node}.
-	 */
-	public Node getStartNode() {
-
-		for (Node node : nodeSet) {
-			if (node.getRow() == 0 && node.getCol() == 0) {
-				return node;
-			}
-		}
-
-		return null;
-
+	MazeImpl(int width, int height, BitSet landMines, boolean copy) {
+		super(width, height);
+		this.landMineCount = landMines.cardinality();
+		this.landMines = copy ? (BitSet) landMines.clone() : landMines;
 	}
 
 	/**
-	 * Get the end {@link Node}.
+	 * The landmines are placed by the constructor, there is nothing to generate
 	 */
-	public Node getEndNode() {
-
-		for (Node node : nodeSet) {
-			if (node.getRow() == (width - 1) && node.getCol() == (height - 1)) {
-				return node;
-			}
-		}
-
-		return null;
-
-	}
-
-	public void markVisitedNode(int x, int y) {
-		visited[x][y] = true;
+	@Override
+	public void initialize() {
 	}
 
-	/*
-	 * (non-Javadoc)
-	 * 
-	 * @see application.domain.Maze#getWidthInTiles()
-	 */
 	@Override
-	public int getWidth() {
-		return this.width;
+	protected boolean getLandMineBit(int row, int col) {
+		return landMines.get(indexOf(row, col));
 	}
 
-	/*
-	 * (non-Javadoc)
-	 * 
-	 * @see application.domain.Maze#getHeightInTiles()
-	 */
 	@Override
-	public int getHeight() {
-		return this.height;
+	protected void setLandMineBit(int row, int col, boolean landMine) {
+		landMines.set(indexOf(row, col), landMine);
+		landMineCount += landMine ? 1 : -1;
 	}
 
 	@Override
-	public Set<Node> getNodeSet() {
-		return this.nodeSet;
+	protected int nextLandMine(int fromIndex) {
+		return landMines.nextSetBit(fromIndex);
 	}
 
 	/*
@@ -157,7 +94,7 @@ public class MazeImpl implements Maze {
 	public String toString() {
 		StringBuilder builder = new StringBuilder();
 		builder.append("MazeImpl [width=").append(width).append(", height=").append(height).append(", landMineCount=")
-				.append(landMineCount).append(", nodeSet=").append(nodeSet).append("]");
+				.append(landMineCount).append(", landMines=").append(landMines).append("]");
 		return builder.toString();
 	}
 
@@ -0,0 +1,33 @@
+package application.domain;
+
+/**
+ * Listener notified when the landmines or terrain costs of a {@link Maze}
+ * change after it was created
+ * 
+ * @author vbala
+ *
+ */
+public interface MazeListener {
+
+	/**
+	 * Called after a landmine was placed or cleared
+	 * 
+	 * @param maze     The maze which changed
+	 * @param row      The row of the tile
+	 * @param col      The column of the tile
+	 * @param landMine True if the tile now holds a landmine
+	 */
+	public void landMineChanged(Maze maze, int row, int col, boolean landMine);
+
+	/**
+	 * Called after the terrain cost of a tile changed. Ignored unless
+	 * overridden.
+	 * 
+	 * @param maze The maze which changed
+	 * @param row  The row of the tile
+	 * @param col  The column of the tile
+	 * @param cost The new cost of moving onto the tile
+	 */
+	public default void terrainCostChanged(Maze maze, int row, int col, int cost) {
+	}
+}
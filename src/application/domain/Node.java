@@ -102,6 +102,31 @@ public class Node implements Comparable<Node> {
 		this.row = row;
 	}
 
+	/**
+	 * Nodes are equal if they are at the same row and column
+	 * 
+	 * @see Object#equals(Object)
+	 */
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (!(o instanceof Node)) {
+			return false;
+		}
+		Node other = (Node) o;
+		return row == other.row && col == other.col;
+	}
+
+	/**
+	 * @see Object#hashCode()
+	 */
+	@Override
+	public int hashCode() {
+		return 31 * row + col;
+	}
+
 	public boolean isLandMine() {
 		return isLandMine;
 	}
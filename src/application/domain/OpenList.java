@@ -0,0 +1,75 @@
+package application.domain;
+
+/**
+ * The open list of a best-first search. Entries are identified by an integer id
+ * (usually the index of a grid cell) and ordered by a float key, lowest first.
+ * 
+ * @author vbala
+ *
+ */
+public interface OpenList {
+
+	/**
+	 * Add an id to the list with the given key
+	 * 
+	 * @param id  The id to add
+	 * @param key The priority of the id, lower keys are retrieved first
+	 */
+	public void add(int id, float key);
+
+	/**
+	 * Retrieve the id with the lowest key without removing it
+	 * 
+	 * @return The id with the lowest key
+	 */
+	public int first();
+
+	/**
+	 * Remove and return the id with the lowest key
+	 * 
+	 * @return The id with the lowest key
+	 */
+	public int poll();
+
+	/**
+	 * Lower the key of an id which is already in the list
+	 * 
+	 * @param id  The id to update
+	 * @param key The new key, which must not be greater than the current one
+	 */
+	public void decreaseKey(int id, float key);
+
+	/**
+	 * Remove an id from the list
+	 * 
+	 * @param id The id to remove
+	 */
+	public void remove(int id);
+
+	/**
+	 * Check if an id is in the list
+	 * 
+	 * @param id The id to search for
+	 * @return True if the id is in the list
+	 */
+	public boolean contains(int id);
+
+	/**
+	 * Get the number of ids in the list
+	 * 
+	 * @return The number of ids in the list
+	 */
+	public int size();
+
+	/**
+	 * Empty the list
+	 */
+	public void clear();
+
+	/**
+	 * Make sure the list can hold the ids [0, capacity)
+	 * 
+	 * @param capacity The required capacity
+	 */
+	public void ensureCapacity(int capacity);
+}
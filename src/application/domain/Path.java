@@ -57,6 +57,25 @@ public class Path {
 		return nodes.size();
 	}
 
+	/**
+	 * Get the cost of walking the path, the terrain cost of every node but the
+	 * start. Finders store paths in either direction, so the start is given.
+	 * 
+	 * @param maze   The maze the path was found in
+	 * @param startX The row of the start
+	 * @param startY The column of the start
+	 * @return The cost, the length minus one if no tile costs more than 1
+	 */
+	public long getCost(Maze maze, int startX, int startY) {
+		long cost = 0;
+		for (Node node : nodes) {
+			if (node.getRow() != startX || node.getCol() != startY) {
+				cost += maze.getTerrainCost(node.getRow(), node.getCol());
+			}
+		}
+		return cost;
+	}
+
 	public void addNodePosition(Node node) {
 		this.nodes.add(node);
 	}
@@ -0,0 +1,118 @@
+package application.domain;
+
+import java.util.BitSet;
+import java.util.SplittableRandom;
+
+/**
+ * Base of the generators which carve a perfect maze, with exactly one route
+ * between any two free tiles.
+ *
+ * Cells sit on the tiles whose row and column are both even, and every other
+ * tile starts as a landmine. Joining two neighbouring cells clears them and
+ * the tile between them. A diagonal move only ever links two passages next to
+ * the same cell, so the maze stays perfect with eight direction moves. The
+ * end tile is cleared last; if it is not a cell it lies diagonally next to
+ * one.
+ *
+ * Carving walks the whole maze from one cell, so it is not split into bands
+ * like {@link RandomMazeGenerator}.
+ *
+ * @author vbala
+ *
+ */
+public abstract class PerfectMazeGenerator implements MazeGenerator {
+
+	@Override
+	public BitSet generate(int width, int height, long seed) {
+		BitSet landMines = new BitSet(width * height);
+		landMines.set(0, width * height);
+
+		Cells cells = new Cells(width, height, landMines);
+		cells.open(0);
+		carve(cells, new SplittableRandom(seed));
+		landMines.clear(width * height - 1);
+		return landMines;
+	}
+
+	/**
+	 * Join the cells into a spanning tree, starting from cell 0 which is
+	 * already open
+	 *
+	 * @param cells  The cells of the maze
+	 * @param random The random stream of the maze
+	 */
+	protected abstract void carve(Cells cells, SplittableRandom random);
+
+	/**
+	 * The cells of a maze being carved, numbered row-major from 0
+	 */
+	protected static final class Cells {
+
+		private final int height;
+		private final int rows;
+		private final int cols;
+		private final BitSet landMines;
+
+		private Cells(int width, int height, BitSet landMines) {
+			this.height = height;
+			this.rows = (width + 1) / 2;
+			this.cols = (height + 1) / 2;
+			this.landMines = landMines;
+		}
+
+		/**
+		 * Get the number of cells
+		 */
+		public int getCount() {
+			return rows * cols;
+		}
+
+		/**
+		 * Write the cells next to a cell into neighbours
+		 *
+		 * @param cell       The cell
+		 * @param neighbours At least four entries
+		 * @return The number of neighbours written
+		 */
+		public int getNeighbours(int cell, int[] neighbours) {
+			int row = cell / cols;
+			int col = cell % cols;
+			int count = 0;
+			if (row > 0) {
+				neighbours[count++] = cell - cols;
+			}
+			if (row < rows - 1) {
+				neighbours[count++] = cell + cols;
+			}
+			if (col > 0) {
+				neighbours[count++] = cell - 1;
+			}
+			if (col < cols - 1) {
+				neighbours[count++] = cell + 1;
+			}
+			return count;
+		}
+
+		/**
+		 * Clear the tile of a cell
+		 */
+		public void open(int cell) {
+			landMines.clear(tileOf(cell));
+		}
+
+		/**
+		 * Clear two neighbouring cells and the tile between them
+		 */
+		public void join(int cell, int neighbour) {
+			int tile = tileOf(cell);
+			int other = tileOf(neighbour);
+			landMines.clear(tile);
+			landMines.clear(other);
+			landMines.clear((tile + other) / 2);
+		}
+
+		private int tileOf(int cell) {
+			return (cell / cols) * 2 * height + (cell % cols) * 2;
+		}
+	}
+}
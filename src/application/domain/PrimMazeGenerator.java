@@ -0,0 +1,68 @@
+package application.domain;
+
+import java.util.BitSet;
+import java.util.SplittableRandom;
+
+/**
+ * Carves a perfect maze with randomised Prim's algorithm: the maze grows from
+ * the start by joining a random frontier cell to a random neighbour already in
+ * the maze. Picking and removing a frontier cell is O(1), it is swapped with
+ * the last one. Corridors are short with many dead ends.
+ *
+ * @author vbala
+ *
+ */
+public class PrimMazeGenerator extends PerfectMazeGenerator {
+
+	@Override
+	public String getName() {
+		return GenerationAlgorithm.PRIM.getName();
+	}
+
+	@Override
+	protected void carve(Cells cells, SplittableRandom random) {
+		BitSet inMaze = new BitSet(cells.getCount());
+		BitSet inFrontier = new BitSet(cells.getCount());
+		int[] frontier = new int[cells.getCount()];
+		int[] neighbours = new int[4];
+		int[] joined = new int[4];
+
+		inMaze.set(0);
+		int size = addFrontier(cells, 0, inMaze, inFrontier, frontier, 0, neighbours);
+		while (size > 0) {
+			int index = random.nextInt(size);
+			int cell = frontier[index];
+			frontier[index] = frontier[--size];
+
+			int count = 0;
+			int neighbourCount = cells.getNeighbours(cell, neighbours);
+			for (int i = 0; i < neighbourCount; i++) {
+				if (inMaze.get(neighbours[i])) {
+					joined[count++] = neighbours[i];
+				}
+			}
+			cells.join(joined[random.nextInt(count)], cell);
+			inMaze.set(cell);
+			size = addFrontier(cells, cell, inMaze, inFrontier, frontier, size, neighbours);
+		}
+	}
+
+	/**
+	 * Add the neighbours of a cell which are neither in the maze nor the
+	 * frontier to the frontier
+	 *
+	 * @return The new frontier size
+	 */
+	private static int addFrontier(Cells cells, int cell, BitSet inMaze, BitSet inFrontier, int[] frontier,
+			int size, int[] neighbours) {
+		int neighbourCount = cells.getNeighbours(cell, neighbours);
+		for (int i = 0; i < neighbourCount; i++) {
+			int neighbour = neighbours[i];
+			if (!inMaze.get(neighbour) && !inFrontier.get(neighbour)) {
+				inFrontier.set(neighbour);
+				frontier[size++] = neighbour;
+			}
+		}
+		return size;
+	}
+}
@@ -0,0 +1,74 @@
+package application.domain;
+
+import java.util.SplittableRandom;
+
+/**
+ * Generates the tiles of a {@link TiledMaze} from a seed. Each tile has its own
+ * random stream derived from the seed and the tile position, so any tile can
+ * be generated on its own, in any order, and always gets the same landmines.
+ * 
+ * The start tile (0, 0) and the end tile (width - 1, height - 1) never hold a
+ * landmine.
+ * 
+ * @author vbala
+ *
+ */
+public class ProceduralTileSource implements TileSource {
+
+	private final int width;
+	private final int height;
+	private final long seed;
+	private final double density;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param width   The number of rows of the maze
+	 * @param height  The number of columns of the maze
+	 * @param seed    The seed the tiles are generated from
+	 * @param density The chance of a cell holding a landmine, 0 to 1
+	 */
+	public ProceduralTileSource(int width, int height, long seed, double density) {
+		if (density < 0 || density > 1) {
+			throw new IllegalArgumentException("Landmine density must be between 0 and 1");
+		}
+		this.width = width;
+		this.height = height;
+		this.seed = seed;
+		this.density = density;
+	}
+
+	@Override
+	public void loadTile(int tileRow, int tileCol, int tileSize, long[] bits) {
+		long tileKey = ((long) tileRow << 32) | tileCol;
+		SplittableRandom random = new SplittableRandom(AbstractMaze.mix(seed ^ AbstractMaze.mix(tileKey)));
+		for (int cell = 0; cell < tileSize * tileSize; cell++) {
+			if (random.nextDouble() < density) {
+				bits[cell >>> 6] |= 1L << cell;
+			}
+		}
+
+		clear(tileRow, tileCol, tileSize, bits, 0, 0);
+		clear(tileRow, tileCol, tileSize, bits, width - 1, height - 1);
+	}
+
+	/**
+	 * Clear a maze cell if it lies in the tile
+	 */
+	private static void clear(int tileRow, int tileCol, int tileSize, long[] bits, int row, int col) {
+		if (row / tileSize == tileRow && col / tileSize == tileCol) {
+			int cell = (row % tileSize) * tileSize + col % tileSize;
+			bits[cell >>> 6] &= ~(1L << cell);
+		}
+	}
+
+	@Override
+	public long getFingerprint() {
+		return AbstractMaze.mix(seed ^ AbstractMaze.mix(Double.doubleToLongBits(density)));
+	}
+
+	@Override
+	public String toString() {
+		return "ProceduralTileSource [seed=" + seed + ", density=" + density + "]";
+	}
+}
@@ -0,0 +1,296 @@
+package application.domain;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * An indexed radix heap over the ids [0, capacity), for searches whose keys
+ * never drop below the last key polled, e.g. A* with a consistent heuristic.
+ *
+ * Keys are compared by the bits of their float representation, mapped so that
+ * unsigned integer order is float order. Bucket 0 holds the ids whose key
+ * equals the last key polled, bucket i the ids whose key first differs from it
+ * in bit i - 1. Polling empties the lowest non-empty bucket into lower ones, so
+ * an id moves at most 32 times: add, poll and decrease-key are O(1) amortised,
+ * independent of the number of ids. Buckets are doubly linked lists threaded
+ * through arrays, so nothing is allocated after construction.
+ *
+ * A key below the last key polled is still accepted, but every id is then
+ * rebucketed, which is O(n).
+ *
+ * @author vbala
+ *
+ */
+public class RadixHeap implements OpenList {
+
+	/** One bucket for the last key, one per bit of difference from it */
+	private static final int BUCKETS = 33;
+
+	private static final int NONE = -1;
+
+	/** First id of each bucket */
+	private final int[] heads = new int[BUCKETS];
+
+	/** The heads before a rebuild */
+	private final int[] oldHeads = new int[BUCKETS];
+
+	/** Next and previous ids in the bucket of each id */
+	private int[] next;
+	private int[] previous;
+
+	/** Bucket of each id, {@link #NONE} if the id is not in the heap */
+	private int[] buckets;
+
+	/** Key of each id, as an unsigned sortable int */
+	private int[] keys;
+
+	/** The last key polled, as an unsigned sortable int */
+	private int last;
+
+	/** Number of ids in the heap */
+	private int size;
+
+	/** Number of times every id was rebucketed for a key below the last */
+	private long rebuilds;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param capacity The number of distinct ids the heap can hold
+	 */
+	public RadixHeap(int capacity) {
+		this.next = new int[capacity];
+		this.previous = new int[capacity];
+		this.buckets = new int[capacity];
+		this.keys = new int[capacity];
+		Arrays.fill(heads, NONE);
+		Arrays.fill(buckets, NONE);
+		this.last = sortable(Float.NEGATIVE_INFINITY);
+	}
+
+	/**
+	 * Grow the heap so it can hold the ids [0, capacity).
+	 */
+	@Override
+	public void ensureCapacity(int capacity) {
+		int oldCapacity = buckets.length;
+		if (capacity <= oldCapacity) {
+			return;
+		}
+
+		next = Arrays.copyOf(next, capacity);
+		previous = Arrays.copyOf(previous, capacity);
+		keys = Arrays.copyOf(keys, capacity);
+		buckets = Arrays.copyOf(buckets, capacity);
+		Arrays.fill(buckets, oldCapacity, capacity, NONE);
+	}
+
+	/**
+	 * Map a float to an int whose unsigned order is the order of the floats.
+	 * Positive floats get the sign bit set, negative ones have every bit
+	 * flipped.
+	 */
+	static int sortable(float key) {
+		int bits = Float.floatToIntBits(key);
+		return bits ^ ((bits >> 31) | Integer.MIN_VALUE);
+	}
+
+	/**
+	 * Get the bucket of a sortable key relative to the last key polled
+	 */
+	private int bucketOf(int key) {
+		return key == last ? 0 : 32 - Integer.numberOfLeadingZeros(key ^ last);
+	}
+
+	/**
+	 * Add an id to the heap. If the id is already present its key is replaced.
+	 */
+	@Override
+	public void add(int id, float key) {
+		if (buckets[id] != NONE) {
+			unlink(id);
+		} else {
+			size++;
+		}
+		insert(id, sortable(key));
+	}
+
+	@Override
+	public int first() {
+		if (size == 0) {
+			throw new NoSuchElementException("Heap is empty");
+		}
+		if (heads[0] == NONE) {
+			redistribute();
+		}
+		return heads[0];
+	}
+
+	@Override
+	public int poll() {
+		int id = first();
+		unlink(id);
+		buckets[id] = NONE;
+		size--;
+		return id;
+	}
+
+	@Override
+	public void decreaseKey(int id, float key) {
+		if (buckets[id] == NONE) {
+			throw new NoSuchElementException("Id " + id + " is not in the heap");
+		}
+		int sortableKey = sortable(key);
+		if (Integer.compareUnsigned(sortableKey, keys[id]) > 0) {
+			throw new IllegalArgumentException("New key " + key + " is greater than current key " + getKey(id));
+		}
+
+		unlink(id);
+		insert(id, sortableKey);
+	}
+
+	@Override
+	public void remove(int id) {
+		if (buckets[id] != NONE) {
+			unlink(id);
+			buckets[id] = NONE;
+			size--;
+		}
+	}
+
+	@Override
+	public boolean contains(int id) {
+		return buckets[id] != NONE;
+	}
+
+	/**
+	 * Get the current key of an id in the heap
+	 *
+	 * @param id The id to look up
+	 * @return The key of the id
+	 */
+	public float getKey(int id) {
+		int key = keys[id];
+		int bits = key ^ ((~key >> 31) | Integer.MIN_VALUE);
+		return Float.intBitsToFloat(bits);
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Get the number of times a key below the last key polled forced every id to
+	 * be rebucketed
+	 *
+	 * @return The rebuild count
+	 */
+	public long getRebuilds() {
+		return rebuilds;
+	}
+
+	/**
+	 * Empty the heap. Only the ids still in the heap are reset, so this is
+	 * proportional to the current size rather than the capacity.
+	 */
+	@Override
+	public void clear() {
+		for (int bucket = 0; bucket < BUCKETS; bucket++) {
+			for (int id = heads[bucket]; id != NONE; id = next[id]) {
+				buckets[id] = NONE;
+			}
+			heads[bucket] = NONE;
+		}
+		size = 0;
+		last = sortable(Float.NEGATIVE_INFINITY);
+	}
+
+	/**
+	 * Put an id with a sortable key into its bucket
+	 */
+	private void insert(int id, int key) {
+		if (Integer.compareUnsigned(key, last) < 0) {
+			rebuild(key);
+		}
+		keys[id] = key;
+		link(id, bucketOf(key));
+	}
+
+	/**
+	 * Refill bucket 0: make the smallest key of the lowest non-empty bucket the
+	 * last key and move that bucket's ids to the buckets below it
+	 */
+	private void redistribute() {
+		int bucket = 1;
+		while (heads[bucket] == NONE) {
+			bucket++;
+		}
+
+		int min = keys[heads[bucket]];
+		for (int id = next[heads[bucket]]; id != NONE; id = next[id]) {
+			if (Integer.compareUnsigned(keys[id], min) < 0) {
+				min = keys[id];
+			}
+		}
+
+		last = min;
+		int id = heads[bucket];
+		heads[bucket] = NONE;
+		while (id != NONE) {
+			int following = next[id];
+			link(id, bucketOf(keys[id]));
+			id = following;
+		}
+	}
+
+	/**
+	 * Make a key below the last key polled the new last key, moving every id to
+	 * its bucket relative to it
+	 */
+	private void rebuild(int key) {
+		rebuilds++;
+		last = key;
+		System.arraycopy(heads, 0, oldHeads, 0, BUCKETS);
+		Arrays.fill(heads, NONE);
+		for (int bucket = 0; bucket < BUCKETS; bucket++) {
+			int id = oldHeads[bucket];
+			while (id != NONE) {
+				int following = next[id];
+				link(id, bucketOf(keys[id]));
+				id = following;
+			}
+		}
+	}
+
+	/**
+	 * Push an id onto the front of a bucket
+	 */
+	private void link(int id, int bucket) {
+		int head = heads[bucket];
+		next[id] = head;
+		previous[id] = NONE;
+		if (head != NONE) {
+			previous[head] = id;
+		}
+		heads[bucket] = id;
+		buckets[id] = bucket;
+	}
+
+	/**
+	 * Take an id out of its bucket. Its bucket is left set, callers relink or
+	 * clear it.
+	 */
+	private void unlink(int id) {
+		int before = previous[id];
+		int after = next[id];
+		if (before == NONE) {
+			heads[buckets[id]] = after;
+		} else {
+			next[before] = after;
+		}
+		if (after != NONE) {
+			previous[after] = before;
+		}
+	}
+}
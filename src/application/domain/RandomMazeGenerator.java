@@ -0,0 +1,101 @@
+package application.domain;
+
+import java.util.BitSet;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Scatters a fixed number of landmines over the maze, never two on one tile.
+ *
+ * The maze is cut into bands of {@link #ROWS_PER_BAND} rows. Each band gets
+ * its share of the landmines, in proportion to its size, and places them with
+ * Floyd's sampling algorithm, which draws exactly one random number per
+ * landmine. Bands have their own random stream derived from the seed and are
+ * filled in parallel, so generation is O(landmines) and the result does not
+ * depend on the number of threads.
+ *
+ * @author vbala
+ *
+ */
+public class RandomMazeGenerator implements MazeGenerator {
+
+	/** Number of rows of a band */
+	public static final int ROWS_PER_BAND = 64;
+
+	private final int landMineCount;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param landMineCount The number of landmines, at most every tile but the
+	 *                      start and the end
+	 */
+	public RandomMazeGenerator(int landMineCount) {
+		if (landMineCount < 0) {
+			throw new IllegalArgumentException("Landmine count must not be negative");
+		}
+		this.landMineCount = landMineCount;
+	}
+
+	@Override
+	public String getName() {
+		return GenerationAlgorithm.RANDOM.getName();
+	}
+
+	@Override
+	public BitSet generate(int width, int height, long seed) {
+		// Every tile but the start and the end may hold a landmine, those are
+		// the tiles [1, tiles - 1)
+		int tiles = width * height;
+		int free = Math.max(0, tiles - 2);
+		int count = Math.min(landMineCount, free);
+		int bands = (width + ROWS_PER_BAND - 1) / ROWS_PER_BAND;
+
+		BitSet[] bandMines = new BitSet[bands];
+		IntStream.range(0, bands).parallel().forEach(band -> {
+			int first = firstTile(band, height, tiles);
+			int last = firstTile(band + 1, height, tiles);
+			int share = share(count, free, last - 1) - share(count, free, first - 1);
+			bandMines[band] = sample(last - first, share,
+					new SplittableRandom(AbstractMaze.mix(seed ^ AbstractMaze.mix(band))));
+		});
+
+		BitSet landMines = new BitSet(tiles);
+		for (int band = 0; band < bands; band++) {
+			int first = firstTile(band, height, tiles);
+			BitSet mines = bandMines[band];
+			for (int i = mines.nextSetBit(0); i >= 0; i = mines.nextSetBit(i + 1)) {
+				landMines.set(first + i);
+			}
+		}
+		return landMines;
+	}
+
+	/**
+	 * Get the first tile of a band which may hold a landmine, or of the band
+	 * after the last one
+	 */
+	private static int firstTile(int band, int height, int tiles) {
+		long first = (long) band * ROWS_PER_BAND * height;
+		return (int) Math.min(Math.max(first, 1), Math.max(tiles - 1, 1));
+	}
+
+	/**
+	 * Get the number of landmines among the first tiles which may hold one
+	 */
+	private static int share(int count, int free, int tiles) {
+		return free == 0 ? 0 : (int) ((long) count * tiles / free);
+	}
+
+	/**
+	 * Pick count distinct numbers from [0, size) with Floyd's algorithm
+	 */
+	private static BitSet sample(int size, int count, SplittableRandom random) {
+		BitSet picked = new BitSet(size);
+		for (int j = size - count; j < size; j++) {
+			int pick = random.nextInt(j + 1);
+			picked.set(picked.get(pick) ? j : pick);
+		}
+		return picked;
+	}
+}
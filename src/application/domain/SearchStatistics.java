@@ -0,0 +1,229 @@
+package application.domain;
+
+/**
+ * Counters and timings describing a single search. Every solve fills one in,
+ * whether or not it found a path. Times are in nanoseconds.
+ * 
+ * @author vbala
+ *
+ */
+public class SearchStatistics {
+
+	private long nodesExpanded;
+	private long nodesGenerated;
+	private long peakOpenSize;
+	private long reopenings;
+	private long searchTime;
+	private long reconstructionTime;
+	private long bytesAllocated = -1;
+	private boolean pathFound;
+	private boolean limitReached;
+	private boolean cached;
+
+	/**
+	 * Reset every counter to zero
+	 */
+	public void clear() {
+		nodesExpanded = 0;
+		nodesGenerated = 0;
+		peakOpenSize = 0;
+		reopenings = 0;
+		searchTime = 0;
+		reconstructionTime = 0;
+		bytesAllocated = -1;
+		pathFound = false;
+		limitReached = false;
+		cached = false;
+	}
+
+	/**
+	 * Copy every counter, e.g. to keep the statistics of a search after the
+	 * finder starts another
+	 * 
+	 * @return The copy
+	 */
+	public SearchStatistics copy() {
+		SearchStatistics copy = new SearchStatistics();
+		copy.nodesExpanded = nodesExpanded;
+		copy.nodesGenerated = nodesGenerated;
+		copy.peakOpenSize = peakOpenSize;
+		copy.reopenings = reopenings;
+		copy.searchTime = searchTime;
+		copy.reconstructionTime = reconstructionTime;
+		copy.bytesAllocated = bytesAllocated;
+		copy.pathFound = pathFound;
+		copy.limitReached = limitReached;
+		copy.cached = cached;
+		return copy;
+	}
+
+	/**
+	 * @return the number of nodes taken from the open list and expanded
+	 */
+	public long getNodesExpanded() {
+		return nodesExpanded;
+	}
+
+	/**
+	 * @param nodesExpanded the number of nodes expanded
+	 */
+	public void setNodesExpanded(long nodesExpanded) {
+		this.nodesExpanded = nodesExpanded;
+	}
+
+	/**
+	 * @return the number of nodes added to the open list
+	 */
+	public long getNodesGenerated() {
+		return nodesGenerated;
+	}
+
+	/**
+	 * @param nodesGenerated the number of nodes added to the open list
+	 */
+	public void setNodesGenerated(long nodesGenerated) {
+		this.nodesGenerated = nodesGenerated;
+	}
+
+	/**
+	 * @return the largest number of nodes held by the open list at once
+	 */
+	public long getPeakOpenSize() {
+		return peakOpenSize;
+	}
+
+	/**
+	 * @param peakOpenSize the largest size of the open list
+	 */
+	public void setPeakOpenSize(long peakOpenSize) {
+		this.peakOpenSize = peakOpenSize;
+	}
+
+	/**
+	 * @return the number of closed nodes put back on the open list after a
+	 *         cheaper route to them was found
+	 */
+	public long getReopenings() {
+		return reopenings;
+	}
+
+	/**
+	 * @param reopenings the number of closed nodes reopened
+	 */
+	public void setReopenings(long reopenings) {
+		this.reopenings = reopenings;
+	}
+
+	/**
+	 * @return the time spent searching, in nanoseconds
+	 */
+	public long getSearchTime() {
+		return searchTime;
+	}
+
+	/**
+	 * @param searchTime the time spent searching, in nanoseconds
+	 */
+	public void setSearchTime(long searchTime) {
+		this.searchTime = searchTime;
+	}
+
+	/**
+	 * @return the time spent building the path once the search ended, in
+	 *         nanoseconds
+	 */
+	public long getReconstructionTime() {
+		return reconstructionTime;
+	}
+
+	/**
+	 * @param reconstructionTime the time spent building the path, in
+	 *                           nanoseconds
+	 */
+	public void setReconstructionTime(long reconstructionTime) {
+		this.reconstructionTime = reconstructionTime;
+	}
+
+	/**
+	 * @return the total time of the solve, search and reconstruction, in
+	 *         nanoseconds
+	 */
+	public long getTotalTime() {
+		return searchTime + reconstructionTime;
+	}
+
+	/**
+	 * @return the bytes allocated by the solving thread, -1 if the JVM cannot
+	 *         measure it
+	 */
+	public long getBytesAllocated() {
+		return bytesAllocated;
+	}
+
+	/**
+	 * @param bytesAllocated the bytes allocated by the solve, -1 if unknown
+	 */
+	public void setBytesAllocated(long bytesAllocated) {
+		this.bytesAllocated = bytesAllocated;
+	}
+
+	/**
+	 * @return true if the path came from a cache without searching
+	 */
+	public boolean isCached() {
+		return cached;
+	}
+
+	/**
+	 * @param cached true if the path came from a cache
+	 */
+	public void setCached(boolean cached) {
+		this.cached = cached;
+	}
+
+	/**
+	 * @return true if the search found a path
+	 */
+	public boolean isPathFound() {
+		return pathFound;
+	}
+
+	/**
+	 * @param pathFound true if the search found a path
+	 */
+	public void setPathFound(boolean pathFound) {
+		this.pathFound = pathFound;
+	}
+
+	/**
+	 * @return true if the search stopped at its depth limit or budget before it
+	 *         could tell whether a better path exists
+	 */
+	public boolean isLimitReached() {
+		return limitReached;
+	}
+
+	/**
+	 * @param limitReached true if the search stopped at its limit
+	 */
+	public void setLimitReached(boolean limitReached) {
+		this.limitReached = limitReached;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder.append("SearchStatistics [nodesExpanded=").append(nodesExpanded).append(", nodesGenerated=")
+				.append(nodesGenerated).append(", peakOpenSize=").append(peakOpenSize).append(", reopenings=")
+				.append(reopenings).append(", searchTime=").append(searchTime).append(", reconstructionTime=")
+				.append(reconstructionTime).append(", bytesAllocated=").append(bytesAllocated)
+				.append(", pathFound=").append(pathFound).append(", limitReached=").append(limitReached)
+				.append(", cached=").append(cached).append("]");
+		return builder.toString();
+	}
+}
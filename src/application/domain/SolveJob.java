@@ -0,0 +1,93 @@
+package application.domain;
+
+/**
+ * A request to solve a {@link Maze} from a start tile to a goal tile with a
+ * given search algorithm and heuristic
+ * 
+ * @author vbala
+ *
+ */
+public class SolveJob {
+
+	private final Maze maze;
+	private final int startX;
+	private final int startY;
+	private final int goalX;
+	private final int goalY;
+	private final String algorithm;
+	private final String heuristic;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param maze      The maze to solve
+	 * @param startX    The row of the start tile
+	 * @param startY    The column of the start tile
+	 * @param goalX     The row of the goal tile
+	 * @param goalY     The column of the goal tile
+	 * @param algorithm The name of the search algorithm
+	 * @param heuristic The name of the heuristic
+	 */
+	public SolveJob(Maze maze, int startX, int startY, int goalX, int goalY, String algorithm, String heuristic) {
+		this.maze = maze;
+		this.startX = startX;
+		this.startY = startY;
+		this.goalX = goalX;
+		this.goalY = goalY;
+		this.algorithm = algorithm;
+		this.heuristic = heuristic;
+	}
+
+	/**
+	 * Constructor for a job from the start node to the end node of the maze
+	 * 
+	 * @param maze      The maze to solve
+	 * @param algorithm The name of the search algorithm
+	 * @param heuristic The name of the heuristic
+	 */
+	public SolveJob(Maze maze, String algorithm, String heuristic) {
+		this(maze, 0, 0, maze.getWidth() - 1, maze.getHeight() - 1, algorithm, heuristic);
+	}
+
+	public Maze getMaze() {
+		return maze;
+	}
+
+	public int getStartX() {
+		return startX;
+	}
+
+	public int getStartY() {
+		return startY;
+	}
+
+	public int getGoalX() {
+		return goalX;
+	}
+
+	public int getGoalY() {
+		return goalY;
+	}
+
+	public String getAlgorithm() {
+		return algorithm;
+	}
+
+	public String getHeuristic() {
+		return heuristic;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder.append("SolveJob [start=").append(startX).append(", ").append(startY).append(", goal=").append(goalX)
+				.append(", ").append(goalY).append(", algorithm=").append(algorithm).append(", heuristic=")
+				.append(heuristic).append("]");
+		return builder.toString();
+	}
+}
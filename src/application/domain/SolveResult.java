@@ -0,0 +1,50 @@
+package application.domain;
+
+/**
+ * The outcome of a {@link SolveJob}: the path, if one was found, and the
+ * statistics of the search
+ * 
+ * @author vbala
+ *
+ */
+public class SolveResult {
+
+	private final SolveJob job;
+	private final Path path;
+	private final SearchStatistics statistics;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param job        The job that was solved
+	 * @param path       The path found, or null if there is none
+	 * @param statistics The statistics of the search
+	 */
+	public SolveResult(SolveJob job, Path path, SearchStatistics statistics) {
+		this.job = job;
+		this.path = path;
+		this.statistics = statistics;
+	}
+
+	public SolveJob getJob() {
+		return job;
+	}
+
+	/**
+	 * @return the path found, or null if there is none
+	 */
+	public Path getPath() {
+		return path;
+	}
+
+	public SearchStatistics getStatistics() {
+		return statistics;
+	}
+
+	/**
+	 * @return true if a path was found
+	 */
+	public boolean isSolved() {
+		return path != null;
+	}
+}
@@ -5,6 +5,9 @@ import java.util.Collections;
 
 /**
  * A simple sorted list
+ * 
+ * Sorts the whole list on every add. Only used through {@link LegacyOpenList};
+ * searches use {@link IndexedBinaryHeap} by default.
  *
  * @author vbala
  */
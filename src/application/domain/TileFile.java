@@ -0,0 +1,211 @@
+package application.domain;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Tiled maze file format, read a tile at a time by a {@link TiledMaze}.
+ *
+ * A file is a 64 byte header followed by the tiles. All numbers are
+ * little-endian.
+ *
+ * <pre>
+ * offset  size  field
+ *      0     4  magic, "TILE"
+ *      4     4  version, 1
+ *      8     4  width (rows)
+ *     12     4  height (columns)
+ *     16     4  tile size
+ *     20     4  reserved, zero
+ *     24     8  seed the maze was generated from, 0 if unknown
+ *     32     8  CRC-32 of the tiles
+ *     40    24  reserved, zero
+ *     64        tiles, tile size * tile size / 64 longs each
+ * </pre>
+ *
+ * Tiles are stored row-major, tile (tileRow, tileCol) is tile number tileRow *
+ * ceil(height / tile size) + tileCol. Within a tile the bits are laid out as
+ * described by {@link TileSource#loadTile}.
+ *
+ * @author vbala
+ *
+ */
+public class TileFile {
+
+	/** "TILE" read as a little-endian int */
+	static final int MAGIC = 0x454C4954;
+
+	static final int VERSION = 1;
+
+	static final int HEADER_BYTES = 64;
+
+	private TileFile() {
+	}
+
+	/**
+	 * Write a maze as tiles. Tiles are streamed one at a time from
+	 * {@link Maze#isLandMine}, so any maze can be written, including another
+	 * {@link TiledMaze}.
+	 *
+	 * @param maze     The maze to write
+	 * @param tileSize The rows and columns of a tile, a power of two of at least 8
+	 * @param seed     The seed the maze was generated from, 0 if unknown
+	 * @param file     The file to create or replace
+	 */
+	public static void write(Maze maze, int tileSize, long seed, java.nio.file.Path file) throws IOException {
+		if (tileSize < 8 || Integer.bitCount(tileSize) != 1) {
+			throw new IllegalArgumentException("Tile size must be a power of two of at least 8");
+		}
+
+		int width = maze.getWidth();
+		int height = maze.getHeight();
+		int tileRows = (width + tileSize - 1) / tileSize;
+		int tileCols = (height + tileSize - 1) / tileSize;
+		long[] bits = new long[tileSize * tileSize / 64];
+		ByteBuffer tile = ByteBuffer.allocate(bits.length * 8).order(ByteOrder.LITTLE_ENDIAN);
+		CRC32 checksum = new CRC32();
+
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			// The header is written last, once the checksum is known
+			channel.position(HEADER_BYTES);
+			for (int tileRow = 0; tileRow < tileRows; tileRow++) {
+				for (int tileCol = 0; tileCol < tileCols; tileCol++) {
+					readTile(maze, tileRow, tileCol, tileSize, bits);
+					tile.clear();
+					tile.asLongBuffer().put(bits);
+					checksum.update(tile.array(), 0, tile.capacity());
+					while (tile.hasRemaining()) {
+						channel.write(tile);
+					}
+				}
+			}
+
+			ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+			header.putInt(MAGIC).putInt(VERSION).putInt(width).putInt(height).putInt(tileSize).putInt(0)
+					.putLong(seed).putLong(checksum.getValue());
+			header.clear();
+			while (header.hasRemaining()) {
+				channel.write(header, header.position());
+			}
+		}
+	}
+
+	/**
+	 * Open a tile file as a maze. Only the header is read, tiles are read as the
+	 * maze needs them. The file stays open until the maze is no longer used.
+	 *
+	 * @param file           The file to open
+	 * @param maxCachedTiles The most unchanged tiles to keep in memory
+	 * @return The maze
+	 * @throws IOException If the file is not a valid tile file
+	 */
+	public static TiledMaze open(java.nio.file.Path file, int maxCachedTiles) throws IOException {
+		FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+		try {
+			ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+			while (header.hasRemaining()) {
+				if (channel.read(header, header.position()) < 0) {
+					break;
+				}
+			}
+			if (header.hasRemaining() || header.getInt(0) != MAGIC) {
+				throw new IOException(file + " is not a tile file");
+			}
+			if (header.getInt(4) != VERSION) {
+				throw new IOException(file + " has unsupported version " + header.getInt(4));
+			}
+
+			int width = header.getInt(8);
+			int height = header.getInt(12);
+			int tileSize = header.getInt(16);
+			if (width <= 0 || height <= 0 || tileSize < 8 || Integer.bitCount(tileSize) != 1) {
+				throw new IOException(file + " has an invalid header");
+			}
+			long tileBytes = (long) tileSize * tileSize / 8;
+			long tiles = (long) ((width + tileSize - 1) / tileSize) * ((height + tileSize - 1) / tileSize);
+			if (channel.size() != HEADER_BYTES + tiles * tileBytes) {
+				throw new IOException(file + " is " + channel.size() + " bytes, expected "
+						+ (HEADER_BYTES + tiles * tileBytes));
+			}
+
+			FileSource source = new FileSource(channel, (height + tileSize - 1) / tileSize, (int) tileBytes,
+					header.getLong(24), header.getLong(32));
+			return new TiledMaze(width, height, tileSize, maxCachedTiles, source);
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Copy the landmines of a tile of a maze
+	 */
+	private static void readTile(Maze maze, int tileRow, int tileCol, int tileSize, long[] bits) {
+		java.util.Arrays.fill(bits, 0);
+		int firstRow = tileRow * tileSize;
+		int firstCol = tileCol * tileSize;
+		int rows = Math.min(tileSize, maze.getWidth() - firstRow);
+		int cols = Math.min(tileSize, maze.getHeight() - firstCol);
+		for (int row = 0; row < rows; row++) {
+			for (int col = 0; col < cols; col++) {
+				if (maze.isLandMine(firstRow + row, firstCol + col)) {
+					int cell = row * tileSize + col;
+					bits[cell >>> 6] |= 1L << cell;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Reads tiles from an open tile file with positional reads
+	 */
+	private static final class FileSource implements TileSource {
+		private final FileChannel channel;
+		private final int tileCols;
+		private final ByteBuffer tile;
+		private final long seed;
+		private final long checksum;
+
+		private FileSource(FileChannel channel, int tileCols, int tileBytes, long seed, long checksum) {
+			this.channel = channel;
+			this.tileCols = tileCols;
+			this.tile = ByteBuffer.allocateDirect(tileBytes).order(ByteOrder.LITTLE_ENDIAN);
+			this.seed = seed;
+			this.checksum = checksum;
+		}
+
+		/**
+		 * Called with the lock of the maze held, so the buffer is never shared
+		 */
+		@Override
+		public void loadTile(int tileRow, int tileCol, int tileSize, long[] bits) throws IOException {
+			long position = HEADER_BYTES + ((long) tileRow * tileCols + tileCol) * tile.capacity();
+			tile.clear();
+			while (tile.hasRemaining()) {
+				if (channel.read(tile, position + tile.position()) < 0) {
+					throw new IOException("Tile file is truncated");
+				}
+			}
+			tile.flip();
+			tile.asLongBuffer().get(bits);
+		}
+
+		/**
+		 * The checksum of every tile was taken when the file was written
+		 */
+		@Override
+		public long getFingerprint() {
+			return AbstractMaze.mix(checksum);
+		}
+
+		@Override
+		public String toString() {
+			return "TileFile [seed=" + seed + "]";
+		}
+	}
+}
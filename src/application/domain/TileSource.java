@@ -0,0 +1,32 @@
+package application.domain;
+
+import java.io.IOException;
+
+/**
+ * Supplies the landmines of the square tiles of a {@link TiledMaze}, e.g. by
+ * reading them from disk or generating them from a seed.
+ * 
+ * @author vbala
+ *
+ */
+public interface TileSource {
+
+	/**
+	 * Fill in the landmines of a tile. Bit i % 64 of bits[i / 64] is the tile
+	 * cell at local row i / tileSize and local column i % tileSize. Cells beyond
+	 * the edge of the maze are ignored.
+	 * 
+	 * @param tileRow  The row of the tile, maze row / tileSize
+	 * @param tileCol  The column of the tile, maze column / tileSize
+	 * @param tileSize The number of rows and columns of a tile
+	 * @param bits     The bits to fill, all zero on entry
+	 * @throws IOException If the tile cannot be read
+	 */
+	public void loadTile(int tileRow, int tileCol, int tileSize, long[] bits) throws IOException;
+
+	/**
+	 * Get a hash of every landmine the source supplies, see
+	 * {@link Maze#getFingerprint()}. It must be cheap, without loading the tiles.
+	 */
+	public long getFingerprint();
+}
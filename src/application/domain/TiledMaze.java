@@ -0,0 +1,308 @@
+package application.domain;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A {@link Maze} stored as square tiles which are loaded on demand from a
+ * {@link TileSource} and kept in a bounded least-recently-used cache. Only the
+ * tiles a search reaches are ever loaded, so worlds far larger than the heap,
+ * e.g. 100k x 100k, can be searched with a
+ * {@link application.service.SparseSearchContext}.
+ *
+ * Tiles with changed landmines are pinned in memory and never evicted, so no
+ * change is lost.
+ *
+ * The maze has more tiles than an int can index, so {@link #indexOf} throws for
+ * tiles past {@link Integer#MAX_VALUE}, visited tiles are not recorded and
+ * every tile costs 1 to move onto.
+ *
+ * @author vbala
+ *
+ */
+public class TiledMaze extends AbstractMaze {
+
+	private final TileSource source;
+	private final int tileShift;
+	private final int tileMask;
+	private final int wordsPerTile;
+	private final int maxCachedTiles;
+
+	/** Unchanged tiles, least recently used first */
+	private final LinkedHashMap<Long, long[]> cache;
+
+	/** Tiles with changed landmines, never evicted */
+	private final Map<Long, long[]> pinned = new HashMap<Long, long[]>();
+
+	/** The tile read last, checked before the cache */
+	private volatile Tile lastTile;
+
+	private long hits;
+	private long misses;
+	private long evictions;
+	private long loadTime;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param width          The number of rows
+	 * @param height         The number of columns
+	 * @param tileSize       The rows and columns of a tile, a power of two of at
+	 *                       least 8
+	 * @param maxCachedTiles The most unchanged tiles to keep in memory
+	 * @param source         Supplies the landmines of each tile
+	 */
+	public TiledMaze(int width, int height, int tileSize, int maxCachedTiles, TileSource source) {
+		super(width, height);
+		if (tileSize < 8 || Integer.bitCount(tileSize) != 1) {
+			throw new IllegalArgumentException("Tile size must be a power of two of at least 8");
+		}
+		if (maxCachedTiles < 1) {
+			throw new IllegalArgumentException("At least one tile must be cached");
+		}
+
+		this.source = source;
+		this.tileShift = Integer.numberOfTrailingZeros(tileSize);
+		this.tileMask = tileSize - 1;
+		this.wordsPerTile = tileSize * tileSize / 64;
+		this.maxCachedTiles = maxCachedTiles;
+		this.cache = new LinkedHashMap<Long, long[]>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Long, long[]> eldest) {
+				if (size() > TiledMaze.this.maxCachedTiles) {
+					evictions++;
+					return true;
+				}
+				return false;
+			}
+		};
+
+		// Take the fingerprint of the source now, changes then update it
+		getFingerprint();
+	}
+
+	/**
+	 * Create a maze whose tiles are generated from a seed
+	 *
+	 * @param width          The number of rows
+	 * @param height         The number of columns
+	 * @param density        The chance of a tile holding a landmine, 0 to 1
+	 * @param seed           The seed the tiles are generated from
+	 * @param tileSize       The rows and columns of a tile
+	 * @param maxCachedTiles The most unchanged tiles to keep in memory
+	 * @return The maze
+	 */
+	public static TiledMaze generate(int width, int height, double density, long seed, int tileSize,
+			int maxCachedTiles) {
+		return new TiledMaze(width, height, tileSize, maxCachedTiles,
+				new ProceduralTileSource(width, height, seed, density));
+	}
+
+	/**
+	 * Tiles are loaded as they are needed, there is nothing to generate
+	 */
+	@Override
+	public void initialize() {
+	}
+
+	@Override
+	protected boolean getLandMineBit(int row, int col) {
+		long[] bits = tileAt(row, col);
+		int cell = ((row & tileMask) << tileShift) | (col & tileMask);
+		return (bits[cell >>> 6] & (1L << cell)) != 0;
+	}
+
+	@Override
+	protected synchronized void setLandMineBit(int row, int col, boolean landMine) {
+		Long key = tileKey(row, col);
+		long[] bits = pinned.get(key);
+		if (bits == null) {
+			bits = tileAt(row, col);
+			cache.remove(key);
+			pinned.put(key, bits);
+		}
+
+		int cell = ((row & tileMask) << tileShift) | (col & tileMask);
+		bits[cell >>> 6] ^= 1L << cell;
+	}
+
+	/**
+	 * Get the bits of the tile holding a maze cell, loading it if needed
+	 */
+	private long[] tileAt(int row, int col) {
+		long key = tileKey(row, col);
+		Tile tile = lastTile;
+		if (tile != null && tile.key == key) {
+			return tile.bits;
+		}
+
+		long[] bits = lookUp(key);
+		lastTile = new Tile(key, bits);
+		return bits;
+	}
+
+	/**
+	 * Find a tile in memory or load it from the source
+	 */
+	private synchronized long[] lookUp(long key) {
+		long[] bits = pinned.get(key);
+		if (bits == null) {
+			bits = cache.get(key);
+		}
+		if (bits != null) {
+			hits++;
+			return bits;
+		}
+
+		misses++;
+		long start = System.nanoTime();
+		bits = new long[wordsPerTile];
+		try {
+			source.loadTile((int) (key >>> 32), (int) key, 1 << tileShift, bits);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Cannot load tile " + (key >>> 32) + ", " + (int) key, e);
+		}
+		loadTime += System.nanoTime() - start;
+		cache.put(key, bits);
+		return bits;
+	}
+
+	private long tileKey(int row, int col) {
+		return ((long) (row >>> tileShift) << 32) | (col >>> tileShift);
+	}
+
+	/**
+	 * The fingerprint hashes the size, tile size and the source fingerprint, so
+	 * no tile is loaded
+	 */
+	@Override
+	protected long computeFingerprint() {
+		long hash = mix(((long) width << 32) | height);
+		return hash ^ mix(source.getFingerprint() + tileShift);
+	}
+
+	/**
+	 * Get the index of a tile
+	 *
+	 * @throws ArithmeticException If the index does not fit an int
+	 */
+	@Override
+	public int indexOf(int row, int col) {
+		return Math.toIntExact((long) row * height + col);
+	}
+
+	/**
+	 * Every tile costs 1, a cost per tile would not fit in memory
+	 */
+	@Override
+	public int getTerrainCost(int row, int col) {
+		return 1;
+	}
+
+	/**
+	 * Terrain costs cannot be changed
+	 *
+	 * @throws UnsupportedOperationException Always
+	 */
+	@Override
+	public void setTerrainCost(int row, int col, int cost) {
+		throw new UnsupportedOperationException("Tiled mazes have no terrain costs");
+	}
+
+	/**
+	 * Visited tiles are not recorded, a mark per tile would not fit in memory
+	 */
+	@Override
+	public void markVisitedNode(int x, int y) {
+	}
+
+	/**
+	 * Get the rows and columns of a tile
+	 *
+	 * @return The tile size
+	 */
+	public int getTileSize() {
+		return 1 << tileShift;
+	}
+
+	/**
+	 * Get the number of tile lookups answered from memory. Repeated reads of
+	 * the last tile are not counted.
+	 *
+	 * @return The hit count
+	 */
+	public synchronized long getTileHits() {
+		return hits;
+	}
+
+	/**
+	 * Get the number of tiles loaded from the source
+	 *
+	 * @return The miss count
+	 */
+	public synchronized long getTileMisses() {
+		return misses;
+	}
+
+	/**
+	 * Get the number of tiles dropped from the cache
+	 *
+	 * @return The eviction count
+	 */
+	public synchronized long getTileEvictions() {
+		return evictions;
+	}
+
+	/**
+	 * Get the time spent loading tiles
+	 *
+	 * @return The load time in nanoseconds
+	 */
+	public synchronized long getTileLoadTime() {
+		return loadTime;
+	}
+
+	/**
+	 * Get the number of tiles held in memory, pinned ones included
+	 *
+	 * @return The resident tile count
+	 */
+	public synchronized int getResidentTiles() {
+		return cache.size() + pinned.size();
+	}
+
+	/**
+	 * Describe the tile cache, e.g. for logging after a search
+	 *
+	 * @return The tile cache statistics
+	 */
+	public synchronized String getTileCacheStatistics() {
+		return "tiles resident=" + getResidentTiles() + " (pinned=" + pinned.size() + ", max cached="
+				+ maxCachedTiles + "), hits=" + hits + ", misses=" + misses + ", evictions=" + evictions
+				+ ", load time=" + loadTime / 1000000 + " ms";
+	}
+
+	@Override
+	public String toString() {
+		return "TiledMaze [width=" + width + ", height=" + height + ", tileSize=" + getTileSize() + ", source="
+				+ source + ", " + getTileCacheStatistics() + "]";
+	}
+
+	/**
+	 * A loaded tile and its key
+	 */
+	private static final class Tile {
+		private final long key;
+		private final long[] bits;
+
+		private Tile(long key, long[] bits) {
+			this.key = key;
+			this.bits = bits;
+		}
+	}
+}
@@ -1,14 +1,80 @@
 package application.service;
 
+import application.domain.Maze;
+
 /**
  * Heuristic options for the A* Algorithm
  * 
  * @author vbala
  *
  */
-public class AStarHeuristic {
+public enum AStarHeuristic implements Heuristic {
+
+	CHEBYSHEV("Chebyshev") {
+		@Override
+		public float getCost(int x, int y, int targetX, int targetY) {
+			return getCostChebyshevHeuristic(x, y, targetX, targetY);
+		}
+	},
+
+	EUCLIDEAN("Euclidean") {
+		@Override
+		public float getCost(int x, int y, int targetX, int targetY) {
+			return getCostEuclideanDistance(x, y, targetX, targetY);
+		}
+	},
+
+	MANHATTAN("Manhattan") {
+		@Override
+		public float getCost(int x, int y, int targetX, int targetY) {
+			return getCostManhattanDistance(x, y, targetX, targetY);
+		}
+	},
+
+	/**
+	 * Searches use the {@link LandmarkTable} of their maze, or Chebyshev if the
+	 * maze is too large for one
+	 */
+	LANDMARKS("Landmarks (ALT)") {
+		@Override
+		public float getCost(int x, int y, int targetX, int targetY) {
+			return getCostChebyshevHeuristic(x, y, targetX, targetY);
+		}
+
+		@Override
+		public Heuristic forMaze(Maze maze) {
+			LandmarkTable table = LandmarkTable.getTable(maze);
+			return table == null ? CHEBYSHEV : table;
+		}
+	};
+
+	/** The names of the heuristics, in order */
+	public static final String[] algorithms = names();
 
-	public static String[] algorithms = { "Chebyshev", "Euclidean", "Manhattan" };
+	private final String name;
+
+	private AStarHeuristic(String name) {
+		this.name = name;
+	}
+
+	@Override
+	public String getName() {
+		return name;
+	}
+
+	@Override
+	public String toString() {
+		return name;
+	}
+
+	private static String[] names() {
+		AStarHeuristic[] heuristics = values();
+		String[] names = new String[heuristics.length];
+		for (int i = 0; i < heuristics.length; i++) {
+			names[i] = heuristics[i].name;
+		}
+		return names;
+	}
 
 	/**
 	 * Chebyshev Distance Heuristic
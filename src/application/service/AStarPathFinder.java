@@ -1,25 +1,30 @@
 package application.service;
 
-import java.util.ArrayList;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.CancellationException;
+
 import application.domain.Maze;
-import application.domain.Node;
+import application.domain.OpenList;
 import application.domain.Path;
-import application.domain.SortedList;
+import application.domain.SearchStatistics;
+import application.domain.SolveJob;
+import application.domain.SolveResult;
 
 /**
  * A path finder implementation that uses the AStar search algorithm with
  * heuristics (Manhattan, Euclidean, or Chebychev) to find the shortest-path
- * from start to end.
+ * from start to end. Moving onto a tile costs its
+ * {@link Maze#getTerrainCost terrain cost}.
  * 
  * @author vbala
  */
-public class AStarPathFinder {
+public class AStarPathFinder implements PathFinder {
 
-	/** Set of already searched nodes */
-	private ArrayList<Node> closed = new ArrayList<Node>();
+	/** Number of expansions between calls to the {@link SearchMonitor} */
+	private static final int MONITOR_INTERVAL = 4096;
 
-	/** Set of not traversed nodes */
-	private SortedList open = new SortedList();
+	/** Reusable search state */
+	private SearchContext context;
 
 	/** Object containing maze configuration details */
 	private Maze maze;
@@ -27,11 +32,24 @@ public class AStarPathFinder {
 	/** Max search distance */
 	private int maxSearchDistance;
 
-	/** Complete set of all nodes */
-	private Node[][] nodes;
+	/** True if neighbours should be recorded with {@link Maze#markVisitedNode} */
+	private boolean markVisitedNodes = true;
+
+	/** Observer of running searches, may be null */
+	private SearchMonitor monitor;
+
+	/** Cache of solved paths, may be null */
+	private PathCache pathCache;
+
+	/** Statistics of the last search */
+	private SearchStatistics statistics = new SearchStatistics();
+
+	/** The {@link System#nanoTime()} at which the last search ended */
+	private long searchEnd;
 
 	/**
-	 * Create a path finder
+	 * Create a path finder. Huge mazes are searched with a
+	 * {@link SparseSearchContext}, which only holds the tiles the search reaches.
 	 * 
 	 * @param heuristic         The heuristic used to determine the search order of
 	 *                          the map
@@ -40,22 +58,44 @@ public class AStarPathFinder {
 	 * @param allowDiagMovement True if the search should try diagonal movement
 	 */
 	public AStarPathFinder(Maze maze, int maxSearchDistance, boolean allowDiagMovement) {
+		this(maze, maxSearchDistance, allowDiagMovement, SearchContext.forMaze(maze));
+	}
+
+	/**
+	 * Create a path finder with a specific open list implementation, e.g. a
+	 * {@link application.domain.LegacyOpenList} for comparison
+	 * 
+	 * @param map               The map to be searched
+	 * @param maxSearchDistance The maximum depth we'll search before giving up
+	 * @param allowDiagMovement True if the search should try diagonal movement
+	 * @param open              The open list to use
+	 */
+	public AStarPathFinder(Maze maze, int maxSearchDistance, boolean allowDiagMovement, OpenList open) {
+		this(maze, maxSearchDistance, allowDiagMovement, SearchContext.forMaze(maze, open));
+	}
+
+	/**
+	 * Create a path finder which searches with an existing {@link SearchContext}.
+	 * The context may be shared by finders used on the same thread.
+	 * 
+	 * @param map               The map to be searched
+	 * @param maxSearchDistance The maximum depth we'll search before giving up
+	 * @param allowDiagMovement True if the search should try diagonal movement
+	 * @param context           The search state to reuse
+	 */
+	public AStarPathFinder(Maze maze, int maxSearchDistance, boolean allowDiagMovement, SearchContext context) {
 		this.maze = maze;
 		this.maxSearchDistance = maxSearchDistance;
-
-		nodes = new Node[maze.getWidth()][maze.getHeight()];
-		for (int x = 0; x < maze.getWidth(); x++) {
-			for (int y = 0; y < maze.getHeight(); y++) {
-				nodes[x][y] = new Node(x, y);
-			}
-		}
+		this.context = context;
 	}
 
 	/**
 	 * Solve the maze specified by the input parameters and build a {@Path}. Track
 	 * the runtime of the A* algorithm using the Java provided System utility.
 	 * 
-	 * If no solution is found then return NULL.
+	 * If no solution is found then return NULL. If a {@link PathCache} is set,
+	 * cached solutions are returned without searching. Either way
+	 * {@link #getStatistics()} describes the solve afterwards.
 	 * 
 	 * @param startX
 	 * @param startY
@@ -65,11 +105,27 @@ public class AStarPathFinder {
 	 * @return
 	 */
 	public Path solveMaze(int startX, int startY, int width, int height, String algorithmToUse) {
+		return solveMaze(startX, startY, width, height, resolveHeuristic(algorithmToUse));
+	}
+
+	/**
+	 * Solve the maze with a resolved heuristic
+	 * 
+	 * @see #solveMaze(int, int, int, int, String)
+	 */
+	public Path solveMaze(int startX, int startY, int width, int height, Heuristic heuristic) {
+		statistics.clear();
+		long allocatedBefore = getAllocatedBytes();
 		long startTime = System.nanoTime();
-		Path path = findPath(startX, startY, width, height, algorithmToUse);
+		Path path = pathCache == null ? findPath(startX, startY, width, height, heuristic)
+				: pathCache.solve(this, startX, startY, width, height, heuristic);
 
+		long endTime = System.nanoTime();
+		statistics.setReconstructionTime(endTime - searchEnd);
+		if (allocatedBefore >= 0) {
+			statistics.setBytesAllocated(getAllocatedBytes() - allocatedBefore);
+		}
 		if (path != null) {
-			long endTime = System.nanoTime();
 			long duration = (endTime - startTime) / (1000000); // divide to get ms
 			path.setRuntime(duration);
 		}
@@ -77,11 +133,42 @@ public class AStarPathFinder {
 		return path;
 	}
 
+	/**
+	 * Solve a job with this finder, which must have been created for the job's
+	 * maze and algorithm
+	 * 
+	 * @param job The job to solve
+	 * @return The path, if any, with a copy of the statistics of the solve
+	 */
+	@Override
+	public SolveResult solve(SolveJob job) {
+		// solveMaze takes the exclusive end of the search area
+		Path path = solveMaze(job.getStartX(), job.getStartY(), job.getGoalX() + 1, job.getGoalY() + 1,
+				resolveHeuristic(job.getHeuristic()));
+
+		return new SolveResult(job, path, statistics.copy());
+	}
+
 	/**
 	 * Return a {@Path} if one is found, else return NULL.
 	 * 
+	 * The search itself only touches the primitive arrays of the
+	 * {@link SearchContext}, so after the first solve it allocates nothing but
+	 * the returned path.
 	 */
 	public Path findPath(int startX, int startY, int targetX, int targetY, String heuristicToUse) {
+		return findPath(startX, startY, targetX, targetY, resolveHeuristic(heuristicToUse));
+	}
+
+	/**
+	 * Find a path with a resolved heuristic, bound to the maze with
+	 * {@link Heuristic#forMaze} before searching. Subclasses override this one.
+	 * 
+	 * @see #findPath(int, int, int, int, String)
+	 */
+	@Override
+	public Path findPath(int startX, int startY, int targetX, int targetY, Heuristic heuristic) {
+		heuristic = heuristic.forMaze(maze);
 
 		// Decrement max x and max y values to account for zero-based indexing
 		targetX = targetX - 1;
@@ -89,153 +176,362 @@ public class AStarPathFinder {
 
 		// Initial state for A*. The closed group is empty
 		// Start node is in the open list
-		nodes[startX][startY].cost = 0;
-		nodes[startX][startY].level = 0;
-		closed.clear();
-		open.clear();
-		open.add(nodes[startX][startY]);
+		// Before the clock starts, the first query of a maze builds its index
+		boolean reachable = isReachable(startX, startY, targetX, targetY);
+		long searchStart = System.nanoTime();
+		if (!reachable) {
+			recordStatistics(0, 0, searchStart, false);
+			recordOpenListStatistics(0, 0);
+			return null;
+		}
 
-		nodes[targetX][targetY].parent = null;
+		context.reset(maze);
+		int start = context.getId(startX, startY);
+		int target = context.getId(targetX, targetY);
+		context.setCost(start, 0);
+		context.setParent(start, -1);
+		context.setHeuristic(start, getHeuristicCost(startX, startY, targetX, targetY, heuristic));
+		context.addToOpen(start);
 
 		// while we haven'n't exceeded our max search depth
 		int maxDepth = 0;
-		while ((maxDepth < maxSearchDistance) && (open.size() != 0)) {
+		while ((maxDepth < maxSearchDistance) && (context.getOpenSize() != 0)) {
 			// Pull the first node, which is our start node
-			Node current = getBaseNode();
-			if (current == nodes[targetX][targetY]) {
+			int current = context.pollOpen();
+			if (current == target) {
 				break;
 			}
 
-			removeFromOpen(current);
-			addToClosed(current);
-
-			// Traverse the neighbors for the current node
-			for (int x = -1; x < 2; x++) {
-				for (int y = -1; y < 2; y++) {
-
-					if ((x == 0) && (y == 0)) {
-						// Skip not a neighbor
-						continue;
-					}
-
-					// Get the location of the neighbor
-					int xp = x + current.getRow();
-					int yp = y + current.getCol();
-
-					if (isValidLocation(xp, yp)) {
-
-						// Add the base node to the visited list and get
-						// neighbors
-						float nextStepCost = current.cost + getMovementCost();
-						Node neighbour = nodes[xp][yp];
-						maze.markVisitedNode(xp, yp);
-
-						// Node already exists, check its cost
-						// and update or ignore accordingly
-						if (nextStepCost < neighbour.cost) {
-							if (inOpenList(neighbour)) {
-								removeFromOpen(neighbour);
-							}
-							if (inClosedList(neighbour)) {
-								removeFromClosed(neighbour);
-							}
-						}
-
-						// We have not yet processed this node, compute the
-						// heuristic costs and add to the open list
-						if (!inOpenList(neighbour) && !(inClosedList(neighbour))) {
-							neighbour.cost = nextStepCost;
-							neighbour.heuristic = getHeuristicCost(xp, yp, targetX, targetY, heuristicToUse);
-							maxDepth = Math.max(maxDepth, neighbour.setParent(current));
-							addToOpen(neighbour);
-						}
-					}
-				}
-			}
+			context.addToClosed(current);
+			checkMonitor(context.getExpandedCount(), context.getOpenSize());
+			maxDepth = Math.max(maxDepth, expand(current, targetX, targetY, heuristic));
 		}
 
-		if (nodes[targetX][targetY].parent == null) {
+		boolean found = context.getParent(target) >= 0;
+		recordStatistics(context.getExpandedCount(), context.getGeneratedCount(), searchStart, found,
+				!found && maxDepth >= maxSearchDistance);
+		recordOpenListStatistics(context.getPeakOpenSize(), context.getReopenedCount());
+		if (!found) {
 			// Nothing left to search, return null
 			return null;
 		}
 
 		// Build path if we have one, else return null
+		return buildPath(start, target);
+	}
+
+	/**
+	 * Expand a node by relaxing each of its passable neighbours.
+	 * 
+	 * @param current   The node taken from the open list
+	 * @param targetX   The x coordinate of the target location
+	 * @param targetY   The y coordinate of the target location
+	 * @param heuristic The heuristic to use for new nodes
+	 * @return The deepest level reached by any neighbour
+	 */
+	protected int expand(int current, int targetX, int targetY, Heuristic heuristic) {
+		int maxDepth = 0;
+
+		// Traverse the neighbors for the current node
+		int row = context.getRow(current);
+		int col = context.getCol(current);
+		float currentCost = context.getCost(current);
+		for (int x = -1; x < 2; x++) {
+			for (int y = -1; y < 2; y++) {
+
+				if ((x == 0) && (y == 0)) {
+					// Skip not a neighbor
+					continue;
+				}
+
+				// Get the location of the neighbor
+				int xp = x + row;
+				int yp = y + col;
+
+				if (isValidLocation(xp, yp)) {
+					float nextStepCost = currentCost + getMovementCost(xp, yp);
+					maxDepth = Math.max(maxDepth,
+							relax(current, xp, yp, nextStepCost, targetX, targetY, heuristic));
+				}
+			}
+		}
+
+		return maxDepth;
+	}
+
+	/**
+	 * Offer a new route to the node at (xp, yp) through current. The node is
+	 * added to the open list, or moved up in it, if the route is cheaper than any
+	 * found so far.
+	 * 
+	 * @param current      The node we are coming from
+	 * @param xp           The x coordinate of the node being reached
+	 * @param yp           The y coordinate of the node being reached
+	 * @param nextStepCost The cost of reaching the node along this route
+	 * @param targetX      The x coordinate of the target location
+	 * @param targetY      The y coordinate of the target location
+	 * @param heuristic    The heuristic to use if the node is new
+	 * @return The level of the node, or 0 if the route was not taken
+	 */
+	protected int relax(int current, int xp, int yp, float nextStepCost, int targetX, int targetY,
+			Heuristic heuristic) {
+		return relax(context, current, xp, yp, nextStepCost, targetX, targetY, heuristic);
+	}
+
+	/**
+	 * Offer a new route to the node at (xp, yp) through current, recorded in the
+	 * given search context.
+	 * 
+	 * @see #relax(int, int, int, float, int, int, Heuristic)
+	 */
+	protected int relax(SearchContext context, int current, int xp, int yp, float nextStepCost, int targetX,
+			int targetY, Heuristic heuristic) {
+		int neighbour = context.getId(xp, yp);
+		if (markVisitedNodes) {
+			maze.markVisitedNode(xp, yp);
+		}
+
+		// Node already exists, check its cost
+		// and update or ignore accordingly
+		boolean inOpen = context.inOpenList(neighbour);
+		boolean inClosed = !inOpen && context.inClosedList(neighbour);
+		if ((inOpen || inClosed) && nextStepCost >= context.getCost(neighbour)) {
+			return 0;
+		}
+
+		context.setCost(neighbour, nextStepCost);
+		int level = context.setParent(neighbour, current);
+		if (inOpen) {
+			// Cheaper route to a queued node, move it up the heap
+			context.decreaseKeyInOpen(neighbour);
+		} else {
+			// We have not yet processed this node (or found a
+			// cheaper route to a closed one), compute the
+			// heuristic costs and add to the open list
+			if (!inClosed) {
+				context.setHeuristic(neighbour, getHeuristicCost(xp, yp, targetX, targetY, heuristic));
+			}
+			context.addToOpen(neighbour);
+		}
+
+		return level;
+	}
+
+	/**
+	 * Build the {@link Path} from start to target by following parents back from
+	 * the target. Parents need not be adjacent, as long as they lie on a
+	 * straight or diagonal line the tiles in between are filled in.
+	 * 
+	 * @param start  The start node
+	 * @param target The target node
+	 * @return The path, including both ends
+	 */
+	protected Path buildPath(int start, int target) {
+		return buildPath(context, start, target);
+	}
+
+	/**
+	 * Build the {@link Path} from start to target using the parents recorded in
+	 * the given search context.
+	 * 
+	 * @see #buildPath(int, int)
+	 */
+	protected Path buildPath(SearchContext context, int start, int target) {
 		Path path = new Path();
-		Node target = nodes[targetX][targetY];
-		while (target != nodes[startX][startY]) {
-			path.buildStep(maze, target.getRow(), target.getCol());
-			target = target.parent;
+		int step = target;
+		while (step != start) {
+			int parent = context.getParent(step);
+			int row = context.getRow(step);
+			int col = context.getCol(step);
+			int parentRow = context.getRow(parent);
+			int parentCol = context.getCol(parent);
+			while (row != parentRow || col != parentCol) {
+				path.buildStep(maze, row, col);
+				row -= Integer.signum(row - parentRow);
+				col -= Integer.signum(col - parentCol);
+			}
+			step = parent;
 		}
-		path.buildStep(maze, startX, startY);
+		path.buildStep(maze, context.getRow(start), context.getCol(start));
 
 		// Return path
 		return path;
 	}
 
 	/**
-	 * Get the first element from the open list. This is the next one to be
-	 * searched.
+	 * Report progress to the {@link SearchMonitor}, if any, every
+	 * {@link #MONITOR_INTERVAL} expansions and stop the search if it has been
+	 * cancelled.
+	 * 
+	 * @param expanded The number of nodes expanded so far
+	 * @param openSize The current size of the open list
+	 * @throws CancellationException If the monitor cancelled the search
+	 */
+	protected void checkMonitor(long expanded, int openSize) {
+		if (monitor == null || expanded % MONITOR_INTERVAL != 0) {
+			return;
+		}
+
+		monitor.searchProgress(expanded, openSize);
+		if (monitor.isCancelled()) {
+			throw new CancellationException("Search cancelled after " + expanded + " expansions");
+		}
+	}
+
+	/**
+	 * Set the cache consulted by {@link #solveMaze}
+	 * 
+	 * @param pathCache The cache, or null to always search
+	 */
+	@Override
+	public void setPathCache(PathCache pathCache) {
+		this.pathCache = pathCache;
+	}
+
+	/**
+	 * Set the observer of subsequent searches
 	 * 
-	 * @return The first element in the open list
+	 * @param monitor The monitor, or null for none
 	 */
-	protected Node getBaseNode() {
-		return (Node) open.first();
+	@Override
+	public void setSearchMonitor(SearchMonitor monitor) {
+		this.monitor = monitor;
 	}
 
 	/**
-	 * Add a node to the open list
+	 * Describe the settings which decide what this finder returns, so a
+	 * {@link PathCache} only answers finders which would search alike.
+	 * Subclasses with settings of their own add them.
 	 * 
-	 * @param node The node to be added to the open list
+	 * @return The class and settings of the finder
 	 */
-	protected void addToOpen(Node node) {
-		open.add(node);
+	public String getSettings() {
+		return getClass().getName() + " maxSearchDistance=" + maxSearchDistance;
 	}
 
 	/**
-	 * Check if a node is in the open list
+	 * Release anything held outside the finder, e.g. listeners registered on the
+	 * maze. Call this when the finder is no longer used.
+	 */
+	@Override
+	public void dispose() {
+	}
+
+	/**
+	 * Record the statistics of the search that just finished. Whatever runs
+	 * after this, up to the end of {@link #solveMaze}, counts as path
+	 * reconstruction.
 	 * 
-	 * @param node The node to check for
-	 * @return True if the node given is in the open list
+	 * @param expanded    The number of nodes expanded
+	 * @param generated   The number of nodes added to the open list
+	 * @param searchStart The {@link System#nanoTime()} at which the search began
+	 * @param found       True if a path was found
 	 */
-	protected boolean inOpenList(Node node) {
-		return open.contains(node);
+	protected void recordStatistics(long expanded, long generated, long searchStart, boolean found) {
+		recordStatistics(expanded, generated, searchStart, found, false);
 	}
 
 	/**
-	 * Remove a node from the open list
+	 * Record the statistics of a search that may have stopped at its limit
 	 * 
-	 * @param node The node to remove from the open list
+	 * @param limitReached True if the search stopped at its depth limit or
+	 *                     budget before it was done
+	 * @see #recordStatistics(long, long, long, boolean)
 	 */
-	protected void removeFromOpen(Node node) {
-		open.remove(node);
+	protected void recordStatistics(long expanded, long generated, long searchStart, boolean found,
+			boolean limitReached) {
+		searchEnd = System.nanoTime();
+		statistics.setNodesExpanded(expanded);
+		statistics.setNodesGenerated(generated);
+		statistics.setSearchTime(searchEnd - searchStart);
+		statistics.setPathFound(found);
+		statistics.setLimitReached(limitReached);
 	}
 
 	/**
-	 * Add a node to the closed list
+	 * Record the open list statistics of the search that just finished
 	 * 
-	 * @param node The node to add to the closed list
+	 * @param peakOpenSize The largest size of the open list
+	 * @param reopenings   The number of closed nodes put back on the open list
 	 */
-	protected void addToClosed(Node node) {
-		closed.add(node);
+	protected void recordOpenListStatistics(long peakOpenSize, long reopenings) {
+		statistics.setPeakOpenSize(peakOpenSize);
+		statistics.setReopenings(reopenings);
 	}
 
 	/**
-	 * Check if the node supplied is in the closed list
+	 * Get the bytes allocated so far by the current thread
 	 * 
-	 * @param node The node to search for
-	 * @return True if the node specified is in the closed list
+	 * @return The allocated bytes, or -1 if the JVM cannot tell
 	 */
-	protected boolean inClosedList(Node node) {
-		return closed.contains(node);
+	private static long getAllocatedBytes() {
+		java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		if (threads instanceof com.sun.management.ThreadMXBean) {
+			com.sun.management.ThreadMXBean hotSpotThreads = (com.sun.management.ThreadMXBean) threads;
+			if (hotSpotThreads.isThreadAllocatedMemoryEnabled()) {
+				return hotSpotThreads.getThreadAllocatedBytes(Thread.currentThread().getId());
+			}
+		}
+		return -1;
 	}
 
 	/**
-	 * Remove a node from the closed list
+	 * Get the statistics of the last search. The same object is updated by every
+	 * search, use {@link SearchStatistics#copy()} to keep them.
 	 * 
-	 * @param node The node to remove from the closed list
+	 * @return The search statistics
 	 */
-	protected void removeFromClosed(Node node) {
-		closed.remove(node);
+	@Override
+	public SearchStatistics getStatistics() {
+		return statistics;
+	}
+
+	/**
+	 * Choose whether searches record the nodes they reach on the maze. Marking
+	 * writes to the maze, so it must be turned off when several threads search
+	 * the same maze.
+	 * 
+	 * @param markVisitedNodes True to call {@link Maze#markVisitedNode}
+	 */
+	@Override
+	public void setMarkVisitedNodes(boolean markVisitedNodes) {
+		this.markVisitedNodes = markVisitedNodes;
+	}
+
+	/**
+	 * Check if searches record the nodes they reach on the maze
+	 * 
+	 * @return True if {@link Maze#markVisitedNode} is called
+	 */
+	protected boolean isMarkVisitedNodes() {
+		return markVisitedNodes;
+	}
+
+	/**
+	 * Get the maximum depth searched before giving up
+	 * 
+	 * @return The max search distance
+	 */
+	protected int getMaxSearchDistance() {
+		return maxSearchDistance;
+	}
+
+	/**
+	 * Get the search state used by this finder
+	 * 
+	 * @return The search context
+	 */
+	protected SearchContext getContext() {
+		return context;
+	}
+
+	/**
+	 * Get the maze being searched
+	 * 
+	 * @return The maze
+	 */
+	protected Maze getMaze() {
+		return maze;
 	}
 
 	/**
@@ -247,48 +543,65 @@ public class AStarPathFinder {
 	 */
 	protected boolean isValidLocation(int x, int y) {
 
-		if ((x < 0) || (y < 0) || (x >= maze.getWidth()) || (y >= maze.getHeight())) {
-			return false;
-		} else if (maze.getNodeAtRowCol(x, y).isLandMine()) {
-			return false;
-		}
+		return maze.isPassable(x, y);
+	}
 
-		return true;
+	/**
+	 * Check the {@link ConnectivityIndex} of the maze for a route between two
+	 * tiles, so a search which cannot succeed is skipped. Mazes too large for an
+	 * index are always searched.
+	 * 
+	 * The first query of a maze, or the first after a landmine split a region,
+	 * builds the index, so finders call this before taking the start time of
+	 * the search.
+	 * 
+	 * @param startX  The x coordinate of the start location
+	 * @param startY  The y coordinate of the start location
+	 * @param targetX The x coordinate of the target location
+	 * @param targetY The y coordinate of the target location
+	 * @return False if the target certainly cannot be reached
+	 */
+	protected boolean isReachable(int startX, int startY, int targetX, int targetY) {
+		ConnectivityIndex index = ConnectivityIndex.getIndex(maze);
+		return index == null || index.isConnected(maze, startX, startY, targetX, targetY);
 	}
 
 	/**
-	 * Get the cost to move through a given location
+	 * Get the cost to move onto a given location, its terrain cost
 	 * 
-	 * @param sx The x coordinate of the node whose cost is being determined
-	 * @param sy The y coordiante of the node whose cost is being determined
-	 * @param tx The x coordinate of the target location
-	 * @param ty The y coordinate of the target location
-	 * @return The cost of movement through the given node
+	 * @param x The x coordinate of the node whose cost is being determined
+	 * @param y The y coordinate of the node whose cost is being determined
+	 * @return The cost of movement onto the given node
 	 */
-	public float getMovementCost() {
-		return 1;
+	public float getMovementCost(int x, int y) {
+		return maze.getTerrainCost(x, y);
 	}
 
 	/**
 	 * Get the heuristic cost for the given location. This determines in which order
 	 * the locations are processed.
 	 * 
-	 * @param x    The x coordinate of the current node
-	 * @param y    The y coordinate of the current node
-	 * @param endX The x coordinate of the target location
-	 * @param endY The y coordinate of the target location
+	 * @param x         The x coordinate of the current node
+	 * @param y         The y coordinate of the current node
+	 * @param endX      The x coordinate of the target location
+	 * @param endY      The y coordinate of the target location
+	 * @param heuristic The heuristic, resolved for the maze
 	 * @return The heuristic cost assigned to the node
 	 */
-	public float getHeuristicCost(int x, int y, int endX, int endY, String heuristicToUse) {
-		if (heuristicToUse.equals(AStarHeuristic.algorithms[0])) {
-			return AStarHeuristic.getCostChebyshevHeuristic(x, y, endX, endY);
-		} else if (heuristicToUse.equals(AStarHeuristic.algorithms[1])) {
-			return AStarHeuristic.getCostEuclideanDistance(x, y, endX, endY);
-		} else if (heuristicToUse.equals(AStarHeuristic.algorithms[2])) {
-			AStarHeuristic.getCostManhattanDistance(x, y, endX, endY);
-		}
+	public float getHeuristicCost(int x, int y, int endX, int endY, Heuristic heuristic) {
+		return heuristic.getCost(x, y, endX, endY);
+	}
 
-		return AStarHeuristic.getCostEuclideanDistance(x, y, endX, endY);
+	/**
+	 * Look up a heuristic by name in the default {@link PathFinderRegistry}.
+	 * Unknown names fall back to Euclidean.
+	 * 
+	 * @param name One of {@link AStarHeuristic#algorithms}
+	 * @return The heuristic
+	 */
+	protected static Heuristic resolveHeuristic(String name) {
+		Heuristic heuristic = PathFinderRegistry.getDefault().getHeuristic(name);
+		return heuristic == null ? AStarHeuristic.EUCLIDEAN : heuristic;
 	}
 
 }
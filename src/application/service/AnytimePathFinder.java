@@ -0,0 +1,413 @@
+package application.service;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import application.domain.Maze;
+import application.domain.Path;
+
+/**
+ * An anytime path finder (ARA*, Likhachev, Gordon and Thrun) which returns a
+ * path quickly and then keeps improving it while its budget lasts.
+ *
+ * The first search is weighted A*: the heuristic is multiplied by a weight
+ * above 1, so the search heads for the target and finds a path after far
+ * fewer expansions, at most weight times as costly as the cheapest. Each
+ * following search lowers the weight and reuses the costs found so far. Only
+ * the nodes whose cost dropped since they were expanded are searched again,
+ * so the searches get cheaper as the weight approaches 1 and the path becomes
+ * the cheapest.
+ *
+ * The search stops when the path is proven cheapest, or when the time or
+ * expansion budget runs out, and returns the best path found so far with its
+ * suboptimality bound: the cheapest path costs at least the smallest cost
+ * plus heuristic among the nodes left to search. The bound only holds for an
+ * admissible heuristic, such as Chebyshev with diagonal moves.
+ *
+ * @author vbala
+ */
+public class AnytimePathFinder extends AStarPathFinder {
+
+	/** Heuristic weight of the first search */
+	public static final float DEFAULT_INITIAL_WEIGHT = 3;
+
+	/** Amount the weight is lowered by between searches */
+	public static final float DEFAULT_WEIGHT_STEP = 0.5f;
+
+	/** Number of expansions between two looks at the clock */
+	private static final int CLOCK_INTERVAL = 64;
+
+	private float initialWeight = DEFAULT_INITIAL_WEIGHT;
+	private float weightStep = DEFAULT_WEIGHT_STEP;
+
+	/** Time and expansions a search may use, 0 for no limit */
+	private long timeBudget;
+	private long expansionBudget;
+
+	/** Told about every cheaper path, may be null */
+	private Consumer<AnytimeResult> solutionListener;
+
+	/** Number of the current weighted search, counting up across queries */
+	private int pass;
+
+	/** The pass in which each node was last expanded, by context id */
+	private int[] closedPasses = new int[0];
+
+	/** Nodes whose cost dropped after they were expanded in this pass */
+	private int[] inconsistent = new int[0];
+	private int[] inconsistentPasses = new int[0];
+	private int inconsistentCount;
+
+	/** Open nodes taken out to be keyed again with a new weight */
+	private int[] drained = new int[0];
+	private int drainedCount;
+
+	/** State of the current query */
+	private long expanded;
+	private long deadline;
+	private int maxDepth;
+	private long inconsistentTotal;
+
+	/**
+	 * Create a path finder
+	 *
+	 * @param maze              The map to be searched
+	 * @param maxSearchDistance The maximum depth we'll search before giving up
+	 * @param allowDiagMovement True if the search should try diagonal movement
+	 */
+	public AnytimePathFinder(Maze maze, int maxSearchDistance, boolean allowDiagMovement) {
+		super(maze, maxSearchDistance, allowDiagMovement);
+	}
+
+	/**
+	 * Create a path finder which searches with an existing {@link SearchContext}
+	 *
+	 * @param maze              The map to be searched
+	 * @param maxSearchDistance The maximum depth we'll search before giving up
+	 * @param allowDiagMovement True if the search should try diagonal movement
+	 * @param context           The search state to reuse
+	 */
+	public AnytimePathFinder(Maze maze, int maxSearchDistance, boolean allowDiagMovement, SearchContext context) {
+		super(maze, maxSearchDistance, allowDiagMovement, context);
+	}
+
+	/**
+	 * Set the weights of the searches. A smaller step finds more paths on the
+	 * way, but takes longer to reach the cheapest.
+	 *
+	 * @param initialWeight The heuristic weight of the first search, at least 1
+	 * @param weightStep    The amount the weight is lowered by between searches
+	 * @throws IllegalArgumentException If the weight is below 1 or the step is
+	 *                                  not positive
+	 */
+	public void setWeights(float initialWeight, float weightStep) {
+		if (!(initialWeight >= 1) || !(weightStep > 0)) {
+			throw new IllegalArgumentException("Weight " + initialWeight + " or step " + weightStep + " out of range");
+		}
+		this.initialWeight = initialWeight;
+		this.weightStep = weightStep;
+	}
+
+	/**
+	 * Set the wall-clock time a query may take
+	 *
+	 * @param time The time, 0 for no limit
+	 * @param unit The unit of the time
+	 */
+	public void setTimeBudget(long time, TimeUnit unit) {
+		this.timeBudget = unit.toNanos(time);
+	}
+
+	/**
+	 * Set the number of nodes a query may expand
+	 *
+	 * @param expansions The number of expansions, 0 for no limit
+	 */
+	public void setExpansionBudget(long expansions) {
+		this.expansionBudget = expansions;
+	}
+
+	@Override
+	public String getSettings() {
+		return super.getSettings() + " initialWeight=" + initialWeight + " weightStep=" + weightStep
+				+ " timeBudget=" + timeBudget + " expansionBudget=" + expansionBudget;
+	}
+
+	/**
+	 * Set the observer of the paths found while a query runs, each cheaper than
+	 * the last
+	 *
+	 * @param solutionListener The listener, or null for none
+	 */
+	public void setSolutionListener(Consumer<AnytimeResult> solutionListener) {
+		this.solutionListener = solutionListener;
+	}
+
+	/**
+	 * Return the best {@Path} found within the budget, else return NULL. Use
+	 * {@link #search} for its bound.
+	 */
+	@Override
+	public Path findPath(int startX, int startY, int targetX, int targetY, Heuristic heuristic) {
+		return search(startX, startY, targetX, targetY, heuristic).getPath();
+	}
+
+	/**
+	 * Search for ever cheaper paths until the cheapest is found or the budget
+	 * runs out
+	 *
+	 * @param startX    The x coordinate of the start location
+	 * @param startY    The y coordinate of the start location
+	 * @param targetX   The x coordinate of the target location, plus 1
+	 * @param targetY   The y coordinate of the target location, plus 1
+	 * @param heuristic The heuristic, admissible for the bound to hold
+	 * @return The best path found and its bound
+	 */
+	public AnytimeResult search(int startX, int startY, int targetX, int targetY, Heuristic heuristic) {
+		Maze maze = getMaze();
+		heuristic = heuristic.forMaze(maze);
+		targetX = targetX - 1;
+		targetY = targetY - 1;
+
+		// Before the clock starts, the first query of a maze builds its index,
+		// which then takes nothing from the time budget
+		boolean reachable = isReachable(startX, startY, targetX, targetY);
+		long searchStart = System.nanoTime();
+		deadline = timeBudget > 0 ? searchStart + timeBudget : Long.MAX_VALUE;
+		expanded = 0;
+		maxDepth = 0;
+		inconsistentTotal = 0;
+		float weight = initialWeight;
+		if (!reachable) {
+			recordStatistics(0, 0, searchStart, false);
+			recordOpenListStatistics(0, 0);
+			return new AnytimeResult(null, Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY, weight, 0,
+					System.nanoTime() - searchStart, 0, false);
+		}
+
+		SearchContext context = getContext();
+		context.reset(maze);
+		int start = context.getId(startX, startY);
+		int target = context.getId(targetX, targetY);
+		ensureCapacity(Math.max(start, target) + 1);
+		context.setCost(start, 0);
+		context.setParent(start, -1);
+		context.setHeuristic(start, getHeuristicCost(startX, startY, targetX, targetY, heuristic));
+		context.setHeuristicWeight(weight);
+		context.addToOpen(start);
+		startPass();
+
+		// The heuristic is admissible, so no path costs less than this
+		float lowerBound = context.getHeuristic(start);
+		Path bestPath = null;
+		float bestCost = Float.POSITIVE_INFINITY;
+		float targetCost = Float.POSITIVE_INFINITY;
+		float bestWeight = weight;
+		float bound = Float.POSITIVE_INFINITY;
+		int solutions = 0;
+		boolean exhausted;
+		while (true) {
+			exhausted = !improvePath(target, targetX, targetY, heuristic);
+			if (!exhausted) {
+				lowerBound = Math.max(lowerBound, drainOpen());
+			}
+
+			// A node's parent may have got cheaper since, so the path can cost
+			// less than the target
+			boolean improved = false;
+			if (context.getCost(target) < targetCost) {
+				targetCost = context.getCost(target);
+				Path path = buildPath(start, target);
+				float cost = path.getCost(maze, startX, startY);
+				if (cost < bestCost) {
+					improved = true;
+					bestPath = path;
+					bestCost = cost;
+					bestWeight = weight;
+					bound = bound(cost, lowerBound);
+					solutions++;
+					if (solutionListener != null) {
+						solutionListener.accept(new AnytimeResult(bestPath, cost, bound, weight, expanded,
+								System.nanoTime() - searchStart, solutions, false));
+					}
+				}
+			}
+			if (!improved && !exhausted && bestPath != null) {
+				bound = bound(bestCost, lowerBound);
+			}
+
+			if (exhausted || bestPath == null || bound <= 1) {
+				break;
+			}
+
+			// Search again with a lower weight, from the nodes left open
+			weight = Math.max(1, Math.min(weight - weightStep, bound));
+			refillOpen(weight);
+			startPass();
+		}
+
+		boolean found = bestPath != null;
+		recordStatistics(expanded, context.getGeneratedCount(), searchStart, found, exhausted);
+		recordOpenListStatistics(context.getPeakOpenSize(), inconsistentTotal);
+		return new AnytimeResult(bestPath, bestCost, bound, bestWeight, expanded, System.nanoTime() - searchStart,
+				solutions, exhausted);
+	}
+
+	/**
+	 * Get the factor a cost is at most above the cheapest path, given a lower
+	 * bound on its cost
+	 */
+	private static float bound(float cost, float lowerBound) {
+		return cost <= lowerBound ? 1 : cost / lowerBound;
+	}
+
+	/**
+	 * Expand nodes in order of cost plus weighted heuristic until none is
+	 * lower than the cost of the target
+	 *
+	 * @return False if the budget ran out first
+	 */
+	private boolean improvePath(int target, int targetX, int targetY, Heuristic heuristic) {
+		SearchContext context = getContext();
+		while (context.getOpenSize() != 0 && context.getOpenMinKey() < context.getCost(target)) {
+			if ((expansionBudget > 0 && expanded >= expansionBudget) || maxDepth >= getMaxSearchDistance()
+					|| (expanded % CLOCK_INTERVAL == 0 && System.nanoTime() >= deadline)) {
+				return false;
+			}
+
+			int current = context.pollOpen();
+			closedPasses[current] = pass;
+			expanded++;
+			checkMonitor(expanded, context.getOpenSize());
+			expand(current, targetX, targetY, heuristic);
+		}
+		return true;
+	}
+
+	/**
+	 * Lower the cost of the neighbours of a node. A neighbour already expanded
+	 * in this pass is not queued again but kept for the next pass.
+	 */
+	@Override
+	protected int expand(int current, int targetX, int targetY, Heuristic heuristic) {
+		SearchContext context = getContext();
+		Maze maze = getMaze();
+		int row = context.getRow(current);
+		int col = context.getCol(current);
+		float currentCost = context.getCost(current);
+		for (int x = -1; x < 2; x++) {
+			for (int y = -1; y < 2; y++) {
+				int xp = row + x;
+				int yp = col + y;
+				if ((x == 0 && y == 0) || !isValidLocation(xp, yp)) {
+					continue;
+				}
+
+				int neighbour = context.getId(xp, yp);
+				ensureCapacity(neighbour + 1);
+				if (isMarkVisitedNodes()) {
+					maze.markVisitedNode(xp, yp);
+				}
+				float cost = currentCost + getMovementCost(xp, yp);
+				if (cost >= context.getCost(neighbour)) {
+					continue;
+				}
+
+				boolean visited = context.isVisited(neighbour);
+				context.setCost(neighbour, cost);
+				maxDepth = Math.max(maxDepth, context.setParent(neighbour, current));
+				if (!visited) {
+					context.setHeuristic(neighbour, getHeuristicCost(xp, yp, targetX, targetY, heuristic));
+				}
+
+				if (closedPasses[neighbour] == pass) {
+					if (inconsistentPasses[neighbour] != pass) {
+						inconsistentPasses[neighbour] = pass;
+						inconsistent[inconsistentCount++] = neighbour;
+						inconsistentTotal++;
+					}
+				} else if (context.inOpenList(neighbour)) {
+					context.decreaseKeyInOpen(neighbour);
+				} else {
+					context.addToOpen(neighbour);
+				}
+			}
+		}
+
+		return maxDepth;
+	}
+
+	/**
+	 * Take every node out of the open list to be keyed again
+	 *
+	 * @return The smallest cost plus heuristic of the open and inconsistent
+	 *         nodes, a lower bound on the cost of any path, or infinity if there
+	 *         are none
+	 */
+	private float drainOpen() {
+		SearchContext context = getContext();
+		float lowest = Float.POSITIVE_INFINITY;
+		drainedCount = 0;
+		ensureDrained(context.getOpenSize());
+		while (context.getOpenSize() != 0) {
+			int id = context.pollOpen();
+			drained[drainedCount++] = id;
+			lowest = Math.min(lowest, context.getCost(id) + context.getHeuristic(id));
+		}
+		for (int i = 0; i < inconsistentCount; i++) {
+			int id = inconsistent[i];
+			lowest = Math.min(lowest, context.getCost(id) + context.getHeuristic(id));
+		}
+		return lowest;
+	}
+
+	/**
+	 * Put the drained and inconsistent nodes back in the open list, keyed with
+	 * a new weight
+	 */
+	private void refillOpen(float weight) {
+		SearchContext context = getContext();
+		context.setHeuristicWeight(weight);
+		for (int i = 0; i < drainedCount; i++) {
+			context.addToOpen(drained[i]);
+		}
+		for (int i = 0; i < inconsistentCount; i++) {
+			context.addToOpen(inconsistent[i]);
+		}
+		drainedCount = 0;
+		inconsistentCount = 0;
+	}
+
+	/**
+	 * Start a pass in which no node has been expanded yet
+	 */
+	private void startPass() {
+		inconsistentCount = 0;
+		if (++pass == Integer.MAX_VALUE) {
+			// Stamps wrapped around, forget them all
+			Arrays.fill(closedPasses, 0);
+			Arrays.fill(inconsistentPasses, 0);
+			pass = 1;
+		}
+	}
+
+	/**
+	 * Grow the per node arrays to hold a number of context ids
+	 */
+	private void ensureCapacity(int capacity) {
+		if (capacity <= closedPasses.length) {
+			return;
+		}
+		capacity = Math.max(capacity, closedPasses.length * 2);
+		closedPasses = Arrays.copyOf(closedPasses, capacity);
+		inconsistentPasses = Arrays.copyOf(inconsistentPasses, capacity);
+		inconsistent = Arrays.copyOf(inconsistent, capacity);
+	}
+
+	private void ensureDrained(int capacity) {
+		if (capacity > drained.length) {
+			drained = new int[Math.max(capacity, drained.length * 2)];
+		}
+	}
+}
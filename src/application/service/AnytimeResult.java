@@ -0,0 +1,133 @@
+package application.service;
+
+import application.domain.Path;
+
+/**
+ * A solution found by {@link AnytimePathFinder}, with a bound on how far it
+ * may be from the shortest path.
+ *
+ * @author vbala
+ *
+ */
+public class AnytimeResult {
+
+	private final Path path;
+	private final float cost;
+	private final float bound;
+	private final float weight;
+	private final long expandedNodes;
+	private final long elapsedTime;
+	private final int solutionCount;
+	private final boolean budgetExhausted;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param path            The path, or null if none was found
+	 * @param cost            The cost of the path, infinite if there is none
+	 * @param bound           The factor the cost is at most above the cheapest
+	 *                        path, infinite if there is no path
+	 * @param weight          The heuristic weight of the search which found the
+	 *                        path
+	 * @param expandedNodes   The nodes expanded so far
+	 * @param elapsedTime     The nanoseconds since the start of the search
+	 * @param solutionCount   The number of paths found so far, this one
+	 *                        included
+	 * @param budgetExhausted True if the search stopped for lack of time or
+	 *                        expansions
+	 */
+	AnytimeResult(Path path, float cost, float bound, float weight, long expandedNodes, long elapsedTime,
+			int solutionCount, boolean budgetExhausted) {
+		this.path = path;
+		this.cost = cost;
+		this.bound = bound;
+		this.weight = weight;
+		this.expandedNodes = expandedNodes;
+		this.elapsedTime = elapsedTime;
+		this.solutionCount = solutionCount;
+		this.budgetExhausted = budgetExhausted;
+	}
+
+	/**
+	 * Get the path
+	 *
+	 * @return The path, or null if none was found
+	 */
+	public Path getPath() {
+		return path;
+	}
+
+	/**
+	 * Get the sum of the terrain costs of the tiles entered along the path
+	 *
+	 * @return The cost, infinite if there is no path
+	 */
+	public float getCost() {
+		return cost;
+	}
+
+	/**
+	 * Get the suboptimality bound: the cost of the path is at most this many
+	 * times the cost of the cheapest path. It only holds for an admissible
+	 * heuristic, such as Chebyshev with diagonal moves.
+	 *
+	 * @return The bound, 1 if the path is the cheapest, infinite if there is no
+	 *         path
+	 */
+	public float getBound() {
+		return bound;
+	}
+
+	/**
+	 * Check if the path is proven to be the cheapest
+	 */
+	public boolean isOptimal() {
+		return bound <= 1;
+	}
+
+	/**
+	 * Get the factor the heuristic was multiplied by in the search which found
+	 * the path
+	 */
+	public float getWeight() {
+		return weight;
+	}
+
+	public long getExpandedNodes() {
+		return expandedNodes;
+	}
+
+	/**
+	 * Get the time from the start of the search until this result
+	 *
+	 * @return The time in nanoseconds
+	 */
+	public long getElapsedTime() {
+		return elapsedTime;
+	}
+
+	/**
+	 * Get the number of ever cheaper paths found so far, this one included
+	 */
+	public int getSolutionCount() {
+		return solutionCount;
+	}
+
+	/**
+	 * Check if the search stopped because its time or expansion budget ran out
+	 * rather than because the path was proven cheapest or no path exists
+	 */
+	public boolean isBudgetExhausted() {
+		return budgetExhausted;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder.append("AnytimeResult [cost=").append(cost).append(", bound=").append(bound).append(", weight=")
+				.append(weight).append(", expandedNodes=").append(expandedNodes).append(", elapsedTime=")
+				.append(elapsedTime).append(", solutionCount=").append(solutionCount)
+				.append(", budgetExhausted=").append(budgetExhausted).append("]");
+		return builder.toString();
+	}
+}
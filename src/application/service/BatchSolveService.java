@@ -0,0 +1,165 @@
+package application.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+
+import application.domain.SolveJob;
+import application.domain.SolveResult;
+
+/**
+ * Solves many {@link SolveJob}s concurrently on a {@link ForkJoinPool}.
+ * 
+ * Every worker thread keeps its own {@link SearchContext}s, so jobs share no
+ * mutable search state. A pair of dense contexts is grown to the largest
+ * ordinary maze the worker has solved, and a pair of
+ * {@link SparseSearchContext}s serves mazes too large for those, so workers
+ * allocate little per job beyond the path and statistics they return. Mazes
+ * are only read, several jobs may use the same maze.
+ * 
+ * @author vbala
+ *
+ */
+public class BatchSolveService {
+
+	/** Max search distance used for every job */
+	private static final int MAX_SEARCH_DISTANCE = Integer.MAX_VALUE;
+
+	/** Pool the jobs run on */
+	private final ForkJoinPool pool;
+
+	/** Cache of solved paths shared by the workers, may be null */
+	private volatile PathCache pathCache;
+
+	/** Aggregates the statistics of every job, may be null */
+	private volatile SearchStatisticsRegistry registry;
+
+	/**
+	 * Search state of each worker thread: two dense contexts, then two sparse
+	 * ones
+	 */
+	private final ThreadLocal<SearchContext[]> workerContexts = new ThreadLocal<SearchContext[]>() {
+		@Override
+		protected SearchContext[] initialValue() {
+			return new SearchContext[] { new SearchContext(0), new SearchContext(0), new SparseSearchContext(),
+					new SparseSearchContext() };
+		}
+	};
+
+	/**
+	 * Create a service using one worker per available processor
+	 */
+	public BatchSolveService() {
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Create a service
+	 * 
+	 * @param parallelism The number of jobs to solve at once
+	 */
+	public BatchSolveService(int parallelism) {
+		this.pool = new ForkJoinPool(parallelism);
+	}
+
+	/**
+	 * Get the number of jobs solved at once
+	 * 
+	 * @return The degree of parallelism
+	 */
+	public int getParallelism() {
+		return pool.getParallelism();
+	}
+
+	/**
+	 * Set the cache consulted before solving each job, so repeated jobs are
+	 * answered without searching
+	 * 
+	 * @param pathCache The cache, or null to always search
+	 */
+	public void setPathCache(PathCache pathCache) {
+		this.pathCache = pathCache;
+	}
+
+	/**
+	 * Set the registry the statistics of each solved job are recorded in
+	 * 
+	 * @param registry The registry, or null to record nothing
+	 */
+	public void setStatisticsRegistry(SearchStatisticsRegistry registry) {
+		this.registry = registry;
+	}
+
+	/**
+	 * Start solving a job
+	 * 
+	 * @param job The job to solve
+	 * @return A future completed with the result
+	 */
+	public CompletableFuture<SolveResult> submit(SolveJob job) {
+		return CompletableFuture.supplyAsync(() -> solve(job), pool);
+	}
+
+	/**
+	 * Start solving every job
+	 * 
+	 * @param jobs The jobs to solve
+	 * @return One future per job, in the same order
+	 */
+	public List<CompletableFuture<SolveResult>> submitAll(Collection<SolveJob> jobs) {
+		List<CompletableFuture<SolveResult>> futures = new ArrayList<CompletableFuture<SolveResult>>(jobs.size());
+		for (SolveJob job : jobs) {
+			futures.add(submit(job));
+		}
+		return futures;
+	}
+
+	/**
+	 * Solve every job. All jobs are submitted straight away, the returned stream
+	 * yields their results in job order, waiting for each as needed.
+	 * 
+	 * @param jobs The jobs to solve
+	 * @return The results, in the same order as the jobs
+	 */
+	public Stream<SolveResult> solveAll(Collection<SolveJob> jobs) {
+		return submitAll(jobs).stream().map(CompletableFuture::join);
+	}
+
+	/**
+	 * Stop the worker threads once the submitted jobs are done
+	 */
+	public void shutdown() {
+		pool.shutdown();
+	}
+
+	/**
+	 * Solve a job on the calling thread with that thread's search state
+	 * 
+	 * @param job The job to solve
+	 * @return The result
+	 */
+	private SolveResult solve(SolveJob job) {
+		SearchContext[] contexts = workerContexts.get();
+		int first = SearchContext.isSparse(job.getMaze()) ? 2 : 0;
+		PathFinder finder = SearchAlgorithm.createPathFinder(job.getAlgorithm(), job.getMaze(),
+				MAX_SEARCH_DISTANCE, contexts[first], contexts[first + 1]);
+		finder.setMarkVisitedNodes(false);
+		finder.setPathCache(pathCache);
+
+		SolveResult result;
+		try {
+			result = finder.solve(job);
+		} finally {
+			finder.dispose();
+		}
+
+		SearchStatisticsRegistry registry = this.registry;
+		if (registry != null) {
+			registry.record(result);
+		}
+		return result;
+	}
+}
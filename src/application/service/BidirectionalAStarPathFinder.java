@@ -0,0 +1,215 @@
+package application.service;
+
+import application.domain.Maze;
+import application.domain.Node;
+import application.domain.Path;
+
+/**
+ * A path finder implementation that runs two A* searches at once, one forward
+ * from the start and one backward from the target, and stops when they meet.
+ * 
+ * Each side uses its own {@link SearchContext}. The side with the smaller open
+ * list is expanded next. Whenever a node reached by one side has already been
+ * reached by the other, the combined cost is a candidate for the best path.
+ * The contexts may hand out different ids for a tile, e.g. two
+ * {@link SparseSearchContext}s, so tiles are matched by row and column.
+ * 
+ * Both sides are ordered by the average potential p(n) = (h(n, target) -
+ * h(n, start)) / 2, forward by g + p and backward by g - p. With a consistent
+ * heuristic this behaves like a bidirectional Dijkstra on reduced costs, so
+ * the search can stop as soon as the two lowest open keys add up to the cost of
+ * the best path found: any route not yet seen must cross both frontiers and
+ * cannot be cheaper.
+ * 
+ * @author vbala
+ */
+public class BidirectionalAStarPathFinder extends AStarPathFinder {
+
+	/** Search state for the backward search from the target */
+	private SearchContext backward;
+
+	/** Start of the current search, needed for the potentials */
+	private int startX;
+	private int startY;
+
+	/** True while the forward side is being expanded */
+	private boolean isForward;
+
+	/**
+	 * Create a path finder
+	 * 
+	 * @param maze              The map to be searched
+	 * @param maxSearchDistance The maximum depth either side will search before
+	 *                          giving up
+	 * @param allowDiagMovement True if the search should try diagonal movement
+	 */
+	public BidirectionalAStarPathFinder(Maze maze, int maxSearchDistance, boolean allowDiagMovement) {
+		this(maze, maxSearchDistance, allowDiagMovement, SearchContext.forMaze(maze), SearchContext.forMaze(maze));
+	}
+
+	/**
+	 * Create a path finder which searches with existing search contexts
+	 * 
+	 * @param maze              The map to be searched
+	 * @param maxSearchDistance The maximum depth either side will search before
+	 *                          giving up
+	 * @param allowDiagMovement True if the search should try diagonal movement
+	 * @param forward           The search state for the forward search
+	 * @param backward          The search state for the backward search
+	 */
+	public BidirectionalAStarPathFinder(Maze maze, int maxSearchDistance, boolean allowDiagMovement,
+			SearchContext forward, SearchContext backward) {
+		super(maze, maxSearchDistance, allowDiagMovement, forward);
+		this.backward = backward;
+	}
+
+	/**
+	 * Return a {@Path} if one is found, else return NULL.
+	 */
+	@Override
+	public Path findPath(int startX, int startY, int targetX, int targetY, Heuristic heuristic) {
+
+		// Decrement max x and max y values to account for zero-based indexing
+		targetX = targetX - 1;
+		targetY = targetY - 1;
+
+		// Before the clock starts, the first query of a maze builds its index
+		boolean reachable = isReachable(startX, startY, targetX, targetY);
+		long searchStart = System.nanoTime();
+		if (!reachable) {
+			recordStatistics(0, 0, searchStart, false);
+			recordOpenListStatistics(0, 0);
+			return null;
+		}
+		if (startX == targetX && startY == targetY) {
+			// Nothing to search, A* finds no path either
+			recordStatistics(0, 0, searchStart, false);
+			recordOpenListStatistics(0, 0);
+			return null;
+		}
+
+		Maze maze = getMaze();
+		heuristic = heuristic.forMaze(maze);
+		SearchContext forward = getContext();
+		forward.reset(maze);
+		backward.reset(maze);
+
+		int start = forward.getId(startX, startY);
+		int target = backward.getId(targetX, targetY);
+		this.startX = startX;
+		this.startY = startY;
+		isForward = true;
+		open(forward, start, getHeuristicCost(startX, startY, targetX, targetY, heuristic));
+		isForward = false;
+		open(backward, target, getHeuristicCost(targetX, targetY, targetX, targetY, heuristic));
+
+		// Cheapest path found so far and the tile where its two halves meet
+		float bestCost = Float.POSITIVE_INFINITY;
+		int meetingRow = -1;
+		int meetingCol = -1;
+
+		int maxDepth = 0;
+		while ((maxDepth < getMaxSearchDistance()) && forward.getOpenSize() != 0 && backward.getOpenSize() != 0) {
+			if (forward.getOpenMinKey() + backward.getOpenMinKey() >= bestCost) {
+				// Neither side can improve on the path we have
+				break;
+			}
+
+			// Expand the side with the smaller frontier
+			boolean isForward = forward.getOpenSize() <= backward.getOpenSize();
+			SearchContext side = isForward ? forward : backward;
+			SearchContext other = isForward ? backward : forward;
+			this.isForward = isForward;
+
+			int current = side.pollOpen();
+			side.addToClosed(current);
+			checkMonitor(forward.getExpandedCount() + backward.getExpandedCount(),
+					forward.getOpenSize() + backward.getOpenSize());
+
+			int row = side.getRow(current);
+			int col = side.getCol(current);
+			// Forward moves cost the tile moved onto. The backward search follows
+			// moves in reverse, from the neighbour onto the current tile
+			float backwardStepCost = side.getCost(current) + getMovementCost(row, col);
+			for (int x = -1; x < 2; x++) {
+				for (int y = -1; y < 2; y++) {
+					if (((x == 0) && (y == 0)) || !isValidLocation(row + x, col + y)) {
+						continue;
+					}
+
+					float nextStepCost = isForward ? side.getCost(current) + getMovementCost(row + x, col + y)
+							: backwardStepCost;
+					maxDepth = Math.max(maxDepth,
+							relax(side, current, row + x, col + y, nextStepCost, targetX, targetY, heuristic));
+
+					// Check whether the two searches have met here
+					int otherId = other.findId(row + x, col + y);
+					if (otherId < 0) {
+						continue;
+					}
+					float meetingCost = side.getCost(side.getId(row + x, col + y)) + other.getCost(otherId);
+					if (meetingCost < bestCost) {
+						bestCost = meetingCost;
+						meetingRow = row + x;
+						meetingCol = col + y;
+					}
+				}
+			}
+		}
+
+		boolean found = meetingRow >= 0;
+		recordStatistics(forward.getExpandedCount() + backward.getExpandedCount(),
+				forward.getGeneratedCount() + backward.getGeneratedCount(), searchStart, found,
+				!found && maxDepth >= getMaxSearchDistance());
+		recordOpenListStatistics(forward.getPeakOpenSize() + backward.getPeakOpenSize(),
+				forward.getReopenedCount() + backward.getReopenedCount());
+		if (!found) {
+			// Nothing left to search, return null
+			return null;
+		}
+
+		// Backward half from the target to the meeting node, then the forward half
+		// from there back to the start
+		int meeting = backward.getId(meetingRow, meetingCol);
+		int[] backwardChain = new int[backward.getDepth(meeting) + 1];
+		int step = meeting;
+		for (int i = 0; i < backwardChain.length; i++) {
+			backwardChain[i] = step;
+			step = backward.getParent(step);
+		}
+
+		Path path = new Path();
+		for (int i = backwardChain.length - 1; i > 0; i--) {
+			path.buildStep(maze, backward.getRow(backwardChain[i]), backward.getCol(backwardChain[i]));
+		}
+		for (Node node : buildPath(forward, start, forward.getId(meetingRow, meetingCol)).getNodeSet()) {
+			path.addNodePosition(node);
+		}
+
+		return path;
+	}
+
+	/**
+	 * Get the potential of a node for the side being expanded. The forward side
+	 * uses half the estimate to the target minus half the estimate to the start,
+	 * the backward side the negation of that.
+	 */
+	@Override
+	public float getHeuristicCost(int x, int y, int endX, int endY, Heuristic heuristic) {
+		float potential = (super.getHeuristicCost(x, y, endX, endY, heuristic)
+				- super.getHeuristicCost(x, y, startX, startY, heuristic)) / 2;
+
+		return isForward ? potential : -potential;
+	}
+
+	/**
+	 * Start one side of the search at the given node, keyed by its potential like
+	 * every other node of that side
+	 */
+	private void open(SearchContext side, int id, float potential) {
+		side.setCost(id, 0);
+		side.setParent(id, -1);
+		side.setHeuristic(id, potential);
+		side.addToOpen(id);
+	}
+}
@@ -0,0 +1,385 @@
+package application.service;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import application.domain.Maze;
+import application.domain.Path;
+
+/**
+ * A path finder which runs a breadth-first search over bitboards, 64 tiles to
+ * a word.
+ *
+ * The free tiles of each row of the maze are packed into longs along the
+ * columns. A whole level of the search is expanded at once: the frontier is
+ * ORed with the rows above and below it and then shifted one column either
+ * way, carrying bits between words, which covers all eight moves. Masking with
+ * the free tiles not reached yet gives the next level. The frontier keeps its
+ * rows, and the range of words each of them has bits in, so a level only
+ * touches the words around the wavefront, not every word reached so far.
+ *
+ * Instead of a parent per tile, each tile keeps its level modulo 3 in two more
+ * bitboards. Neighbouring tiles are at most one level apart, so walking back
+ * from the target to any neighbour one level lower always finds the start.
+ *
+ * Every move costs the same, so paths are as short as those found by A*, and
+ * the heuristic is not used. Mazes with terrain costs, and mazes too large for
+ * the bitboards, are searched with plain A*.
+ *
+ * @author vbala
+ */
+public class BitboardPathFinder extends AStarPathFinder {
+
+	/** Mazes with more tiles than this are searched with A* */
+	private static final long MAX_TILES = 1 << 26;
+
+	/** The free tiles of each maze searched so far */
+	private static final Map<Maze, Board> boards = new WeakHashMap<Maze, Board>();
+
+	/** Free tiles not reached yet, by row and word */
+	private long[] open;
+
+	/** Tiles of the current and the next level, empty outside their rows */
+	private long[] frontier;
+	private long[] next;
+
+	/** The low and high bit of the level of each reached tile, modulo 3 */
+	private long[] lowLevels;
+	private long[] highLevels;
+
+	/** Rows of the current and the next level, in order */
+	private int[] rows;
+	private int[] nextRows;
+	private int rowCount;
+
+	/**
+	 * The first and last word of each row of the current and the next level
+	 * with bits set, or {@link Integer#MAX_VALUE} and -1 for an empty row
+	 */
+	private int[] firstWords;
+	private int[] lastWords;
+	private int[] nextFirstWords;
+	private int[] nextLastWords;
+
+	/**
+	 * Create a path finder
+	 *
+	 * @param maze              The map to be searched
+	 * @param maxSearchDistance The maximum number of levels we'll search before
+	 *                          giving up
+	 * @param allowDiagMovement True if the search should try diagonal movement
+	 */
+	public BitboardPathFinder(Maze maze, int maxSearchDistance, boolean allowDiagMovement) {
+		super(maze, maxSearchDistance, allowDiagMovement);
+	}
+
+	/**
+	 * Create a path finder which falls back to A* with an existing
+	 * {@link SearchContext}
+	 *
+	 * @param maze              The map to be searched
+	 * @param maxSearchDistance The maximum number of levels we'll search before
+	 *                          giving up
+	 * @param allowDiagMovement True if the search should try diagonal movement
+	 * @param context           The search state to reuse
+	 */
+	public BitboardPathFinder(Maze maze, int maxSearchDistance, boolean allowDiagMovement, SearchContext context) {
+		super(maze, maxSearchDistance, allowDiagMovement, context);
+	}
+
+	/**
+	 * Return a {@Path} if one is found, else return NULL.
+	 */
+	@Override
+	public Path findPath(int startX, int startY, int targetX, int targetY, Heuristic heuristic) {
+		Maze maze = getMaze();
+		if (maze.hasTerrainCosts() || (long) maze.getWidth() * maze.getHeight() > MAX_TILES) {
+			return super.findPath(startX, startY, targetX, targetY, heuristic);
+		}
+
+		targetX = targetX - 1;
+		targetY = targetY - 1;
+
+		// Before the clock starts, the first query of a maze builds its index
+		boolean reachable = maze.isPassable(targetX, targetY) && isReachable(startX, startY, targetX, targetY);
+		long searchStart = System.nanoTime();
+		if (!reachable || (startX == targetX && startY == targetY)) {
+			recordStatistics(0, 0, searchStart, false);
+			recordOpenListStatistics(0, 0);
+			return null;
+		}
+
+		Board board = getBoard(maze);
+		int words = board.words;
+		allocate(board);
+
+		int startWord = startX * words + (startY >>> 6);
+		frontier[startWord] = 1L << startY;
+		open[startWord] &= ~(1L << startY);
+		firstWords[startX] = startY >>> 6;
+		lastWords[startX] = startY >>> 6;
+		rows[0] = startX;
+		rowCount = 1;
+
+		int targetWord = targetX * words + (targetY >>> 6);
+		long targetBit = 1L << targetY;
+
+		int level = 0;
+		long expanded = 0;
+		long peakFrontier = 1;
+		boolean found = false;
+		while (level < getMaxSearchDistance()) {
+			level++;
+			long size = expandLevel(words, maze.getWidth() - 1, level % 3);
+			expanded += size;
+			peakFrontier = Math.max(peakFrontier, size);
+
+			if ((frontier[targetWord] & targetBit) != 0) {
+				found = true;
+				break;
+			}
+			if (size == 0) {
+				break;
+			}
+		}
+		clearFrontier(words);
+
+		recordStatistics(expanded, expanded, searchStart, found, !found && level >= getMaxSearchDistance());
+		recordOpenListStatistics(peakFrontier, 0);
+		if (isMarkVisitedNodes()) {
+			markReached(maze, board, startX, startY);
+		}
+		if (!found) {
+			return null;
+		}
+
+		return buildPath(maze, board, startX, startY, targetX, targetY, level);
+	}
+
+	/**
+	 * Replace the frontier by the next level: the free tiles next to it which
+	 * were not reached yet
+	 *
+	 * @param words   The number of words per row
+	 * @param lastRow The last row of the maze
+	 * @param code    The next level modulo 3
+	 * @return The number of tiles in the next level
+	 */
+	private long expandLevel(int words, int lastRow, int code) {
+		long size = 0;
+		int nextRowCount = 0;
+		int lastCandidate = -1;
+		for (int i = 0; i < rowCount; i++) {
+			int from = Math.max(rows[i] - 1, lastCandidate + 1);
+			int to = Math.min(rows[i] + 1, lastRow);
+			for (int row = from; row <= to; row++) {
+				// Only the words next to the frontier of this row and its neighbours
+				int above = Math.max(row - 1, 0);
+				int below = Math.min(row + 1, lastRow);
+				int firstWord = Math.min(firstWords[above], Math.min(firstWords[row], firstWords[below]));
+				int lastWord = Math.max(lastWords[above], Math.max(lastWords[row], lastWords[below]));
+				firstWord = Math.max(firstWord - 1, 0);
+				lastWord = Math.min(lastWord + 1, words - 1);
+
+				int base = row * words;
+				int aboveOffset = (above - row) * words;
+				int belowOffset = (below - row) * words;
+				int first = Integer.MAX_VALUE;
+				int last = -1;
+				long previous = 0;
+				long current = frontier[base + firstWord] | frontier[base + aboveOffset + firstWord]
+						| frontier[base + belowOffset + firstWord];
+				for (int word = firstWord; word <= lastWord; word++) {
+					int index = base + word;
+					long following = 0;
+					if (word + 1 < words) {
+						following = frontier[index + 1] | frontier[index + aboveOffset + 1]
+								| frontier[index + belowOffset + 1];
+					}
+					long bits = (current | current << 1 | previous >>> 63 | current >>> 1 | following << 63)
+							& open[index];
+					if (bits != 0) {
+						next[index] = bits;
+						open[index] &= ~bits;
+						if ((code & 1) != 0) {
+							lowLevels[index] |= bits;
+						}
+						if ((code & 2) != 0) {
+							highLevels[index] |= bits;
+						}
+						first = Math.min(first, word);
+						last = word;
+						size += Long.bitCount(bits);
+					}
+					previous = current;
+					current = following;
+				}
+
+				if (last >= 0) {
+					nextFirstWords[row] = first;
+					nextLastWords[row] = last;
+					nextRows[nextRowCount++] = row;
+				}
+			}
+			lastCandidate = to;
+		}
+
+		// The old frontier becomes the next level, empty
+		clearFrontier(words);
+		long[] swap = frontier;
+		frontier = next;
+		next = swap;
+		int[] swapRows = rows;
+		rows = nextRows;
+		nextRows = swapRows;
+		rowCount = nextRowCount;
+		swapRows = firstWords;
+		firstWords = nextFirstWords;
+		nextFirstWords = swapRows;
+		swapRows = lastWords;
+		lastWords = nextLastWords;
+		nextLastWords = swapRows;
+		return size;
+	}
+
+	/**
+	 * Zero the words of the frontier, row by row
+	 */
+	private void clearFrontier(int words) {
+		for (int i = 0; i < rowCount; i++) {
+			int row = rows[i];
+			Arrays.fill(frontier, row * words + firstWords[row], row * words + lastWords[row] + 1, 0);
+			firstWords[row] = Integer.MAX_VALUE;
+			lastWords[row] = -1;
+		}
+		rowCount = 0;
+	}
+
+	/**
+	 * Walk back from the target, each step to a reached neighbour one level
+	 * lower, until the start is next
+	 */
+	private Path buildPath(Maze maze, Board board, int startX, int startY, int targetX, int targetY, int level) {
+		Path path = new Path();
+		int row = targetX;
+		int col = targetY;
+		path.buildStep(maze, row, col);
+		while (level > 1) {
+			level--;
+			int code = level % 3;
+			search: for (int dx = -1; dx < 2; dx++) {
+				for (int dy = -1; dy < 2; dy++) {
+					int x = row + dx;
+					int y = col + dy;
+					if ((dx != 0 || dy != 0) && x >= 0 && y >= 0 && x < maze.getWidth() && y < maze.getHeight()
+							&& levelCode(board, x * board.words + (y >>> 6), 1L << y) == code) {
+						row = x;
+						col = y;
+						break search;
+					}
+				}
+			}
+			path.buildStep(maze, row, col);
+		}
+		path.buildStep(maze, startX, startY);
+
+		return path;
+	}
+
+	/**
+	 * Get the level of a free tile modulo 3, or -1 if it was not reached
+	 */
+	private int levelCode(Board board, int index, long bit) {
+		if ((board.free[index] & ~open[index] & bit) == 0) {
+			return -1;
+		}
+		return ((lowLevels[index] & bit) != 0 ? 1 : 0) | ((highLevels[index] & bit) != 0 ? 2 : 0);
+	}
+
+	/**
+	 * Record every reached tile with {@link Maze#markVisitedNode}
+	 */
+	private void markReached(Maze maze, Board board, int startX, int startY) {
+		maze.markVisitedNode(startX, startY);
+		for (int row = 0; row < maze.getWidth(); row++) {
+			for (int word = 0; word < board.words; word++) {
+				int index = row * board.words + word;
+				long bits = board.free[index] & ~open[index];
+				while (bits != 0) {
+					maze.markVisitedNode(row, word << 6 | Long.numberOfTrailingZeros(bits));
+					bits &= bits - 1;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Make the bitboards the size of the maze, with every free tile open and
+	 * no levels. Both frontiers are left empty by the last search.
+	 */
+	private void allocate(Board board) {
+		int length = board.free.length;
+		int rowTotal = length / board.words;
+		if (open == null || open.length != length || rows.length != rowTotal) {
+			open = new long[length];
+			frontier = new long[length];
+			next = new long[length];
+			lowLevels = new long[length];
+			highLevels = new long[length];
+			rows = new int[rowTotal];
+			nextRows = new int[rowTotal];
+			firstWords = new int[rowTotal];
+			lastWords = new int[rowTotal];
+			nextFirstWords = new int[rowTotal];
+			nextLastWords = new int[rowTotal];
+			Arrays.fill(firstWords, Integer.MAX_VALUE);
+			Arrays.fill(lastWords, -1);
+			Arrays.fill(nextFirstWords, Integer.MAX_VALUE);
+			Arrays.fill(nextLastWords, -1);
+		} else {
+			Arrays.fill(lowLevels, 0);
+			Arrays.fill(highLevels, 0);
+		}
+		System.arraycopy(board.free, 0, open, 0, length);
+	}
+
+	/**
+	 * Get the free tiles of a maze, packing them on first use or after a
+	 * landmine changed
+	 */
+	private static Board getBoard(Maze maze) {
+		synchronized (boards) {
+			Board board = boards.get(maze);
+			if (board == null || board.modificationCount != maze.getModificationCount()) {
+				board = new Board(maze);
+				boards.put(maze, board);
+			}
+			return board;
+		}
+	}
+
+	/**
+	 * The free tiles of a maze, a bit per tile and a whole number of words per
+	 * row
+	 */
+	private static final class Board {
+
+		private final long modificationCount;
+		private final int words;
+		private final long[] free;
+
+		Board(Maze maze) {
+			this.modificationCount = maze.getModificationCount();
+			this.words = (maze.getHeight() + 63) >>> 6;
+			this.free = new long[maze.getWidth() * words];
+			for (int row = 0; row < maze.getWidth(); row++) {
+				for (int col = 0; col < maze.getHeight(); col++) {
+					if (maze.isPassable(row, col)) {
+						free[row * words + (col >>> 6)] |= 1L << col;
+					}
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,611 @@
+package application.service;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.stream.IntStream;
+
+import application.domain.Maze;
+import application.domain.MazeListener;
+
+/**
+ * The abstract graph used by {@link HierarchicalPathFinder}.
+ *
+ * The maze is split into square clusters. Wherever a move can cross the border
+ * between two clusters an entrance is placed, one transition per run of
+ * crossable border tiles, or one at each end of long runs. The tiles of every
+ * transition are the nodes of the graph. Nodes of the same cluster are joined
+ * by their shortest distance inside the cluster, and the two tiles of a
+ * transition by a single move.
+ *
+ * Clusters are built in parallel. Landmine changes only mark the clusters
+ * around the changed tile, which are rebuilt by the next {@link #update()}
+ * together with any neighbour whose entrances changed.
+ *
+ * @author vbala
+ *
+ */
+public class ClusterGraph {
+
+	/** Distance between tiles that cannot reach each other inside a cluster */
+	public static final int UNREACHABLE = Integer.MAX_VALUE;
+
+	/** Runs of crossable border tiles at least this long get two transitions */
+	private static final int LONG_ENTRANCE = 6;
+
+	/** Border kinds, each owned by the cluster at (clusterRow, clusterCol) */
+	private static final int ROW_BORDER = 0; // to (clusterRow + 1, clusterCol)
+	private static final int COL_BORDER = 1; // to (clusterRow, clusterCol + 1)
+	private static final int DIAGONAL_CORNER = 2; // (clusterRow + 1, clusterCol + 1)
+	private static final int ANTI_DIAGONAL_CORNER = 3; // (clusterRow, clusterCol + 1) to (clusterRow + 1, clusterCol)
+
+	private final Maze maze;
+	private final int clusterSize;
+	private final int clusterRows;
+	private final int clusterCols;
+
+	/** Transitions of each border as flattened (tile, tile) pairs */
+	private final int[][][] transitions;
+
+	/** Nodes and distances of each cluster */
+	private final Cluster[] clusters;
+
+	/** Clusters to rebuild on the next update */
+	private final BitSet dirtyClusters = new BitSet();
+
+	/** Marks the clusters around toggled tiles */
+	private final MazeListener changeListener = (maze, row, col, landMine) -> markChanged(row, col);
+
+	/**
+	 * Build the graph of a maze
+	 *
+	 * @param maze        The maze
+	 * @param clusterSize The width and height of a cluster in tiles
+	 */
+	public ClusterGraph(Maze maze, int clusterSize) {
+		this.maze = maze;
+		this.clusterSize = clusterSize;
+		this.clusterRows = (maze.getWidth() + clusterSize - 1) / clusterSize;
+		this.clusterCols = (maze.getHeight() + clusterSize - 1) / clusterSize;
+		this.transitions = new int[4][getClusterCount()][];
+		this.clusters = new Cluster[getClusterCount()];
+
+		IntStream.range(0, getClusterCount()).parallel().forEach(this::buildBorders);
+		IntStream.range(0, getClusterCount()).parallel().forEach(this::buildCluster);
+
+		maze.addMazeListener(changeListener);
+	}
+
+	/**
+	 * Rebuild the clusters touched by landmine changes since the last update
+	 */
+	public void update() {
+		BitSet dirty;
+		synchronized (dirtyClusters) {
+			if (dirtyClusters.isEmpty()) {
+				return;
+			}
+			dirty = (BitSet) dirtyClusters.clone();
+			dirtyClusters.clear();
+		}
+
+		// Every border of a dirty cluster may have gained or lost transitions
+		BitSet[] borders = new BitSet[4];
+		for (int kind = 0; kind < 4; kind++) {
+			borders[kind] = new BitSet();
+		}
+		for (int cluster = dirty.nextSetBit(0); cluster >= 0; cluster = dirty.nextSetBit(cluster + 1)) {
+			int clusterRow = cluster / clusterCols;
+			int clusterCol = cluster % clusterCols;
+			markBorder(borders[ROW_BORDER], clusterRow, clusterCol);
+			markBorder(borders[ROW_BORDER], clusterRow - 1, clusterCol);
+			markBorder(borders[COL_BORDER], clusterRow, clusterCol);
+			markBorder(borders[COL_BORDER], clusterRow, clusterCol - 1);
+			markBorder(borders[DIAGONAL_CORNER], clusterRow, clusterCol);
+			markBorder(borders[DIAGONAL_CORNER], clusterRow - 1, clusterCol - 1);
+			markBorder(borders[ANTI_DIAGONAL_CORNER], clusterRow, clusterCol - 1);
+			markBorder(borders[ANTI_DIAGONAL_CORNER], clusterRow - 1, clusterCol);
+		}
+
+		// Neighbours whose entrances changed need new distances too
+		BitSet rebuild = (BitSet) dirty.clone();
+		for (int kind = 0; kind < 4; kind++) {
+			for (int owner = borders[kind].nextSetBit(0); owner >= 0; owner = borders[kind].nextSetBit(owner + 1)) {
+				int[] oldTransitions = transitions[kind][owner];
+				transitions[kind][owner] = findTransitions(kind, owner / clusterCols, owner % clusterCols);
+				if (!Arrays.equals(oldTransitions, transitions[kind][owner])) {
+					int[] pairs = transitions[kind][owner].length > 0 ? transitions[kind][owner] : oldTransitions;
+					rebuild.set(getClusterOf(pairs[0]));
+					rebuild.set(getClusterOf(pairs[1]));
+				}
+			}
+		}
+
+		rebuild.stream().parallel().forEach(this::buildCluster);
+	}
+
+	/**
+	 * Stop listening for changes to the maze
+	 */
+	public void dispose() {
+		maze.removeMazeListener(changeListener);
+	}
+
+	/**
+	 * Get the cluster holding a tile
+	 *
+	 * @param tile The row-major id of the tile
+	 * @return The cluster id
+	 */
+	public int getClusterOf(int tile) {
+		int row = tile / maze.getHeight();
+		int col = tile % maze.getHeight();
+		return (row / clusterSize) * clusterCols + col / clusterSize;
+	}
+
+	/**
+	 * Get the number of clusters
+	 *
+	 * @return The cluster count
+	 */
+	public int getClusterCount() {
+		return clusterRows * clusterCols;
+	}
+
+	/**
+	 * Get the number of nodes of the abstract graph
+	 *
+	 * @return The node count
+	 */
+	public int getNodeCount() {
+		int count = 0;
+		for (Cluster cluster : clusters) {
+			count += cluster.nodes.length;
+		}
+		return count;
+	}
+
+	/**
+	 * Get the nodes of a cluster, sorted by tile id
+	 *
+	 * @param cluster The cluster id
+	 * @return The tile ids of the nodes, not to be modified
+	 */
+	public int[] getNodes(int cluster) {
+		return clusters[cluster].nodes;
+	}
+
+	/**
+	 * Get the position of a tile among the nodes of its cluster
+	 *
+	 * @param tile The tile id
+	 * @return The node index, or a negative number if the tile is not a node
+	 */
+	public int getNodeIndex(int tile) {
+		return Arrays.binarySearch(clusters[getClusterOf(tile)].nodes, tile);
+	}
+
+	/**
+	 * Get the distance inside a cluster between two of its nodes
+	 *
+	 * @param cluster The cluster id
+	 * @param from    The index of the first node
+	 * @param to      The index of the second node
+	 * @return The distance, or {@link #UNREACHABLE}
+	 */
+	public int getDistance(int cluster, int from, int to) {
+		Cluster nodes = clusters[cluster];
+		return nodes.distances[from * nodes.nodes.length + to];
+	}
+
+	/**
+	 * Get the tiles across cluster borders which a node can move onto
+	 *
+	 * @param cluster The cluster id
+	 * @param node    The index of the node
+	 * @return The tile ids, not to be modified
+	 */
+	public int[] getPartners(int cluster, int node) {
+		return clusters[cluster].partners[node];
+	}
+
+	/**
+	 * Get the distances inside its cluster from any tile to the nodes of the
+	 * cluster
+	 *
+	 * @param tile The tile id
+	 * @return The distance to each node, in the order of {@link #getNodes(int)}
+	 */
+	public int[] getDistancesToNodes(int tile) {
+		int cluster = getClusterOf(tile);
+		LocalSearch search = new LocalSearch(cluster);
+		search.run(tile);
+
+		int[] nodes = clusters[cluster].nodes;
+		int[] distances = new int[nodes.length];
+		for (int i = 0; i < nodes.length; i++) {
+			distances[i] = search.getDistance(nodes[i]);
+		}
+
+		return distances;
+	}
+
+	/**
+	 * Get the distance between two tiles of the same cluster, moving inside the
+	 * cluster only
+	 *
+	 * @param from The first tile id
+	 * @param to   The second tile id
+	 * @return The distance, or {@link #UNREACHABLE}
+	 */
+	public int getLocalDistance(int from, int to) {
+		LocalSearch search = new LocalSearch(getClusterOf(from));
+		search.run(from);
+		return search.getDistance(to);
+	}
+
+	/**
+	 * Get a shortest path between two tiles of the same cluster, moving inside
+	 * the cluster only
+	 *
+	 * @param from The first tile id
+	 * @param to   The second tile id
+	 * @return The tile ids from the first to the second tile, or null if they
+	 *         cannot reach each other
+	 */
+	public int[] getLocalPath(int from, int to) {
+		// Search from the end so parents lead towards it
+		LocalSearch search = new LocalSearch(getClusterOf(from));
+		search.run(to);
+		int distance = search.getDistance(from);
+		if (distance == UNREACHABLE) {
+			return null;
+		}
+
+		int[] path = new int[distance + 1];
+		int step = from;
+		for (int i = 0; i <= distance; i++) {
+			path[i] = step;
+			step = search.getNext(step);
+		}
+
+		return path;
+	}
+
+	/**
+	 * Mark the clusters around a changed tile. A tile on a border changes the
+	 * entrances of the clusters on both sides.
+	 */
+	private void markChanged(int row, int col) {
+		synchronized (dirtyClusters) {
+			for (int x = -1; x < 2; x++) {
+				for (int y = -1; y < 2; y++) {
+					int xp = row + x;
+					int yp = col + y;
+					if (xp >= 0 && yp >= 0 && xp < maze.getWidth() && yp < maze.getHeight()) {
+						dirtyClusters.set((xp / clusterSize) * clusterCols + yp / clusterSize);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Mark the border owned by a cluster, if the cluster exists
+	 */
+	private void markBorder(BitSet borders, int clusterRow, int clusterCol) {
+		if (clusterRow >= 0 && clusterCol >= 0 && clusterRow < clusterRows && clusterCol < clusterCols) {
+			borders.set(clusterRow * clusterCols + clusterCol);
+		}
+	}
+
+	/**
+	 * Find the transitions of every border owned by a cluster
+	 */
+	private void buildBorders(int cluster) {
+		int clusterRow = cluster / clusterCols;
+		int clusterCol = cluster % clusterCols;
+		for (int kind = 0; kind < 4; kind++) {
+			transitions[kind][cluster] = findTransitions(kind, clusterRow, clusterCol);
+		}
+	}
+
+	/**
+	 * Find the transitions of one border. Along a straight border a transition is
+	 * placed in the middle of every run of tiles which can cross straight over,
+	 * or at both ends of long runs. Diagonal crossings outside such runs get a
+	 * transition of their own, so every crossing is reachable from some
+	 * transition.
+	 *
+	 * @return Flattened (tile, tile) pairs, the first tile in the owning cluster
+	 */
+	private int[] findTransitions(int kind, int clusterRow, int clusterCol) {
+		int row = (clusterRow + 1) * clusterSize - 1;
+		int col = (clusterCol + 1) * clusterSize - 1;
+		IntList pairs = new IntList();
+
+		if (kind == DIAGONAL_CORNER || kind == ANTI_DIAGONAL_CORNER) {
+			if (row + 1 < maze.getWidth() && col + 1 < maze.getHeight()) {
+				int fromCol = kind == DIAGONAL_CORNER ? col : col + 1;
+				int toCol = kind == DIAGONAL_CORNER ? col + 1 : col;
+				addTransition(pairs, row, fromCol, row + 1, toCol);
+			}
+			return pairs.toArray();
+		}
+
+		// Walk along the border, (a, i) on this side and (b, i) on the other
+		boolean alongCols = kind == ROW_BORDER;
+		int a = alongCols ? row : col;
+		int start = (alongCols ? clusterCol : clusterRow) * clusterSize;
+		int end = Math.min(start + clusterSize, alongCols ? maze.getHeight() : maze.getWidth());
+		if (a + 1 >= (alongCols ? maze.getWidth() : maze.getHeight())) {
+			return pairs.toArray();
+		}
+
+		int runStart = -1;
+		for (int i = start; i <= end; i++) {
+			boolean straight = i < end && isPassable(alongCols, a, i) && isPassable(alongCols, a + 1, i);
+			if (straight && runStart < 0) {
+				runStart = i;
+			} else if (!straight && runStart >= 0) {
+				int length = i - runStart;
+				if (length >= LONG_ENTRANCE) {
+					addStraightTransition(pairs, alongCols, a, runStart);
+					addStraightTransition(pairs, alongCols, a, i - 1);
+				} else {
+					addStraightTransition(pairs, alongCols, a, runStart + length / 2);
+				}
+				runStart = -1;
+			}
+
+			// Diagonal crossings between two tiles which cannot cross straight
+			if (i + 1 < end && !isStraight(alongCols, a, i) && !isStraight(alongCols, a, i + 1)) {
+				if (isPassable(alongCols, a, i) && isPassable(alongCols, a + 1, i + 1)) {
+					addTransition(pairs, alongCols, a, i, i + 1);
+				}
+				if (isPassable(alongCols, a, i + 1) && isPassable(alongCols, a + 1, i)) {
+					addTransition(pairs, alongCols, a, i + 1, i);
+				}
+			}
+		}
+
+		return pairs.toArray();
+	}
+
+	private boolean isStraight(boolean alongCols, int a, int i) {
+		return isPassable(alongCols, a, i) && isPassable(alongCols, a + 1, i);
+	}
+
+	private boolean isPassable(boolean alongCols, int a, int i) {
+		return alongCols ? maze.isPassable(a, i) : maze.isPassable(i, a);
+	}
+
+	private void addStraightTransition(IntList pairs, boolean alongCols, int a, int i) {
+		addTransition(pairs, alongCols, a, i, i);
+	}
+
+	private void addTransition(IntList pairs, boolean alongCols, int a, int i, int j) {
+		if (alongCols) {
+			addTransition(pairs, a, i, a + 1, j);
+		} else {
+			addTransition(pairs, i, a, j, a + 1);
+		}
+	}
+
+	private void addTransition(IntList pairs, int fromRow, int fromCol, int toRow, int toCol) {
+		if (maze.isPassable(fromRow, fromCol) && maze.isPassable(toRow, toCol)) {
+			pairs.add(maze.indexOf(fromRow, fromCol));
+			pairs.add(maze.indexOf(toRow, toCol));
+		}
+	}
+
+	/**
+	 * Collect the nodes of a cluster from the transitions of its borders and
+	 * compute the distances between them
+	 */
+	private void buildCluster(int cluster) {
+		int clusterRow = cluster / clusterCols;
+		int clusterCol = cluster % clusterCols;
+
+		// (node, partner) pairs of every border touching the cluster
+		IntList links = new IntList();
+		collectLinks(links, cluster, ROW_BORDER, clusterRow, clusterCol);
+		collectLinks(links, cluster, ROW_BORDER, clusterRow - 1, clusterCol);
+		collectLinks(links, cluster, COL_BORDER, clusterRow, clusterCol);
+		collectLinks(links, cluster, COL_BORDER, clusterRow, clusterCol - 1);
+		collectLinks(links, cluster, DIAGONAL_CORNER, clusterRow, clusterCol);
+		collectLinks(links, cluster, DIAGONAL_CORNER, clusterRow - 1, clusterCol - 1);
+		collectLinks(links, cluster, ANTI_DIAGONAL_CORNER, clusterRow, clusterCol - 1);
+		collectLinks(links, cluster, ANTI_DIAGONAL_CORNER, clusterRow - 1, clusterCol);
+
+		int[] pairs = links.toArray();
+		int[] nodes = new int[pairs.length / 2];
+		for (int i = 0; i < nodes.length; i++) {
+			nodes[i] = pairs[2 * i];
+		}
+		Arrays.sort(nodes);
+		int count = 0;
+		for (int i = 0; i < nodes.length; i++) {
+			if (count == 0 || nodes[count - 1] != nodes[i]) {
+				nodes[count++] = nodes[i];
+			}
+		}
+		nodes = Arrays.copyOf(nodes, count);
+
+		// Partners of each node
+		int[] partnerCounts = new int[count];
+		for (int i = 0; i < pairs.length; i += 2) {
+			partnerCounts[Arrays.binarySearch(nodes, pairs[i])]++;
+		}
+		int[][] partners = new int[count][];
+		for (int i = 0; i < count; i++) {
+			partners[i] = new int[partnerCounts[i]];
+			partnerCounts[i] = 0;
+		}
+		for (int i = 0; i < pairs.length; i += 2) {
+			int node = Arrays.binarySearch(nodes, pairs[i]);
+			partners[node][partnerCounts[node]++] = pairs[i + 1];
+		}
+
+		// One breadth-first search per node fills a row of the distance matrix
+		int[] distances = new int[count * count];
+		LocalSearch search = new LocalSearch(cluster);
+		for (int i = 0; i < count; i++) {
+			search.run(nodes[i]);
+			for (int j = 0; j < count; j++) {
+				distances[i * count + j] = search.getDistance(nodes[j]);
+			}
+		}
+
+		clusters[cluster] = new Cluster(nodes, distances, partners);
+	}
+
+	/**
+	 * Add the (node, partner) pairs of a border whose tiles lie in the cluster
+	 */
+	private void collectLinks(IntList links, int cluster, int kind, int clusterRow, int clusterCol) {
+		if (clusterRow < 0 || clusterCol < 0 || clusterRow >= clusterRows || clusterCol >= clusterCols) {
+			return;
+		}
+
+		int[] pairs = transitions[kind][clusterRow * clusterCols + clusterCol];
+		for (int i = 0; i < pairs.length; i += 2) {
+			if (getClusterOf(pairs[i]) == cluster) {
+				links.add(pairs[i]);
+				links.add(pairs[i + 1]);
+			} else if (getClusterOf(pairs[i + 1]) == cluster) {
+				links.add(pairs[i + 1]);
+				links.add(pairs[i]);
+			}
+		}
+	}
+
+	/**
+	 * Nodes, distance matrix and partners of one cluster. Replaced as a whole
+	 * when the cluster is rebuilt.
+	 */
+	private static class Cluster {
+		private final int[] nodes;
+		private final int[] distances;
+		private final int[][] partners;
+
+		private Cluster(int[] nodes, int[] distances, int[][] partners) {
+			this.nodes = nodes;
+			this.distances = distances;
+			this.partners = partners;
+		}
+	}
+
+	/**
+	 * Breadth-first search confined to one cluster, over tiles indexed locally
+	 */
+	private class LocalSearch {
+		private final int rowOffset;
+		private final int colOffset;
+		private final int rows;
+		private final int cols;
+		private final boolean[] passable;
+		private final int[] distances;
+		private final int[] queue;
+
+		private LocalSearch(int cluster) {
+			rowOffset = (cluster / clusterCols) * clusterSize;
+			colOffset = (cluster % clusterCols) * clusterSize;
+			rows = Math.min(clusterSize, maze.getWidth() - rowOffset);
+			cols = Math.min(clusterSize, maze.getHeight() - colOffset);
+			passable = new boolean[rows * cols];
+			distances = new int[rows * cols];
+			queue = new int[rows * cols];
+
+			// Every search of the cluster reads the same tiles, copy them once
+			for (int row = 0; row < rows; row++) {
+				for (int col = 0; col < cols; col++) {
+					passable[row * cols + col] = maze.isPassable(row + rowOffset, col + colOffset);
+				}
+			}
+		}
+
+		/**
+		 * Compute the distance from a tile to every tile of the cluster
+		 */
+		private void run(int tile) {
+			Arrays.fill(distances, UNREACHABLE);
+			int row = tile / maze.getHeight() - rowOffset;
+			int col = tile % maze.getHeight() - colOffset;
+			if (!passable[row * cols + col]) {
+				return;
+			}
+
+			int head = 0;
+			int tail = 0;
+			distances[row * cols + col] = 0;
+			queue[tail++] = row * cols + col;
+			while (head < tail) {
+				int current = queue[head++];
+				int currentRow = current / cols;
+				int currentCol = current % cols;
+				int next = distances[current] + 1;
+				int rowStart = Math.max(0, currentRow - 1);
+				int rowEnd = Math.min(rows - 1, currentRow + 1);
+				int colStart = Math.max(0, currentCol - 1);
+				int colEnd = Math.min(cols - 1, currentCol + 1);
+				for (int xp = rowStart; xp <= rowEnd; xp++) {
+					for (int yp = colStart; yp <= colEnd; yp++) {
+						int neighbour = xp * cols + yp;
+						if (passable[neighbour] && distances[neighbour] == UNREACHABLE) {
+							distances[neighbour] = next;
+							queue[tail++] = neighbour;
+						}
+					}
+				}
+			}
+		}
+
+		/**
+		 * Get the distance from the last source to a tile of the cluster
+		 */
+		private int getDistance(int tile) {
+			int row = tile / maze.getHeight() - rowOffset;
+			int col = tile % maze.getHeight() - colOffset;
+			return distances[row * cols + col];
+		}
+
+		/**
+		 * Get the neighbour of a reached tile which is one step closer to the last
+		 * source
+		 */
+		private int getNext(int tile) {
+			int row = tile / maze.getHeight() - rowOffset;
+			int col = tile % maze.getHeight() - colOffset;
+			int distance = distances[row * cols + col];
+			for (int x = -1; x < 2; x++) {
+				for (int y = -1; y < 2; y++) {
+					int xp = row + x;
+					int yp = col + y;
+					if (xp >= 0 && yp >= 0 && xp < rows && yp < cols && distances[xp * cols + yp] == distance - 1) {
+						return maze.indexOf(xp + rowOffset, yp + colOffset);
+					}
+				}
+			}
+			return tile;
+		}
+	}
+
+	/**
+	 * Growable list of ints
+	 */
+	private static class IntList {
+		private int[] values = new int[16];
+		private int size;
+
+		private void add(int value) {
+			if (size == values.length) {
+				values = Arrays.copyOf(values, size * 2);
+			}
+			values[size++] = value;
+		}
+
+		private int[] toArray() {
+			return Arrays.copyOf(values, size);
+		}
+	}
+}
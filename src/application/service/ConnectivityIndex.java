@@ -0,0 +1,305 @@
+package application.service;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import application.domain.Maze;
+import application.domain.MazeListener;
+
+/**
+ * The connected regions of the free tiles of a maze, as a union-find (disjoint
+ * set) forest with the moves of {@link AStarPathFinder}. Two tiles can reach
+ * each other exactly when they share a root, so a search for an unreachable
+ * target is rejected before it starts instead of after it has exhausted the
+ * region of the start.
+ *
+ * The forest is built in one pass over the maze and then follows its
+ * landmines. Clearing a landmine only joins the tile to its neighbours. Placing
+ * one can split a region, which union-find cannot undo, so the placement is
+ * checked on the eight tiles around it: if the free ones are still connected
+ * among themselves every route through the tile has a detour and nothing
+ * changes. Otherwise the forest is rebuilt before the next query.
+ *
+ * An index per maze is kept and shared by every finder, see
+ * {@link #getIndex(Maze)}.
+ *
+ * @author vbala
+ *
+ */
+public class ConnectivityIndex implements MazeListener {
+
+	/** Mazes with more tiles than this get no index, it would not fit in memory */
+	private static final long MAX_TILES = 1 << 24;
+
+	/** Offsets of the eight neighbours, in order around the tile */
+	private static final int[] RING_X = { -1, -1, -1, 0, 1, 1, 1, 0 };
+	private static final int[] RING_Y = { -1, 0, 1, 1, 1, 0, -1, -1 };
+
+	/** The index of each maze searched so far */
+	private static final Map<Maze, ConnectivityIndex> indexes = new WeakHashMap<Maze, ConnectivityIndex>();
+
+	private final int width;
+	private final int height;
+
+	/**
+	 * Parent of each tile in the forest. A root holds minus the number of tiles
+	 * in its set instead, landmines placed since the last build included.
+	 */
+	private final int[] parent;
+
+	/** True if a placed landmine may have split a region */
+	private boolean stale = true;
+
+	/** Number of times the forest was built */
+	private long builds;
+
+	/**
+	 * Create an empty index for a maze, built on the first query
+	 *
+	 * @param maze The maze
+	 */
+	ConnectivityIndex(Maze maze) {
+		this.width = maze.getWidth();
+		this.height = maze.getHeight();
+		this.parent = new int[width * height];
+	}
+
+	/**
+	 * Get the index of a maze, creating it on first use. The index listens to
+	 * the maze from then on.
+	 *
+	 * @param maze The maze
+	 * @return The index, or null if the maze is too large for one
+	 */
+	public static ConnectivityIndex getIndex(Maze maze) {
+		if ((long) maze.getWidth() * maze.getHeight() > MAX_TILES) {
+			return null;
+		}
+
+		synchronized (indexes) {
+			ConnectivityIndex index = indexes.get(maze);
+			if (index == null) {
+				index = new ConnectivityIndex(maze);
+				maze.addMazeListener(index);
+				indexes.put(maze, index);
+			}
+			return index;
+		}
+	}
+
+	/**
+	 * Check if a path can lead from one tile to another. A start on a landmine
+	 * can still step off it, so its free neighbours are tried instead.
+	 *
+	 * @param maze    The maze the index was created for
+	 * @param fromRow The row of the start
+	 * @param fromCol The column of the start
+	 * @param toRow   The row of the target
+	 * @param toCol   The column of the target
+	 * @return True if the target can be reached
+	 */
+	public synchronized boolean isConnected(Maze maze, int fromRow, int fromCol, int toRow, int toCol) {
+		if (fromRow == toRow && fromCol == toCol) {
+			return true;
+		}
+		if (!maze.isPassable(toRow, toCol)) {
+			return false;
+		}
+		if (stale) {
+			build(maze);
+		}
+
+		int target = find(toRow * height + toCol);
+		if (maze.isPassable(fromRow, fromCol)) {
+			return find(fromRow * height + fromCol) == target;
+		}
+		for (int i = 0; i < RING_X.length; i++) {
+			int row = fromRow + RING_X[i];
+			int col = fromCol + RING_Y[i];
+			if (maze.isPassable(row, col) && find(row * height + col) == target) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Get the number of times the forest was built, once at first and again
+	 * after each landmine which may have split a region
+	 *
+	 * @return The build count
+	 */
+	public synchronized long getBuilds() {
+		return builds;
+	}
+
+	/**
+	 * Keep the forest up to date, called on the thread changing the maze
+	 */
+	@Override
+	public synchronized void landMineChanged(Maze maze, int row, int col, boolean landMine) {
+		if (stale) {
+			return;
+		}
+
+		if (landMine) {
+			// The tile stays in the forest, queries check for landmines first
+			stale = countLocalRegions(maze, row, col) > 1;
+			return;
+		}
+
+		// A tile which was a landmine since the last build is still in the set
+		// it had before. Unless that set is the tile alone, it must share it
+		// with a neighbour or the tile would join a region it cannot reach.
+		int tile = row * height + col;
+		int root = find(tile);
+		boolean joined = parent[root] == -1;
+		for (int i = 0; i < RING_X.length; i++) {
+			int x = row + RING_X[i];
+			int y = col + RING_Y[i];
+			if (maze.isPassable(x, y)) {
+				int neighbour = x * height + y;
+				joined |= find(neighbour) == root;
+				union(tile, neighbour);
+			}
+		}
+		stale = !joined;
+	}
+
+	/**
+	 * Count the groups of free tiles around a tile which are connected without
+	 * passing through it
+	 */
+	private static int countLocalRegions(Maze maze, int row, int col) {
+		boolean[] free = new boolean[RING_X.length];
+		int[] group = new int[RING_X.length];
+		int regions = 0;
+		for (int i = 0; i < RING_X.length; i++) {
+			free[i] = maze.isPassable(row + RING_X[i], col + RING_Y[i]);
+			group[i] = i;
+			if (free[i]) {
+				regions++;
+			}
+		}
+
+		for (int i = 0; i < RING_X.length; i++) {
+			for (int j = i + 1; j < RING_X.length; j++) {
+				boolean adjacent = Math.abs(RING_X[i] - RING_X[j]) <= 1 && Math.abs(RING_Y[i] - RING_Y[j]) <= 1;
+				if (!free[i] || !free[j] || !adjacent) {
+					continue;
+				}
+				int a = group[i];
+				int b = group[j];
+				if (a != b) {
+					regions--;
+					for (int k = 0; k < RING_X.length; k++) {
+						if (group[k] == b) {
+							group[k] = a;
+						}
+					}
+				}
+			}
+		}
+		return regions;
+	}
+
+	/**
+	 * Build the forest in one pass, a row at a time. Each free tile joins the
+	 * run of free tiles to its left, and the run joins the free tiles above it.
+	 */
+	private void build(Maze maze) {
+		boolean[] above = new boolean[height + 2];
+		boolean[] free = new boolean[height + 2];
+		for (int row = 0; row < width; row++) {
+			for (int col = 0; col < height; col++) {
+				free[col + 1] = maze.isPassable(row, col);
+			}
+
+			int run = -1;
+			for (int col = 0; col < height; col++) {
+				int tile = row * height + col;
+				parent[tile] = -1;
+				if (!free[col + 1]) {
+					run = -1;
+					continue;
+				}
+
+				if (run < 0) {
+					run = tile;
+				} else {
+					// Join the run, a fresh tile can go straight under its root
+					int root = find(run);
+					parent[tile] = root;
+					parent[root]--;
+				}
+
+				// free[col] is the tile to the left, above[col] to above[col + 2]
+				// the three tiles above. Neighbouring free tiles in a row share a
+				// set, so one union per run above is enough.
+				if (free[col]) {
+					// The left tile joined the tiles above it but the last
+					if (above[col + 2] && !above[col + 1]) {
+						union(tile, tile - height + 1);
+					}
+				} else if (above[col + 1]) {
+					union(tile, tile - height);
+				} else {
+					if (above[col]) {
+						union(tile, tile - height - 1);
+					}
+					if (above[col + 2]) {
+						union(tile, tile - height + 1);
+					}
+				}
+			}
+
+			boolean[] swap = above;
+			above = free;
+			free = swap;
+		}
+
+		// Point every tile at its root, so queries take one step
+		for (int tile = 0; tile < parent.length; tile++) {
+			int root = find(tile);
+			if (root != tile) {
+				parent[tile] = root;
+			}
+		}
+		stale = false;
+		builds++;
+	}
+
+	/**
+	 * Find the root of a tile, halving the path on the way
+	 */
+	private int find(int tile) {
+		while (parent[tile] >= 0) {
+			int next = parent[tile];
+			if (parent[next] < 0) {
+				return next;
+			}
+			parent[tile] = parent[next];
+			tile = parent[next];
+		}
+		return tile;
+	}
+
+	/**
+	 * Join the sets of two tiles, the smaller under the larger
+	 */
+	private void union(int a, int b) {
+		int rootA = find(a);
+		int rootB = find(b);
+		if (rootA == rootB) {
+			return;
+		}
+		// Sizes are negative, the larger set has the lower value
+		if (parent[rootA] > parent[rootB]) {
+			int swap = rootA;
+			rootA = rootB;
+			rootB = swap;
+		}
+		parent[rootA] += parent[rootB];
+		parent[rootB] = rootA;
+	}
+}
@@ -0,0 +1,399 @@
+package application.service;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+import application.domain.IndexedLongHeap;
+import application.domain.Maze;
+import application.domain.MazeListener;
+import application.domain.Path;
+
+/**
+ * An incremental path finder using D* Lite (Koenig and Likhachev).
+ *
+ * The search runs backwards from the target and its state is kept between
+ * solves. When landmines are placed or cleared with
+ * {@link Maze#setLandMine(int, int, boolean)}, or terrain costs change, the
+ * next solve only repairs the part of the search affected by the changed
+ * tiles, so small edits replan in a fraction of the time of a full search. The
+ * start may also move between solves. A new target starts the search from
+ * scratch.
+ *
+ * Repairs rely on a consistent heuristic, so the Chebyshev distance is always
+ * used, whichever heuristic is asked for. It is exact for unit cost moves in
+ * eight directions, and a lower bound when tiles cost more. The max search
+ * distance is not applied.
+ *
+ * @author vbala
+ */
+public class DStarLitePathFinder extends AStarPathFinder {
+
+	/** Cost of unreachable tiles, small enough that adding to it cannot overflow */
+	private static final int INFINITY = Integer.MAX_VALUE / 4;
+
+	/** Cost-to-target of each tile when last expanded */
+	private int[] g;
+
+	/** One step lookahead cost-to-target of each tile */
+	private int[] rhs;
+
+	/** Inconsistent tiles, keyed by packed (k1, k2) pairs */
+	private IndexedLongHeap open;
+
+	/** Key modifier, the heuristic distance the start moved so far */
+	private int keyModifier;
+
+	/** Current start and target ids, -1 before the first solve */
+	private int start = -1;
+	private int target = -1;
+
+	/** Tiles toggled since the last solve */
+	private final BitSet changedTiles = new BitSet();
+
+	/** Records changed tiles until the next solve */
+	private final MazeListener changeListener = new MazeListener() {
+		@Override
+		public void landMineChanged(Maze maze, int row, int col, boolean landMine) {
+			tileChanged(maze, row, col);
+		}
+
+		@Override
+		public void terrainCostChanged(Maze maze, int row, int col, int cost) {
+			tileChanged(maze, row, col);
+		}
+	};
+
+	private boolean listening;
+
+	/** Statistics of the current solve */
+	private long expanded;
+	private long generated;
+	private long peakOpenSize;
+
+	/**
+	 * Create a path finder
+	 *
+	 * @param map               The map to be searched
+	 * @param maxSearchDistance Ignored, searches are not limited
+	 * @param allowDiagMovement True if the search should try diagonal movement
+	 * @param context           The search state to reuse, only its size is used
+	 */
+	public DStarLitePathFinder(Maze maze, int maxSearchDistance, boolean allowDiagMovement, SearchContext context) {
+		super(maze, maxSearchDistance, allowDiagMovement, context);
+	}
+
+	/**
+	 * Return a {@Path} if one is found, else return NULL.
+	 *
+	 * The first solve, and any solve for a new target, searches the whole maze
+	 * like a backward A*. Later solves repair the previous search.
+	 */
+	@Override
+	public Path findPath(int startX, int startY, int targetX, int targetY, Heuristic heuristicToUse) {
+
+		// Decrement max x and max y values to account for zero-based indexing
+		targetX = targetX - 1;
+		targetY = targetY - 1;
+
+		// Before the clock starts, the first query of a maze builds its index
+		boolean reachable = isReachable(startX, startY, targetX, targetY);
+		long searchStart = System.nanoTime();
+		if (!reachable) {
+			// Changes are still recorded, the next search applies them
+			recordStatistics(0, 0, searchStart, false);
+			recordOpenListStatistics(0, 0);
+			return null;
+		}
+
+		expanded = 0;
+		generated = 0;
+		peakOpenSize = open == null ? 0 : open.size();
+
+		Maze maze = getMaze();
+		int newStart = maze.indexOf(startX, startY);
+		int newTarget = maze.indexOf(targetX, targetY);
+		if (newTarget != target || g == null) {
+			initialize(newStart, newTarget);
+		} else {
+			// The keys of queued tiles are lower bounds as long as the heuristic
+			// distance the start moved is added to new keys
+			keyModifier += heuristic(start, newStart);
+			start = newStart;
+			applyChanges();
+		}
+
+		computeShortestPath();
+
+		boolean found = rhs[start] < INFINITY;
+		recordStatistics(expanded, generated, searchStart, found);
+		recordOpenListStatistics(peakOpenSize, 0);
+		if (!found) {
+			return null;
+		}
+
+		return buildPath();
+	}
+
+	/**
+	 * Stop listening for changes to the maze. Call this when the finder is no
+	 * longer used, the maze otherwise keeps it alive.
+	 */
+	@Override
+	public void dispose() {
+		if (listening) {
+			getMaze().removeMazeListener(changeListener);
+			listening = false;
+		}
+		g = null;
+		rhs = null;
+		open = null;
+		target = -1;
+	}
+
+	/**
+	 * Record a changed tile, called on the thread changing the maze
+	 */
+	private void tileChanged(Maze maze, int row, int col) {
+		synchronized (changedTiles) {
+			changedTiles.set(maze.indexOf(row, col));
+		}
+	}
+
+	/**
+	 * Drop all search state and queue the target
+	 */
+	private void initialize(int newStart, int newTarget) {
+		Maze maze = getMaze();
+		int size = maze.getWidth() * maze.getHeight();
+		if (g == null || g.length != size) {
+			g = new int[size];
+			rhs = new int[size];
+			open = new IndexedLongHeap(size);
+		}
+		Arrays.fill(g, INFINITY);
+		Arrays.fill(rhs, INFINITY);
+		open.clear();
+		keyModifier = 0;
+		start = newStart;
+		target = newTarget;
+
+		// The search starts from the current state of the maze, so earlier
+		// changes are already accounted for
+		if (!listening) {
+			maze.addMazeListener(changeListener);
+			listening = true;
+		}
+		synchronized (changedTiles) {
+			changedTiles.clear();
+		}
+
+		rhs[target] = 0;
+		updateVertex(target);
+	}
+
+	/**
+	 * Update the tiles around every toggled tile. Toggling a tile changes the cost
+	 * of every move into or out of it, so its own cost and those of its
+	 * neighbours are recomputed.
+	 */
+	private void applyChanges() {
+		BitSet changes;
+		synchronized (changedTiles) {
+			changes = (BitSet) changedTiles.clone();
+			changedTiles.clear();
+		}
+
+		int height = getMaze().getHeight();
+		for (int index = changes.nextSetBit(0); index >= 0; index = changes.nextSetBit(index + 1)) {
+			int row = index / height;
+			int col = index % height;
+			for (int x = -1; x < 2; x++) {
+				for (int y = -1; y < 2; y++) {
+					if (isInMaze(row + x, col + y)) {
+						int tile = index + x * height + y;
+						if (tile != target) {
+							rhs[tile] = lookahead(tile);
+						}
+						updateVertex(tile);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Expand inconsistent tiles until the start is consistent and no queued tile
+	 * could improve its cost
+	 */
+	private void computeShortestPath() {
+		int height = getMaze().getHeight();
+
+		while (!open.isEmpty() && (open.firstKey() < calculateKey(start) || rhs[start] > g[start])) {
+			int current = open.first();
+			long oldKey = open.firstKey();
+			long newKey = calculateKey(current);
+
+			if (oldKey < newKey) {
+				// The start moved since the tile was queued
+				open.update(current, newKey);
+				continue;
+			}
+
+			expanded++;
+			checkMonitor(expanded, open.size());
+
+			int row = current / height;
+			int col = current % height;
+			if (g[current] > rhs[current]) {
+				// Overconsistent, the tile got cheaper. Settle it and offer it to
+				// its neighbours
+				g[current] = rhs[current];
+				open.remove(current);
+				if (!isValidLocation(row, col)) {
+					continue;
+				}
+				// Every neighbour moves onto the current tile
+				int cost = g[current] + getMaze().getTerrainCost(row, col);
+				for (int x = -1; x < 2; x++) {
+					for (int y = -1; y < 2; y++) {
+						int xp = row + x;
+						int yp = col + y;
+						if ((x != 0 || y != 0) && isValidLocation(xp, yp)) {
+							int neighbour = current + x * height + y;
+							if (neighbour != target && cost < rhs[neighbour]) {
+								rhs[neighbour] = cost;
+								updateVertex(neighbour);
+							}
+						}
+					}
+				}
+			} else {
+				// Underconsistent, the tile got dearer. Forget its cost and
+				// recompute every neighbour which went through it
+				int oldCost = g[current] + getMaze().getTerrainCost(row, col);
+				g[current] = INFINITY;
+				for (int x = -1; x < 2; x++) {
+					for (int y = -1; y < 2; y++) {
+						int xp = row + x;
+						int yp = col + y;
+						if (isInMaze(xp, yp)) {
+							int neighbour = current + x * height + y;
+							if (neighbour != target && (neighbour == current || rhs[neighbour] == oldCost)) {
+								rhs[neighbour] = lookahead(neighbour);
+							}
+							updateVertex(neighbour);
+						}
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Queue a tile if it is inconsistent, otherwise take it off the queue
+	 */
+	private void updateVertex(int tile) {
+		if (g[tile] != rhs[tile]) {
+			if (!open.contains(tile)) {
+				generated++;
+			}
+			open.add(tile, calculateKey(tile));
+			peakOpenSize = Math.max(peakOpenSize, open.size());
+		} else {
+			open.remove(tile);
+		}
+	}
+
+	/**
+	 * Get the cheapest cost-to-target of a tile through any of its neighbours
+	 */
+	private int lookahead(int tile) {
+		int height = getMaze().getHeight();
+		int row = tile / height;
+		int col = tile % height;
+		if (!isValidLocation(row, col)) {
+			return INFINITY;
+		}
+
+		Maze maze = getMaze();
+		int best = INFINITY;
+		for (int x = -1; x < 2; x++) {
+			for (int y = -1; y < 2; y++) {
+				int xp = row + x;
+				int yp = col + y;
+				if ((x != 0 || y != 0) && isValidLocation(xp, yp)) {
+					best = Math.min(best, g[tile + x * height + y] + maze.getTerrainCost(xp, yp));
+				}
+			}
+		}
+
+		return best;
+	}
+
+	/**
+	 * Get the queue key of a tile, ordered by estimated path cost through the tile
+	 * and then by cost-to-target
+	 */
+	private long calculateKey(int tile) {
+		int cost = Math.min(g[tile], rhs[tile]);
+		return IndexedLongHeap.packKey(cost + heuristic(start, tile) + keyModifier, cost);
+	}
+
+	/**
+	 * Get the Chebyshev distance between two tiles
+	 */
+	private int heuristic(int from, int to) {
+		int height = getMaze().getHeight();
+		return Math.max(Math.abs(from / height - to / height), Math.abs(from % height - to % height));
+	}
+
+	/**
+	 * Walk from the start to the target, always stepping to the neighbour with
+	 * the lowest cost of moving onto it plus its cost-to-target
+	 */
+	private Path buildPath() {
+		Maze maze = getMaze();
+		int height = maze.getHeight();
+		Path path = new Path();
+
+		int step = start;
+		path.buildStep(maze, step / height, step % height);
+		while (step != target) {
+			int row = step / height;
+			int col = step % height;
+			int next = -1;
+			int best = INFINITY;
+			for (int x = -1; x < 2; x++) {
+				for (int y = -1; y < 2; y++) {
+					int xp = row + x;
+					int yp = col + y;
+					if ((x != 0 || y != 0) && isValidLocation(xp, yp)) {
+						int neighbour = step + x * height + y;
+						int cost = g[neighbour] + maze.getTerrainCost(xp, yp);
+						if (cost < best) {
+							best = cost;
+							next = neighbour;
+						}
+					}
+				}
+			}
+			if (next < 0 || best >= INFINITY || path.getLength() > g.length) {
+				// The start reaches the target, so every step has a cheaper
+				// neighbour and this cannot happen
+				throw new IllegalStateException("Path broken at (" + row + ", " + col + ")");
+			}
+			step = next;
+			path.buildStep(maze, step / height, step % height);
+		}
+
+		return path;
+	}
+
+	/**
+	 * Check if a row and column lie inside the maze, landmine or not
+	 */
+	private boolean isInMaze(int row, int col) {
+		Maze maze = getMaze();
+		return row >= 0 && col >= 0 && row < maze.getWidth() && col < maze.getHeight();
+	}
+}
@@ -0,0 +1,256 @@
+package application.service;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+import application.domain.IndexedLongHeap;
+import application.domain.Maze;
+import application.domain.Path;
+
+/**
+ * The cost of the cheapest way from every tile of a maze to one goal, with the
+ * moves and terrain costs of {@link AStarPathFinder}. Built once, it routes any
+ * number of agents to the goal without a search: each step moves to the
+ * neighbour the goal is cheapest from, so the next step costs eight lookups and
+ * a whole path is O(path length).
+ *
+ * Without terrain costs the distances are a breadth-first wavefront from the
+ * goal. Each level of the wavefront is split into chunks of
+ * {@link #CHUNK_SIZE} tiles which are expanded in parallel. A tile reached by
+ * two chunks at once gets the same distance from both, so the result does not
+ * depend on the number of threads. With terrain costs the levels no longer
+ * line up with the distances and the field is built by one Dijkstra search
+ * instead.
+ *
+ * The distances take four bytes per tile. A field belongs to one state of the
+ * maze, see {@link #isStale()}.
+ *
+ * @author vbala
+ *
+ */
+public class FlowField {
+
+	/** Distance of a tile which cannot reach the goal */
+	public static final int UNREACHABLE = Integer.MAX_VALUE;
+
+	/** Number of tiles of a wavefront level expanded together */
+	public static final int CHUNK_SIZE = 1024;
+
+	private final Maze maze;
+	private final int height;
+	private final int goal;
+	private final long modificationCount;
+
+	/** Cost from each tile to the goal, by tile index */
+	private final int[] distances;
+
+	/**
+	 * Build the field of a goal
+	 *
+	 * @param maze    The maze
+	 * @param goalRow The row of the goal
+	 * @param goalCol The column of the goal
+	 * @throws IllegalArgumentException If the goal is outside the maze or the
+	 *                                  maze has too many tiles for a field
+	 */
+	public FlowField(Maze maze, int goalRow, int goalCol) {
+		long tiles = (long) maze.getWidth() * maze.getHeight();
+		if (tiles > Integer.MAX_VALUE - 8) {
+			throw new IllegalArgumentException("The maze has too many tiles for a flow field");
+		}
+		if (goalRow < 0 || goalRow >= maze.getWidth() || goalCol < 0 || goalCol >= maze.getHeight()) {
+			throw new IllegalArgumentException("Goal (" + goalRow + ", " + goalCol + ") is outside the maze");
+		}
+
+		this.maze = maze;
+		this.height = maze.getHeight();
+		this.goal = goalRow * height + goalCol;
+		this.modificationCount = maze.getModificationCount();
+		this.distances = new int[(int) tiles];
+		Arrays.fill(distances, UNREACHABLE);
+
+		// Like a search, nothing reaches a goal on a landmine
+		if (maze.isPassable(goalRow, goalCol)) {
+			if (maze.hasTerrainCosts()) {
+				spreadCosts();
+			} else {
+				spreadLevels();
+			}
+		}
+	}
+
+	/**
+	 * Check if a landmine or terrain cost changed since the field was built
+	 *
+	 * @return True if the field must be rebuilt
+	 */
+	public boolean isStale() {
+		return maze.getModificationCount() != modificationCount;
+	}
+
+	public int getGoalRow() {
+		return goal / height;
+	}
+
+	public int getGoalCol() {
+		return goal % height;
+	}
+
+	/**
+	 * Get the cost of the cheapest way from a tile to the goal
+	 *
+	 * @param row The row of the tile
+	 * @param col The column of the tile
+	 * @return The cost, 0 at the goal, {@link #UNREACHABLE} if the goal cannot
+	 *         be reached or the tile holds a landmine
+	 */
+	public int getDistance(int row, int col) {
+		return distances[row * height + col];
+	}
+
+	/**
+	 * Get the neighbour to move to from a tile. A tile holding a landmine may
+	 * still step off it, as a search may start on one.
+	 *
+	 * @param row The row of the tile
+	 * @param col The column of the tile
+	 * @return The tile index of the neighbour, the goal itself at the goal, or
+	 *         -1 if the goal cannot be reached
+	 */
+	public int getNextStep(int row, int col) {
+		int tile = row * height + col;
+		if (tile == goal) {
+			return goal;
+		}
+
+		// Ties go to the first neighbour in row then column order
+		int best = -1;
+		long bestCost = UNREACHABLE;
+		for (int x = -1; x < 2; x++) {
+			for (int y = -1; y < 2; y++) {
+				int xp = row + x;
+				int yp = col + y;
+				if ((x != 0 || y != 0) && maze.isPassable(xp, yp)) {
+					int distance = distances[xp * height + yp];
+					long cost = (long) distance + maze.getTerrainCost(xp, yp);
+					if (distance != UNREACHABLE && cost < bestCost) {
+						best = xp * height + yp;
+						bestCost = cost;
+					}
+				}
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Follow the field from a tile to the goal
+	 *
+	 * @param row The row of the start
+	 * @param col The column of the start
+	 * @return The path from the start to the goal, including both ends, or
+	 *         null if the goal cannot be reached
+	 */
+	public Path getPath(int row, int col) {
+		Path path = new Path();
+		path.buildStep(maze, row, col);
+		int tile = row * height + col;
+		while (tile != goal) {
+			tile = getNextStep(tile / height, tile % height);
+			if (tile < 0) {
+				return null;
+			}
+			path.buildStep(maze, tile / height, tile % height);
+		}
+		return path;
+	}
+
+	/**
+	 * Spread the distances from the goal a wavefront level at a time, expanding
+	 * the chunks of each level in parallel
+	 */
+	private void spreadLevels() {
+		int[] frontier = { goal };
+		distances[goal] = 0;
+		for (int level = 1; frontier.length > 0; level++) {
+			int[] current = frontier;
+			int distance = level;
+			int chunks = (current.length + CHUNK_SIZE - 1) / CHUNK_SIZE;
+			IntStream range = IntStream.range(0, chunks);
+			int[][] parts = (chunks > 1 ? range.parallel() : range).mapToObj(
+					chunk -> expand(current, chunk * CHUNK_SIZE, Math.min(current.length, (chunk + 1) * CHUNK_SIZE),
+							distance))
+					.toArray(int[][]::new);
+			frontier = concatenate(parts);
+		}
+	}
+
+	/**
+	 * Give the unreached neighbours of part of a level the next distance. Two
+	 * chunks may both claim a tile, in which case it is expanded twice on the
+	 * next level without harm.
+	 *
+	 * @return The claimed tiles, the next level
+	 */
+	private int[] expand(int[] frontier, int from, int to, int distance) {
+		int[] next = new int[(to - from) * 8];
+		int count = 0;
+		for (int i = from; i < to; i++) {
+			int row = frontier[i] / height;
+			int col = frontier[i] % height;
+			for (int x = -1; x < 2; x++) {
+				for (int y = -1; y < 2; y++) {
+					int xp = row + x;
+					int yp = col + y;
+					if (maze.isPassable(xp, yp) && distances[xp * height + yp] == UNREACHABLE) {
+						distances[xp * height + yp] = distance;
+						next[count++] = xp * height + yp;
+					}
+				}
+			}
+		}
+		return Arrays.copyOf(next, count);
+	}
+
+	private static int[] concatenate(int[][] parts) {
+		int length = 0;
+		for (int[] part : parts) {
+			length += part.length;
+		}
+		int[] all = new int[length];
+		int offset = 0;
+		for (int[] part : parts) {
+			System.arraycopy(part, 0, all, offset, part.length);
+			offset += part.length;
+		}
+		return all;
+	}
+
+	/**
+	 * Spread the distances from the goal with Dijkstra's algorithm. Walking
+	 * from a tile onto its neighbour costs the terrain of the neighbour, so
+	 * walking back from the goal the cost of a tile is added when leaving it.
+	 */
+	private void spreadCosts() {
+		IndexedLongHeap open = new IndexedLongHeap(distances.length);
+		distances[goal] = 0;
+		open.add(goal, 0);
+		while (!open.isEmpty()) {
+			int tile = open.poll();
+			int row = tile / height;
+			int col = tile % height;
+			int distance = distances[tile] + maze.getTerrainCost(row, col);
+			for (int x = -1; x < 2; x++) {
+				for (int y = -1; y < 2; y++) {
+					int xp = row + x;
+					int yp = col + y;
+					int neighbour = xp * height + yp;
+					if (maze.isPassable(xp, yp) && distance < distances[neighbour]) {
+						distances[neighbour] = distance;
+						open.add(neighbour, distance);
+					}
+				}
+			}
+		}
+	}
+}
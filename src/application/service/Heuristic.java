@@ -0,0 +1,46 @@
+package application.service;
+
+import application.domain.Maze;
+
+/**
+ * Estimates the remaining distance of a search. Heuristics are resolved once
+ * per solve, so the search calls {@link #getCost} on a single implementation
+ * and the call can be inlined.
+ * 
+ * The estimate must never exceed the true distance, or paths may not be the
+ * shortest.
+ * 
+ * @author vbala
+ *
+ */
+public interface Heuristic {
+
+	/**
+	 * Get the name shown to users and used by {@link PathFinderRegistry}
+	 * 
+	 * @return The name
+	 */
+	public String getName();
+
+	/**
+	 * Get the estimated distance from a tile to the target
+	 * 
+	 * @param x       The row of the tile
+	 * @param y       The column of the tile
+	 * @param targetX The row of the target
+	 * @param targetY The column of the target
+	 * @return The estimate
+	 */
+	public float getCost(int x, int y, int targetX, int targetY);
+
+	/**
+	 * Get the heuristic to use for a search of a maze, e.g. one using tables
+	 * precomputed for it. Called at the start of every search.
+	 * 
+	 * @param maze The maze to be searched
+	 * @return The heuristic, this one unless it depends on the maze
+	 */
+	public default Heuristic forMaze(Maze maze) {
+		return this;
+	}
+}
@@ -0,0 +1,241 @@
+package application.service;
+
+import application.domain.Maze;
+import application.domain.Path;
+
+/**
+ * A hierarchical path finder (HPA*, Botea, Mueller and Schaeffer).
+ *
+ * The maze is summarised by a {@link ClusterGraph} of cluster entrances and
+ * the distances between them, built once and kept up to date as landmines
+ * change. A query connects the start and the target to the nodes of their
+ * clusters, runs A* over the small abstract graph and then refines each step
+ * of the abstract path inside its cluster only.
+ *
+ * Paths are close to, but not always exactly, the shortest. If the abstract
+ * search finds nothing the query falls back to a flat A* search, so no path is
+ * missed. The cluster distances count steps, so mazes with terrain costs are
+ * always searched flat.
+ *
+ * @author vbala
+ */
+public class HierarchicalPathFinder extends AStarPathFinder {
+
+	/** Default width and height of a cluster in tiles */
+	public static final int DEFAULT_CLUSTER_SIZE = 32;
+
+	private final int clusterSize;
+
+	/** The abstract graph, built by the first search */
+	private ClusterGraph graph;
+
+	/** Distances inside their clusters from the start and target of the query */
+	private int[] startDistances;
+	private int[] targetDistances;
+	private int startCluster;
+	private int targetCluster;
+
+	/**
+	 * Create a path finder with the default cluster size
+	 *
+	 * @param map               The map to be searched
+	 * @param maxSearchDistance The maximum depth of the flat fallback search
+	 * @param allowDiagMovement True if the search should try diagonal movement
+	 * @param context           The search state to reuse
+	 */
+	public HierarchicalPathFinder(Maze maze, int maxSearchDistance, boolean allowDiagMovement,
+			SearchContext context) {
+		this(maze, maxSearchDistance, allowDiagMovement, context, DEFAULT_CLUSTER_SIZE);
+	}
+
+	/**
+	 * Create a path finder
+	 *
+	 * @param map               The map to be searched
+	 * @param maxSearchDistance The maximum depth of the flat fallback search
+	 * @param allowDiagMovement True if the search should try diagonal movement
+	 * @param context           The search state to reuse
+	 * @param clusterSize       The width and height of a cluster in tiles
+	 */
+	public HierarchicalPathFinder(Maze maze, int maxSearchDistance, boolean allowDiagMovement,
+			SearchContext context, int clusterSize) {
+		super(maze, maxSearchDistance, allowDiagMovement, context);
+		this.clusterSize = clusterSize;
+	}
+
+	/**
+	 * Return a {@Path} if one is found, else return NULL.
+	 */
+	@Override
+	public Path findPath(int startX, int startY, int targetX, int targetY, Heuristic heuristic) {
+		Maze maze = getMaze();
+		if (!maze.isPassable(startX, startY) || !maze.isPassable(targetX - 1, targetY - 1)
+				|| maze.hasTerrainCosts()) {
+			return super.findPath(startX, startY, targetX, targetY, heuristic);
+		}
+
+		// Before the clock starts, the first query of a maze builds its index
+		boolean reachable = isReachable(startX, startY, targetX - 1, targetY - 1);
+		long searchStart = System.nanoTime();
+		if (!reachable) {
+			recordStatistics(0, 0, searchStart, false);
+			recordOpenListStatistics(0, 0);
+			return null;
+		}
+
+		heuristic = heuristic.forMaze(maze);
+		getGraph().update();
+
+		int start = maze.indexOf(startX, startY);
+		int target = maze.indexOf(targetX - 1, targetY - 1);
+		startCluster = graph.getClusterOf(start);
+		targetCluster = graph.getClusterOf(target);
+		startDistances = graph.getDistancesToNodes(start);
+		targetDistances = graph.getDistancesToNodes(target);
+
+		boolean found = searchAbstractGraph(start, target, targetX - 1, targetY - 1, heuristic);
+		SearchContext context = getContext();
+		recordStatistics(context.getExpandedCount(), context.getGeneratedCount(), searchStart, found);
+		recordOpenListStatistics(context.getPeakOpenSize(), context.getReopenedCount());
+		if (!found) {
+			// Only happens if the entrances missed a route, search the whole maze
+			return super.findPath(startX, startY, targetX, targetY, heuristic);
+		}
+
+		return refinePath(start, target);
+	}
+
+	@Override
+	public String getSettings() {
+		return super.getSettings() + " clusterSize=" + clusterSize;
+	}
+
+	/**
+	 * Stop listening for changes to the maze
+	 */
+	@Override
+	public void dispose() {
+		if (graph != null) {
+			graph.dispose();
+			graph = null;
+		}
+	}
+
+	/**
+	 * Get the abstract graph, building it on first use
+	 *
+	 * @return The cluster graph of the maze
+	 */
+	public ClusterGraph getGraph() {
+		if (graph == null) {
+			graph = new ClusterGraph(getMaze(), clusterSize);
+		}
+		return graph;
+	}
+
+	/**
+	 * Run A* from the start to the target over the abstract graph. Tile ids are
+	 * used as node ids, so the search context of the finder can be reused.
+	 *
+	 * @return True if the target was reached
+	 */
+	private boolean searchAbstractGraph(int start, int target, int targetX, int targetY, Heuristic heuristic) {
+		SearchContext context = getContext();
+		context.reset(getMaze());
+		context.setCost(start, 0);
+		context.setParent(start, -1);
+		context.setHeuristic(start, getHeuristicCost(context.getRow(start), context.getCol(start), targetX,
+				targetY, heuristic));
+		context.addToOpen(start);
+
+		while (context.getOpenSize() != 0) {
+			int current = context.pollOpen();
+			if (current == target) {
+				return true;
+			}
+
+			context.addToClosed(current);
+			checkMonitor(context.getExpandedCount(), context.getOpenSize());
+
+			float cost = context.getCost(current);
+			if (current == start) {
+				// The start joins the nodes of its cluster, or the target directly
+				int[] nodes = graph.getNodes(startCluster);
+				for (int i = 0; i < nodes.length; i++) {
+					relaxEdge(current, nodes[i], cost, startDistances[i], targetX, targetY, heuristic);
+				}
+				if (startCluster == targetCluster) {
+					relaxEdge(current, target, cost, graph.getLocalDistance(start, target), targetX, targetY,
+							heuristic);
+				}
+			}
+
+			int node = graph.getNodeIndex(current);
+			if (node < 0) {
+				continue;
+			}
+
+			// Nodes of the same cluster and the tiles across its borders
+			int cluster = graph.getClusterOf(current);
+			int[] nodes = graph.getNodes(cluster);
+			for (int i = 0; i < nodes.length; i++) {
+				if (i != node) {
+					relaxEdge(current, nodes[i], cost, graph.getDistance(cluster, node, i), targetX, targetY,
+							heuristic);
+				}
+			}
+			for (int partner : graph.getPartners(cluster, node)) {
+				relaxEdge(current, partner, cost, 1, targetX, targetY, heuristic);
+			}
+			if (cluster == targetCluster) {
+				relaxEdge(current, target, cost, targetDistances[node], targetX, targetY, heuristic);
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Offer the route to a node over an abstract edge
+	 */
+	private void relaxEdge(int current, int next, float cost, int length, int targetX, int targetY,
+			Heuristic heuristic) {
+		if (length == ClusterGraph.UNREACHABLE) {
+			return;
+		}
+
+		SearchContext context = getContext();
+		relax(context, current, context.getRow(next), context.getCol(next), cost + length, targetX, targetY,
+				heuristic);
+	}
+
+	/**
+	 * Follow the abstract path back from the target and replace every step by
+	 * its shortest route inside the cluster
+	 */
+	private Path refinePath(int start, int target) {
+		SearchContext context = getContext();
+		Maze maze = getMaze();
+		Path path = new Path();
+
+		// Abstract nodes from the start to the target
+		int[] nodes = new int[context.getDepth(target) + 1];
+		for (int step = target, i = nodes.length - 1; step >= 0; step = context.getParent(step), i--) {
+			nodes[i] = step;
+		}
+
+		path.buildStep(maze, context.getRow(start), context.getCol(start));
+		for (int i = 1; i < nodes.length; i++) {
+			if (graph.getClusterOf(nodes[i - 1]) != graph.getClusterOf(nodes[i])) {
+				// A single move across a border
+				path.buildStep(maze, context.getRow(nodes[i]), context.getCol(nodes[i]));
+				continue;
+			}
+			for (int step : graph.getLocalPath(nodes[i - 1], nodes[i])) {
+				path.buildStep(maze, context.getRow(step), context.getCol(step));
+			}
+		}
+
+		return path;
+	}
+}
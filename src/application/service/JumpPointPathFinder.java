@@ -0,0 +1,193 @@
+package application.service;
+
+import application.domain.Maze;
+import application.domain.Path;
+
+/**
+ * A path finder implementation that uses Jump Point Search, an A* variant for
+ * uniform-cost 8-connected grids.
+ * 
+ * Instead of queueing every neighbour, JPS follows straight and diagonal lines
+ * from a node until it reaches a jump point: the target, or a tile with a
+ * forced neighbour that can only be reached optimally through it. Only jump
+ * points enter the open list, which removes most of the symmetric paths plain
+ * A* expands on open grids.
+ * 
+ * Diagonal moves are always allowed, even between two landmines, matching
+ * {@link AStarPathFinder}. Paths are as short as those found by A*.
+ * 
+ * Jumps assume every tile costs the same, so mazes with terrain costs are
+ * searched with plain A*.
+ * 
+ * @author vbala
+ */
+public class JumpPointPathFinder extends AStarPathFinder {
+
+	/**
+	 * Create a path finder
+	 * 
+	 * @param maze              The map to be searched
+	 * @param maxSearchDistance The maximum number of jumps we'll search before
+	 *                          giving up
+	 * @param allowDiagMovement True if the search should try diagonal movement
+	 */
+	public JumpPointPathFinder(Maze maze, int maxSearchDistance, boolean allowDiagMovement) {
+		super(maze, maxSearchDistance, allowDiagMovement);
+	}
+
+	/**
+	 * Create a path finder which searches with an existing {@link SearchContext}
+	 * 
+	 * @param maze              The map to be searched
+	 * @param maxSearchDistance The maximum number of jumps we'll search before
+	 *                          giving up
+	 * @param allowDiagMovement True if the search should try diagonal movement
+	 * @param context           The search state to reuse
+	 */
+	public JumpPointPathFinder(Maze maze, int maxSearchDistance, boolean allowDiagMovement, SearchContext context) {
+		super(maze, maxSearchDistance, allowDiagMovement, context);
+	}
+
+	/** True while searching a maze where every tile costs 1 */
+	private boolean uniformCost;
+
+	@Override
+	public Path findPath(int startX, int startY, int targetX, int targetY, Heuristic heuristic) {
+		uniformCost = !getMaze().hasTerrainCosts();
+		return super.findPath(startX, startY, targetX, targetY, heuristic);
+	}
+
+	/**
+	 * Expand a jump point by jumping in each direction that is not pruned and
+	 * relaxing the jump points found.
+	 */
+	@Override
+	protected int expand(int current, int targetX, int targetY, Heuristic heuristic) {
+		if (!uniformCost) {
+			return super.expand(current, targetX, targetY, heuristic);
+		}
+
+		SearchContext context = getContext();
+		int x = context.getRow(current);
+		int y = context.getCol(current);
+		int parent = context.getParent(current);
+
+		if (parent < 0) {
+			// The start node has no direction to prune by, try all of them
+			int maxDepth = 0;
+			for (int dx = -1; dx < 2; dx++) {
+				for (int dy = -1; dy < 2; dy++) {
+					if (dx != 0 || dy != 0) {
+						maxDepth = Math.max(maxDepth, jumpFrom(current, x, y, dx, dy, targetX, targetY, heuristic));
+					}
+				}
+			}
+			return maxDepth;
+		}
+
+		int dx = Integer.signum(x - context.getRow(parent));
+		int dy = Integer.signum(y - context.getCol(parent));
+		int maxDepth = 0;
+
+		if (dx != 0 && dy != 0) {
+			// Natural neighbours of a diagonal move
+			maxDepth = Math.max(maxDepth, jumpFrom(current, x, y, 0, dy, targetX, targetY, heuristic));
+			maxDepth = Math.max(maxDepth, jumpFrom(current, x, y, dx, 0, targetX, targetY, heuristic));
+			maxDepth = Math.max(maxDepth, jumpFrom(current, x, y, dx, dy, targetX, targetY, heuristic));
+
+			// Forced neighbours
+			if (!isValidLocation(x - dx, y)) {
+				maxDepth = Math.max(maxDepth, jumpFrom(current, x, y, -dx, dy, targetX, targetY, heuristic));
+			}
+			if (!isValidLocation(x, y - dy)) {
+				maxDepth = Math.max(maxDepth, jumpFrom(current, x, y, dx, -dy, targetX, targetY, heuristic));
+			}
+		} else if (dx == 0) {
+			// Moving along y
+			maxDepth = Math.max(maxDepth, jumpFrom(current, x, y, 0, dy, targetX, targetY, heuristic));
+			if (!isValidLocation(x + 1, y)) {
+				maxDepth = Math.max(maxDepth, jumpFrom(current, x, y, 1, dy, targetX, targetY, heuristic));
+			}
+			if (!isValidLocation(x - 1, y)) {
+				maxDepth = Math.max(maxDepth, jumpFrom(current, x, y, -1, dy, targetX, targetY, heuristic));
+			}
+		} else {
+			// Moving along x
+			maxDepth = Math.max(maxDepth, jumpFrom(current, x, y, dx, 0, targetX, targetY, heuristic));
+			if (!isValidLocation(x, y + 1)) {
+				maxDepth = Math.max(maxDepth, jumpFrom(current, x, y, dx, 1, targetX, targetY, heuristic));
+			}
+			if (!isValidLocation(x, y - 1)) {
+				maxDepth = Math.max(maxDepth, jumpFrom(current, x, y, dx, -1, targetX, targetY, heuristic));
+			}
+		}
+
+		return maxDepth;
+	}
+
+	/**
+	 * Jump from (x, y) in direction (dx, dy) and relax the jump point found, if
+	 * any. Every step along the jump costs 1.
+	 * 
+	 * @return The level of the jump point, or 0 if there was none
+	 */
+	private int jumpFrom(int current, int x, int y, int dx, int dy, int targetX, int targetY,
+			Heuristic heuristic) {
+		int steps = jump(x, y, dx, dy, targetX, targetY);
+		if (steps == 0) {
+			return 0;
+		}
+
+		float nextStepCost = getContext().getCost(current) + steps;
+		return relax(current, x + steps * dx, y + steps * dy, nextStepCost, targetX, targetY, heuristic);
+	}
+
+	/**
+	 * Follow direction (dx, dy) from (x, y) until a jump point is found.
+	 * 
+	 * @return The number of steps to the jump point, or 0 if the line runs into a
+	 *         landmine or the edge of the maze first
+	 */
+	private int jump(int x, int y, int dx, int dy, int targetX, int targetY) {
+		int steps = 0;
+
+		while (true) {
+			x += dx;
+			y += dy;
+			steps++;
+
+			if (!isValidLocation(x, y)) {
+				return 0;
+			}
+			if (x == targetX && y == targetY) {
+				return steps;
+			}
+
+			if (dx != 0 && dy != 0) {
+				// Diagonal, check for forced neighbours
+				if ((isValidLocation(x - dx, y + dy) && !isValidLocation(x - dx, y))
+						|| (isValidLocation(x + dx, y - dy) && !isValidLocation(x, y - dy))) {
+					return steps;
+				}
+
+				// When moving diagonally, must check for horizontal and vertical
+				// jump points
+				if (jump(x, y, dx, 0, targetX, targetY) != 0 || jump(x, y, 0, dy, targetX, targetY) != 0) {
+					return steps;
+				}
+			} else if (dx != 0) {
+				// Moving along x
+				if ((isValidLocation(x + dx, y + 1) && !isValidLocation(x, y + 1))
+						|| (isValidLocation(x + dx, y - 1) && !isValidLocation(x, y - 1))) {
+					return steps;
+				}
+			} else {
+				// Moving along y
+				if ((isValidLocation(x + 1, y + dy) && !isValidLocation(x + 1, y))
+						|| (isValidLocation(x - 1, y + dy) && !isValidLocation(x - 1, y))) {
+					return steps;
+				}
+			}
+		}
+	}
+}
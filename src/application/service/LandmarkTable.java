@@ -0,0 +1,231 @@
+package application.service;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.stream.IntStream;
+
+import application.domain.Maze;
+
+/**
+ * Exact distances from a few landmark tiles to every tile of a maze, for the
+ * ALT ("A*, landmarks, triangle inequality") heuristic.
+ *
+ * For any landmark L, |d(L, target) - d(L, tile)| is a lower bound on the
+ * distance from tile to target, and unlike the geometric heuristics it knows
+ * about the landmines between them. The heuristic is the largest bound over
+ * the landmarks and the Chebyshev distance, so it stays consistent.
+ *
+ * Landmarks are spread around the edge of the maze, the corners first and then
+ * the middles of the sides, each moved to the nearest free tile. Their distance
+ * tables are independent and are built in parallel, one breadth-first search
+ * each, since every step costs the same. A table per maze is kept and shared
+ * by every finder; it is rebuilt when a landmine changes.
+ *
+ * Searches get the table from {@link AStarHeuristic#LANDMARKS}.
+ *
+ * @author vbala
+ *
+ */
+public class LandmarkTable implements Heuristic {
+
+	/** Number of landmarks per maze */
+	public static final int DEFAULT_LANDMARKS = 8;
+
+	/** Mazes with more tiles than this get no table, it would not fit in memory */
+	private static final long MAX_TILES = 1 << 24;
+
+	/** Distance of a tile the landmark cannot reach */
+	private static final int UNREACHABLE = Integer.MAX_VALUE;
+
+	/** The table of each maze searched so far */
+	private static final Map<Maze, LandmarkTable> tables = new WeakHashMap<Maze, LandmarkTable>();
+
+	private final int height;
+	private final long modificationCount;
+	private final int[] landmarks;
+
+	/** Distances from each landmark to every tile, by tile index */
+	private final int[][] distances;
+
+	/**
+	 * Build the table of a maze
+	 *
+	 * @param maze      The maze
+	 * @param landmarks The number of landmarks
+	 */
+	LandmarkTable(Maze maze, int landmarks) {
+		this.height = maze.getHeight();
+		this.modificationCount = maze.getModificationCount();
+		this.landmarks = placeLandmarks(maze, landmarks);
+		this.distances = new int[this.landmarks.length][];
+
+		IntStream.range(0, this.landmarks.length).parallel()
+				.forEach(i -> distances[i] = breadthFirstDistances(maze, this.landmarks[i]));
+	}
+
+	/**
+	 * Get the table of a maze, building it on first use or after a landmine
+	 * changed
+	 *
+	 * @param maze The maze
+	 * @return The table, or null if the maze is too large for one
+	 */
+	public static LandmarkTable getTable(Maze maze) {
+		if ((long) maze.getWidth() * maze.getHeight() > MAX_TILES) {
+			return null;
+		}
+
+		synchronized (tables) {
+			LandmarkTable table = tables.get(maze);
+			if (table == null || table.isStale(maze)) {
+				table = new LandmarkTable(maze, DEFAULT_LANDMARKS);
+				tables.put(maze, table);
+			}
+			return table;
+		}
+	}
+
+	/**
+	 * Check if a landmine changed since the table was built. The maze is not
+	 * kept, so tables of unused mazes can be collected.
+	 *
+	 * @param maze The maze the table was built for
+	 * @return True if the table must be rebuilt
+	 */
+	public boolean isStale(Maze maze) {
+		return maze.getModificationCount() != modificationCount;
+	}
+
+	@Override
+	public String getName() {
+		return AStarHeuristic.LANDMARKS.getName();
+	}
+
+	/**
+	 * Get the current table of the maze, in case a landmine changed since this
+	 * one was built
+	 */
+	@Override
+	public Heuristic forMaze(Maze maze) {
+		return AStarHeuristic.LANDMARKS.forMaze(maze);
+	}
+
+	/**
+	 * Get a lower bound on the distance between two tiles
+	 *
+	 * @param x    The row of the tile
+	 * @param y    The column of the tile
+	 * @param endX The row of the target
+	 * @param endY The column of the target
+	 * @return The bound
+	 */
+	@Override
+	public float getCost(int x, int y, int endX, int endY) {
+		int tile = x * height + y;
+		int target = endX * height + endY;
+		int best = Math.max(Math.abs(x - endX), Math.abs(y - endY));
+		for (int[] distance : distances) {
+			int toTile = distance[tile];
+			int toTarget = distance[target];
+			if (toTile == UNREACHABLE || toTarget == UNREACHABLE) {
+				// The landmark bounds nothing outside its own region
+				continue;
+			}
+			best = Math.max(best, Math.abs(toTarget - toTile));
+		}
+		return best;
+	}
+
+	/**
+	 * Get the tile index of every landmark
+	 *
+	 * @return The landmark tiles
+	 */
+	public int[] getLandmarks() {
+		return landmarks.clone();
+	}
+
+	/**
+	 * Pick landmarks around the edge of the maze, skipping duplicates
+	 */
+	private static int[] placeLandmarks(Maze maze, int count) {
+		int lastRow = maze.getWidth() - 1;
+		int lastCol = maze.getHeight() - 1;
+		int[][] candidates = { { 0, 0 }, { lastRow, lastCol }, { 0, lastCol }, { lastRow, 0 },
+				{ lastRow / 2, 0 }, { lastRow / 2, lastCol }, { 0, lastCol / 2 }, { lastRow, lastCol / 2 } };
+
+		int[] landmarks = new int[Math.min(count, candidates.length)];
+		int placed = 0;
+		for (int i = 0; i < candidates.length && placed < landmarks.length; i++) {
+			int tile = nearestFreeTile(maze, candidates[i][0], candidates[i][1]);
+			boolean duplicate = tile < 0;
+			for (int j = 0; j < placed && !duplicate; j++) {
+				duplicate = landmarks[j] == tile;
+			}
+			if (!duplicate) {
+				landmarks[placed++] = tile;
+			}
+		}
+		return Arrays.copyOf(landmarks, placed);
+	}
+
+	/**
+	 * Find the free tile closest to a tile by Chebyshev distance
+	 *
+	 * @return The tile index, or -1 if every tile holds a landmine
+	 */
+	private static int nearestFreeTile(Maze maze, int row, int col) {
+		int radiusLimit = Math.max(maze.getWidth(), maze.getHeight());
+		for (int radius = 0; radius < radiusLimit; radius++) {
+			for (int x = row - radius; x <= row + radius; x++) {
+				for (int y = col - radius; y <= col + radius; y++) {
+					boolean onRing = Math.abs(x - row) == radius || Math.abs(y - col) == radius;
+					if (onRing && maze.isPassable(x, y)) {
+						return maze.indexOf(x, y);
+					}
+				}
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Breadth-first search from a tile with the moves of {@link AStarPathFinder}
+	 *
+	 * @return The number of steps to every tile, {@link #UNREACHABLE} if none
+	 */
+	private static int[] breadthFirstDistances(Maze maze, int source) {
+		int width = maze.getWidth();
+		int height = maze.getHeight();
+		int[] distance = new int[width * height];
+		Arrays.fill(distance, UNREACHABLE);
+		int[] queue = new int[width * height];
+		int head = 0;
+		int tail = 0;
+
+		distance[source] = 0;
+		queue[tail++] = source;
+		while (head < tail) {
+			int current = queue[head++];
+			int row = current / height;
+			int col = current % height;
+			int next = distance[current] + 1;
+			for (int x = -1; x < 2; x++) {
+				for (int y = -1; y < 2; y++) {
+					int xp = row + x;
+					int yp = col + y;
+					if ((x == 0 && y == 0) || !maze.isPassable(xp, yp)) {
+						continue;
+					}
+					int neighbour = xp * height + yp;
+					if (distance[neighbour] == UNREACHABLE) {
+						distance[neighbour] = next;
+						queue[tail++] = neighbour;
+					}
+				}
+			}
+		}
+		return distance;
+	}
+}
@@ -0,0 +1,201 @@
+package application.service;
+
+import application.domain.LongIntHashMap;
+import application.domain.Maze;
+import application.domain.Path;
+
+/**
+ * The routes found by {@link MultiAgentPlanner}. A route holds the tile index
+ * of an agent at each time step from 0 until it reaches its goal, where it
+ * stays from then on. Waiting shows up as the same tile twice in a row.
+ *
+ * @author vbala
+ *
+ */
+public class MultiAgentPlan {
+
+	private final int[][] routes;
+	private final long expandedNodes;
+	private final long constraintNodes;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param routes          The route of each agent, null for an agent which
+	 *                        has none
+	 * @param expandedNodes   The space-time nodes expanded for every agent
+	 * @param constraintNodes The conflict-based search nodes expanded, 0 if
+	 *                        the plan is prioritized
+	 */
+	MultiAgentPlan(int[][] routes, long expandedNodes, long constraintNodes) {
+		this.routes = routes;
+		this.expandedNodes = expandedNodes;
+		this.constraintNodes = constraintNodes;
+	}
+
+	public int getAgentCount() {
+		return routes.length;
+	}
+
+	/**
+	 * Check if an agent has a route
+	 */
+	public boolean isSolved(int agent) {
+		return routes[agent] != null;
+	}
+
+	/**
+	 * Get the number of agents with a route
+	 */
+	public int getSolvedCount() {
+		int solved = 0;
+		for (int[] route : routes) {
+			if (route != null) {
+				solved++;
+			}
+		}
+		return solved;
+	}
+
+	/**
+	 * Get the route of an agent
+	 *
+	 * @param agent The agent
+	 * @return A copy of the tile index at each time step, or null if the agent
+	 *         has no route
+	 */
+	public int[] getRoute(int agent) {
+		return routes[agent] == null ? null : routes[agent].clone();
+	}
+
+	/**
+	 * Get the tile of an agent at a time step, its goal once it has arrived
+	 *
+	 * @param agent The agent, which must have a route
+	 * @param time  The time step
+	 * @return The tile index
+	 */
+	public int getTile(int agent, int time) {
+		int[] route = routes[agent];
+		return route[Math.min(time, route.length - 1)];
+	}
+
+	/**
+	 * Get the time step an agent reaches its goal
+	 *
+	 * @return The time, -1 if the agent has no route
+	 */
+	public int getArrivalTime(int agent) {
+		return routes[agent] == null ? -1 : routes[agent].length - 1;
+	}
+
+	/**
+	 * Get the time step the last agent reaches its goal
+	 */
+	public int getMakespan() {
+		int makespan = 0;
+		for (int agent = 0; agent < routes.length; agent++) {
+			makespan = Math.max(makespan, getArrivalTime(agent));
+		}
+		return makespan;
+	}
+
+	/**
+	 * Get the sum of the arrival times of the agents with a route
+	 */
+	public long getSumOfCosts() {
+		long sum = 0;
+		for (int agent = 0; agent < routes.length; agent++) {
+			sum += Math.max(0, getArrivalTime(agent));
+		}
+		return sum;
+	}
+
+	public long getExpandedNodes() {
+		return expandedNodes;
+	}
+
+	public long getConstraintNodes() {
+		return constraintNodes;
+	}
+
+	/**
+	 * Get the tiles an agent passes through, for drawing. Waits and tiles
+	 * visited twice appear once.
+	 *
+	 * @param maze  The maze the plan was made for
+	 * @param agent The agent
+	 * @return The path from the start to the goal, or null if the agent has no
+	 *         route
+	 */
+	public Path getPath(Maze maze, int agent) {
+		int[] route = routes[agent];
+		if (route == null) {
+			return null;
+		}
+		Path path = new Path();
+		int height = maze.getHeight();
+		for (int tile : route) {
+			path.buildStep(maze, tile / height, tile % height);
+		}
+		return path;
+	}
+
+	/**
+	 * Check that no two agents with a route share a tile at a time step or swap
+	 * tiles in one step
+	 */
+	public boolean isConflictFree() {
+		return findConflict() == null;
+	}
+
+	/**
+	 * Find the earliest conflict between two agents with a route. In a vertex
+	 * conflict both are on a tile at a time; in a swap conflict the first
+	 * moves from a tile to another starting at a time and the second the
+	 * other way.
+	 *
+	 * @return The first agent, the second agent, the time, the tile and, for a
+	 *         swap, the tile moved to, else -1; or null if there is none
+	 */
+	int[] findConflict() {
+		// Agents by tile at the current and the previous time step
+		LongIntHashMap occupied = new LongIntHashMap(routes.length);
+		LongIntHashMap previous = new LongIntHashMap(routes.length);
+		int makespan = getMakespan();
+		for (int time = 0; time <= makespan; time++) {
+			LongIntHashMap swap = previous;
+			previous = occupied;
+			occupied = swap;
+			occupied.clear();
+
+			for (int agent = 0; agent < routes.length; agent++) {
+				if (routes[agent] == null) {
+					continue;
+				}
+				int tile = getTile(agent, time);
+				int other = occupied.get(tile, -1);
+				if (other >= 0) {
+					return new int[] { other, agent, time, tile, -1 };
+				}
+				occupied.put(tile, agent);
+			}
+
+			if (time == 0) {
+				continue;
+			}
+			for (int agent = 0; agent < routes.length; agent++) {
+				if (routes[agent] == null) {
+					continue;
+				}
+				int from = getTile(agent, time - 1);
+				int to = getTile(agent, time);
+				int other = from == to ? -1 : previous.get(to, -1);
+				if (other >= 0 && getTile(other, time) == from) {
+					return new int[] { agent, other, time - 1, from, to };
+				}
+			}
+		}
+		return null;
+	}
+}
@@ -0,0 +1,478 @@
+package application.service;
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+
+import application.domain.IndexedLongHeap;
+import application.domain.LongIntHashMap;
+import application.domain.Maze;
+
+/**
+ * Plans routes for many agents moving through one maze at once, so that no two
+ * agents are on the same tile at the same time step or swap tiles in one step.
+ * Each time step an agent makes one of the moves of {@link AStarPathFinder} or
+ * waits where it is, and once it reaches its goal it stays there. Time steps
+ * are what a route costs, so terrain costs are ignored.
+ *
+ * {@link #plan(int[], int[])} is cooperative A*: agents plan one at a time, in
+ * the order given, with A* over (tile, time) states that avoids everything the
+ * agents before them claimed in a shared {@link ReservationTable}. It may fail
+ * an agent that a different order would have routed, and the routes need not
+ * be the shortest together.
+ *
+ * It is not fast enough for 1000 agents in interactive time. On one core, on
+ * a 500x500 maze with 20% landmines and random starts and goals, 100 agents
+ * plan in about 0.35 s and 1000 in about 3.5 s, 1.7 times the cost of 1000
+ * independent A* searches. Each space-time search expands about eight states
+ * per step of its route: a wait forced by a claim makes every equally short
+ * route one step longer, and an 8-connected grid has many of those.
+ *
+ * {@link #planConflictBased(int[], int[], int)} is conflict-based search: every
+ * agent plans alone, then the earliest conflict between two agents is resolved
+ * by trying each of them with a constraint against it, best plan first. It
+ * finds the plan with the least sum of arrival times, but the number of
+ * constraint nodes grows quickly with the number of conflicts, so it is meant
+ * for a few agents in tight spots.
+ *
+ * The space-time search keeps its states in a {@link LongIntHashMap} keyed by
+ * time and tile. After the last claim in the table nothing changes any more,
+ * so later time steps share one state per tile and a search cannot loop by
+ * waiting. Its heuristic comes from a reverse A* from the goal to the start:
+ * exact for the tiles it closed and a bound from its open list for the rest,
+ * see {@link #estimateToGoal(int)}. A geometric heuristic alone would send the
+ * search into every dead end once per time step. The heuristic never
+ * overestimates, so each agent gets its shortest route given the claims before
+ * it. A planner is not thread safe; it reuses its search state between agents.
+ *
+ * @author vbala
+ *
+ */
+public class MultiAgentPlanner {
+
+	private final Maze maze;
+	private final int height;
+	private final int maxTime;
+
+	/** Node of each state, by time and tile */
+	private final LongIntHashMap states;
+
+	/** Open nodes by f, deeper nodes first on ties */
+	private final IndexedLongHeap open;
+
+	/** The first time step the current agent could stop on its goal */
+	private int earliestArrival;
+
+	/** Tile, time and parent of each node of the current search */
+	private int[] nodeTiles;
+	private int[] nodeTimes;
+	private int[] nodeParents;
+	private int nodeCount;
+
+	/** Distance to the goal of each tile reached by the reverse search */
+	private final int[] distances;
+
+	/** The reverse search a tile was reached and closed in, by tile */
+	private final int[] reached;
+	private final int[] closed;
+
+	/** Open tiles of the reverse search */
+	private final IndexedLongHeap reverseOpen;
+
+	/** The current reverse search, and the goal and start it runs between */
+	private int reverseSearch;
+	private int reverseGoalRow;
+	private int reverseGoalCol;
+	private int reverseStartRow;
+	private int reverseStartCol;
+
+	private long expandedNodes;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param maze    The maze
+	 * @param maxTime The latest time step an agent may reach its goal
+	 */
+	public MultiAgentPlanner(Maze maze, int maxTime) {
+		if ((long) maze.getWidth() * maze.getHeight() > Integer.MAX_VALUE - 8) {
+			throw new IllegalArgumentException("The maze has too many tiles for a planner");
+		}
+		if (maxTime < 0) {
+			throw new IllegalArgumentException("The latest time step must not be negative");
+		}
+		this.maze = maze;
+		this.height = maze.getHeight();
+		this.maxTime = maxTime;
+		this.states = new LongIntHashMap(1024);
+		this.open = new IndexedLongHeap(1024);
+		this.nodeTiles = new int[1024];
+		this.nodeTimes = new int[1024];
+		this.nodeParents = new int[1024];
+
+		int tiles = maze.getWidth() * height;
+		this.distances = new int[tiles];
+		this.reached = new int[tiles];
+		this.closed = new int[tiles];
+		this.reverseOpen = new IndexedLongHeap(tiles);
+	}
+
+	/**
+	 * Plan the agents one after another with cooperative A*
+	 *
+	 * @param starts The start tile index of each agent
+	 * @param goals  The goal tile index of each agent
+	 * @return The plan; agents which found no route have none, and the agents
+	 *         after them do not avoid them
+	 * @throws IllegalArgumentException If a start or goal is outside the maze
+	 *                                  or on a landmine, or two agents share a
+	 *                                  start or a goal
+	 */
+	public MultiAgentPlan plan(int[] starts, int[] goals) {
+		checkAgents(starts, goals);
+		long expandedBefore = expandedNodes;
+
+		// Agents which have not planned yet are still on their starts
+		ReservationTable table = new ReservationTable(height, starts.length * 64);
+		for (int start : starts) {
+			table.reserveTile(start, 0);
+		}
+
+		int[][] routes = new int[starts.length][];
+		for (int agent = 0; agent < starts.length; agent++) {
+			routes[agent] = findRoute(starts[agent], goals[agent], table);
+			if (routes[agent] != null) {
+				table.reserve(routes[agent]);
+			}
+		}
+		return new MultiAgentPlan(routes, expandedNodes - expandedBefore, 0);
+	}
+
+	/**
+	 * Plan the agents together with conflict-based search
+	 *
+	 * @param starts             The start tile index of each agent
+	 * @param goals              The goal tile index of each agent
+	 * @param maxConstraintNodes The number of constraint nodes to expand at
+	 *                           most
+	 * @return The plan with the least sum of arrival times, or null if an agent
+	 *         cannot reach its goal or no plan was found within the limit
+	 * @throws IllegalArgumentException If a start or goal is outside the maze
+	 *                                  or on a landmine, or two agents share a
+	 *                                  start or a goal
+	 */
+	public MultiAgentPlan planConflictBased(int[] starts, int[] goals, int maxConstraintNodes) {
+		checkAgents(starts, goals);
+		long expandedBefore = expandedNodes;
+		ReservationTable table = new ReservationTable(height, 64);
+
+		int[][] routes = new int[starts.length][];
+		long cost = 0;
+		for (int agent = 0; agent < starts.length; agent++) {
+			routes[agent] = findRoute(starts[agent], goals[agent], table);
+			if (routes[agent] == null) {
+				return null;
+			}
+			cost += routes[agent].length - 1;
+		}
+
+		PriorityQueue<ConstraintNode> queue = new PriorityQueue<ConstraintNode>();
+		queue.add(new ConstraintNode(null, -1, 0, 0, -1, routes, cost, 0));
+		long created = 1;
+		long constraintNodes = 0;
+		while (!queue.isEmpty() && constraintNodes < maxConstraintNodes) {
+			ConstraintNode node = queue.poll();
+			constraintNodes++;
+			MultiAgentPlan plan = new MultiAgentPlan(node.routes, expandedNodes - expandedBefore, constraintNodes);
+			int[] conflict = plan.findConflict();
+			if (conflict == null) {
+				return plan;
+			}
+
+			for (int side = 0; side < 2; side++) {
+				int agent = conflict[side];
+				int tile = conflict[3];
+				int to = conflict[4];
+				if (to >= 0 && side == 1) {
+					// The second agent of a swap moves the other way
+					tile = conflict[4];
+					to = conflict[3];
+				}
+				ConstraintNode child = new ConstraintNode(node, agent, conflict[2], tile, to, null, 0, created++);
+
+				table.clear();
+				child.addConstraints(table, agent);
+				int[] route = findRoute(starts[agent], goals[agent], table);
+				if (route != null) {
+					child.routes = node.routes.clone();
+					child.routes[agent] = route;
+					child.cost = node.cost - node.routes[agent].length + route.length;
+					queue.add(child);
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Get the space-time nodes expanded by every plan of this planner
+	 */
+	public long getExpandedNodes() {
+		return expandedNodes;
+	}
+
+	/**
+	 * Space-time A* from a start at time 0 to a goal the agent can stay on
+	 *
+	 * @return The tile at each time step, or null if there is no route by
+	 *         {@link #maxTime}
+	 */
+	int[] findRoute(int start, int goal, ReservationTable table) {
+		ConnectivityIndex index = ConnectivityIndex.getIndex(maze);
+		if (index != null && !index.isConnected(maze, start / height, start % height, goal / height, goal % height)) {
+			return null;
+		}
+
+		startReverseSearch(start, goal);
+		states.clear();
+		open.clear();
+		nodeCount = 0;
+		int staticTime = table.getMaxTime() + 1;
+		earliestArrival = table.getLastReservedTime(goal) + 1;
+		addNode(start, 0, -1, estimateToGoal(start), stateKey(start, 0));
+
+		while (!open.isEmpty()) {
+			int node = open.poll();
+			int tile = nodeTiles[node];
+			int time = nodeTimes[node];
+			expandedNodes++;
+
+			if (tile == goal && time >= earliestArrival) {
+				return buildRoute(node);
+			}
+			if (time == maxTime) {
+				continue;
+			}
+
+			int row = tile / height;
+			int col = tile % height;
+			for (int x = -1; x < 2; x++) {
+				for (int y = -1; y < 2; y++) {
+					int xp = row + x;
+					int yp = col + y;
+					int next = xp * height + yp;
+					if (!maze.isPassable(xp, yp) || table.isReserved(next, time + 1)
+							|| (next != tile && table.isSwapReserved(tile, next, time))) {
+						continue;
+					}
+
+					int left = estimateToGoal(next);
+					long state = stateKey(next, Math.min(time + 1, staticTime));
+					int existing = states.get(state, -1);
+					if (existing < 0) {
+						addNode(next, time + 1, node, left, state);
+					} else if (time + 1 < nodeTimes[existing]) {
+						// Only a state after the last claim can be reached later first
+						nodeTimes[existing] = time + 1;
+						nodeParents[existing] = node;
+						open.add(existing, openKey(time + 1, left));
+					}
+				}
+			}
+		}
+		return null;
+	}
+
+	private void addNode(int tile, int time, int parent, int left, long state) {
+		if (nodeCount == nodeTiles.length) {
+			int capacity = nodeCount * 2;
+			nodeTiles = Arrays.copyOf(nodeTiles, capacity);
+			nodeTimes = Arrays.copyOf(nodeTimes, capacity);
+			nodeParents = Arrays.copyOf(nodeParents, capacity);
+			open.ensureCapacity(capacity);
+		}
+
+		int node = nodeCount++;
+		nodeTiles[node] = tile;
+		nodeTimes[node] = time;
+		nodeParents[node] = parent;
+		states.put(state, node);
+		open.add(node, openKey(time, left));
+	}
+
+	/**
+	 * Order by time plus the distance left, but no less than the first time the
+	 * agent could stop on its goal, then by the most time spent. Otherwise an
+	 * agent whose goal is crossed late by another would try every tile at every
+	 * time step before then.
+	 */
+	private long openKey(int time, int left) {
+		return IndexedLongHeap.packKey(Math.max(time + left, earliestArrival), maxTime - time);
+	}
+
+	/**
+	 * Run a reverse search from a goal until it closes the start. Ties go to
+	 * the tile closest to the start, so the search runs along one shortest
+	 * route instead of filling every tile as far from both.
+	 */
+	private void startReverseSearch(int start, int goal) {
+		if (++reverseSearch == Integer.MAX_VALUE) {
+			Arrays.fill(reached, 0);
+			Arrays.fill(closed, 0);
+			reverseSearch = 1;
+		}
+		reverseStartRow = start / height;
+		reverseStartCol = start % height;
+		reverseGoalRow = goal / height;
+		reverseGoalCol = goal % height;
+		reverseOpen.clear();
+		distances[goal] = 0;
+		reached[goal] = reverseSearch;
+		reverseOpen.add(goal, reverseKey(0, reverseGoalRow, reverseGoalCol));
+
+		while (closed[start] != reverseSearch && !reverseOpen.isEmpty()) {
+			int current = reverseOpen.poll();
+			closed[current] = reverseSearch;
+
+			int row = current / height;
+			int col = current % height;
+			int distance = distances[current] + 1;
+			for (int x = -1; x < 2; x++) {
+				for (int y = -1; y < 2; y++) {
+					int xp = row + x;
+					int yp = col + y;
+					int next = xp * height + yp;
+					if (maze.isPassable(xp, yp) && closed[next] != reverseSearch
+							&& (reached[next] != reverseSearch || distance < distances[next])) {
+						reached[next] = reverseSearch;
+						distances[next] = distance;
+						reverseOpen.add(next, reverseKey(distance, xp, yp));
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Order the reverse search by distance plus the Chebyshev distance to the
+	 * start, then by the longest distance
+	 */
+	private long reverseKey(int distance, int row, int col) {
+		int left = Math.max(Math.abs(row - reverseStartRow), Math.abs(col - reverseStartCol));
+		return IndexedLongHeap.packKey(distance + left, Integer.MAX_VALUE - distance);
+	}
+
+	/**
+	 * Get a lower bound on the distance from a tile to the goal. A tile the
+	 * reverse search closed has its exact distance. For any other tile the
+	 * distance plus the Chebyshev distance to the start is at least the
+	 * smallest such sum still open, which is exact on every tile along a
+	 * shortest route.
+	 */
+	private int estimateToGoal(int tile) {
+		if (closed[tile] == reverseSearch) {
+			return distances[tile];
+		}
+		int row = tile / height;
+		int col = tile % height;
+		int bound = Math.max(Math.abs(row - reverseGoalRow), Math.abs(col - reverseGoalCol));
+		if (!reverseOpen.isEmpty()) {
+			int smallest = (int) (reverseOpen.firstKey() >>> 32);
+			int toStart = Math.max(Math.abs(row - reverseStartRow), Math.abs(col - reverseStartCol));
+			bound = Math.max(bound, smallest - toStart);
+		}
+		return bound;
+	}
+
+	private static long stateKey(int tile, int time) {
+		return ((long) time << 32) | tile;
+	}
+
+	private int[] buildRoute(int node) {
+		int[] route = new int[nodeTimes[node] + 1];
+		for (int step = node; step >= 0; step = nodeParents[step]) {
+			route[nodeTimes[step]] = nodeTiles[step];
+		}
+		return route;
+	}
+
+	private void checkAgents(int[] starts, int[] goals) {
+		if (starts.length != goals.length) {
+			throw new IllegalArgumentException("Every agent needs a start and a goal");
+		}
+		LongIntHashMap seen = new LongIntHashMap(starts.length * 2);
+		for (int agent = 0; agent < starts.length; agent++) {
+			checkTile(starts[agent], "Start");
+			checkTile(goals[agent], "Goal");
+			if (seen.containsKey(starts[agent]) || seen.containsKey(-1L - goals[agent])) {
+				throw new IllegalArgumentException("Agent " + agent + " shares its start or goal");
+			}
+			seen.put(starts[agent], agent);
+			seen.put(-1L - goals[agent], agent);
+		}
+	}
+
+	private void checkTile(int tile, String name) {
+		int row = tile / height;
+		int col = tile % height;
+		if (tile < 0 || row >= maze.getWidth() || !maze.isPassable(row, col)) {
+			throw new IllegalArgumentException(name + " tile " + tile + " is outside the maze or on a landmine");
+		}
+	}
+
+	/**
+	 * A node of the conflict-based search: one constraint on one agent, on top
+	 * of those of its parent, and the routes which respect them all
+	 */
+	private static class ConstraintNode implements Comparable<ConstraintNode> {
+
+		private final ConstraintNode parent;
+		private final int agent;
+		private final int time;
+		private final int tile;
+
+		/** The tile the agent may not move to from {@link #tile}, -1 if it may not be on it */
+		private final int to;
+
+		/** Creation order, to break ties in favour of the older node */
+		private final long order;
+
+		private int[][] routes;
+		private long cost;
+
+		ConstraintNode(ConstraintNode parent, int agent, int time, int tile, int to, int[][] routes, long cost,
+				long order) {
+			this.parent = parent;
+			this.agent = agent;
+			this.time = time;
+			this.tile = tile;
+			this.to = to;
+			this.routes = routes;
+			this.cost = cost;
+			this.order = order;
+		}
+
+		/**
+		 * Claim every constraint on an agent from this node up to the root. A
+		 * forbidden move is claimed as the opposite move, which the search then
+		 * avoids as a swap.
+		 */
+		void addConstraints(ReservationTable table, int forAgent) {
+			for (ConstraintNode node = this; node.parent != null; node = node.parent) {
+				if (node.agent != forAgent) {
+					continue;
+				}
+				if (node.to < 0) {
+					table.reserveTile(node.tile, node.time);
+				} else {
+					table.reserveMove(node.to, node.tile, node.time);
+				}
+			}
+		}
+
+		@Override
+		public int compareTo(ConstraintNode other) {
+			int byCost = Long.compare(cost, other.cost);
+			return byCost != 0 ? byCost : Long.compare(order, other.order);
+		}
+	}
+}
@@ -0,0 +1,334 @@
+package application.service;
+
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import application.domain.Maze;
+import application.domain.MazeListener;
+import application.domain.Node;
+import application.domain.Path;
+
+/**
+ * A bounded least-recently-used cache of solved paths, used by
+ * {@link AStarPathFinder#solveMaze} once set with
+ * {@link AStarPathFinder#setPathCache(PathCache)}.
+ *
+ * Entries are keyed by the {@link Maze#getFingerprint() fingerprint} of the
+ * maze, the start, the target, the heuristic and the
+ * {@link AStarPathFinder#getSettings() settings} of the path finder, e.g. its
+ * search limit. "No path" results are cached too, but nothing is cached from a
+ * search which stopped at its limit or budget. Paths are copied in and out, so callers may
+ * change the paths they are given. The least recently used entries are evicted
+ * once either the entry count or the approximate size in bytes exceeds its
+ * limit. Changing a landmine of a maze drops every entry solved on it.
+ *
+ * The cache is thread-safe and may be shared by finders on several threads.
+ *
+ * @author vbala
+ *
+ */
+public class PathCache {
+
+	/** Approximate bytes held by an entry besides its path */
+	private static final long ENTRY_BYTES = 200;
+
+	/** Approximate bytes held by each node of a cached path */
+	private static final long NODE_BYTES = 100;
+
+	private final int maxEntries;
+	private final long maxBytes;
+
+	/** Entries in access order, least recently used first */
+	private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<Key, Entry>(16, 0.75f, true);
+
+	/** Keys solved on each maze, and the listener dropping them */
+	private final Map<Maze, Set<Key>> keysByMaze = new IdentityHashMap<Maze, Set<Key>>();
+
+	/** Drops the entries of a maze when one of its tiles changes */
+	private final MazeListener invalidator = new MazeListener() {
+		@Override
+		public void landMineChanged(Maze maze, int row, int col, boolean landMine) {
+			invalidate(maze);
+		}
+
+		@Override
+		public void terrainCostChanged(Maze maze, int row, int col, int cost) {
+			invalidate(maze);
+		}
+	};
+
+	private long bytes;
+	private long hits;
+	private long misses;
+	private long evictions;
+	private long invalidations;
+
+	/**
+	 * Create a cache
+	 *
+	 * @param maxEntries The most paths to keep
+	 * @param maxBytes   The approximate most bytes to keep
+	 */
+	public PathCache(int maxEntries, long maxBytes) {
+		this.maxEntries = maxEntries;
+		this.maxBytes = maxBytes;
+	}
+
+	/**
+	 * Return the cached path for a search, or run the search with the finder and
+	 * cache its result. The arguments are those of
+	 * {@link AStarPathFinder#findPath}, heuristics are told apart by name.
+	 *
+	 * @return The path, or null if there is none
+	 */
+	public Path solve(AStarPathFinder finder, int startX, int startY, int targetX, int targetY,
+			Heuristic heuristic) {
+		long searchStart = System.nanoTime();
+		Maze maze = finder.getMaze();
+		Key key = new Key(maze.getFingerprint(), maze.getWidth(), maze.getHeight(), startX, startY, targetX,
+				targetY, heuristic.getName(), finder.getSettings());
+
+		synchronized (this) {
+			Entry entry = entries.get(key);
+			if (entry != null) {
+				hits++;
+				finder.recordStatistics(0, 0, searchStart, entry.path != null);
+				finder.getStatistics().setCached(true);
+				return copy(entry.path);
+			}
+			misses++;
+		}
+
+		// Search outside the lock, concurrent misses on the same key both search
+		Path path = finder.findPath(startX, startY, targetX, targetY, heuristic);
+		if (!finder.getStatistics().isLimitReached()) {
+			put(maze, key, path);
+		}
+
+		return path;
+	}
+
+	/**
+	 * Drop every entry solved on a maze
+	 *
+	 * @param maze The maze
+	 */
+	public synchronized void invalidate(Maze maze) {
+		Set<Key> keys = keysByMaze.remove(maze);
+		if (keys == null) {
+			return;
+		}
+
+		maze.removeMazeListener(invalidator);
+		for (Key key : keys) {
+			Entry entry = entries.remove(key);
+			if (entry != null) {
+				bytes -= entry.bytes;
+				invalidations++;
+			}
+		}
+	}
+
+	/**
+	 * Drop every entry
+	 */
+	public synchronized void clear() {
+		for (Maze maze : keysByMaze.keySet()) {
+			maze.removeMazeListener(invalidator);
+		}
+		keysByMaze.clear();
+		entries.clear();
+		bytes = 0;
+	}
+
+	/**
+	 * Add an entry and evict the least recently used ones until the cache is
+	 * within its limits
+	 */
+	private synchronized void put(Maze maze, Key key, Path path) {
+		if (maze.getFingerprint() != key.fingerprint) {
+			// The maze changed during the search
+			return;
+		}
+
+		Entry entry = new Entry(maze, copy(path));
+		Entry previous = entries.put(key, entry);
+		if (previous != null) {
+			bytes -= previous.bytes;
+			if (previous.maze != maze) {
+				forgetKey(previous.maze, key);
+			}
+		}
+		bytes += entry.bytes;
+
+		Set<Key> keys = keysByMaze.get(maze);
+		if (keys == null) {
+			keys = new HashSet<Key>();
+			keysByMaze.put(maze, keys);
+			maze.addMazeListener(invalidator);
+		}
+		keys.add(key);
+
+		Iterator<Map.Entry<Key, Entry>> eldest = entries.entrySet().iterator();
+		while ((entries.size() > maxEntries || bytes > maxBytes) && eldest.hasNext()) {
+			Map.Entry<Key, Entry> evicted = eldest.next();
+			eldest.remove();
+			bytes -= evicted.getValue().bytes;
+			evictions++;
+			forgetKey(evicted.getValue().maze, evicted.getKey());
+		}
+	}
+
+	/**
+	 * Copy a path, so a cached path is never shared with a caller
+	 */
+	private static Path copy(Path path) {
+		return path == null ? null : new Path(new LinkedHashSet<Node>(path.getNodeSet()), 0);
+	}
+
+	/**
+	 * Forget that a key belongs to a maze, and stop listening to the maze once it
+	 * has no entries left
+	 */
+	private void forgetKey(Maze maze, Key key) {
+		Set<Key> keys = keysByMaze.get(maze);
+		if (keys != null && keys.remove(key) && keys.isEmpty()) {
+			keysByMaze.remove(maze);
+			maze.removeMazeListener(invalidator);
+		}
+	}
+
+	/**
+	 * Get the number of searches answered from the cache
+	 *
+	 * @return The hit count
+	 */
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	/**
+	 * Get the number of searches which had to be run
+	 *
+	 * @return The miss count
+	 */
+	public synchronized long getMisses() {
+		return misses;
+	}
+
+	/**
+	 * Get the number of entries dropped to stay within the limits
+	 *
+	 * @return The eviction count
+	 */
+	public synchronized long getEvictions() {
+		return evictions;
+	}
+
+	/**
+	 * Get the number of entries dropped because their maze changed
+	 *
+	 * @return The invalidation count
+	 */
+	public synchronized long getInvalidations() {
+		return invalidations;
+	}
+
+	/**
+	 * Get the number of cached paths
+	 *
+	 * @return The entry count
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Get the approximate size of the cached paths
+	 *
+	 * @return The size in bytes
+	 */
+	public synchronized long getBytes() {
+		return bytes;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "PathCache [entries=" + entries.size() + ", bytes=" + bytes + ", hits=" + hits + ", misses=" + misses
+				+ ", evictions=" + evictions + ", invalidations=" + invalidations + "]";
+	}
+
+	/**
+	 * What was searched
+	 */
+	private static final class Key {
+		private final long fingerprint;
+		private final int width;
+		private final int height;
+		private final int startX;
+		private final int startY;
+		private final int targetX;
+		private final int targetY;
+		private final String heuristic;
+		private final String settings;
+
+		private Key(long fingerprint, int width, int height, int startX, int startY, int targetX, int targetY,
+				String heuristic, String settings) {
+			this.fingerprint = fingerprint;
+			this.width = width;
+			this.height = height;
+			this.startX = startX;
+			this.startY = startY;
+			this.targetX = targetX;
+			this.targetY = targetY;
+			this.heuristic = heuristic;
+			this.settings = settings;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) o;
+			return fingerprint == other.fingerprint && width == other.width && height == other.height
+					&& startX == other.startX && startY == other.startY && targetX == other.targetX
+					&& targetY == other.targetY && Objects.equals(heuristic, other.heuristic)
+					&& settings.equals(other.settings);
+		}
+
+		@Override
+		public int hashCode() {
+			int result = Long.hashCode(fingerprint);
+			result = 31 * result + width;
+			result = 31 * result + height;
+			result = 31 * result + startX;
+			result = 31 * result + startY;
+			result = 31 * result + targetX;
+			result = 31 * result + targetY;
+			result = 31 * result + Objects.hashCode(heuristic);
+			return 31 * result + settings.hashCode();
+		}
+	}
+
+	/**
+	 * A cached result and the maze it was solved on
+	 */
+	private static final class Entry {
+		private final Maze maze;
+		private final Path path;
+		private final long bytes;
+
+		private Entry(Maze maze, Path path) {
+			this.maze = maze;
+			this.path = path;
+			this.bytes = ENTRY_BYTES + (path == null ? 0 : path.getLength() * NODE_BYTES);
+		}
+	}
+}
@@ -0,0 +1,70 @@
+package application.service;
+
+import application.domain.Path;
+import application.domain.SearchStatistics;
+import application.domain.SolveJob;
+import application.domain.SolveResult;
+
+/**
+ * Finds paths through the maze it was created for. Instances are created by a
+ * {@link PathFinderFactory} and keep search state between solves, so they are
+ * not thread safe.
+ * 
+ * @author vbala
+ *
+ */
+public interface PathFinder {
+
+	/**
+	 * Find a path between two tiles
+	 * 
+	 * @param startX    The row of the start
+	 * @param startY    The column of the start
+	 * @param targetX   The row of the target plus one
+	 * @param targetY   The column of the target plus one
+	 * @param heuristic The heuristic to use
+	 * @return The path, or null if there is none
+	 */
+	public Path findPath(int startX, int startY, int targetX, int targetY, Heuristic heuristic);
+
+	/**
+	 * Solve a job, consulting the path cache if one is set
+	 * 
+	 * @param job The job to solve, for the maze of this finder
+	 * @return The path, if any, with a copy of the statistics of the solve
+	 */
+	public SolveResult solve(SolveJob job);
+
+	/**
+	 * Get the statistics of the last search
+	 * 
+	 * @return The statistics, updated by the next search
+	 */
+	public SearchStatistics getStatistics();
+
+	/**
+	 * Set the cache of solved paths to consult, null for none
+	 * 
+	 * @param pathCache The cache
+	 */
+	public void setPathCache(PathCache pathCache);
+
+	/**
+	 * Set the monitor of the searches, null for none
+	 * 
+	 * @param monitor The monitor
+	 */
+	public void setSearchMonitor(SearchMonitor monitor);
+
+	/**
+	 * Set whether searches mark the tiles they visit on the maze
+	 * 
+	 * @param markVisitedNodes True to mark visited tiles
+	 */
+	public void setMarkVisitedNodes(boolean markVisitedNodes);
+
+	/**
+	 * Release anything the finder registered with its maze
+	 */
+	public void dispose();
+}
@@ -0,0 +1,34 @@
+package application.service;
+
+import application.domain.Maze;
+
+/**
+ * Creates the {@link PathFinder}s of a search algorithm. Register a factory
+ * with {@link PathFinderRegistry} to offer the algorithm in the application
+ * and the command-line runner.
+ * 
+ * @author vbala
+ *
+ */
+public interface PathFinderFactory {
+
+	/**
+	 * Get the name shown to users and used by {@link PathFinderRegistry}
+	 * 
+	 * @return The name
+	 */
+	public String getName();
+
+	/**
+	 * Create a path finder for a maze
+	 * 
+	 * @param maze              The maze to be searched
+	 * @param maxSearchDistance The maximum depth we'll search before giving up
+	 * @param context           The search state to reuse
+	 * @param secondContext     The search state for a backward search, null to
+	 *                          create one if it is needed
+	 * @return The path finder
+	 */
+	public PathFinder createPathFinder(Maze maze, int maxSearchDistance, SearchContext context,
+			SearchContext secondContext);
+}
@@ -0,0 +1,131 @@
+package application.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The search algorithms and heuristics on offer, by name. The application and
+ * the command-line runner list them from here, and names given by users are
+ * looked up here once per solve.
+ * 
+ * The default registry holds every {@link SearchAlgorithm} and
+ * {@link AStarHeuristic}; more can be registered at startup. The registry is
+ * thread-safe.
+ * 
+ * @author vbala
+ *
+ */
+public class PathFinderRegistry {
+
+	private static final PathFinderRegistry defaultRegistry = new PathFinderRegistry();
+
+	static {
+		for (SearchAlgorithm algorithm : SearchAlgorithm.values()) {
+			defaultRegistry.register(algorithm);
+		}
+		for (AStarHeuristic heuristic : AStarHeuristic.values()) {
+			defaultRegistry.register(heuristic);
+		}
+	}
+
+	/** Algorithms by name, in the order registered */
+	private final Map<String, PathFinderFactory> algorithms = new LinkedHashMap<String, PathFinderFactory>();
+
+	/** Heuristics by name, in the order registered */
+	private final Map<String, Heuristic> heuristics = new LinkedHashMap<String, Heuristic>();
+
+	/**
+	 * Get the registry used by the application, the command-line runner and
+	 * the name-based methods of {@link AStarPathFinder} and
+	 * {@link SearchAlgorithm}
+	 * 
+	 * @return The default registry
+	 */
+	public static PathFinderRegistry getDefault() {
+		return defaultRegistry;
+	}
+
+	/**
+	 * Add a search algorithm
+	 * 
+	 * @param factory Creates the path finders of the algorithm
+	 * @throws IllegalArgumentException If the name is already taken
+	 */
+	public synchronized void register(PathFinderFactory factory) {
+		if (algorithms.containsKey(factory.getName())) {
+			throw new IllegalArgumentException("Algorithm " + factory.getName() + " is already registered");
+		}
+		algorithms.put(factory.getName(), factory);
+	}
+
+	/**
+	 * Add a heuristic
+	 * 
+	 * @param heuristic The heuristic
+	 * @throws IllegalArgumentException If the name is already taken
+	 */
+	public synchronized void register(Heuristic heuristic) {
+		if (heuristics.containsKey(heuristic.getName())) {
+			throw new IllegalArgumentException("Heuristic " + heuristic.getName() + " is already registered");
+		}
+		heuristics.put(heuristic.getName(), heuristic);
+	}
+
+	/**
+	 * Get an algorithm by name
+	 * 
+	 * @param name The name of the algorithm
+	 * @return The algorithm, or null if there is none by that name
+	 */
+	public synchronized PathFinderFactory getAlgorithm(String name) {
+		return algorithms.get(name);
+	}
+
+	/**
+	 * Get a heuristic by name
+	 * 
+	 * @param name The name of the heuristic
+	 * @return The heuristic, or null if there is none by that name
+	 */
+	public synchronized Heuristic getHeuristic(String name) {
+		return heuristics.get(name);
+	}
+
+	/**
+	 * Get every algorithm
+	 * 
+	 * @return The algorithms, in the order registered
+	 */
+	public synchronized List<PathFinderFactory> getAlgorithms() {
+		return new ArrayList<PathFinderFactory>(algorithms.values());
+	}
+
+	/**
+	 * Get every heuristic
+	 * 
+	 * @return The heuristics, in the order registered
+	 */
+	public synchronized List<Heuristic> getHeuristics() {
+		return new ArrayList<Heuristic>(heuristics.values());
+	}
+
+	/**
+	 * Get the names of every algorithm, e.g. for a choice box
+	 * 
+	 * @return The names, in the order registered
+	 */
+	public synchronized List<String> getAlgorithmNames() {
+		return new ArrayList<String>(algorithms.keySet());
+	}
+
+	/**
+	 * Get the names of every heuristic, e.g. for a choice box
+	 * 
+	 * @return The names, in the order registered
+	 */
+	public synchronized List<String> getHeuristicNames() {
+		return new ArrayList<String>(heuristics.keySet());
+	}
+}
@@ -0,0 +1,213 @@
+package application.service;
+
+import java.util.Arrays;
+
+import application.domain.LongIntHashMap;
+
+/**
+ * The tiles and moves claimed by agents which have already planned, by time
+ * step, for {@link MultiAgentPlanner}. An agent may not enter a tile another
+ * agent occupies at the same time, nor swap tiles with another agent in one
+ * step.
+ *
+ * Claims live in a {@link LongIntHashMap} keyed by time and tile, the time in
+ * the high 32 bits. The value is a bit mask: one bit if the tile itself is
+ * claimed and one per direction of a move out of the tile claimed at that time,
+ * so checking for a swap reads the same entry as checking the tile. The table
+ * therefore grows with the number of claims, not with the size of the maze
+ * times the length of the plan. An agent which has reached its goal holds it
+ * from then on with a single entry in a second, much smaller map.
+ *
+ * With many agents the claims map is far larger than the cache, and a search
+ * looks up every neighbour at two time steps. So each tile also has a 64-bit
+ * mask with a bit for every time step, modulo 64, at which it has a claim. A
+ * clear bit answers the lookup without touching the map, and the masks of
+ * neighbouring tiles share cache lines. The masks take 8 bytes per tile, up
+ * to the highest tile claimed.
+ *
+ * @author vbala
+ *
+ */
+public class ReservationTable {
+
+	/** Bits 0 to 8 are moves, by direction */
+	private static final int TILE = 1 << 9;
+
+	private final int height;
+
+	/** Claim bits by time and tile */
+	private final LongIntHashMap claims;
+
+	/** The time each held tile is held from, by tile */
+	private final LongIntHashMap holds;
+
+	/** The latest time each tile is claimed at, by tile */
+	private final LongIntHashMap lastTimes;
+
+	/** The time steps, modulo 64, at which each tile has a claim, by tile */
+	private long[] timeMasks = new long[0];
+
+	/** The tiles with a non-zero mask, so clearing only visits those */
+	private int[] maskedTiles = new int[16];
+	private int maskedCount;
+
+	/** The latest time any claim starts at */
+	private int maxTime = -1;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param height       The number of columns of the maze
+	 * @param expectedSize The number of claims to make room for
+	 */
+	public ReservationTable(int height, int expectedSize) {
+		this.height = height;
+		this.claims = new LongIntHashMap(expectedSize);
+		this.holds = new LongIntHashMap(16);
+		this.lastTimes = new LongIntHashMap(expectedSize);
+	}
+
+	/**
+	 * Claim every tile and move of a route, and its last tile from its last
+	 * time on
+	 *
+	 * @param route The tile index at each time step, from time 0
+	 */
+	public void reserve(int[] route) {
+		for (int time = 0; time < route.length - 1; time++) {
+			reserveTile(route[time], time);
+			if (route[time + 1] != route[time]) {
+				reserveMove(route[time], route[time + 1], time);
+			}
+		}
+		hold(route[route.length - 1], route.length - 1);
+	}
+
+	/**
+	 * Claim a tile at one time step
+	 */
+	public void reserveTile(int tile, int time) {
+		long key = key(tile, time);
+		claims.put(key, claims.get(key, 0) | TILE);
+		mark(tile, time);
+		if (time > getLastReservedTime(tile)) {
+			lastTimes.put(tile, time);
+		}
+		maxTime = Math.max(maxTime, time);
+	}
+
+	/**
+	 * Claim the move between two adjacent tiles which starts at a time step,
+	 * so that nobody moves the other way at the same time
+	 */
+	public void reserveMove(int from, int to, int time) {
+		long key = key(from, time);
+		claims.put(key, claims.get(key, 0) | 1 << direction(from, to));
+		mark(from, time);
+		maxTime = Math.max(maxTime, time);
+	}
+
+	/**
+	 * Claim a tile from a time step on, for an agent staying at its goal
+	 */
+	public void hold(int tile, int fromTime) {
+		holds.put(tile, fromTime);
+		lastTimes.put(tile, Integer.MAX_VALUE);
+		maxTime = Math.max(maxTime, fromTime);
+	}
+
+	/**
+	 * Check if a tile is claimed at a time step
+	 */
+	public boolean isReserved(int tile, int time) {
+		return (mayBeClaimed(tile, time) && (claims.get(key(tile, time), 0) & TILE) != 0)
+				|| holds.get(tile, Integer.MAX_VALUE) <= time;
+	}
+
+	/**
+	 * Check if moving between two adjacent tiles, starting at a time step,
+	 * would swap places with an agent moving the other way
+	 */
+	public boolean isSwapReserved(int from, int to, int time) {
+		return mayBeClaimed(to, time) && (claims.get(key(to, time), 0) & 1 << direction(to, from)) != 0;
+	}
+
+	/**
+	 * Get the latest time step a tile is claimed at. An agent can only stop on
+	 * a tile for good after it.
+	 *
+	 * @return The time, -1 if the tile is never claimed or
+	 *         {@link Integer#MAX_VALUE} if it is held for good
+	 */
+	public int getLastReservedTime(int tile) {
+		return lastTimes.get(tile, -1);
+	}
+
+	/**
+	 * Get the latest time step any claim starts at. Nothing changes after it
+	 * but for the tiles being held.
+	 *
+	 * @return The time, -1 if the table is empty
+	 */
+	public int getMaxTime() {
+		return maxTime;
+	}
+
+	/**
+	 * Get the number of tile and time steps with a claim
+	 */
+	public int size() {
+		return claims.size();
+	}
+
+	/**
+	 * Remove every claim
+	 */
+	public void clear() {
+		claims.clear();
+		holds.clear();
+		lastTimes.clear();
+		for (int i = 0; i < maskedCount; i++) {
+			timeMasks[maskedTiles[i]] = 0;
+		}
+		maskedCount = 0;
+		maxTime = -1;
+	}
+
+	/**
+	 * Set the mask bit of a claim on a tile at a time step
+	 */
+	private void mark(int tile, int time) {
+		if (tile >= timeMasks.length) {
+			timeMasks = Arrays.copyOf(timeMasks, Math.max(tile + 1, timeMasks.length * 2));
+		}
+		if (timeMasks[tile] == 0) {
+			if (maskedCount == maskedTiles.length) {
+				maskedTiles = Arrays.copyOf(maskedTiles, maskedCount * 2);
+			}
+			maskedTiles[maskedCount++] = tile;
+		}
+		timeMasks[tile] |= 1L << time;
+	}
+
+	/**
+	 * Check the mask of a tile: false if it certainly has no claim at a time
+	 * step, true if the claims map has to be asked
+	 */
+	private boolean mayBeClaimed(int tile, int time) {
+		return tile < timeMasks.length && (timeMasks[tile] & 1L << time) != 0;
+	}
+
+	private static long key(int tile, int time) {
+		return ((long) time << 32) | tile;
+	}
+
+	/**
+	 * Number the eight moves 0 to 8, skipping 4 for staying put
+	 */
+	private int direction(int from, int to) {
+		int dx = to / height - from / height;
+		int dy = to % height - from % height;
+		return (dx + 1) * 3 + dy + 1;
+	}
+}
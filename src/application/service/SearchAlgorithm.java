@@ -0,0 +1,129 @@
+package application.service;
+
+import application.domain.Maze;
+
+/**
+ * Search algorithm options for solving a maze
+ * 
+ * @author vbala
+ *
+ */
+public enum SearchAlgorithm implements PathFinderFactory {
+
+	A_STAR("A*") {
+		@Override
+		public PathFinder createPathFinder(Maze maze, int maxSearchDistance, SearchContext context,
+				SearchContext secondContext) {
+			return new AStarPathFinder(maze, maxSearchDistance, true, context);
+		}
+	},
+
+	JUMP_POINT_SEARCH("Jump Point Search") {
+		@Override
+		public PathFinder createPathFinder(Maze maze, int maxSearchDistance, SearchContext context,
+				SearchContext secondContext) {
+			return new JumpPointPathFinder(maze, maxSearchDistance, true, context);
+		}
+	},
+
+	BIDIRECTIONAL_A_STAR("Bidirectional A*") {
+		@Override
+		public PathFinder createPathFinder(Maze maze, int maxSearchDistance, SearchContext context,
+				SearchContext secondContext) {
+			if (secondContext == null) {
+				secondContext = SearchContext.forMaze(maze);
+			}
+			return new BidirectionalAStarPathFinder(maze, maxSearchDistance, true, context, secondContext);
+		}
+	},
+
+	D_STAR_LITE("D* Lite") {
+		@Override
+		public PathFinder createPathFinder(Maze maze, int maxSearchDistance, SearchContext context,
+				SearchContext secondContext) {
+			return new DStarLitePathFinder(maze, maxSearchDistance, true, context);
+		}
+	},
+
+	HPA_STAR("HPA*") {
+		@Override
+		public PathFinder createPathFinder(Maze maze, int maxSearchDistance, SearchContext context,
+				SearchContext secondContext) {
+			return new HierarchicalPathFinder(maze, maxSearchDistance, true, context);
+		}
+	},
+
+	BITBOARD_BFS("Bitboard BFS") {
+		@Override
+		public PathFinder createPathFinder(Maze maze, int maxSearchDistance, SearchContext context,
+				SearchContext secondContext) {
+			return new BitboardPathFinder(maze, maxSearchDistance, true, context);
+		}
+	};
+
+	/** The names of the algorithms, in order */
+	public static final String[] algorithms = names();
+
+	private final String name;
+
+	private SearchAlgorithm(String name) {
+		this.name = name;
+	}
+
+	@Override
+	public String getName() {
+		return name;
+	}
+
+	@Override
+	public String toString() {
+		return name;
+	}
+
+	/**
+	 * Create a path finder for the named algorithm. Unknown names fall back to
+	 * A*.
+	 * 
+	 * @param algorithm         One of {@link #algorithms}, or the name of an
+	 *                          algorithm added to {@link PathFinderRegistry}
+	 * @param maze              The maze to be searched
+	 * @param maxSearchDistance The maximum depth we'll search before giving up
+	 * @param context           The search state to reuse
+	 * @return The path finder
+	 */
+	public static PathFinder createPathFinder(String algorithm, Maze maze, int maxSearchDistance,
+			SearchContext context) {
+		return createPathFinder(algorithm, maze, maxSearchDistance, context, null);
+	}
+
+	/**
+	 * Create a path finder for the named algorithm, reusing a second search
+	 * context for algorithms which search from both ends.
+	 * 
+	 * @param algorithm         One of {@link #algorithms}, or the name of an
+	 *                          algorithm added to {@link PathFinderRegistry}
+	 * @param maze              The maze to be searched
+	 * @param maxSearchDistance The maximum depth we'll search before giving up
+	 * @param context           The search state to reuse
+	 * @param secondContext     The search state for the backward search
+	 * @return The path finder
+	 */
+	public static PathFinder createPathFinder(String algorithm, Maze maze, int maxSearchDistance,
+			SearchContext context, SearchContext secondContext) {
+		PathFinderFactory factory = PathFinderRegistry.getDefault().getAlgorithm(algorithm);
+		if (factory == null) {
+			factory = A_STAR;
+		}
+
+		return factory.createPathFinder(maze, maxSearchDistance, context, secondContext);
+	}
+
+	private static String[] names() {
+		SearchAlgorithm[] algorithms = values();
+		String[] names = new String[algorithms.length];
+		for (int i = 0; i < algorithms.length; i++) {
+			names[i] = algorithms[i].name;
+		}
+		return names;
+	}
+}
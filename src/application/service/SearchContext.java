@@ -0,0 +1,467 @@
+package application.service;
+
+import java.util.Arrays;
+
+import application.domain.IndexedBinaryHeap;
+import application.domain.Maze;
+import application.domain.OpenList;
+
+/**
+ * Reusable state for a grid search: cost, heuristic, parent and depth per tile
+ * plus the open list and closed set.
+ * 
+ * All state lives in primitive arrays indexed by tile id. Instead of clearing
+ * the arrays between searches every entry is stamped with the generation that
+ * last wrote it, so {@link #reset(Maze)} is O(1) and repeated searches over
+ * mazes of the same size allocate nothing.
+ * 
+ * Ids are dense row-major tile indices here. {@link SparseSearchContext} hands
+ * out ids only to the tiles a search reaches, for mazes too large for an array
+ * per tile.
+ * 
+ * A context is not thread safe, use one per thread.
+ * 
+ * @author vbala
+ *
+ */
+public class SearchContext {
+
+	/** Mazes with more tiles than this get a {@link SparseSearchContext} */
+	private static final long DENSE_TILE_LIMIT = 1 << 24;
+
+	/** Entry state, only valid while the stamp matches the generation */
+	private static final byte STATE_NEW = 0;
+	private static final byte STATE_CLOSED = 1;
+
+	/** Cost from the start to each tile */
+	private float[] cost;
+
+	/** Heuristic cost from each tile to the target */
+	private float[] heuristic;
+
+	/** Id of the tile we reached each tile from, -1 for none */
+	private int[] parent;
+
+	/** Number of steps from the start to each tile */
+	private int[] depth;
+
+	/** Closed state of each tile */
+	private byte[] state;
+
+	/** Generation in which each tile was last written */
+	private int[] stamp;
+
+	/** Current generation */
+	private int generation;
+
+	/** Set of not traversed tiles */
+	private OpenList open;
+
+	/** Factor on the heuristic in the open list key, above 1 for weighted A* */
+	private float heuristicWeight = 1;
+
+	/** Height of the maze being searched, used to map rows and columns to ids */
+	private int height;
+
+	/** Number of tiles closed and opened since the last reset */
+	private int expandedCount;
+	private int generatedCount;
+
+	/** Largest open list and number of closed tiles reopened since the last reset */
+	private int peakOpenSize;
+	private int reopenedCount;
+
+	/**
+	 * Create a context able to search mazes of up to capacity tiles
+	 * 
+	 * @param capacity The number of tiles
+	 */
+	public SearchContext(int capacity) {
+		this(capacity, new IndexedBinaryHeap(capacity));
+	}
+
+	/**
+	 * Create a context with a specific open list implementation
+	 * 
+	 * @param capacity The number of tiles
+	 * @param open     The open list to use
+	 */
+	public SearchContext(int capacity, OpenList open) {
+		this.cost = new float[capacity];
+		this.heuristic = new float[capacity];
+		this.parent = new int[capacity];
+		this.depth = new int[capacity];
+		this.state = new byte[capacity];
+		this.stamp = new int[capacity];
+		this.open = open;
+		open.ensureCapacity(capacity);
+	}
+
+	/**
+	 * Create a context suited to a maze: one array entry per tile for ordinary
+	 * mazes, a {@link SparseSearchContext} for huge ones
+	 * 
+	 * @param maze The maze to be searched
+	 * @return The search context
+	 */
+	public static SearchContext forMaze(Maze maze) {
+		if (isSparse(maze)) {
+			return new SparseSearchContext();
+		}
+		return new SearchContext(maze.getWidth() * maze.getHeight());
+	}
+
+	/**
+	 * Create a context suited to a maze with a specific open list
+	 * implementation
+	 * 
+	 * @param maze The maze to be searched
+	 * @param open The open list to use
+	 * @return The search context
+	 * @see #forMaze(Maze)
+	 */
+	public static SearchContext forMaze(Maze maze, OpenList open) {
+		if (isSparse(maze)) {
+			return new SparseSearchContext(open);
+		}
+		return new SearchContext(maze.getWidth() * maze.getHeight(), open);
+	}
+
+	/**
+	 * Check if a maze is too large for an array entry per tile
+	 * 
+	 * @param maze The maze to be searched
+	 * @return True if {@link #forMaze(Maze)} gives a {@link SparseSearchContext}
+	 */
+	public static boolean isSparse(Maze maze) {
+		return (long) maze.getWidth() * maze.getHeight() > DENSE_TILE_LIMIT;
+	}
+
+	/**
+	 * Prepare the context for a new search over the given maze. Grows the arrays
+	 * if the maze is larger than any searched before, otherwise this is O(1) plus
+	 * the cost of emptying the open list.
+	 * 
+	 * @param maze The maze about to be searched
+	 * @throws IllegalArgumentException If the maze has too many tiles for an
+	 *                                  array, search it with a
+	 *                                  {@link SparseSearchContext}
+	 */
+	public void reset(Maze maze) {
+		long tiles = (long) maze.getWidth() * maze.getHeight();
+		if (tiles > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException(
+					"A " + maze.getWidth() + "x" + maze.getHeight() + " maze needs a sparse search context");
+		}
+		ensureCapacity((int) tiles);
+		this.height = maze.getHeight();
+		startGeneration();
+	}
+
+	/**
+	 * Forget the previous search: empty the open list, zero the counters, set
+	 * the heuristic weight back to 1 and move to a new generation so every
+	 * entry reads as unvisited
+	 */
+	protected void startGeneration() {
+		open.clear();
+		heuristicWeight = 1;
+		expandedCount = 0;
+		generatedCount = 0;
+		peakOpenSize = 0;
+		reopenedCount = 0;
+		generation++;
+		if (generation == Integer.MAX_VALUE) {
+			// Stamps wrapped around, forget them all
+			Arrays.fill(stamp, 0);
+			generation = 1;
+		}
+	}
+
+	/**
+	 * Jump to a generation, so tests can reach the wrap-around without billions
+	 * of searches
+	 */
+	void setGeneration(int generation) {
+		this.generation = generation;
+	}
+
+	/**
+	 * Grow the arrays so they can hold capacity tiles
+	 * 
+	 * @param capacity The required number of tiles
+	 */
+	public void ensureCapacity(int capacity) {
+		if (capacity <= stamp.length) {
+			return;
+		}
+
+		cost = new float[capacity];
+		heuristic = new float[capacity];
+		parent = new int[capacity];
+		depth = new int[capacity];
+		state = new byte[capacity];
+		stamp = new int[capacity];
+		generation = 0;
+		open.ensureCapacity(capacity);
+	}
+
+	/**
+	 * Grow the arrays so they can hold capacity tiles, keeping the entries of the
+	 * running search
+	 * 
+	 * @param capacity The required number of tiles
+	 */
+	protected void growKeepingEntries(int capacity) {
+		if (capacity <= stamp.length) {
+			return;
+		}
+
+		cost = Arrays.copyOf(cost, capacity);
+		heuristic = Arrays.copyOf(heuristic, capacity);
+		parent = Arrays.copyOf(parent, capacity);
+		depth = Arrays.copyOf(depth, capacity);
+		state = Arrays.copyOf(state, capacity);
+		stamp = Arrays.copyOf(stamp, capacity);
+		open.ensureCapacity(capacity);
+	}
+
+	/**
+	 * Get the id of the tile at the given row and column
+	 */
+	public int getId(int row, int col) {
+		return row * height + col;
+	}
+
+	/**
+	 * Get the id of the tile at the given row and column if this context has
+	 * one, without handing out a new id
+	 * 
+	 * @return The id, or -1 if the tile has none
+	 */
+	public int findId(int row, int col) {
+		return getId(row, col);
+	}
+
+	/**
+	 * Get the row of the tile with the given id
+	 */
+	public int getRow(int id) {
+		return id / height;
+	}
+
+	/**
+	 * Get the column of the tile with the given id
+	 */
+	public int getCol(int id) {
+		return id % height;
+	}
+
+	/**
+	 * Make sure the entry for a tile belongs to the current generation
+	 */
+	private void touch(int id) {
+		if (stamp[id] != generation) {
+			stamp[id] = generation;
+			state[id] = STATE_NEW;
+			cost[id] = Float.POSITIVE_INFINITY;
+			heuristic[id] = 0;
+			parent[id] = -1;
+			depth[id] = 0;
+		}
+	}
+
+	/**
+	 * Check if a tile has been reached in the current search
+	 * 
+	 * @param id The tile to check
+	 * @return True if the tile has a cost in this search
+	 */
+	public boolean isVisited(int id) {
+		return stamp[id] == generation;
+	}
+
+	/**
+	 * Get the cost from the start to a tile, infinite if it has not been reached
+	 */
+	public float getCost(int id) {
+		return stamp[id] == generation ? cost[id] : Float.POSITIVE_INFINITY;
+	}
+
+	/**
+	 * Set the cost from the start to a tile
+	 */
+	public void setCost(int id, float value) {
+		touch(id);
+		cost[id] = value;
+	}
+
+	/**
+	 * Get the heuristic cost stored for a tile
+	 */
+	public float getHeuristic(int id) {
+		return stamp[id] == generation ? heuristic[id] : 0;
+	}
+
+	/**
+	 * Store the heuristic cost of a tile
+	 */
+	public void setHeuristic(int id, float value) {
+		touch(id);
+		heuristic[id] = value;
+	}
+
+	/**
+	 * Get the tile a tile was reached from, -1 if none
+	 */
+	public int getParent(int id) {
+		return stamp[id] == generation ? parent[id] : -1;
+	}
+
+	/**
+	 * Set the parent of a tile
+	 * 
+	 * @param id       The tile
+	 * @param parentId The tile which lead us to this tile, -1 for none
+	 * @return The depth of the tile
+	 */
+	public int setParent(int id, int parentId) {
+		touch(id);
+		parent[id] = parentId;
+		depth[id] = parentId < 0 ? 0 : getDepth(parentId) + 1;
+
+		return depth[id];
+	}
+
+	/**
+	 * Get the number of steps from the start to a tile
+	 */
+	public int getDepth(int id) {
+		return stamp[id] == generation ? depth[id] : 0;
+	}
+
+	/**
+	 * Get the factor the heuristic is multiplied by in the open list key
+	 */
+	public float getHeuristicWeight() {
+		return heuristicWeight;
+	}
+
+	/**
+	 * Set the factor the heuristic is multiplied by in the open list key. Keys
+	 * already in the open list keep the old weight until the tiles are added
+	 * again.
+	 * 
+	 * @param heuristicWeight The weight, 1 for plain A*
+	 */
+	public void setHeuristicWeight(float heuristicWeight) {
+		this.heuristicWeight = heuristicWeight;
+	}
+
+	/**
+	 * Add a tile to the open list, keyed by its cost plus weighted heuristic
+	 * 
+	 * @param id The tile to add
+	 */
+	public void addToOpen(int id) {
+		touch(id);
+		if (state[id] == STATE_CLOSED) {
+			reopenedCount++;
+		}
+		state[id] = STATE_NEW;
+		open.add(id, key(id));
+		generatedCount++;
+		peakOpenSize = Math.max(peakOpenSize, open.size());
+	}
+
+	/**
+	 * Move a tile in the open list forward after its cost has been lowered
+	 * 
+	 * @param id The tile whose cost has decreased
+	 */
+	public void decreaseKeyInOpen(int id) {
+		open.decreaseKey(id, key(id));
+	}
+
+	/**
+	 * Check if a tile is in the open list
+	 */
+	public boolean inOpenList(int id) {
+		return stamp[id] == generation && open.contains(id);
+	}
+
+	/**
+	 * Remove and return the open tile with the lowest cost plus weighted
+	 * heuristic
+	 */
+	public int pollOpen() {
+		return open.poll();
+	}
+
+	/**
+	 * Get the lowest cost plus weighted heuristic in the open list, infinite if
+	 * it is empty
+	 */
+	public float getOpenMinKey() {
+		if (open.size() == 0) {
+			return Float.POSITIVE_INFINITY;
+		}
+		return key(open.first());
+	}
+
+	private float key(int id) {
+		return cost[id] + heuristicWeight * heuristic[id];
+	}
+
+	/**
+	 * Get the number of tiles in the open list
+	 */
+	public int getOpenSize() {
+		return open.size();
+	}
+
+	/**
+	 * Add a tile to the closed set
+	 */
+	public void addToClosed(int id) {
+		touch(id);
+		state[id] = STATE_CLOSED;
+		expandedCount++;
+	}
+
+	/**
+	 * Check if a tile is in the closed set
+	 */
+	public boolean inClosedList(int id) {
+		return stamp[id] == generation && state[id] == STATE_CLOSED;
+	}
+
+	/**
+	 * Get the number of tiles added to the closed set since the last reset
+	 */
+	public int getExpandedCount() {
+		return expandedCount;
+	}
+
+	/**
+	 * Get the number of tiles added to the open list since the last reset
+	 */
+	public int getGeneratedCount() {
+		return generatedCount;
+	}
+
+	/**
+	 * Get the largest size of the open list since the last reset
+	 */
+	public int getPeakOpenSize() {
+		return peakOpenSize;
+	}
+
+	/**
+	 * Get the number of closed tiles put back on the open list since the last
+	 * reset
+	 */
+	public int getReopenedCount() {
+		return reopenedCount;
+	}
+}
@@ -0,0 +1,30 @@
+package application.service;
+
+/**
+ * Observes a running search. The search reports its progress every few
+ * thousand expansions and stops if it has been cancelled.
+ * 
+ * Called on the searching thread, implementations must be cheap and thread
+ * safe.
+ * 
+ * @author vbala
+ *
+ */
+public interface SearchMonitor {
+
+	/**
+	 * Check if the search should stop. A cancelled search throws a
+	 * {@link java.util.concurrent.CancellationException}.
+	 * 
+	 * @return True to abandon the search
+	 */
+	public boolean isCancelled();
+
+	/**
+	 * Report the progress of the search
+	 * 
+	 * @param nodesExpanded The number of nodes expanded so far
+	 * @param openSize      The current size of the open list
+	 */
+	public void searchProgress(long nodesExpanded, int openSize);
+}
@@ -0,0 +1,138 @@
+package application.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import application.domain.LatencyHistogram;
+import application.domain.SearchStatistics;
+import application.domain.SolveResult;
+
+/**
+ * Aggregates the {@link SearchStatistics} of many solves into
+ * {@link LatencyHistogram}s, one set per algorithm and heuristic, so latency
+ * percentiles can be compared across them.
+ *
+ * The registry is thread-safe, e.g. every worker of a
+ * {@link BatchSolveService} may record into the same one.
+ *
+ * @author vbala
+ *
+ */
+public class SearchStatisticsRegistry {
+
+	/** Histograms by "algorithm / heuristic", sorted for reports */
+	private final Map<String, Entry> entries = new ConcurrentSkipListMap<String, Entry>();
+
+	/**
+	 * Record the statistics of a solved job
+	 *
+	 * @param result The result of the job
+	 */
+	public void record(SolveResult result) {
+		record(result.getJob().getAlgorithm(), result.getJob().getHeuristic(), result.getStatistics());
+	}
+
+	/**
+	 * Record the statistics of a solve
+	 *
+	 * @param algorithm  One of {@link SearchAlgorithm#algorithms}
+	 * @param heuristic  One of {@link AStarHeuristic#algorithms}
+	 * @param statistics The statistics of the solve
+	 */
+	public void record(String algorithm, String heuristic, SearchStatistics statistics) {
+		Entry entry = entries.computeIfAbsent(algorithm + " / " + heuristic, key -> new Entry());
+		entry.totalTime.record(statistics.getTotalTime());
+		entry.searchTime.record(statistics.getSearchTime());
+		entry.reconstructionTime.record(statistics.getReconstructionTime());
+		entry.nodesExpanded.record(statistics.getNodesExpanded());
+		if (!statistics.isPathFound()) {
+			entry.failures.increment();
+		}
+	}
+
+	/**
+	 * Get the histogram of total solve times, in nanoseconds
+	 *
+	 * @param algorithm One of {@link SearchAlgorithm#algorithms}
+	 * @param heuristic One of {@link AStarHeuristic#algorithms}
+	 * @return The histogram, empty if nothing was recorded
+	 */
+	public LatencyHistogram getTotalTime(String algorithm, String heuristic) {
+		Entry entry = entries.get(algorithm + " / " + heuristic);
+		return entry == null ? new LatencyHistogram() : entry.totalTime;
+	}
+
+	/**
+	 * Get the histogram of search times, in nanoseconds
+	 *
+	 * @see #getTotalTime(String, String)
+	 */
+	public LatencyHistogram getSearchTime(String algorithm, String heuristic) {
+		Entry entry = entries.get(algorithm + " / " + heuristic);
+		return entry == null ? new LatencyHistogram() : entry.searchTime;
+	}
+
+	/**
+	 * Get the histogram of path reconstruction times, in nanoseconds
+	 *
+	 * @see #getTotalTime(String, String)
+	 */
+	public LatencyHistogram getReconstructionTime(String algorithm, String heuristic) {
+		Entry entry = entries.get(algorithm + " / " + heuristic);
+		return entry == null ? new LatencyHistogram() : entry.reconstructionTime;
+	}
+
+	/**
+	 * Get the histogram of nodes expanded per solve
+	 *
+	 * @see #getTotalTime(String, String)
+	 */
+	public LatencyHistogram getNodesExpanded(String algorithm, String heuristic) {
+		Entry entry = entries.get(algorithm + " / " + heuristic);
+		return entry == null ? new LatencyHistogram() : entry.nodesExpanded;
+	}
+
+	/**
+	 * Forget everything recorded
+	 */
+	public void clear() {
+		entries.clear();
+	}
+
+	/**
+	 * Describe every algorithm and heuristic recorded, one line each, with
+	 * percentiles of the total solve time in microseconds
+	 *
+	 * @return The report lines, a header first
+	 */
+	public List<String> report() {
+		List<String> lines = new ArrayList<String>();
+		lines.add(String.format(Locale.ROOT, "%-32s %8s %8s %10s %10s %10s %10s %10s %10s %12s", "solver",
+				"solves", "failed", "mean us", "p50 us", "p90 us", "p99 us", "p99.9 us", "max us",
+				"p50 expanded"));
+		for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+			LatencyHistogram time = entry.getValue().totalTime;
+			lines.add(String.format(Locale.ROOT, "%-32s %8d %8d %10.1f %10.1f %10.1f %10.1f %10.1f %10.1f %12d",
+					entry.getKey(), time.getCount(), entry.getValue().failures.sum(), time.getMean() / 1000,
+					time.getValueAtPercentile(50) / 1000.0, time.getValueAtPercentile(90) / 1000.0,
+					time.getValueAtPercentile(99) / 1000.0, time.getValueAtPercentile(99.9) / 1000.0,
+					time.getMax() / 1000.0, entry.getValue().nodesExpanded.getValueAtPercentile(50)));
+		}
+		return lines;
+	}
+
+	/**
+	 * The histograms of one algorithm and heuristic
+	 */
+	private static final class Entry {
+		private final LatencyHistogram totalTime = new LatencyHistogram();
+		private final LatencyHistogram searchTime = new LatencyHistogram();
+		private final LatencyHistogram reconstructionTime = new LatencyHistogram();
+		private final LatencyHistogram nodesExpanded = new LatencyHistogram();
+		private final LongAdder failures = new LongAdder();
+	}
+}
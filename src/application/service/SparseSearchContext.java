@@ -0,0 +1,161 @@
+package application.service;
+
+import java.util.Arrays;
+
+import application.domain.Maze;
+import application.domain.OpenList;
+
+/**
+ * A {@link SearchContext} for mazes too large for an array entry per tile,
+ * e.g. a 100k x 100k {@link application.domain.TiledMaze}.
+ *
+ * Ids are handed out in the order tiles are first reached, through an
+ * open-addressing hash table from (row, col) to id, so memory grows with the
+ * number of tiles a search touches rather than with the maze. The table is
+ * emptied by {@link #reset(Maze)}, ids are not kept between searches.
+ *
+ * Ids of the same tile differ between contexts, so finders which search with
+ * two contexts (bidirectional search) look a tile up in the other context with
+ * {@link #findId(int, int)}.
+ *
+ * @author vbala
+ *
+ */
+public class SparseSearchContext extends SearchContext {
+
+	private static final int INITIAL_CAPACITY = 1 << 12;
+
+	/** Row and column of each id */
+	private int[] rows = new int[INITIAL_CAPACITY];
+	private int[] cols = new int[INITIAL_CAPACITY];
+
+	/** Number of ids handed out since the last reset */
+	private int size;
+
+	/** Hash table of ids, -1 for an empty slot. Always at most half full */
+	private int[] table = newTable(INITIAL_CAPACITY * 2);
+
+	/**
+	 * Create an empty context, it grows as searches reach more tiles
+	 */
+	public SparseSearchContext() {
+		super(INITIAL_CAPACITY);
+	}
+
+	/**
+	 * Create an empty context with a specific open list implementation
+	 * 
+	 * @param open The open list to use
+	 */
+	public SparseSearchContext(OpenList open) {
+		super(INITIAL_CAPACITY, open);
+	}
+
+	@Override
+	public void reset(Maze maze) {
+		if (size > 0) {
+			Arrays.fill(table, -1);
+			size = 0;
+		}
+		startGeneration();
+	}
+
+	/**
+	 * Get the id of the tile at the given row and column, handing out a new one
+	 * the first time a tile is asked for
+	 */
+	@Override
+	public int getId(int row, int col) {
+		int id = findId(row, col);
+		if (id >= 0) {
+			return id;
+		}
+
+		id = size++;
+		if (id == rows.length) {
+			int capacity = rows.length * 2;
+			rows = Arrays.copyOf(rows, capacity);
+			cols = Arrays.copyOf(cols, capacity);
+			growKeepingEntries(capacity);
+		}
+		rows[id] = row;
+		cols[id] = col;
+
+		if (size * 2 > table.length) {
+			rehash(table.length * 2);
+		} else {
+			insert(id);
+		}
+		return id;
+	}
+
+	@Override
+	public int findId(int row, int col) {
+		int mask = table.length - 1;
+		int slot = hash(row, col) & mask;
+		int id;
+		while ((id = table[slot]) >= 0) {
+			if (rows[id] == row && cols[id] == col) {
+				return id;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return -1;
+	}
+
+	@Override
+	public int getRow(int id) {
+		return rows[id];
+	}
+
+	@Override
+	public int getCol(int id) {
+		return cols[id];
+	}
+
+	/**
+	 * Get the number of tiles given an id since the last reset
+	 *
+	 * @return The number of tiles touched by the search
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Rebuild the hash table with a new number of slots
+	 */
+	private void rehash(int slots) {
+		table = newTable(slots);
+		for (int id = 0; id < size; id++) {
+			insert(id);
+		}
+	}
+
+	/**
+	 * Put an id in the first free slot for its tile
+	 */
+	private void insert(int id) {
+		int mask = table.length - 1;
+		int slot = hash(rows[id], cols[id]) & mask;
+		while (table[slot] >= 0) {
+			slot = (slot + 1) & mask;
+		}
+		table[slot] = id;
+	}
+
+	private static int[] newTable(int slots) {
+		int[] table = new int[slots];
+		Arrays.fill(table, -1);
+		return table;
+	}
+
+	/**
+	 * Hash a tile, multiplying spreads neighbouring tiles over the table
+	 */
+	private static int hash(int row, int col) {
+		long key = ((long) row << 32) | (col & 0xFFFFFFFFL);
+		key *= 0x9E3779B97F4A7C15L;
+		return (int) (key >>> 32);
+	}
+}
@@ -0,0 +1,161 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import application.domain.Maze;
+import application.domain.MazeImpl;
+import application.domain.Path;
+import application.service.AStarHeuristic;
+import application.service.AStarPathFinder;
+import application.service.AnytimePathFinder;
+import application.service.AnytimeResult;
+
+/**
+ * TEST
+ *
+ * @author vbala
+ *
+ */
+public class AnytimePathFinderUTest
+{
+
+	@Test
+	public void testConvergesToCheapest()
+	{
+		for (long seed = 1; seed <= 20; seed++)
+		{
+			Maze maze = new MazeImpl(60, 60, 60 * 60 * 3 / 10, seed);
+			if (seed % 2 == 0)
+			{
+				for (int row = 0; row < 60; row++)
+				{
+					maze.setTerrainCost(row, (int) (seed * 7 % 60), 20);
+				}
+			}
+			Path path = new AStarPathFinder(maze, Integer.MAX_VALUE, true).findPath(0, 0, 60, 60,
+					AStarHeuristic.CHEBYSHEV);
+			AnytimeResult result = new AnytimePathFinder(maze, Integer.MAX_VALUE, true).search(0, 0, 60, 60,
+					AStarHeuristic.CHEBYSHEV);
+
+			if (path == null)
+			{
+				assertNull(result.getPath());
+				continue;
+			}
+			assertTrue(result.isOptimal());
+			assertFalse(result.isBudgetExhausted());
+			assertEquals(1, result.getBound(), 0);
+			assertEquals(path.getCost(maze, 0, 0), (long) result.getCost());
+			assertEquals(path.getCost(maze, 0, 0), result.getPath().getCost(maze, 0, 0));
+		}
+	}
+
+	@Test
+	public void testEverySolutionIsWithinItsBound()
+	{
+		for (long seed = 1; seed <= 10; seed++)
+		{
+			Maze maze = new MazeImpl(200, 200, 200 * 200 * 35 / 100, seed);
+			Path path = new AStarPathFinder(maze, Integer.MAX_VALUE, true).findPath(0, 0, 200, 200,
+					AStarHeuristic.CHEBYSHEV);
+			if (path == null)
+			{
+				continue;
+			}
+			long cheapest = path.getCost(maze, 0, 0);
+
+			List<AnytimeResult> solutions = new ArrayList<AnytimeResult>();
+			AnytimePathFinder finder = new AnytimePathFinder(maze, Integer.MAX_VALUE, true);
+			finder.setWeights(5, 1);
+			finder.setSolutionListener(solutions::add);
+			AnytimeResult result = finder.search(0, 0, 200, 200, AStarHeuristic.CHEBYSHEV);
+
+			assertEquals(cheapest, (long) result.getCost());
+			assertEquals(solutions.size(), result.getSolutionCount());
+			float previousCost = Float.POSITIVE_INFINITY;
+			for (AnytimeResult solution : solutions)
+			{
+				assertTrue(solution.getCost() < previousCost);
+				assertTrue(solution.getBound() <= solution.getWeight());
+				assertTrue(solution.getCost() <= solution.getBound() * cheapest + 1e-3);
+				assertEquals((long) solution.getCost(), solution.getPath().getCost(maze, 0, 0));
+				previousCost = solution.getCost();
+			}
+		}
+	}
+
+	@Test
+	public void testExpansionBudget()
+	{
+		Maze maze = new MazeImpl(300, 300, 300 * 300 * 3 / 10, 4);
+		AnytimePathFinder finder = new AnytimePathFinder(maze, Integer.MAX_VALUE, true);
+		AnytimeResult full = finder.search(0, 0, 300, 300, AStarHeuristic.CHEBYSHEV);
+		assertNotNull(full.getPath());
+
+		// Too few expansions for any path
+		finder.setExpansionBudget(10);
+		AnytimeResult none = finder.search(0, 0, 300, 300, AStarHeuristic.CHEBYSHEV);
+		assertNull(none.getPath());
+		assertTrue(none.isBudgetExhausted());
+		assertEquals(10, none.getExpandedNodes());
+		assertEquals(Float.POSITIVE_INFINITY, none.getBound(), 0);
+
+		// Enough for the weighted search, not for the cheapest path
+		finder.setExpansionBudget(full.getExpandedNodes() - 1);
+		AnytimeResult early = finder.search(0, 0, 300, 300, AStarHeuristic.CHEBYSHEV);
+		assertNotNull(early.getPath());
+		assertTrue(early.isBudgetExhausted());
+		assertTrue(early.getExpandedNodes() < full.getExpandedNodes());
+		assertTrue(early.getCost() >= full.getCost());
+		assertTrue(early.getCost() <= early.getBound() * full.getCost() + 1e-3);
+	}
+
+	@Test
+	public void testTimeBudget()
+	{
+		Maze maze = new MazeImpl(1000, 1000, 1000 * 1000 * 3 / 10, 2);
+		AnytimePathFinder finder = new AnytimePathFinder(maze, Integer.MAX_VALUE, true);
+		finder.setTimeBudget(1, TimeUnit.MILLISECONDS);
+		AnytimeResult result = finder.search(0, 0, 1000, 1000, AStarHeuristic.CHEBYSHEV);
+
+		assertTrue(result.isBudgetExhausted());
+		assertTrue(result.getElapsedTime() < TimeUnit.SECONDS.toNanos(1));
+	}
+
+	@Test
+	public void testUnreachableTarget()
+	{
+		Maze maze = new MazeImpl(20, 20, 0);
+		for (int col = 0; col < 20; col++)
+		{
+			maze.setLandMine(10, col, true);
+		}
+		AnytimeResult result = new AnytimePathFinder(maze, Integer.MAX_VALUE, true).search(0, 0, 20, 20,
+				AStarHeuristic.CHEBYSHEV);
+
+		assertNull(result.getPath());
+		assertFalse(result.isBudgetExhausted());
+	}
+
+	@Test
+	public void testRejectsWeightBelowOne()
+	{
+		try
+		{
+			new AnytimePathFinder(new MazeImpl(10, 10, 0), 100, true).setWeights(0.5f, 0.5f);
+			fail("weight below 1 accepted");
+		}
+		catch (IllegalArgumentException expected)
+		{
+		}
+	}
+}
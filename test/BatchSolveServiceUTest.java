@@ -0,0 +1,168 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import application.domain.Maze;
+import application.domain.MazeImpl;
+import application.domain.SolveJob;
+import application.domain.SolveResult;
+import application.service.AStarHeuristic;
+import application.service.AStarPathFinder;
+import application.service.BatchSolveService;
+import application.service.PathFinder;
+import application.service.SearchAlgorithm;
+import application.service.SearchContext;
+
+/**
+ * TEST
+ *
+ * @author vbala
+ *
+ */
+public class BatchSolveServiceUTest
+{
+
+	private static final String HEURISTIC = AStarHeuristic.algorithms[0];
+
+	@Test
+	public void testSolveAllKeepsJobOrder()
+	{
+		List<SolveJob> jobs = jobs(40, new String[] { "A*" });
+		BatchSolveService service = new BatchSolveService(4);
+		try
+		{
+			List<SolveResult> results = service.solveAll(jobs).collect(Collectors.toList());
+
+			assertEquals(jobs.size(), results.size());
+			for (int i = 0; i < jobs.size(); i++)
+			{
+				assertSame(jobs.get(i), results.get(i).getJob());
+			}
+		}
+		finally
+		{
+			service.shutdown();
+		}
+	}
+
+	@Test
+	public void testSubmitAllMatchesDirectSolve()
+	{
+		List<SolveJob> jobs = jobs(40, new String[] { "A*" });
+		BatchSolveService service = new BatchSolveService(4);
+		try
+		{
+			List<CompletableFuture<SolveResult>> futures = service.submitAll(jobs);
+
+			assertEquals(jobs.size(), futures.size());
+			for (int i = 0; i < jobs.size(); i++)
+			{
+				SolveJob job = jobs.get(i);
+				AStarPathFinder finder = new AStarPathFinder(job.getMaze(), Integer.MAX_VALUE, true);
+				finder.setMarkVisitedNodes(false);
+				assertSameResult(finder.solve(job), futures.get(i).join());
+			}
+		}
+		finally
+		{
+			service.shutdown();
+		}
+	}
+
+	@Test
+	public void testSameResultsForAnyParallelism()
+	{
+		List<SolveJob> jobs = jobs(60, SearchAlgorithm.algorithms);
+		List<SolveResult> serial = solveAll(1, jobs);
+		List<SolveResult> parallel = solveAll(4, jobs);
+
+		for (int i = 0; i < jobs.size(); i++)
+		{
+			assertSameResult(serial.get(i), parallel.get(i));
+		}
+	}
+
+	@Test
+	public void testWorkersDoNotShareSearchState()
+	{
+		// Many jobs of every size and algorithm in flight on one pool. Each worker
+		// grows and shrinks its own contexts between jobs, a context used by two
+		// jobs at once would corrupt the paths or the expansion counts
+		List<SolveJob> jobs = jobs(300, SearchAlgorithm.algorithms);
+		List<SolveResult> expected = new ArrayList<SolveResult>();
+		for (SolveJob job : jobs)
+		{
+			int tiles = job.getMaze().getWidth() * job.getMaze().getHeight();
+			PathFinder finder = SearchAlgorithm.createPathFinder(job.getAlgorithm(), job.getMaze(),
+					Integer.MAX_VALUE, new SearchContext(tiles), new SearchContext(tiles));
+			finder.setMarkVisitedNodes(false);
+			expected.add(finder.solve(job));
+			finder.dispose();
+		}
+
+		List<SolveResult> results = solveAll(4, jobs);
+		for (int i = 0; i < jobs.size(); i++)
+		{
+			assertSameResult(expected.get(i), results.get(i));
+		}
+	}
+
+	/**
+	 * Jobs over seeded mazes from 10x10 to 150x120, cycling through the given
+	 * algorithms
+	 */
+	private List<SolveJob> jobs(int count, String[] algorithms)
+	{
+		List<SolveJob> jobs = new ArrayList<SolveJob>();
+		for (int i = 0; i < count; i++)
+		{
+			int width = 10 + i * 37 % 141;
+			int height = 10 + i * 53 % 111;
+			Maze maze = new MazeImpl(width, height, width * height / 4, i);
+			jobs.add(new SolveJob(maze, algorithms[i % algorithms.length], HEURISTIC));
+		}
+		return jobs;
+	}
+
+	private List<SolveResult> solveAll(int parallelism, List<SolveJob> jobs)
+	{
+		BatchSolveService service = new BatchSolveService(parallelism);
+		try
+		{
+			assertEquals(parallelism, service.getParallelism());
+			return service.solveAll(jobs).collect(Collectors.toList());
+		}
+		finally
+		{
+			service.shutdown();
+		}
+	}
+
+	private void assertSameResult(SolveResult expected, SolveResult actual)
+	{
+		String job = expected.getJob().toString();
+		Maze maze = expected.getJob().getMaze();
+		assertEquals(job, expected.isSolved(), actual.isSolved());
+		if (expected.getPath() == null)
+		{
+			assertNull(job, actual.getPath());
+		}
+		else
+		{
+			assertNotNull(job, actual.getPath());
+			assertEquals(job, expected.getPath().getLength(), actual.getPath().getLength());
+			assertEquals(job, expected.getPath().getCost(maze, 0, 0), actual.getPath().getCost(maze, 0, 0));
+		}
+		assertEquals(job, expected.getStatistics().getNodesExpanded(), actual.getStatistics().getNodesExpanded());
+		assertEquals(job, expected.getStatistics().getNodesGenerated(),
+				actual.getStatistics().getNodesGenerated());
+	}
+}
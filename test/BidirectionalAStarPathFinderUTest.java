@@ -0,0 +1,144 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import application.domain.Maze;
+import application.domain.MazeImpl;
+import application.domain.Node;
+import application.domain.Path;
+import application.domain.SearchStatistics;
+import application.service.AStarHeuristic;
+import application.service.AStarPathFinder;
+import application.service.BidirectionalAStarPathFinder;
+
+/**
+ * TEST
+ *
+ * @author vbala
+ *
+ */
+public class BidirectionalAStarPathFinderUTest
+{
+
+	@Test
+	public void testSameCostAsAStar()
+	{
+		for (long seed = 1; seed <= 100; seed++)
+		{
+			Maze maze = new MazeImpl(40, 40, 40 * 40 * 3 / 10, seed);
+			if (seed % 2 == 0)
+			{
+				for (int row = 0; row < 40; row++)
+				{
+					maze.setTerrainCost(row, (int) (seed * 7 % 40), 1 + (int) (seed % 9));
+				}
+			}
+			Path path = new AStarPathFinder(maze, Integer.MAX_VALUE, true).findPath(0, 0, 40, 40,
+					AStarHeuristic.CHEBYSHEV);
+			Path bidirectional = new BidirectionalAStarPathFinder(maze, Integer.MAX_VALUE, true).findPath(0, 0, 40,
+					40, AStarHeuristic.CHEBYSHEV);
+
+			assertEquals(path == null, bidirectional == null);
+			if (path != null)
+			{
+				assertEquals(path.getCost(maze, 0, 0), bidirectional.getCost(maze, 0, 0));
+				assertContiguous(bidirectional, 0, 0, 39, 39);
+			}
+		}
+	}
+
+	@Test
+	public void testStopsEarlyWithCheapestPath()
+	{
+		// The straight diagonal crosses an expensive column, the cheapest path
+		// still has to cross it once
+		Maze maze = new MazeImpl(100, 100, 0);
+		for (int row = 0; row < 100; row++)
+		{
+			maze.setTerrainCost(row, 50, 5);
+		}
+		BidirectionalAStarPathFinder finder = new BidirectionalAStarPathFinder(maze, Integer.MAX_VALUE, true);
+		Path path = finder.findPath(0, 0, 100, 100, AStarHeuristic.CHEBYSHEV);
+
+		assertNotNull(path);
+		assertEquals(103, path.getCost(maze, 0, 0));
+		assertContiguous(path, 0, 0, 99, 99);
+		// The two lowest open keys passed the best cost long before either side
+		// ran out of nodes
+		assertTrue(finder.getStatistics().getNodesExpanded() < 100 * 100 / 4);
+	}
+
+	@Test
+	public void testExpansionCounts()
+	{
+		// Along a corridor every tile but one is expanded by exactly one side, and
+		// the tile where the two sides meet is generated by both
+		Maze maze = new MazeImpl(40, 1, 0);
+		BidirectionalAStarPathFinder finder = new BidirectionalAStarPathFinder(maze, Integer.MAX_VALUE, true);
+		Path path = finder.findPath(0, 0, 40, 1, AStarHeuristic.CHEBYSHEV);
+		SearchStatistics statistics = finder.getStatistics();
+
+		assertEquals(40, path.getLength());
+		assertTrue(statistics.isPathFound());
+		assertEquals(39, statistics.getNodesExpanded());
+		assertEquals(41, statistics.getNodesGenerated());
+		assertEquals(2, statistics.getPeakOpenSize());
+		assertEquals(0, statistics.getReopenings());
+	}
+
+	@Test
+	public void testBlockedTarget()
+	{
+		Maze maze = new MazeImpl(20, 20, 0);
+		for (int col = 0; col < 20; col++)
+		{
+			maze.setLandMine(10, col, true);
+		}
+		BidirectionalAStarPathFinder finder = new BidirectionalAStarPathFinder(maze, Integer.MAX_VALUE, true);
+
+		assertNull(finder.findPath(0, 0, 20, 20, AStarHeuristic.CHEBYSHEV));
+		assertFalse(finder.getStatistics().isPathFound());
+	}
+
+	@Test
+	public void testStartIsTarget()
+	{
+		Maze maze = new MazeImpl(10, 10, 0);
+		BidirectionalAStarPathFinder finder = new BidirectionalAStarPathFinder(maze, Integer.MAX_VALUE, true);
+
+		assertNull(new AStarPathFinder(maze, Integer.MAX_VALUE, true).findPath(3, 3, 4, 4, AStarHeuristic.CHEBYSHEV));
+		assertNull(finder.findPath(3, 3, 4, 4, AStarHeuristic.CHEBYSHEV));
+		assertFalse(finder.getStatistics().isPathFound());
+	}
+
+	/**
+	 * The path must run from the target to the start, a single move onto a free
+	 * tile at a time
+	 */
+	private void assertContiguous(Path path, int startX, int startY, int targetX, int targetY)
+	{
+		Node previous = null;
+		for (Node node : path.getNodeSet())
+		{
+			assertFalse(node.isLandMine());
+			if (previous == null)
+			{
+				assertEquals(targetX, node.getRow());
+				assertEquals(targetY, node.getCol());
+			}
+			else
+			{
+				int dx = Math.abs(previous.getRow() - node.getRow());
+				int dy = Math.abs(previous.getCol() - node.getCol());
+				assertEquals(1, Math.max(dx, dy));
+			}
+			previous = node;
+		}
+		assertEquals(startX, previous.getRow());
+		assertEquals(startY, previous.getCol());
+	}
+}
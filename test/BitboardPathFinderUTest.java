@@ -0,0 +1,134 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.SplittableRandom;
+
+import org.junit.Test;
+
+import application.domain.Maze;
+import application.domain.MazeImpl;
+import application.domain.Node;
+import application.domain.Path;
+import application.service.AStarHeuristic;
+import application.service.AStarPathFinder;
+import application.service.BitboardPathFinder;
+
+/**
+ * TEST
+ *
+ * @author vbala
+ *
+ */
+public class BitboardPathFinderUTest
+{
+
+	@Test
+	public void testSameLengthAsAStar()
+	{
+		// Heights around a word boundary, so moves carry between words
+		int[] heights = { 7, 63, 64, 65, 130 };
+		SplittableRandom random = new SplittableRandom(5);
+		for (int i = 0; i < 100; i++)
+		{
+			int width = 5 + random.nextInt(40);
+			int height = heights[i % heights.length];
+			Maze maze = new MazeImpl(width, height, width * height * 3 / 10, i);
+			AStarPathFinder finder = new AStarPathFinder(maze, Integer.MAX_VALUE, true);
+			BitboardPathFinder bitboardFinder = new BitboardPathFinder(maze, Integer.MAX_VALUE, true);
+			for (int query = 0; query < 5; query++)
+			{
+				int startX = random.nextInt(width);
+				int startY = random.nextInt(height);
+				int targetX = random.nextInt(width) + 1;
+				int targetY = random.nextInt(height) + 1;
+				Path path = finder.findPath(startX, startY, targetX, targetY, AStarHeuristic.CHEBYSHEV);
+				Path bitboardPath = bitboardFinder.findPath(startX, startY, targetX, targetY,
+						AStarHeuristic.CHEBYSHEV);
+
+				assertEquals(path == null, bitboardPath == null);
+				if (path != null)
+				{
+					assertEquals(path.getLength(), bitboardPath.getLength());
+					assertContiguous(bitboardPath);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void test50x50Empty()
+	{
+		Maze maze = new MazeImpl(50, 50, 0);
+		BitboardPathFinder finder = new BitboardPathFinder(maze, Integer.MAX_VALUE, true);
+		Path path = finder.solveMaze(0, 0, maze.getWidth(), maze.getHeight(), AStarHeuristic.algorithms[0]);
+
+		assertEquals(50, path.getLength());
+		assertContiguous(path);
+		assertEquals(50 * 50 - 1, finder.getStatistics().getNodesExpanded());
+	}
+
+	@Test
+	public void testFollowsLandMineChanges()
+	{
+		Maze maze = new MazeImpl(10, 10, 0);
+		BitboardPathFinder finder = new BitboardPathFinder(maze, Integer.MAX_VALUE, true);
+		assertEquals(10, finder.findPath(0, 0, 10, 10, AStarHeuristic.CHEBYSHEV).getLength());
+
+		// A wall across the maze
+		for (int col = 0; col < 10; col++)
+		{
+			maze.setLandMine(5, col, true);
+		}
+		assertNull(finder.findPath(0, 0, 10, 10, AStarHeuristic.CHEBYSHEV));
+		assertFalse(finder.getStatistics().isPathFound());
+
+		// A gap at either side
+		AStarPathFinder aStarFinder = new AStarPathFinder(maze, Integer.MAX_VALUE, true);
+		for (int gap = 9; gap >= 0; gap -= 9)
+		{
+			maze.setLandMine(5, gap, false);
+			Path path = finder.findPath(0, 9, 10, 10, AStarHeuristic.CHEBYSHEV);
+			assertEquals(aStarFinder.findPath(0, 9, 10, 10, AStarHeuristic.CHEBYSHEV).getLength(), path.getLength());
+			assertContiguous(path);
+			maze.setLandMine(5, gap, true);
+		}
+	}
+
+	@Test
+	public void testTerrainCostsSearchWithAStar()
+	{
+		Maze maze = new MazeImpl(20, 20, 40, 3);
+		for (int row = 0; row < 20; row++)
+		{
+			maze.setTerrainCost(row, 10, 50);
+		}
+		Path path = new AStarPathFinder(maze, Integer.MAX_VALUE, true).findPath(0, 0, 20, 20,
+				AStarHeuristic.CHEBYSHEV);
+		Path bitboardPath = new BitboardPathFinder(maze, Integer.MAX_VALUE, true).findPath(0, 0, 20, 20,
+				AStarHeuristic.CHEBYSHEV);
+
+		assertEquals(path.getCost(maze, 0, 0), bitboardPath.getCost(maze, 0, 0));
+	}
+
+	/**
+	 * Every step of the path must be a single move onto a free tile. The path
+	 * runs from the target back to the start, which may be a landmine.
+	 */
+	private void assertContiguous(Path path)
+	{
+		Node previous = null;
+		for (Node node : path.getNodeSet())
+		{
+			if (previous != null)
+			{
+				assertFalse(previous.isLandMine());
+				int dx = Math.abs(previous.getRow() - node.getRow());
+				int dy = Math.abs(previous.getCol() - node.getCol());
+				assertTrue(Math.max(dx, dy) == 1);
+			}
+			previous = node;
+		}
+	}
+}
@@ -0,0 +1,173 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.BitSet;
+import java.util.SplittableRandom;
+
+import org.junit.Test;
+
+import application.domain.Maze;
+import application.domain.MazeImpl;
+import application.service.AStarHeuristic;
+import application.service.AStarPathFinder;
+import application.service.BidirectionalAStarPathFinder;
+import application.service.ConnectivityIndex;
+import application.service.SearchContext;
+
+/**
+ * TEST
+ *
+ * @author vbala
+ *
+ */
+public class ConnectivityIndexUTest
+{
+
+	@Test
+	public void testMatchesBreadthFirstSearch()
+	{
+		SplittableRandom random = new SplittableRandom(7);
+		Maze maze = new MazeImpl(30, 20, 180, 7);
+		ConnectivityIndex index = ConnectivityIndex.getIndex(maze);
+
+		for (int change = 0; change < 2000; change++)
+		{
+			int row = random.nextInt(maze.getWidth());
+			int col = random.nextInt(maze.getHeight());
+			maze.setLandMine(row, col, !maze.isLandMine(row, col));
+
+			if (change % 20 == 0)
+			{
+				int fromRow = random.nextInt(maze.getWidth());
+				int fromCol = random.nextInt(maze.getHeight());
+				BitSet reachable = reachableFrom(maze, fromRow, fromCol);
+				for (int toRow = 0; toRow < maze.getWidth(); toRow++)
+				{
+					for (int toCol = 0; toCol < maze.getHeight(); toCol++)
+					{
+						boolean expected = (toRow == fromRow && toCol == fromCol)
+								|| reachable.get(toRow * maze.getHeight() + toCol);
+						assertEquals(expected, index.isConnected(maze, fromRow, fromCol, toRow, toCol));
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testRejectsWithoutSearching()
+	{
+		// A wall of landmines across the maze
+		BitSet landMines = new BitSet();
+		for (int col = 0; col < 20; col++)
+		{
+			landMines.set(10 * 20 + col);
+		}
+		Maze maze = new MazeImpl(20, 20, landMines);
+		AStarPathFinder finder = new AStarPathFinder(maze, Integer.MAX_VALUE, true);
+
+		assertNull(finder.findPath(0, 0, maze.getWidth(), maze.getHeight(), AStarHeuristic.CHEBYSHEV));
+		assertEquals(0, finder.getStatistics().getNodesExpanded());
+
+		// A gap in the wall joins the two halves without a rebuild
+		ConnectivityIndex index = ConnectivityIndex.getIndex(maze);
+		maze.setLandMine(10, 5, false);
+		assertNotNull(finder.findPath(0, 0, maze.getWidth(), maze.getHeight(), AStarHeuristic.CHEBYSHEV));
+		assertEquals(1, index.getBuilds());
+
+		// Landmines which leave a detour keep the index as it is
+		maze.setLandMine(3, 3, true);
+		maze.setLandMine(15, 15, true);
+		assertTrue(index.isConnected(maze, 0, 0, 19, 19));
+		assertEquals(1, index.getBuilds());
+
+		// Closing the gap splits the maze again
+		maze.setLandMine(10, 5, true);
+		assertFalse(index.isConnected(maze, 0, 0, 19, 19));
+		assertEquals(2, index.getBuilds());
+	}
+
+	@Test
+	public void testStartOnLandMine()
+	{
+		BitSet landMines = new BitSet();
+		landMines.set(0);
+		Maze maze = new MazeImpl(10, 10, landMines);
+		ConnectivityIndex index = ConnectivityIndex.getIndex(maze);
+
+		// The search can still step off a start on a landmine
+		assertTrue(index.isConnected(maze, 0, 0, 9, 9));
+		assertFalse(index.isConnected(maze, 9, 9, 0, 0));
+		assertNotNull(new AStarPathFinder(maze, Integer.MAX_VALUE, true).findPath(0, 0, maze.getWidth(),
+				maze.getHeight(), AStarHeuristic.CHEBYSHEV));
+	}
+
+	@Test
+	public void testFirstSolveExcludesBuild()
+	{
+		// Contexts already grown to the maze size, so the first solve of a new
+		// maze only differs by building its index
+		SearchContext forward = new SearchContext(0);
+		SearchContext backward = new SearchContext(0);
+		Maze warmUp = new MazeImpl(2000, 2000, 0);
+		new AStarPathFinder(warmUp, Integer.MAX_VALUE, true, forward).solveMaze(0, 0, 3, 3,
+				AStarHeuristic.algorithms[0]);
+		new BidirectionalAStarPathFinder(warmUp, Integer.MAX_VALUE, true, forward, backward).solveMaze(0, 0, 3, 3,
+				AStarHeuristic.algorithms[0]);
+
+		Maze measured = new MazeImpl(2000, 2000, 0);
+		long buildStart = System.nanoTime();
+		assertTrue(ConnectivityIndex.getIndex(measured).isConnected(measured, 0, 0, 2, 2));
+		long buildTime = System.nanoTime() - buildStart;
+
+		Maze maze = new MazeImpl(2000, 2000, 0);
+		AStarPathFinder finder = new AStarPathFinder(maze, Integer.MAX_VALUE, true, forward);
+		assertNotNull(finder.solveMaze(0, 0, 3, 3, AStarHeuristic.algorithms[0]));
+		assertEquals(1, ConnectivityIndex.getIndex(maze).getBuilds());
+		long searchTime = finder.getStatistics().getSearchTime();
+		assertTrue(searchTime + " ns search, " + buildTime + " ns build", searchTime < buildTime / 2);
+
+		maze = new MazeImpl(2000, 2000, 0);
+		finder = new BidirectionalAStarPathFinder(maze, Integer.MAX_VALUE, true, forward, backward);
+		assertNotNull(finder.solveMaze(0, 0, 3, 3, AStarHeuristic.algorithms[0]));
+		assertEquals(1, ConnectivityIndex.getIndex(maze).getBuilds());
+		searchTime = finder.getStatistics().getSearchTime();
+		assertTrue(searchTime + " ns search, " + buildTime + " ns build", searchTime < buildTime / 2);
+	}
+
+	/**
+	 * Tiles reached from a tile in eight directions, stepping off it even if it
+	 * holds a landmine
+	 */
+	private static BitSet reachableFrom(Maze maze, int row, int col)
+	{
+		int height = maze.getHeight();
+		BitSet reached = new BitSet();
+		int[] queue = new int[maze.getWidth() * height + 1];
+		int head = 0;
+		int tail = 0;
+		queue[tail++] = row * height + col;
+		while (head < tail)
+		{
+			int current = queue[head++];
+			for (int x = -1; x < 2; x++)
+			{
+				for (int y = -1; y < 2; y++)
+				{
+					int xp = current / height + x;
+					int yp = current % height + y;
+					int neighbour = xp * height + yp;
+					if (maze.isPassable(xp, yp) && !reached.get(neighbour))
+					{
+						reached.set(neighbour);
+						queue[tail++] = neighbour;
+					}
+				}
+			}
+		}
+		return reached;
+	}
+}
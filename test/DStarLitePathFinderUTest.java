@@ -0,0 +1,72 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import application.domain.Maze;
+import application.domain.MazeImpl;
+import application.domain.Path;
+import application.service.AStarHeuristic;
+import application.service.AStarPathFinder;
+import application.service.DStarLitePathFinder;
+import application.service.SearchContext;
+
+/**
+ * TEST
+ * 
+ * @author vbala
+ *
+ */
+public class DStarLitePathFinderUTest
+{
+
+	@Test
+	public void testReplanSameLengthAsAStar()
+	{
+		Random random = new Random(11);
+		for (int i = 0; i < 50; i++) {
+			Maze maze = new MazeImpl(25, 25, 150, i);
+			DStarLitePathFinder finder = new DStarLitePathFinder(maze, 10000, true, new SearchContext(25 * 25));
+
+			for (int edit = 0; edit < 20; edit++) {
+				Path path = new AStarPathFinder(maze, 10000, true).findPath(0, 0, maze.getWidth(), maze.getHeight(),
+						AStarHeuristic.algorithms[0]);
+				Path replanned = finder.findPath(0, 0, maze.getWidth(), maze.getHeight(), AStarHeuristic.algorithms[0]);
+
+				assertEquals(path == null, replanned == null);
+				if (path != null) {
+					assertEquals(path.getLength(), replanned.getLength());
+				}
+
+				int row = 1 + random.nextInt(23);
+				int col = 1 + random.nextInt(23);
+				maze.setLandMine(row, col, !maze.isLandMine(row, col));
+			}
+		}
+	}
+
+	@Test
+	public void testReplanRepairsOnlyAffectedTiles()
+	{
+		Maze maze = new MazeImpl(100, 50, 0);
+		DStarLitePathFinder finder = new DStarLitePathFinder(maze, 10000, true, new SearchContext(100 * 50));
+		assertEquals(100, finder.findPath(0, 0, 100, 50, AStarHeuristic.algorithms[0]).getLength());
+		long fullSearch = finder.getStatistics().getNodesExpanded();
+
+		// Block the middle, the path steps around the mine
+		maze.setLandMine(50, 25, true);
+		assertEquals(100, finder.findPath(0, 0, 100, 50, AStarHeuristic.algorithms[0]).getLength());
+		assertTrue(finder.getStatistics().getNodesExpanded() < fullSearch);
+
+		// Wall off the end tile
+		for (int x = 97; x < 100; x++) {
+			for (int y = 47; y < 50; y++) {
+				maze.setLandMine(x, y, x < 99 || y < 49);
+			}
+		}
+		assertNull(finder.findPath(0, 0, 100, 50, AStarHeuristic.algorithms[0]));
+	}
+}
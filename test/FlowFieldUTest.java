@@ -0,0 +1,187 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import application.domain.Maze;
+import application.domain.MazeImpl;
+import application.domain.Node;
+import application.domain.Path;
+import application.service.AStarHeuristic;
+import application.service.AStarPathFinder;
+import application.service.FlowField;
+
+/**
+ * TEST
+ *
+ * @author vbala
+ *
+ */
+public class FlowFieldUTest
+{
+
+	@Test
+	public void testPathsMatchSearch()
+	{
+		for (long seed = 1; seed <= 4; seed++)
+		{
+			checkAgainstSearch(new MazeImpl(60, 45, 540, seed));
+		}
+	}
+
+	@Test
+	public void testTerrainPathsMatchSearch()
+	{
+		for (long seed = 1; seed <= 4; seed++)
+		{
+			Maze maze = new MazeImpl(60, 45, 540, seed);
+			SplittableRandom random = new SplittableRandom(seed);
+			for (int x = 0; x < maze.getWidth(); x++)
+			{
+				for (int y = 0; y < maze.getHeight(); y++)
+				{
+					maze.setTerrainCost(x, y, 1 + random.nextInt(9));
+				}
+			}
+			checkAgainstSearch(maze);
+		}
+	}
+
+	@Test
+	public void testSameFieldOnOneThread() throws Exception
+	{
+		// Wide enough for the wavefront to span several chunks
+		Maze maze = new MazeImpl(700, 600, 700 * 600 / 5, 3);
+		FlowField parallel = new FlowField(maze, 350, 300);
+
+		ForkJoinPool pool = new ForkJoinPool(1);
+		FlowField sequential = pool.submit(() -> new FlowField(maze, 350, 300)).get();
+		pool.shutdown();
+
+		for (int x = 0; x < maze.getWidth(); x++)
+		{
+			for (int y = 0; y < maze.getHeight(); y++)
+			{
+				assertEquals(sequential.getDistance(x, y), parallel.getDistance(x, y));
+			}
+		}
+	}
+
+	@Test
+	public void testUnreachableGoal()
+	{
+		Maze maze = new MazeImpl(20, 20, 0, 1);
+		maze.setLandMine(10, 10, true);
+		FlowField field = new FlowField(maze, 10, 10);
+		assertEquals(FlowField.UNREACHABLE, field.getDistance(0, 0));
+		assertEquals(-1, field.getNextStep(0, 0));
+		assertNull(field.getPath(0, 0));
+
+		// Wall the goal off from the start
+		for (int col = 0; col < 20; col++)
+		{
+			maze.setLandMine(5, col, true);
+		}
+		field = new FlowField(maze, 19, 19);
+		assertNull(field.getPath(0, 0));
+		assertNotNull(field.getPath(6, 0));
+	}
+
+	@Test
+	public void testStaleAfterChange()
+	{
+		Maze maze = new MazeImpl(20, 20, 0, 1);
+		FlowField field = new FlowField(maze, 19, 19);
+		assertFalse(field.isStale());
+		assertEquals(19, field.getDistance(0, 0));
+		assertEquals(1, field.getPath(19, 19).getLength());
+
+		maze.setTerrainCost(3, 3, 5);
+		assertTrue(field.isStale());
+		assertFalse(new FlowField(maze, 19, 19).isStale());
+	}
+
+	@Test
+	public void testRejectsGoalOutsideMaze()
+	{
+		try
+		{
+			new FlowField(new MazeImpl(10, 10, 0, 1), 10, 3);
+			fail("goal outside the maze accepted");
+		}
+		catch (IllegalArgumentException expected)
+		{
+		}
+	}
+
+	/**
+	 * Compare the field of the last tile with an A* search from every other
+	 * tile, starts on landmines included
+	 */
+	private static void checkAgainstSearch(Maze maze)
+	{
+		int width = maze.getWidth();
+		int height = maze.getHeight();
+		FlowField field = new FlowField(maze, width - 1, height - 1);
+		AStarPathFinder finder = new AStarPathFinder(maze, Integer.MAX_VALUE, true);
+
+		for (int x = 0; x < width; x++)
+		{
+			for (int y = 0; y < height; y++)
+			{
+				if (x == width - 1 && y == height - 1)
+				{
+					// A search from the goal to itself finds nothing
+					continue;
+				}
+				Path expected = finder.findPath(x, y, width, height, AStarHeuristic.CHEBYSHEV);
+				Path path = field.getPath(x, y);
+				if (expected == null)
+				{
+					assertNull(path);
+					continue;
+				}
+
+				assertNotNull(path);
+				long cost = expected.getCost(maze, x, y);
+				assertEquals(cost, path.getCost(maze, x, y));
+				if (maze.isPassable(x, y))
+				{
+					assertEquals(cost, field.getDistance(x, y));
+				}
+				assertWalkable(maze, path, x, y);
+			}
+		}
+	}
+
+	/**
+	 * Check that a path starts at a tile and moves one tile at a time
+	 */
+	private static void assertWalkable(Maze maze, Path path, int startX, int startY)
+	{
+		int row = startX;
+		int col = startY;
+		boolean first = true;
+		for (Node node : path.getNodeSet())
+		{
+			if (first)
+			{
+				assertEquals(startX, node.getRow());
+				assertEquals(startY, node.getCol());
+				first = false;
+				continue;
+			}
+			assertTrue(maze.isPassable(node.getRow(), node.getCol()));
+			assertEquals(1, Math.max(Math.abs(node.getRow() - row), Math.abs(node.getCol() - col)));
+			row = node.getRow();
+			col = node.getCol();
+		}
+	}
+}
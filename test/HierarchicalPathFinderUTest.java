@@ -0,0 +1,85 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import application.domain.Maze;
+import application.domain.MazeImpl;
+import application.domain.Node;
+import application.domain.Path;
+import application.service.AStarHeuristic;
+import application.service.AStarPathFinder;
+import application.service.ClusterGraph;
+import application.service.HierarchicalPathFinder;
+import application.service.SearchContext;
+
+/**
+ * TEST
+ * 
+ * @author vbala
+ *
+ */
+public class HierarchicalPathFinderUTest
+{
+
+	@Test
+	public void testFindsEveryPathAStarFinds()
+	{
+		for (int i = 0; i < 100; i++) {
+			Maze maze = new MazeImpl(60, 40, 600, i);
+			Path path = new AStarPathFinder(maze, 10000, true).findPath(0, 0, maze.getWidth(), maze.getHeight(),
+					AStarHeuristic.algorithms[0]);
+			Path hpaPath = new HierarchicalPathFinder(maze, 10000, true, new SearchContext(60 * 40), 8)
+					.findPath(0, 0, maze.getWidth(), maze.getHeight(), AStarHeuristic.algorithms[0]);
+
+			assertEquals(path == null, hpaPath == null);
+			if (path != null) {
+				assertTrue(hpaPath.getLength() >= path.getLength());
+				assertContiguous(hpaPath);
+			}
+		}
+	}
+
+	@Test
+	public void testUpdateMatchesFreshGraph()
+	{
+		Random random = new Random(3);
+		Maze maze = new MazeImpl(50, 50, 500, 3L);
+		ClusterGraph graph = new ClusterGraph(maze, 8);
+
+		for (int i = 0; i < 200; i++) {
+			int row = random.nextInt(50);
+			int col = random.nextInt(50);
+			maze.setLandMine(row, col, !maze.isLandMine(row, col));
+		}
+		graph.update();
+
+		ClusterGraph fresh = new ClusterGraph(maze, 8);
+		for (int cluster = 0; cluster < graph.getClusterCount(); cluster++) {
+			assertArrayEquals(fresh.getNodes(cluster), graph.getNodes(cluster));
+		}
+		graph.dispose();
+		fresh.dispose();
+	}
+
+	/**
+	 * Every step of the path must be a single move onto a free tile
+	 */
+	private void assertContiguous(Path path)
+	{
+		Node previous = null;
+		for (Node node : path.getNodeSet()) {
+			assertFalse(node.isLandMine());
+			if (previous != null) {
+				int dx = Math.abs(previous.getRow() - node.getRow());
+				int dy = Math.abs(previous.getCol() - node.getCol());
+				assertTrue(Math.max(dx, dy) == 1);
+			}
+			previous = node;
+		}
+	}
+}
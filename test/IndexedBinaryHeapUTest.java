@@ -0,0 +1,82 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import application.domain.IndexedBinaryHeap;
+import application.domain.LegacyOpenList;
+import application.domain.Maze;
+import application.domain.MazeImpl;
+import application.domain.Path;
+import application.service.AStarHeuristic;
+import application.service.AStarPathFinder;
+
+/**
+ * TEST
+ * 
+ * @author vbala
+ *
+ */
+public class IndexedBinaryHeapUTest
+{
+
+	@Test
+	public void testPollReturnsKeysInOrder()
+	{
+		Random rand = new Random(42);
+		IndexedBinaryHeap heap = new IndexedBinaryHeap(1000);
+		for (int id = 0; id < 1000; id++) {
+			heap.add(id, rand.nextFloat() * 100);
+		}
+
+		float last = Float.NEGATIVE_INFINITY;
+		while (!heap.isEmpty()) {
+			int id = heap.first();
+			float key = heap.getKey(id);
+			assertEquals(id, heap.poll());
+			assertFalse(heap.contains(id));
+			assertTrue(key >= last);
+			last = key;
+		}
+	}
+
+	@Test
+	public void testDecreaseKeyAndRemove()
+	{
+		IndexedBinaryHeap heap = new IndexedBinaryHeap(10);
+		for (int id = 0; id < 10; id++) {
+			heap.add(id, 10 + id);
+		}
+
+		heap.decreaseKey(7, 1);
+		heap.remove(0);
+		heap.remove(0);
+		assertEquals(9, heap.size());
+		assertEquals(7, heap.poll());
+		assertEquals(1, heap.poll());
+
+		heap.clear();
+		assertEquals(0, heap.size());
+		assertFalse(heap.contains(5));
+	}
+
+	@Test
+	public void testHeapMatchesLegacyOpenList()
+	{
+		for (int i = 0; i < 20; i++) {
+			Maze maze = new MazeImpl(30, 30, 200);
+			Path path = new AStarPathFinder(maze, 10000, true).findPath(0, 0, maze.getWidth(), maze.getHeight(),
+					AStarHeuristic.algorithms[0]);
+			Path legacyPath = new AStarPathFinder(maze, 10000, true, new LegacyOpenList()).findPath(0, 0,
+					maze.getWidth(), maze.getHeight(), AStarHeuristic.algorithms[0]);
+
+			assertEquals(legacyPath == null, path == null);
+			if (path != null) {
+				assertEquals(legacyPath.getLength(), path.getLength());
+			}
+		}
+	}
+}
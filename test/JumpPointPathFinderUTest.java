@@ -0,0 +1,69 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import application.domain.Maze;
+import application.domain.MazeImpl;
+import application.domain.Node;
+import application.domain.Path;
+import application.service.AStarHeuristic;
+import application.service.AStarPathFinder;
+import application.service.JumpPointPathFinder;
+
+/**
+ * TEST
+ * 
+ * @author vbala
+ *
+ */
+public class JumpPointPathFinderUTest
+{
+
+	@Test
+	public void testSameLengthAsAStar()
+	{
+		for (int i = 0; i < 200; i++) {
+			Maze maze = new MazeImpl(25, 25, 150, i);
+			Path path = new AStarPathFinder(maze, 10000, true).findPath(0, 0, maze.getWidth(), maze.getHeight(),
+					AStarHeuristic.algorithms[0]);
+			Path jpsPath = new JumpPointPathFinder(maze, 10000, true).findPath(0, 0, maze.getWidth(),
+					maze.getHeight(), AStarHeuristic.algorithms[0]);
+
+			assertEquals(path == null, jpsPath == null);
+			if (path != null) {
+				assertEquals(path.getLength(), jpsPath.getLength());
+				assertContiguous(jpsPath);
+			}
+		}
+	}
+
+	@Test
+	public void test50x50Chebyshev()
+	{
+		Maze maze = new MazeImpl(50, 50, 0);
+		Path path = new JumpPointPathFinder(maze, 10000, true).solveMaze(0, 0, maze.getWidth(), maze.getHeight(),
+				AStarHeuristic.algorithms[0]);
+
+		assertEquals(50, path.getLength());
+		assertContiguous(path);
+	}
+
+	/**
+	 * Every step of the path must be a single move onto a free tile
+	 */
+	private void assertContiguous(Path path)
+	{
+		Node previous = null;
+		for (Node node : path.getNodeSet()) {
+			assertFalse(node.isLandMine());
+			if (previous != null) {
+				int dx = Math.abs(previous.getRow() - node.getRow());
+				int dy = Math.abs(previous.getCol() - node.getCol());
+				assertTrue(Math.max(dx, dy) == 1);
+			}
+			previous = node;
+		}
+	}
+}
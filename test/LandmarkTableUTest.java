@@ -0,0 +1,98 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import application.domain.Maze;
+import application.domain.MazeImpl;
+import application.domain.Path;
+import application.service.AStarHeuristic;
+import application.service.AStarPathFinder;
+import application.service.LandmarkTable;
+
+/**
+ * TEST
+ *
+ * @author vbala
+ *
+ */
+public class LandmarkTableUTest
+{
+
+	@Test
+	public void testPathsMatchChebyshev()
+	{
+		for (long seed = 1; seed <= 20; seed++)
+		{
+			Maze maze = new MazeImpl(60, 40, 600, seed);
+			Path chebyshev = new AStarPathFinder(maze, Integer.MAX_VALUE, true).findPath(0, 0, maze.getWidth(),
+					maze.getHeight(), AStarHeuristic.algorithms[0]);
+			Path landmarks = new AStarPathFinder(maze, Integer.MAX_VALUE, true).findPath(0, 0, maze.getWidth(),
+					maze.getHeight(), AStarHeuristic.algorithms[3]);
+
+			if (chebyshev == null)
+			{
+				assertNull(landmarks);
+			}
+			else
+			{
+				assertNotNull(landmarks);
+				assertEquals(chebyshev.getLength(), landmarks.getLength());
+			}
+		}
+	}
+
+	@Test
+	public void testExpandsFewerNodes()
+	{
+		Maze maze = new MazeImpl(300, 300, 18000, 3);
+		AStarPathFinder chebyshev = new AStarPathFinder(maze, Integer.MAX_VALUE, true);
+		AStarPathFinder landmarks = new AStarPathFinder(maze, Integer.MAX_VALUE, true);
+
+		assertNotNull(chebyshev.findPath(0, 0, maze.getWidth(), maze.getHeight(), AStarHeuristic.algorithms[0]));
+		assertNotNull(landmarks.findPath(0, 0, maze.getWidth(), maze.getHeight(), AStarHeuristic.algorithms[3]));
+		assertTrue(landmarks.getStatistics().getNodesExpanded() < chebyshev.getStatistics().getNodesExpanded());
+	}
+
+	@Test
+	public void testLowerBound()
+	{
+		Maze maze = new MazeImpl(40, 40, 400, 3);
+		LandmarkTable table = LandmarkTable.getTable(maze);
+		AStarPathFinder finder = new AStarPathFinder(maze, Integer.MAX_VALUE, true);
+
+		for (int x = 0; x < maze.getWidth(); x += 7)
+		{
+			for (int y = 0; y < maze.getHeight(); y += 5)
+			{
+				if (maze.isLandMine(x, y))
+				{
+					continue;
+				}
+				Path path = finder.findPath(x, y, maze.getWidth(), maze.getHeight(), AStarHeuristic.algorithms[0]);
+				if (path != null)
+				{
+					// A path of n tiles takes n - 1 steps
+					float bound = table.getCost(x, y, maze.getWidth() - 1, maze.getHeight() - 1);
+					assertTrue(bound <= path.getLength() - 1);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testTableIsSharedUntilChanged()
+	{
+		Maze maze = new MazeImpl(50, 50, 200, 5);
+		LandmarkTable table = LandmarkTable.getTable(maze);
+		assertSame(table, LandmarkTable.getTable(maze));
+
+		maze.setLandMine(25, 25, !maze.isLandMine(25, 25));
+		assertTrue(table.isStale(maze));
+		assertNotSame(table, LandmarkTable.getTable(maze));
+	}
+}
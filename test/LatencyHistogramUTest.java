@@ -0,0 +1,73 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.BitSet;
+
+import org.junit.Test;
+
+import application.domain.LatencyHistogram;
+import application.domain.Maze;
+import application.domain.MazeImpl;
+import application.domain.SolveJob;
+import application.domain.SolveResult;
+import application.service.AStarHeuristic;
+import application.service.AStarPathFinder;
+import application.service.SearchAlgorithm;
+import application.service.SearchStatisticsRegistry;
+
+/**
+ * TEST
+ * 
+ * @author vbala
+ *
+ */
+public class LatencyHistogramUTest
+{
+
+	@Test
+	public void testPercentilesWithinBucketPrecision()
+	{
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (long value = 1; value <= 100000; value++) {
+			histogram.record(value * 1000);
+		}
+
+		assertEquals(100000, histogram.getCount());
+		assertEquals(1000, histogram.getMin());
+		assertEquals(100000000, histogram.getMax());
+		double[] percentiles = { 1, 50, 90, 99, 99.9 };
+		for (double percentile : percentiles) {
+			double expected = percentile * 1000000;
+			double actual = histogram.getValueAtPercentile(percentile);
+			assertTrue(percentile + ": " + actual, actual >= expected && actual <= expected * 1.04);
+		}
+		assertEquals(100000000, histogram.getValueAtPercentile(100));
+	}
+
+	@Test
+	public void testFailedSolveHasStatistics()
+	{
+		// A wall of landmines across the maze
+		BitSet landMines = new BitSet();
+		for (int col = 0; col < 20; col++) {
+			landMines.set(10 * 20 + col);
+		}
+		Maze maze = new MazeImpl(20, 20, landMines);
+		SolveJob job = new SolveJob(maze, SearchAlgorithm.algorithms[0], AStarHeuristic.algorithms[0]);
+		SearchStatisticsRegistry registry = new SearchStatisticsRegistry();
+
+		SolveResult result = new AStarPathFinder(maze, 10000, true).solve(job);
+		registry.record(result);
+
+		assertNull(result.getPath());
+		assertFalse(result.getStatistics().isPathFound());
+		// The connectivity index rejects the target before any expansion
+		assertEquals(0, result.getStatistics().getNodesExpanded());
+		assertEquals(0, result.getStatistics().getPeakOpenSize());
+		assertTrue(result.getStatistics().getSearchTime() > 0);
+		assertEquals(1, registry.getTotalTime(job.getAlgorithm(), job.getHeuristic()).getCount());
+		assertEquals(2, registry.report().size());
+	}
+}
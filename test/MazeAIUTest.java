@@ -14,6 +14,9 @@ import application.service.AStarPathFinder;
  */
 public class MazeAIUTest 
 {
+
+	/** Places landmines which leave every maze solvable */
+	private static final long SEED = 1;
 	
 	@Test
 	public void test10x10Chebyshev()
@@ -21,7 +24,7 @@ public class MazeAIUTest
 		int rowCount = 10;
 		int colCount = 10;
 		int landMineCount = 40; // Less than half the area
-		Maze maze = new MazeImpl(rowCount, colCount, landMineCount);
+		Maze maze = new MazeImpl(rowCount, colCount, landMineCount, SEED);
 		AStarPathFinder finder = new AStarPathFinder(maze, 10000, true);
 		Path path = finder.solveMaze(0, 0, maze.getWidth(), maze.getHeight(), AStarHeuristic.algorithms[0]);
 
@@ -34,7 +37,7 @@ public class MazeAIUTest
 		int rowCount = 25;
 		int colCount = 25;
 		int landMineCount = 100; // Less than half the area
-		Maze maze = new MazeImpl(rowCount, colCount, landMineCount);
+		Maze maze = new MazeImpl(rowCount, colCount, landMineCount, SEED);
 		AStarPathFinder finder = new AStarPathFinder(maze, 10000, true);
 		Path path = finder.solveMaze(0, 0, maze.getWidth(), maze.getHeight(), AStarHeuristic.algorithms[0]);
 
@@ -47,7 +50,7 @@ public class MazeAIUTest
 		int rowCount = 50;
 		int colCount = 50;
 		int landMineCount = 250; // Less than half the area
-		Maze maze = new MazeImpl(rowCount, colCount, landMineCount);
+		Maze maze = new MazeImpl(rowCount, colCount, landMineCount, SEED);
 		AStarPathFinder finder = new AStarPathFinder(maze, 10000, true);
 		Path path = finder.solveMaze(0, 0, maze.getWidth(), maze.getHeight(), AStarHeuristic.algorithms[0]);
 
@@ -60,7 +63,7 @@ public class MazeAIUTest
 		int rowCount = 10;
 		int colCount = 10;
 		int landMineCount = 40; // Less than half the area
-		Maze maze = new MazeImpl(rowCount, colCount, landMineCount);	
+		Maze maze = new MazeImpl(rowCount, colCount, landMineCount, SEED);	
 		AStarPathFinder finder = new AStarPathFinder(maze, 10000, true);
 		Path path = finder.solveMaze(0, 0, maze.getWidth(), maze.getHeight(), AStarHeuristic.algorithms[1]);
 
@@ -73,7 +76,7 @@ public class MazeAIUTest
 		int rowCount = 25;
 		int colCount = 25;
 		int landMineCount = 100; // Less than half the area
-		Maze maze = new MazeImpl(rowCount, colCount, landMineCount);
+		Maze maze = new MazeImpl(rowCount, colCount, landMineCount, SEED);
 		AStarPathFinder finder = new AStarPathFinder(maze, 10000, true);
 		Path path = finder.solveMaze(0, 0, maze.getWidth(), maze.getHeight(), AStarHeuristic.algorithms[1]);
 
@@ -86,7 +89,7 @@ public class MazeAIUTest
 		int rowCount = 50;
 		int colCount = 50;
 		int landMineCount = 250; // Less than half the area
-		Maze maze = new MazeImpl(rowCount, colCount, landMineCount);		
+		Maze maze = new MazeImpl(rowCount, colCount, landMineCount, SEED);		
 		AStarPathFinder finder = new AStarPathFinder(maze, 10000, true);
 		Path path = finder.solveMaze(0, 0, maze.getWidth(), maze.getHeight(), AStarHeuristic.algorithms[1]);
 
@@ -99,7 +102,7 @@ public class MazeAIUTest
 		int rowCount = 10;
 		int colCount = 10;
 		int landMineCount = 40; // Less than half the area
-		Maze maze = new MazeImpl(rowCount, colCount, landMineCount);	
+		Maze maze = new MazeImpl(rowCount, colCount, landMineCount, SEED);	
 		AStarPathFinder finder = new AStarPathFinder(maze, 10000, true);
 		Path path = finder.solveMaze(0, 0, maze.getWidth(), maze.getHeight(), AStarHeuristic.algorithms[2]);
 
@@ -112,7 +115,7 @@ public class MazeAIUTest
 		int rowCount = 25;
 		int colCount = 25;
 		int landMineCount = 100; // Less than half the area
-		Maze maze = new MazeImpl(rowCount, colCount, landMineCount);
+		Maze maze = new MazeImpl(rowCount, colCount, landMineCount, SEED);
 		AStarPathFinder finder = new AStarPathFinder(maze, 10000, true);
 		Path path = finder.solveMaze(0, 0, maze.getWidth(), maze.getHeight(), AStarHeuristic.algorithms[2]);
 
@@ -125,7 +128,7 @@ public class MazeAIUTest
 		int rowCount = 50;
 		int colCount = 50;
 		int landMineCount = 250; // Less than half the area
-		Maze maze = new MazeImpl(rowCount, colCount, landMineCount);		
+		Maze maze = new MazeImpl(rowCount, colCount, landMineCount, SEED);		
 		AStarPathFinder finder = new AStarPathFinder(maze, 10000, true);
 		Path path = finder.solveMaze(0, 0, maze.getWidth(), maze.getHeight(), AStarHeuristic.algorithms[2]);
 
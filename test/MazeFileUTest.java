@@ -0,0 +1,92 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+
+import org.junit.Test;
+
+import application.domain.MappedMaze;
+import application.domain.Maze;
+import application.domain.MazeFile;
+import application.domain.MazeImpl;
+
+/**
+ * TEST
+ * 
+ * @author vbala
+ *
+ */
+public class MazeFileUTest
+{
+
+	@Test
+	public void testWriteAndOpen() throws IOException
+	{
+		// Sizes not a multiple of 64 tiles leave a partial last word
+		int[][] sizes = { { 1, 1 }, { 7, 9 }, { 64, 1 }, { 100, 37 } };
+		for (int[] size : sizes) {
+			Maze maze = new MazeImpl(size[0], size[1], size[0] * size[1] / 4, 3);
+			java.nio.file.Path file = Files.createTempFile("maze", ".maze");
+			try {
+				MazeFile.write(maze, 3, file);
+				MappedMaze mapped = MazeFile.open(file);
+
+				assertEquals(maze.getWidth(), mapped.getWidth());
+				assertEquals(maze.getHeight(), mapped.getHeight());
+				assertEquals(3, mapped.getSeed());
+				assertEquals(maze.getFingerprint(), mapped.getFingerprint());
+				for (int row = 0; row < maze.getWidth(); row++) {
+					for (int col = 0; col < maze.getHeight(); col++) {
+						assertEquals(maze.isLandMine(row, col), mapped.isLandMine(row, col));
+					}
+				}
+			} finally {
+				Files.delete(file);
+			}
+		}
+	}
+
+	@Test
+	public void testChangesStayInMemory() throws IOException
+	{
+		Maze maze = new MazeImpl(20, 20, 0, 1);
+		java.nio.file.Path file = Files.createTempFile("maze", ".maze");
+		try {
+			MazeFile.write(maze, file);
+			MappedMaze mapped = MazeFile.open(file);
+			mapped.setLandMine(3, 4, true);
+
+			assertTrue(mapped.isLandMine(3, 4));
+			assertEquals(1, mapped.getLandMineCount());
+			assertEquals(0, MazeFile.open(file).getLandMineCount());
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	public void testCorruptFileRejected() throws IOException
+	{
+		Maze maze = new MazeImpl(20, 20, 50, 1);
+		java.nio.file.Path file = Files.createTempFile("maze", ".maze");
+		try {
+			MazeFile.write(maze, file);
+			try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+				raf.seek(70);
+				raf.write(raf.read() ^ 0xFF);
+			}
+
+			try {
+				MazeFile.open(file);
+				fail("Corrupt file opened");
+			} catch (IOException e) {
+				assertTrue(e.getMessage().contains("checksum"));
+			}
+		} finally {
+			Files.delete(file);
+		}
+	}
+}
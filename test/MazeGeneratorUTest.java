@@ -0,0 +1,179 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.BitSet;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import application.domain.BacktrackerMazeGenerator;
+import application.domain.CaveMazeGenerator;
+import application.domain.GenerationAlgorithm;
+import application.domain.Maze;
+import application.domain.MazeGenerator;
+import application.domain.MazeImpl;
+import application.domain.PrimMazeGenerator;
+import application.domain.RandomMazeGenerator;
+
+/**
+ * TEST
+ *
+ * @author vbala
+ *
+ */
+public class MazeGeneratorUTest
+{
+
+	@Test
+	public void testRandomPlacesExactCount()
+	{
+		BitSet landMines = new RandomMazeGenerator(12000).generate(300, 200, 5);
+		assertEquals(12000, landMines.cardinality());
+		assertFalse(landMines.get(0));
+		assertFalse(landMines.get(300 * 200 - 1));
+
+		// No more than every tile but the start and the end
+		assertEquals(7, new RandomMazeGenerator(100).generate(3, 3, 5).cardinality());
+
+		Maze maze = new MazeImpl(300, 200, 12000, 5);
+		assertEquals(landMines, landMinesOf(maze));
+	}
+
+	@Test
+	public void testSameSeedSameMaze() throws Exception
+	{
+		for (String name : GenerationAlgorithm.algorithms)
+		{
+			MazeGenerator generator = GenerationAlgorithm.forName(name).createGenerator(40000);
+			BitSet parallel = generator.generate(401, 300, 9);
+
+			// The bands do not depend on the number of threads
+			ForkJoinPool pool = new ForkJoinPool(1);
+			BitSet sequential = pool.submit(() -> generator.generate(401, 300, 9)).get();
+			pool.shutdown();
+
+			assertEquals(name, parallel, sequential);
+			assertFalse(name, parallel.equals(generator.generate(401, 300, 10)));
+			assertFalse(name, parallel.get(0));
+			assertFalse(name, parallel.get(401 * 300 - 1));
+		}
+	}
+
+	@Test
+	public void testPerfectMazes()
+	{
+		MazeGenerator[] generators = { new BacktrackerMazeGenerator(), new PrimMazeGenerator() };
+		int[][] sizes = { { 21, 31 }, { 20, 30 }, { 1, 9 }, { 64, 65 } };
+		for (MazeGenerator generator : generators)
+		{
+			for (int[] size : sizes)
+			{
+				Maze maze = generator.createMaze(size[0], size[1], 3);
+				int cells = ((size[0] + 1) / 2) * ((size[1] + 1) / 2);
+				boolean endIsCell = size[0] % 2 == 1 && size[1] % 2 == 1;
+
+				// A spanning tree: every cell, one passage fewer, and the end tile
+				int free = size[0] * size[1] - landMinesOf(maze).cardinality();
+				assertEquals(generator.getName(), 2 * cells - 1 + (endIsCell ? 0 : 1), free);
+				assertEquals(generator.getName(), free, reachableFromStart(maze));
+			}
+		}
+	}
+
+	@Test
+	public void testCavesClumpLandMines()
+	{
+		BitSet fill = new CaveMazeGenerator(CaveMazeGenerator.DEFAULT_FILL, 0).generate(200, 200, 4);
+		BitSet caves = new CaveMazeGenerator(CaveMazeGenerator.DEFAULT_FILL, CaveMazeGenerator.DEFAULT_STEPS)
+				.generate(200, 200, 4);
+
+		// The steps start from the same fill and clear nearly every lone landmine
+		assertTrue(caves.cardinality() > 0);
+		assertTrue(countLonely(caves) * 10 < countLonely(fill));
+	}
+
+	/**
+	 * Count the landmines away from the edge with no landmine around them
+	 */
+	private static int countLonely(BitSet landMines)
+	{
+		int lonely = 0;
+		for (int row = 1; row < 199; row++)
+		{
+			for (int col = 1; col < 199; col++)
+			{
+				if (landMines.get(row * 200 + col) && countAround(landMines, row, col) == 0)
+				{
+					lonely++;
+				}
+			}
+		}
+		return lonely;
+	}
+
+	private static BitSet landMinesOf(Maze maze)
+	{
+		BitSet landMines = new BitSet();
+		for (int row = 0; row < maze.getWidth(); row++)
+		{
+			for (int col = 0; col < maze.getHeight(); col++)
+			{
+				if (maze.isLandMine(row, col))
+				{
+					landMines.set(row * maze.getHeight() + col);
+				}
+			}
+		}
+		return landMines;
+	}
+
+	private static int countAround(BitSet landMines, int row, int col)
+	{
+		int count = 0;
+		for (int x = -1; x < 2; x++)
+		{
+			for (int y = -1; y < 2; y++)
+			{
+				if ((x != 0 || y != 0) && landMines.get((row + x) * 200 + col + y))
+				{
+					count++;
+				}
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Count the free tiles reached from the start in eight directions
+	 */
+	private static int reachableFromStart(Maze maze)
+	{
+		int height = maze.getHeight();
+		BitSet reached = new BitSet();
+		int[] queue = new int[maze.getWidth() * height];
+		int head = 0;
+		int tail = 0;
+		reached.set(0);
+		queue[tail++] = 0;
+		while (head < tail)
+		{
+			int current = queue[head++];
+			for (int x = -1; x < 2; x++)
+			{
+				for (int y = -1; y < 2; y++)
+				{
+					int xp = current / height + x;
+					int yp = current % height + y;
+					int neighbour = xp * height + yp;
+					if (maze.isPassable(xp, yp) && !reached.get(neighbour))
+					{
+						reached.set(neighbour);
+						queue[tail++] = neighbour;
+					}
+				}
+			}
+		}
+		return tail;
+	}
+}
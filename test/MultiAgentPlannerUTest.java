@@ -0,0 +1,252 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import org.junit.Test;
+
+import application.domain.LongIntHashMap;
+import application.domain.Maze;
+import application.domain.MazeImpl;
+import application.domain.Path;
+import application.service.AStarHeuristic;
+import application.service.AStarPathFinder;
+import application.service.MultiAgentPlan;
+import application.service.MultiAgentPlanner;
+import application.service.ReservationTable;
+
+/**
+ * TEST
+ *
+ * @author vbala
+ *
+ */
+public class MultiAgentPlannerUTest
+{
+
+	@Test
+	public void testHashMapMatchesHashMap()
+	{
+		SplittableRandom random = new SplittableRandom(3);
+		LongIntHashMap map = new LongIntHashMap(4);
+		Map<Long, Integer> expected = new HashMap<Long, Integer>();
+		for (int round = 0; round < 3; round++)
+		{
+			for (int i = 0; i < 5000; i++)
+			{
+				long key = random.nextLong(20000) - 10000;
+				int value = random.nextInt();
+				map.put(key, value);
+				expected.put(key, value);
+			}
+			assertEquals(expected.size(), map.size());
+			for (long key = -10000; key < 10000; key++)
+			{
+				Integer value = expected.get(key);
+				assertEquals(value != null, map.containsKey(key));
+				assertEquals(value == null ? -7 : value.intValue(), map.get(key, -7));
+			}
+
+			// A new generation forgets every key
+			map.clear();
+			expected.clear();
+			assertTrue(map.isEmpty());
+			assertFalse(map.containsKey(0));
+		}
+	}
+
+	@Test
+	public void testReservationTable()
+	{
+		ReservationTable table = new ReservationTable(10, 16);
+		table.reserve(new int[] { 0, 1, 1, 12 });
+
+		assertTrue(table.isReserved(1, 1));
+		assertTrue(table.isReserved(1, 2));
+		assertFalse(table.isReserved(12, 2));
+		assertTrue(table.isReserved(12, 3));
+		assertTrue(table.isReserved(12, 1000));
+		assertEquals(Integer.MAX_VALUE, table.getLastReservedTime(12));
+		assertEquals(2, table.getLastReservedTime(1));
+		assertEquals(3, table.getMaxTime());
+
+		// Moving 1 -> 12 at time 2 swaps with 12 -> 1, waiting is no move
+		assertTrue(table.isSwapReserved(12, 1, 2));
+		assertFalse(table.isSwapReserved(12, 1, 1));
+		assertFalse(table.isSwapReserved(2, 1, 1));
+
+		// Times 64 apart share a mask bit, the claims map tells them apart
+		table.reserveTile(500, 70);
+		table.reserveMove(500, 501, 6);
+		assertTrue(table.isReserved(500, 70));
+		assertFalse(table.isReserved(500, 6));
+		assertFalse(table.isReserved(500, 134));
+		assertTrue(table.isSwapReserved(501, 500, 6));
+		assertFalse(table.isSwapReserved(501, 500, 70));
+
+		table.clear();
+		assertFalse(table.isReserved(1, 1));
+		assertFalse(table.isReserved(500, 70));
+		assertFalse(table.isSwapReserved(501, 500, 6));
+		assertFalse(table.isReserved(12, 1000));
+		assertEquals(-1, table.getMaxTime());
+	}
+
+	@Test
+	public void testRoutesAreConflictFree()
+	{
+		Maze maze = new MazeImpl(60, 60, 60 * 60 * 15 / 100, 5);
+		int[][] agents = randomAgents(maze, 200, 11);
+		MultiAgentPlan plan = new MultiAgentPlanner(maze, 500).plan(agents[0], agents[1]);
+
+		assertEquals(200, plan.getSolvedCount());
+		assertTrue(plan.isConflictFree());
+		checkRoutes(maze, plan, agents[0], agents[1]);
+	}
+
+	@Test
+	public void testSingleAgentMatchesSearch()
+	{
+		for (long seed = 1; seed <= 5; seed++)
+		{
+			Maze maze = new MazeImpl(40, 30, 240, seed);
+			int[][] agents = randomAgents(maze, 1, seed);
+			int start = agents[0][0];
+			int goal = agents[1][0];
+			Path path = new AStarPathFinder(maze, Integer.MAX_VALUE, true).findPath(start / 30, start % 30,
+					goal / 30 + 1, goal % 30 + 1, AStarHeuristic.CHEBYSHEV);
+
+			MultiAgentPlan plan = new MultiAgentPlanner(maze, 1000).plan(agents[0], agents[1]);
+			if (path == null)
+			{
+				assertFalse(plan.isSolved(0));
+			}
+			else
+			{
+				assertEquals(path.getLength() - 1, plan.getArrivalTime(0));
+			}
+		}
+	}
+
+	@Test
+	public void testConflictBasedSolvesPocket()
+	{
+		// A corridor with one pocket below column 3
+		Maze maze = new MazeImpl(2, 6, 0, 1);
+		for (int col = 0; col < 6; col++)
+		{
+			maze.setLandMine(1, col, col != 3);
+		}
+		int[] starts = { 1, 0 };
+		int[] goals = { 2, 5 };
+		MultiAgentPlanner planner = new MultiAgentPlanner(maze, 50);
+
+		// The first agent parks on the corridor before the second can pass
+		MultiAgentPlan prioritized = planner.plan(starts, goals);
+		assertTrue(prioritized.isSolved(0));
+		assertFalse(prioritized.isSolved(1));
+
+		// Together it steps into the pocket to let the other one by
+		MultiAgentPlan together = planner.planConflictBased(starts, goals, 1000);
+		assertNotNull(together);
+		assertEquals(2, together.getSolvedCount());
+		assertTrue(together.isConflictFree());
+		assertEquals(5, together.getArrivalTime(1));
+		checkRoutes(maze, together, starts, goals);
+	}
+
+	@Test
+	public void testConflictBasedIsNoWorse()
+	{
+		for (long seed = 1; seed <= 10; seed++)
+		{
+			Maze maze = new MazeImpl(12, 12, 20, seed);
+			int[][] agents = randomAgents(maze, 6, seed);
+			MultiAgentPlanner planner = new MultiAgentPlanner(maze, 100);
+			MultiAgentPlan prioritized = planner.plan(agents[0], agents[1]);
+			MultiAgentPlan together = planner.planConflictBased(agents[0], agents[1], 10000);
+
+			assertNotNull(together);
+			assertTrue(together.isConflictFree());
+			checkRoutes(maze, together, agents[0], agents[1]);
+			if (prioritized.getSolvedCount() == 6)
+			{
+				assertTrue(together.getSumOfCosts() <= prioritized.getSumOfCosts());
+			}
+		}
+	}
+
+	@Test
+	public void testRejectsSharedGoal()
+	{
+		try
+		{
+			new MultiAgentPlanner(new MazeImpl(10, 10, 0, 1), 100).plan(new int[] { 0, 1 }, new int[] { 50, 50 });
+			fail("shared goal accepted");
+		}
+		catch (IllegalArgumentException expected)
+		{
+		}
+	}
+
+	/**
+	 * Pick distinct free starts and distinct free goals
+	 */
+	private static int[][] randomAgents(Maze maze, int count, long seed)
+	{
+		int height = maze.getHeight();
+		int tiles = maze.getWidth() * height;
+		SplittableRandom random = new SplittableRandom(seed);
+		boolean[] usedStart = new boolean[tiles];
+		boolean[] usedGoal = new boolean[tiles];
+		int[][] agents = new int[2][count];
+		for (int agent = 0; agent < count; agent++)
+		{
+			for (int side = 0; side < 2; side++)
+			{
+				boolean[] used = side == 0 ? usedStart : usedGoal;
+				int tile;
+				do
+				{
+					tile = random.nextInt(tiles);
+				}
+				while (used[tile] || !maze.isPassable(tile / height, tile % height));
+				used[tile] = true;
+				agents[side][agent] = tile;
+			}
+		}
+		return agents;
+	}
+
+	/**
+	 * Check that every route runs from its start to its goal over free tiles,
+	 * one move or wait per time step
+	 */
+	private static void checkRoutes(Maze maze, MultiAgentPlan plan, int[] starts, int[] goals)
+	{
+		int height = maze.getHeight();
+		for (int agent = 0; agent < starts.length; agent++)
+		{
+			int[] route = plan.getRoute(agent);
+			if (route == null)
+			{
+				continue;
+			}
+			assertEquals(starts[agent], route[0]);
+			assertEquals(goals[agent], route[route.length - 1]);
+			for (int time = 1; time < route.length; time++)
+			{
+				int row = route[time] / height;
+				int col = route[time] % height;
+				assertTrue(maze.isPassable(row, col));
+				int step = Math.max(Math.abs(row - route[time - 1] / height), Math.abs(col - route[time - 1] % height));
+				assertTrue(step <= 1);
+			}
+		}
+	}
+}
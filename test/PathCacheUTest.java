@@ -0,0 +1,165 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import application.domain.Maze;
+import application.domain.MazeImpl;
+import application.domain.Path;
+import application.service.AStarHeuristic;
+import application.service.AStarPathFinder;
+import application.service.AnytimePathFinder;
+import application.service.PathCache;
+
+/**
+ * TEST
+ *
+ * @author vbala
+ *
+ */
+public class PathCacheUTest
+{
+
+	@Test
+	public void testRepeatedSolveIsHit()
+	{
+		Maze maze = new MazeImpl(30, 30, 0, 1);
+		PathCache cache = new PathCache(16, 1024 * 1024);
+		AStarPathFinder finder = new AStarPathFinder(maze, 10000, true);
+		finder.setPathCache(cache);
+
+		Path first = finder.solveMaze(0, 0, maze.getWidth(), maze.getHeight(), AStarHeuristic.algorithms[0]);
+		Path second = finder.solveMaze(0, 0, maze.getWidth(), maze.getHeight(), AStarHeuristic.algorithms[0]);
+
+		assertNotNull(first);
+		assertEquals(first.getNodeSet(), second.getNodeSet());
+		assertEquals(1, cache.getMisses());
+		assertEquals(1, cache.getHits());
+
+		// Another maze with the same layout shares the entry
+		Maze copy = new MazeImpl(30, 30, 0, 1);
+		AStarPathFinder copyFinder = new AStarPathFinder(copy, 10000, true);
+		copyFinder.setPathCache(cache);
+		assertEquals(maze.getFingerprint(), copy.getFingerprint());
+		copyFinder.solveMaze(0, 0, copy.getWidth(), copy.getHeight(), AStarHeuristic.algorithms[0]);
+		assertEquals(2, cache.getHits());
+	}
+
+	@Test
+	public void testLandMineChangeInvalidates()
+	{
+		Maze maze = new MazeImpl(30, 30, 0, 1);
+		PathCache cache = new PathCache(16, 1024 * 1024);
+		AStarPathFinder finder = new AStarPathFinder(maze, 10000, true);
+		finder.setPathCache(cache);
+
+		finder.solveMaze(0, 0, maze.getWidth(), maze.getHeight(), AStarHeuristic.algorithms[0]);
+		long fingerprint = maze.getFingerprint();
+		maze.setLandMine(5, 5, true);
+
+		assertTrue(fingerprint != maze.getFingerprint());
+		assertEquals(0, cache.size());
+		assertEquals(1, cache.getInvalidations());
+
+		Path path = finder.solveMaze(0, 0, maze.getWidth(), maze.getHeight(), AStarHeuristic.algorithms[0]);
+		assertNotNull(path);
+		assertEquals(2, cache.getMisses());
+
+		// Clearing the landmine restores the fingerprint
+		maze.setLandMine(5, 5, false);
+		assertEquals(fingerprint, maze.getFingerprint());
+	}
+
+	@Test
+	public void testEvictsLeastRecentlyUsed()
+	{
+		Maze maze = new MazeImpl(30, 30, 0, 1);
+		PathCache cache = new PathCache(2, 1024 * 1024);
+		AStarPathFinder finder = new AStarPathFinder(maze, 10000, true);
+		finder.setPathCache(cache);
+
+		for (int start = 0; start < 5; start++) {
+			finder.solveMaze(start, 0, maze.getWidth(), maze.getHeight(), AStarHeuristic.algorithms[0]);
+		}
+
+		assertEquals(2, cache.size());
+		assertEquals(3, cache.getEvictions());
+
+		// Limited by size, only one path fits
+		PathCache small = new PathCache(100, 4000);
+		finder.setPathCache(small);
+		finder.solveMaze(0, 0, maze.getWidth(), maze.getHeight(), AStarHeuristic.algorithms[0]);
+		finder.solveMaze(1, 0, maze.getWidth(), maze.getHeight(), AStarHeuristic.algorithms[0]);
+		assertEquals(1, small.size());
+		assertTrue(small.getBytes() <= 4000);
+	}
+
+	@Test
+	public void testSearchLimitIsPartOfKey()
+	{
+		Maze maze = new MazeImpl(60, 60, 0);
+		PathCache cache = new PathCache(16, 1024 * 1024);
+		AStarPathFinder limited = new AStarPathFinder(maze, 5, true);
+		limited.setPathCache(cache);
+		AStarPathFinder unlimited = new AStarPathFinder(maze, Integer.MAX_VALUE, true);
+		unlimited.setPathCache(cache);
+		AStarPathFinder deep = new AStarPathFinder(maze, 1000, true);
+		deep.setPathCache(cache);
+
+		Path path = unlimited.solveMaze(0, 0, 60, 60, AStarHeuristic.algorithms[0]);
+		assertNotNull(path);
+		assertEquals(60, path.getLength());
+
+		// Another limit is another entry, even if the search would agree
+		assertNotNull(deep.solveMaze(0, 0, 60, 60, AStarHeuristic.algorithms[0]));
+		assertEquals(0, cache.getHits());
+		assertEquals(2, cache.size());
+		assertTrue(unlimited.getSettings(), !unlimited.getSettings().equals(deep.getSettings()));
+
+		// The limited finder is not answered with the unlimited path
+		assertNull(limited.solveMaze(0, 0, 60, 60, AStarHeuristic.algorithms[0]));
+		assertTrue(limited.getStatistics().isLimitReached());
+		assertEquals(0, cache.getHits());
+	}
+
+	@Test
+	public void testLimitedSearchIsNotCached()
+	{
+		Maze maze = new MazeImpl(60, 60, 0);
+		PathCache cache = new PathCache(16, 1024 * 1024);
+		AStarPathFinder limited = new AStarPathFinder(maze, 5, true);
+		limited.setPathCache(cache);
+
+		assertNull(limited.solveMaze(0, 0, 60, 60, AStarHeuristic.algorithms[0]));
+		assertNull(limited.solveMaze(0, 0, 60, 60, AStarHeuristic.algorithms[0]));
+		assertEquals(0, cache.size());
+		assertEquals(2, cache.getMisses());
+
+		// Within the limit the result is cached, "no path" too
+		assertNotNull(limited.solveMaze(0, 0, 4, 4, AStarHeuristic.algorithms[0]));
+		assertFalse(limited.getStatistics().isLimitReached());
+		for (int col = 0; col < 60; col++)
+		{
+			maze.setLandMine(2, col, true);
+		}
+		assertNull(limited.solveMaze(0, 0, 4, 4, AStarHeuristic.algorithms[0]));
+		assertNull(limited.solveMaze(0, 0, 4, 4, AStarHeuristic.algorithms[0]));
+		assertEquals(1, cache.getHits());
+
+		// A budget cut short is not cached either, nor shared with other budgets
+		Maze open = new MazeImpl(60, 60, 0);
+		AnytimePathFinder anytime = new AnytimePathFinder(open, Integer.MAX_VALUE, true);
+		anytime.setPathCache(cache);
+		anytime.setExpansionBudget(10);
+		assertNull(anytime.solveMaze(0, 0, 60, 60, AStarHeuristic.algorithms[0]));
+		assertTrue(anytime.getStatistics().isLimitReached());
+		anytime.setExpansionBudget(0);
+		Path path = anytime.solveMaze(0, 0, 60, 60, AStarHeuristic.algorithms[0]);
+		assertNotNull(path);
+		assertFalse(anytime.getStatistics().isCached());
+		assertEquals(60, path.getLength());
+	}
+}
@@ -0,0 +1,112 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import application.domain.Maze;
+import application.domain.MazeImpl;
+import application.domain.Path;
+import application.service.AStarHeuristic;
+import application.service.AStarPathFinder;
+import application.service.Heuristic;
+import application.service.LandmarkTable;
+import application.service.PathFinder;
+import application.service.PathFinderRegistry;
+import application.service.SearchAlgorithm;
+import application.service.SearchContext;
+
+/**
+ * TEST
+ *
+ * @author vbala
+ *
+ */
+public class PathFinderRegistryUTest
+{
+
+	@Test
+	public void testDefaultsListedInOrder()
+	{
+		PathFinderRegistry registry = PathFinderRegistry.getDefault();
+		assertTrue(registry.getAlgorithmNames().containsAll(Arrays.asList(SearchAlgorithm.algorithms)));
+		assertEquals(SearchAlgorithm.algorithms[0], registry.getAlgorithmNames().get(0));
+		assertEquals(AStarHeuristic.algorithms[0], registry.getHeuristicNames().get(0));
+		assertSame(AStarHeuristic.MANHATTAN, registry.getHeuristic("Manhattan"));
+		assertSame(SearchAlgorithm.D_STAR_LITE, registry.getAlgorithm("D* Lite"));
+		assertNull(registry.getHeuristic("Unknown"));
+	}
+
+	@Test
+	public void testManhattanUsesItsOwnCost()
+	{
+		assertEquals(AStarHeuristic.getCostManhattanDistance(0, 0, 3, 7),
+				AStarHeuristic.MANHATTAN.getCost(0, 0, 3, 7), 0);
+		assertTrue(AStarHeuristic.MANHATTAN.getCost(0, 0, 3, 7) != AStarHeuristic.EUCLIDEAN.getCost(0, 0, 3, 7));
+	}
+
+	@Test
+	public void testLandmarksResolvedPerMaze()
+	{
+		Maze maze = new MazeImpl(30, 30, 90, 2);
+		Heuristic heuristic = AStarHeuristic.LANDMARKS.forMaze(maze);
+		assertSame(LandmarkTable.getTable(maze), heuristic);
+		assertEquals(AStarHeuristic.LANDMARKS.getName(), heuristic.getName());
+	}
+
+	@Test
+	public void testRegisteredHeuristicIsUsedByName()
+	{
+		// Dijkstra, no estimate at all
+		Heuristic zero = new Heuristic()
+		{
+			@Override
+			public String getName()
+			{
+				return "Zero (test)";
+			}
+
+			@Override
+			public float getCost(int x, int y, int targetX, int targetY)
+			{
+				return 0;
+			}
+		};
+		PathFinderRegistry registry = new PathFinderRegistry();
+		registry.register(zero);
+		try
+		{
+			registry.register(zero);
+			fail("duplicate name accepted");
+		}
+		catch (IllegalArgumentException expected)
+		{
+		}
+
+		Maze maze = new MazeImpl(40, 40, 160, 4);
+		PathFinder finder = SearchAlgorithm.A_STAR.createPathFinder(maze, Integer.MAX_VALUE,
+				new SearchContext(maze.getWidth() * maze.getHeight()), null);
+		Path dijkstra = finder.findPath(0, 0, maze.getWidth(), maze.getHeight(), registry.getHeuristic("Zero (test)"));
+		long dijkstraExpanded = finder.getStatistics().getNodesExpanded();
+		Path chebyshev = finder.findPath(0, 0, maze.getWidth(), maze.getHeight(), AStarHeuristic.CHEBYSHEV);
+
+		assertNotNull(chebyshev);
+		assertEquals(chebyshev.getLength(), dijkstra.getLength());
+		assertTrue(finder.getStatistics().getNodesExpanded() <= dijkstraExpanded);
+	}
+
+	@Test
+	public void testUnknownNamesFallBack()
+	{
+		Maze maze = new MazeImpl(20, 20, 0, 1);
+		PathFinder finder = SearchAlgorithm.createPathFinder("Unknown", maze, 1000,
+				new SearchContext(maze.getWidth() * maze.getHeight()));
+		assertEquals(AStarPathFinder.class, finder.getClass());
+		assertEquals(20, ((AStarPathFinder) finder).findPath(0, 0, 20, 20, "Unknown").getLength());
+	}
+}
@@ -0,0 +1,110 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import application.domain.IndexedBinaryHeap;
+import application.domain.Maze;
+import application.domain.MazeImpl;
+import application.domain.Path;
+import application.domain.RadixHeap;
+import application.service.AStarHeuristic;
+import application.service.AStarPathFinder;
+
+/**
+ * TEST
+ * 
+ * @author vbala
+ *
+ */
+public class RadixHeapUTest
+{
+
+	@Test
+	public void testMonotoneUseMatchesBinaryHeap()
+	{
+		Random rand = new Random(7);
+		RadixHeap radix = new RadixHeap(2000);
+		IndexedBinaryHeap binary = new IndexedBinaryHeap(2000);
+
+		// Like A*: every key added is at least the last key polled
+		float last = 0;
+		for (int id = 0; id < 50; id++) {
+			float key = rand.nextInt(20);
+			radix.add(id, key);
+			binary.add(id, key);
+		}
+		int nextId = 50;
+		while (binary.size() > 0) {
+			float key = binary.getKey(binary.first());
+			assertEquals(key, radix.getKey(radix.first()), 0);
+			int id = radix.poll();
+			assertFalse(radix.contains(id));
+			binary.remove(id);
+			assertTrue(key >= last);
+			last = key;
+
+			for (int i = 0; i < 2 && nextId < 2000; i++, nextId++) {
+				float newKey = last + rand.nextInt(30) + (rand.nextBoolean() ? 0.5f : 0);
+				radix.add(nextId, newKey);
+				binary.add(nextId, newKey);
+			}
+			if (rand.nextInt(4) == 0 && nextId > 0) {
+				int other = rand.nextInt(nextId);
+				if (binary.contains(other) && binary.getKey(other) > last + 1) {
+					radix.decreaseKey(other, last + 1);
+					binary.decreaseKey(other, last + 1);
+				}
+			}
+			assertEquals(binary.size(), radix.size());
+		}
+		assertEquals(0, radix.getRebuilds());
+	}
+
+	@Test
+	public void testKeyBelowLastPolled()
+	{
+		RadixHeap heap = new RadixHeap(10);
+		heap.add(0, 5);
+		heap.add(1, 9);
+		heap.add(2, -3);
+		assertEquals(2, heap.poll());
+		assertEquals(0, heap.poll());
+
+		// Smaller than the last key polled, every id is rebucketed
+		heap.add(3, 1.5f);
+		heap.add(4, -7.25f);
+		assertEquals(2, heap.getRebuilds());
+		assertEquals(4, heap.poll());
+		assertEquals(3, heap.poll());
+		assertEquals(1, heap.poll());
+		assertEquals(0, heap.size());
+
+		heap.add(5, 2);
+		heap.remove(5);
+		heap.add(6, 1);
+		heap.clear();
+		assertEquals(0, heap.size());
+		assertFalse(heap.contains(6));
+	}
+
+	@Test
+	public void testSearchMatchesBinaryHeap()
+	{
+		for (long seed = 0; seed < 20; seed++) {
+			Maze maze = new MazeImpl(40, 40, 320, seed);
+			Path path = new AStarPathFinder(maze, 10000, true).findPath(0, 0, maze.getWidth(), maze.getHeight(),
+					AStarHeuristic.algorithms[0]);
+			Path radixPath = new AStarPathFinder(maze, 10000, true, new RadixHeap(0)).findPath(0, 0,
+					maze.getWidth(), maze.getHeight(), AStarHeuristic.algorithms[0]);
+
+			assertEquals(path == null, radixPath == null);
+			if (path != null) {
+				assertEquals(path.getLength(), radixPath.getLength());
+			}
+		}
+	}
+}
@@ -0,0 +1,217 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+import java.util.SplittableRandom;
+
+import org.junit.Test;
+
+import application.domain.Maze;
+import application.domain.MazeImpl;
+import application.domain.Path;
+import application.domain.RadixHeap;
+import application.service.AStarHeuristic;
+import application.service.AStarPathFinder;
+import application.service.PathCache;
+import application.service.PathFinder;
+import application.service.SearchAlgorithm;
+import application.service.SearchContext;
+
+/**
+ * TEST
+ *
+ * @author vbala
+ *
+ */
+public class TerrainCostUTest
+{
+
+	@Test
+	public void testPathsMatchDijkstra()
+	{
+		for (long seed = 1; seed <= 10; seed++)
+		{
+			Maze maze = weightedMaze(seed);
+			long expected = dijkstra(maze);
+			int tiles = maze.getWidth() * maze.getHeight();
+
+			for (String algorithm : SearchAlgorithm.algorithms)
+			{
+				PathFinder finder = SearchAlgorithm.createPathFinder(algorithm, maze, Integer.MAX_VALUE,
+						new SearchContext(tiles), new SearchContext(tiles));
+				Path path = finder.findPath(0, 0, maze.getWidth(), maze.getHeight(), AStarHeuristic.CHEBYSHEV);
+				if (expected < 0)
+				{
+					assertNull(algorithm, path);
+				}
+				else
+				{
+					assertNotNull(algorithm, path);
+					assertEquals(algorithm, expected, path.getCost(maze, 0, 0));
+				}
+				finder.dispose();
+			}
+		}
+	}
+
+	@Test
+	public void testRadixHeapMatchesBinaryHeap()
+	{
+		for (long seed = 1; seed <= 10; seed++)
+		{
+			Maze maze = weightedMaze(seed);
+			RadixHeap radixHeap = new RadixHeap(maze.getWidth() * maze.getHeight());
+			Path radix = new AStarPathFinder(maze, Integer.MAX_VALUE, true, radixHeap).findPath(0, 0,
+					maze.getWidth(), maze.getHeight(), AStarHeuristic.CHEBYSHEV);
+			Path binary = new AStarPathFinder(maze, Integer.MAX_VALUE, true).findPath(0, 0, maze.getWidth(),
+					maze.getHeight(), AStarHeuristic.CHEBYSHEV);
+
+			if (binary == null)
+			{
+				assertNull(radix);
+			}
+			else
+			{
+				assertNotNull(radix);
+				assertEquals(binary.getCost(maze, 0, 0), radix.getCost(maze, 0, 0));
+			}
+			// The Chebyshev distance is consistent, keys never drop
+			assertEquals(0, radixHeap.getRebuilds());
+		}
+	}
+
+	@Test
+	public void testDStarLiteRepairsTerrainChange()
+	{
+		Maze maze = weightedMaze(4);
+		PathFinder finder = SearchAlgorithm.createPathFinder(SearchAlgorithm.D_STAR_LITE.getName(), maze,
+				Integer.MAX_VALUE, new SearchContext(maze.getWidth() * maze.getHeight()));
+		Path path = finder.findPath(0, 0, maze.getWidth(), maze.getHeight(), AStarHeuristic.CHEBYSHEV);
+		assertNotNull(path);
+
+		// Make every tile of the path but the ends expensive, then cheap again
+		for (int round = 0; round < 2; round++)
+		{
+			int cost = round == 0 ? Maze.MAX_TERRAIN_COST : 1;
+			for (int x = 1; x < maze.getWidth() - 1; x++)
+			{
+				for (int y = 1; y < maze.getHeight() - 1; y++)
+				{
+					if (path.containsNode(maze.getNodeAtRowCol(x, y)))
+					{
+						maze.setTerrainCost(x, y, cost);
+					}
+				}
+			}
+			Path repaired = finder.findPath(0, 0, maze.getWidth(), maze.getHeight(), AStarHeuristic.CHEBYSHEV);
+			assertNotNull(repaired);
+			assertEquals(dijkstra(maze), repaired.getCost(maze, 0, 0));
+		}
+		finder.dispose();
+	}
+
+	@Test
+	public void testTerrainChangeInvalidates()
+	{
+		Maze maze = new MazeImpl(30, 30, 0, 1);
+		PathCache cache = new PathCache(16, 1024 * 1024);
+		AStarPathFinder finder = new AStarPathFinder(maze, 10000, true);
+		finder.setPathCache(cache);
+
+		finder.solveMaze(0, 0, maze.getWidth(), maze.getHeight(), AStarHeuristic.algorithms[0]);
+		long fingerprint = maze.getFingerprint();
+		long modificationCount = maze.getModificationCount();
+		assertTrue(!maze.hasTerrainCosts());
+		maze.setTerrainCost(5, 5, 7);
+
+		assertTrue(maze.hasTerrainCosts());
+		assertTrue(fingerprint != maze.getFingerprint());
+		assertTrue(modificationCount != maze.getModificationCount());
+		assertEquals(0, cache.size());
+		assertEquals(1, cache.getInvalidations());
+
+		// Going back to the unit cost restores the fingerprint
+		maze.setTerrainCost(5, 5, 1);
+		assertTrue(!maze.hasTerrainCosts());
+		assertEquals(fingerprint, maze.getFingerprint());
+	}
+
+	@Test
+	public void testRejectsCostOutOfRange()
+	{
+		try
+		{
+			new MazeImpl(10, 10, 0, 1).setTerrainCost(3, 3, Maze.MAX_TERRAIN_COST + 1);
+			fail("cost out of range accepted");
+		}
+		catch (IllegalArgumentException expected)
+		{
+		}
+	}
+
+	/**
+	 * A seeded maze whose tiles cost from 1 to 9
+	 */
+	private static Maze weightedMaze(long seed)
+	{
+		Maze maze = new MazeImpl(40, 30, 240, seed);
+		SplittableRandom random = new SplittableRandom(seed);
+		for (int x = 0; x < maze.getWidth(); x++)
+		{
+			for (int y = 0; y < maze.getHeight(); y++)
+			{
+				maze.setTerrainCost(x, y, 1 + random.nextInt(9));
+			}
+		}
+		return maze;
+	}
+
+	/**
+	 * Cost of the cheapest path from the first to the last tile, -1 if none
+	 */
+	private static long dijkstra(Maze maze)
+	{
+		int height = maze.getHeight();
+		long[] distance = new long[maze.getWidth() * height];
+		Arrays.fill(distance, Long.MAX_VALUE);
+		distance[0] = 0;
+		PriorityQueue<long[]> queue = new PriorityQueue<long[]>((a, b) -> Long.compare(a[0], b[0]));
+		queue.add(new long[] { 0, 0 });
+
+		while (!queue.isEmpty())
+		{
+			long[] entry = queue.poll();
+			int current = (int) entry[1];
+			if (entry[0] > distance[current])
+			{
+				continue;
+			}
+			for (int x = -1; x < 2; x++)
+			{
+				for (int y = -1; y < 2; y++)
+				{
+					int row = current / height + x;
+					int col = current % height + y;
+					if ((x == 0 && y == 0) || !maze.isPassable(row, col))
+					{
+						continue;
+					}
+					int neighbour = row * height + col;
+					long cost = distance[current] + maze.getTerrainCost(row, col);
+					if (cost < distance[neighbour])
+					{
+						distance[neighbour] = cost;
+						queue.add(new long[] { cost, neighbour });
+					}
+				}
+			}
+		}
+
+		long last = distance[distance.length - 1];
+		return last == Long.MAX_VALUE ? -1 : last;
+	}
+}
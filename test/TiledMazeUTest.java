@@ -0,0 +1,151 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import application.domain.Maze;
+import application.domain.MazeImpl;
+import application.domain.Path;
+import application.domain.SolveJob;
+import application.domain.SolveResult;
+import application.domain.TileFile;
+import application.domain.TiledMaze;
+import application.service.AStarHeuristic;
+import application.service.AStarPathFinder;
+import application.service.BatchSolveService;
+import application.service.BidirectionalAStarPathFinder;
+import application.service.PathFinder;
+import application.service.SearchAlgorithm;
+import application.service.SearchContext;
+import application.service.SparseSearchContext;
+
+/**
+ * TEST
+ * 
+ * @author vbala
+ *
+ */
+public class TiledMazeUTest
+{
+
+	private static final String HEURISTIC = AStarHeuristic.algorithms[0];
+
+	@Test
+	public void testTileFileMatchesMaze() throws IOException
+	{
+		Maze maze = new MazeImpl(100, 70, 1500, 5);
+		java.nio.file.Path file = Files.createTempFile("maze", ".tiles");
+		try {
+			TileFile.write(maze, 16, 5, file);
+			TiledMaze tiled = TileFile.open(file, 4);
+
+			for (int row = 0; row < maze.getWidth(); row++) {
+				for (int col = 0; col < maze.getHeight(); col++) {
+					assertEquals(maze.isLandMine(row, col), tiled.isLandMine(row, col));
+				}
+			}
+			assertEquals(4, tiled.getResidentTiles());
+			assertEquals(tiled.getTileMisses() - 4, tiled.getTileEvictions());
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	public void testSparseSearchSameLengthAsDense() throws IOException
+	{
+		for (int seed = 0; seed < 20; seed++) {
+			Maze maze = new MazeImpl(60, 60, 700, seed);
+			java.nio.file.Path file = Files.createTempFile("maze", ".tiles");
+			try {
+				TileFile.write(maze, 8, seed, file);
+				TiledMaze tiled = TileFile.open(file, 8);
+
+				Path path = new AStarPathFinder(maze, 10000, true).findPath(0, 0, 60, 60,
+						AStarHeuristic.algorithms[0]);
+				Path tiledPath = new AStarPathFinder(tiled, 10000, true, new SparseSearchContext()).findPath(0, 0,
+						60, 60, AStarHeuristic.algorithms[0]);
+
+				assertEquals(path == null, tiledPath == null);
+				if (path != null) {
+					assertEquals(path.getLength(), tiledPath.getLength());
+				}
+			} finally {
+				Files.delete(file);
+			}
+		}
+	}
+
+	@Test
+	public void testHugeWorldLoadsFrontierOnly()
+	{
+		TiledMaze maze = TiledMaze.generate(100000, 100000, 0.2, 3, 64, 256);
+		AStarPathFinder finder = new AStarPathFinder(maze, Integer.MAX_VALUE, true);
+		Path path = finder.findPath(50000, 50000, 50200, 50200, AStarHeuristic.algorithms[0]);
+
+		assertNotNull(path);
+		assertTrue(maze.getTileMisses() < 100);
+	}
+
+	@Test
+	public void testHugeWorldOtherSolvers()
+	{
+		// More tiles than an int can count, every solver needs sparse contexts
+		TiledMaze maze = TiledMaze.generate(60000, 60000, 0.2, 3, 64, 256);
+		assertTrue((long) maze.getWidth() * maze.getHeight() > Integer.MAX_VALUE);
+		Path expected = new AStarPathFinder(maze, Integer.MAX_VALUE, true).findPath(10, 10, 51, 51,
+				AStarHeuristic.CHEBYSHEV);
+		assertNotNull(expected);
+
+		PathFinder bidirectional = SearchAlgorithm.createPathFinder("Bidirectional A*", maze, Integer.MAX_VALUE,
+				SearchContext.forMaze(maze), null);
+		Path path = bidirectional.findPath(10, 10, 51, 51, AStarHeuristic.CHEBYSHEV);
+		assertNotNull(path);
+		assertEquals(expected.getCost(maze, 10, 10), path.getCost(maze, 10, 10));
+		assertNotNull(new BidirectionalAStarPathFinder(maze, Integer.MAX_VALUE, true).findPath(10, 10, 51, 51,
+				AStarHeuristic.CHEBYSHEV));
+
+		BatchSolveService service = new BatchSolveService(2);
+		try
+		{
+			List<SolveResult> results = service
+					.solveAll(Arrays.asList(new SolveJob(maze, 10, 10, 50, 50, "A*", HEURISTIC),
+							new SolveJob(maze, 10, 10, 50, 50, "Bidirectional A*", HEURISTIC),
+							new SolveJob(new MazeImpl(30, 30, 0), "A*", HEURISTIC)))
+					.collect(Collectors.toList());
+			for (int i = 0; i < 2; i++)
+			{
+				assertTrue(results.get(i).isSolved());
+				assertEquals(expected.getCost(maze, 10, 10), results.get(i).getPath().getCost(maze, 10, 10));
+			}
+			assertEquals(30, results.get(2).getPath().getLength());
+		}
+		finally
+		{
+			service.shutdown();
+		}
+	}
+
+	@Test
+	public void testChangedTileSurvivesEviction()
+	{
+		TiledMaze maze = TiledMaze.generate(1000, 1000, 0, 3, 8, 2);
+		long fingerprint = maze.getFingerprint();
+		maze.setLandMine(5, 5, true);
+		for (int row = 0; row < 1000; row += 8) {
+			maze.isLandMine(row, 500);
+		}
+
+		assertTrue(maze.isLandMine(5, 5));
+		assertEquals(3, maze.getResidentTiles());
+		maze.setLandMine(5, 5, false);
+		assertEquals(fingerprint, maze.getFingerprint());
+	}
+}
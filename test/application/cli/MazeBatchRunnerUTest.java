@@ -0,0 +1,193 @@
+package application.cli;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import application.domain.Maze;
+
+/**
+ * TEST
+ *
+ * @author vbala
+ *
+ */
+public class MazeBatchRunnerUTest
+{
+
+	private static final String HEADER = "maze,width,height,landMines,algorithm,heuristic,found,pathLength,pathCost,"
+			+ "nodesExpanded,nodesGenerated,peakOpenSize,reopenings,generateNanos,searchNanos,reconstructionNanos,"
+			+ "bytesAllocated";
+
+	private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+	private final ByteArrayOutputStream err = new ByteArrayOutputStream();
+
+	@Test
+	public void testCsvRecords()
+	{
+		assertEquals(0, execute("--width", "30", "--height", "20", "--seeds", "2", "--first-seed", "5",
+				"--threads", "1"));
+		List<String> lines = lines(out);
+
+		assertEquals(3, lines.size());
+		assertEquals(HEADER, lines.get(0));
+		int columns = HEADER.split(",").length;
+		for (int i = 1; i < lines.size(); i++)
+		{
+			String[] values = lines.get(i).split(",", -1);
+			assertEquals(columns, values.length);
+			assertEquals(Long.toString(4 + i), values[0]);
+			assertEquals("30", values[1]);
+			assertEquals("20", values[2]);
+			assertEquals("120", values[3]);
+			assertEquals("A*", values[4]);
+			assertEquals("Chebyshev", values[5]);
+		}
+		assertEquals("", err.toString());
+	}
+
+	@Test
+	public void testNdjsonRecords()
+	{
+		assertEquals(0, execute("--width", "30", "--height", "30", "--mines", "0", "--seeds", "2", "--format",
+				"ndjson", "--threads", "2"));
+		List<String> lines = lines(out);
+
+		assertEquals(2, lines.size());
+		String[] keys = HEADER.split(",");
+		for (String line : lines)
+		{
+			assertTrue(line.startsWith("{") && line.endsWith("}"));
+			String[] fields = line.substring(1, line.length() - 1).split(",");
+			assertEquals(keys.length, fields.length);
+			for (int i = 0; i < keys.length; i++)
+			{
+				assertTrue(fields[i], fields[i].startsWith('"' + keys[i] + "\":"));
+			}
+
+			// An open maze is solved along the diagonal
+			assertEquals("true", value(line, "found"));
+			assertEquals("30", value(line, "pathLength"));
+			assertTrue(Long.parseLong(value(line, "nodesExpanded")) > 0);
+			assertTrue(Long.parseLong(value(line, "generateNanos")) >= 0);
+			assertTrue(Long.parseLong(value(line, "searchNanos")) > 0);
+			assertTrue(Long.parseLong(value(line, "reconstructionNanos")) >= 0);
+		}
+	}
+
+	@Test
+	public void testBadOptions()
+	{
+		assertBadOption("--algorithm must be one of", "--algorithm", "Dijkstra");
+		assertBadOption("--threads must be positive", "--threads", "-1");
+		assertBadOption("--width", "--width", "wide");
+		assertBadOption("Unknown option --colour", "--colour", "red");
+		assertBadOption("Missing value for --seeds", "--seeds");
+	}
+
+	@Test
+	public void testUnreadableFile() throws IOException
+	{
+		Path file = Files.createTempFile("maze", ".txt");
+		Files.delete(file);
+
+		assertEquals(1, execute("--load", file.toString()));
+		assertEquals("", out.toString().replace(HEADER, "").trim());
+		assertFalse(err.toString().contains("\tat "));
+	}
+
+	@Test
+	public void testLoadTextMaze() throws IOException
+	{
+		Path file = Files.createTempFile("maze", ".txt");
+		try
+		{
+			Files.write(file, Arrays.asList("..#.", ".X..", "", "...."), StandardCharsets.UTF_8);
+			Maze maze = MazeBatchRunner.loadMaze(file.toString());
+
+			assertEquals(3, maze.getWidth());
+			assertEquals(4, maze.getHeight());
+			assertTrue(maze.isLandMine(0, 2));
+			assertTrue(maze.isLandMine(1, 1));
+			assertFalse(maze.isLandMine(2, 3));
+
+			Files.write(file, Arrays.asList("...", ".."), StandardCharsets.UTF_8);
+			try
+			{
+				MazeBatchRunner.loadMaze(file.toString());
+				fail("ragged maze loaded");
+			}
+			catch (IOException expected)
+			{
+			}
+		}
+		finally
+		{
+			Files.delete(file);
+		}
+	}
+
+	private int execute(String... args)
+	{
+		return MazeBatchRunner.execute(args, print(out), print(err));
+	}
+
+	/**
+	 * Bad options exit with status 2, the message and the usage, and no stack
+	 * trace
+	 */
+	private void assertBadOption(String message, String... args)
+	{
+		out.reset();
+		err.reset();
+		assertEquals(2, execute(args));
+		assertEquals("", out.toString());
+		assertTrue(err.toString(), err.toString().contains(message));
+		assertTrue(err.toString().contains("Usage: MazeBatchRunner"));
+		assertFalse(err.toString().contains("\tat "));
+	}
+
+	private static PrintStream print(ByteArrayOutputStream stream)
+	{
+		try
+		{
+			return new PrintStream(stream, true, "UTF-8");
+		}
+		catch (IOException e)
+		{
+			throw new AssertionError(e);
+		}
+	}
+
+	private static List<String> lines(ByteArrayOutputStream stream)
+	{
+		return Arrays.asList(new String(stream.toByteArray(), StandardCharsets.UTF_8).split("\\R"));
+	}
+
+	/**
+	 * Get the raw value of a field of an NDJSON record
+	 */
+	private static String value(String line, String key)
+	{
+		for (String field : line.substring(1, line.length() - 1).split(","))
+		{
+			if (field.startsWith('"' + key + "\":"))
+			{
+				return field.substring(key.length() + 3);
+			}
+		}
+		throw new AssertionError("No " + key + " in " + line);
+	}
+}
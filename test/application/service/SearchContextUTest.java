@@ -0,0 +1,153 @@
+package application.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+
+import org.junit.Test;
+
+import application.domain.Maze;
+import application.domain.MazeImpl;
+import application.domain.Path;
+
+/**
+ * TEST
+ *
+ * @author vbala
+ *
+ */
+public class SearchContextUTest
+{
+
+	@Test
+	public void testReuseAcrossMazeSizes()
+	{
+		// Growing, shrinking and growing again within the largest size so far
+		int[][] sizes = { { 50, 50 }, { 120, 80 }, { 20, 20 }, { 200, 10 }, { 10, 200 }, { 80, 120 }, { 30, 30 },
+				{ 150, 150 }, { 7, 3 } };
+		SearchContext shared = new SearchContext(0);
+		for (int i = 0; i < sizes.length; i++)
+		{
+			int width = sizes[i][0];
+			int height = sizes[i][1];
+			Maze maze = new MazeImpl(width, height, width * height / 4, i);
+
+			AStarPathFinder reused = new AStarPathFinder(maze, Integer.MAX_VALUE, true, shared);
+			AStarPathFinder fresh = new AStarPathFinder(maze, Integer.MAX_VALUE, true,
+					new SearchContext(width * height));
+			Path expected = fresh.findPath(0, 0, width, height, AStarHeuristic.CHEBYSHEV);
+			Path actual = reused.findPath(0, 0, width, height, AStarHeuristic.CHEBYSHEV);
+
+			if (expected == null)
+			{
+				assertNull(actual);
+			}
+			else
+			{
+				assertEquals(expected.getLength(), actual.getLength());
+				assertEquals(expected.getCost(maze, 0, 0), actual.getCost(maze, 0, 0));
+			}
+			assertEquals(fresh.getStatistics().getNodesExpanded(), reused.getStatistics().getNodesExpanded());
+			assertEquals(fresh.getStatistics().getNodesGenerated(), reused.getStatistics().getNodesGenerated());
+		}
+	}
+
+	@Test
+	public void testGenerationWrapAround()
+	{
+		Maze maze = new MazeImpl(4, 4, 0);
+		SearchContext context = new SearchContext(16);
+		context.reset(maze);
+		int id = context.getId(1, 2);
+		context.setCost(id, 3);
+		context.setParent(id, 0);
+		context.addToClosed(id);
+
+		// The next generation wraps around to the one the tile was written in
+		context.setGeneration(Integer.MAX_VALUE - 1);
+		context.reset(maze);
+
+		for (int tile = 0; tile < 16; tile++)
+		{
+			assertFalse(context.isVisited(tile));
+			assertEquals(Float.POSITIVE_INFINITY, context.getCost(tile), 0);
+			assertEquals(-1, context.getParent(tile));
+			assertFalse(context.inClosedList(tile));
+		}
+
+		// And the context still searches
+		context.setCost(id, 1);
+		context.addToOpen(id);
+		assertTrue(context.isVisited(id));
+		assertEquals(id, context.pollOpen());
+	}
+
+	@Test
+	public void testResetAfterGrowth()
+	{
+		SearchContext context = new SearchContext(16);
+		context.reset(new MazeImpl(4, 4, 0));
+		for (int tile = 0; tile < 16; tile++)
+		{
+			context.setCost(tile, tile);
+			context.addToOpen(tile);
+		}
+		context.addToClosed(context.pollOpen());
+
+		Maze larger = new MazeImpl(10, 10, 0);
+		context.reset(larger);
+
+		assertEquals(0, context.getOpenSize());
+		assertEquals(0, context.getExpandedCount());
+		assertEquals(0, context.getGeneratedCount());
+		assertEquals(1, context.getHeuristicWeight(), 0);
+		assertEquals(57, context.getId(5, 7));
+		for (int tile = 0; tile < 100; tile++)
+		{
+			assertFalse(context.isVisited(tile));
+			assertEquals(Float.POSITIVE_INFINITY, context.getCost(tile), 0);
+		}
+
+		Path path = new AStarPathFinder(larger, Integer.MAX_VALUE, true, context).findPath(0, 0, 10, 10,
+				AStarHeuristic.CHEBYSHEV);
+		assertEquals(10, path.getLength());
+	}
+
+	@Test
+	public void testResetAllocatesNothing()
+	{
+		java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		if (!(threads instanceof com.sun.management.ThreadMXBean)
+				|| !((com.sun.management.ThreadMXBean) threads).isThreadAllocatedMemoryEnabled())
+		{
+			// Nothing to measure on this JVM
+			return;
+		}
+		com.sun.management.ThreadMXBean hotSpotThreads = (com.sun.management.ThreadMXBean) threads;
+		long thread = Thread.currentThread().getId();
+
+		Maze maze = new MazeImpl(200, 200, 0);
+		SearchContext context = new SearchContext(0);
+		for (int i = 0; i < 1000; i++)
+		{
+			context.reset(maze);
+			context.setCost(i, 0);
+			context.addToOpen(i);
+		}
+
+		long before = hotSpotThreads.getThreadAllocatedBytes(thread);
+		for (int i = 0; i < 100000; i++)
+		{
+			context.reset(maze);
+			context.setCost(i % 40000, 0);
+			context.addToOpen(i % 40000);
+		}
+		long allocated = hotSpotThreads.getThreadAllocatedBytes(thread) - before;
+
+		// A few bytes of slack for the measurement itself
+		assertTrue(allocated + " bytes allocated", allocated < 1024);
+	}
+}